@@ -0,0 +1,267 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Admission control of requests, by the number of requests in flight
+ * and recent latency of their routes.
+ *
+ * <p>A request is rejected when the number of requests in flight reaches
+ * the concurrency limit. A request to a slow route, whose average
+ * latency is above the latency limit, is rejected earlier, when half of
+ * the concurrency is used (or at once, if there is no concurrency limit),
+ * unless there are no other requests to this route in flight. Thus,
+ * cheap routes keep being served while slow ones are shed, and every
+ * route still gets one request through to update its latency. Zero limit
+ * means that there is no limit.
+ *
+ * <p>The route is an HTTP method and the first segment of the path. Since
+ * the path is controlled by the client, a route is tracked separately
+ * only after a request to it was matched with a resource method; until
+ * then, and for paths that match nothing, all requests share one route.
+ * No more than 1024 routes are tracked, the least recently used ones are
+ * forgotten (see {@link Lru}). Rejected requests are counted by routes
+ * in {@link Metrics#REJECTIONS}.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = { "concurrency", "latency" })
+@EqualsAndHashCode(of = { "concurrency", "latency" })
+final class Admission {
+
+    /**
+     * Maximum number of routes to track separately.
+     */
+    private static final int ROUTES = 1024;
+
+    /**
+     * Weight of the latest request in average latency.
+     */
+    private static final double WEIGHT = 0.2d;
+
+    /**
+     * Maximum number of requests in flight.
+     */
+    private final transient int concurrency;
+
+    /**
+     * Maximum average latency of a route, in milliseconds.
+     */
+    private final transient long latency;
+
+    /**
+     * Requests in flight.
+     */
+    private final transient AtomicInteger flying = new AtomicInteger();
+
+    /**
+     * Routes matched with resource methods.
+     */
+    private final transient Lru<String, Admission.Route> routes =
+        new Lru<String, Admission.Route>(Admission.ROUTES);
+
+    /**
+     * Route for everything not matched yet.
+     */
+    private final transient Admission.Route other = new Admission.Route();
+
+    /**
+     * Public ctor.
+     * @param max Maximum number of requests in flight
+     * @param msec Maximum average latency of a route, in milliseconds
+     */
+    Admission(final int max, final long msec) {
+        this.concurrency = max;
+        this.latency = msec;
+    }
+
+    /**
+     * Is admission control enabled at all?
+     * @return TRUE if there is at least one limit
+     */
+    public boolean enabled() {
+        return this.concurrency > 0 || this.latency > 0L;
+    }
+
+    /**
+     * Try to admit a request.
+     * @param route The route
+     * @return Ticket of the request, or NULL if it is rejected
+     */
+    public Admission.Ticket admit(final String route) {
+        final Admission.Route rte = this.route(route);
+        final int total = this.flying.incrementAndGet();
+        final int mine = rte.active.incrementAndGet();
+        Admission.Ticket ticket = new Admission.Ticket(this, route, rte);
+        if (this.concurrency > 0 && total > this.concurrency
+            || this.slow(rte) && mine > 1 && total > this.concurrency / 2) {
+            ticket.close(-1L);
+            Metrics.REJECTIONS.record(route, 1L);
+            ticket = null;
+        }
+        return ticket;
+    }
+
+    /**
+     * When to retry the rejected request to this route.
+     * @param route The route
+     * @return Seconds
+     */
+    public long retry(final String route) {
+        return Math.max(
+            1L,
+            TimeUnit.MILLISECONDS.toSeconds(this.route(route).average())
+        );
+    }
+
+    /**
+     * Is the route slow now?
+     * @param route The route
+     * @return TRUE if it is
+     */
+    private boolean slow(final Admission.Route route) {
+        return this.latency > 0L && route.average() > this.latency;
+    }
+
+    /**
+     * Find a route.
+     * @param name Name of the route
+     * @return Route, or the shared one if it's not matched yet
+     */
+    private Admission.Route route(final String name) {
+        Admission.Route route = this.routes.get(name);
+        if (route == null) {
+            route = this.other;
+        }
+        return route;
+    }
+
+    /**
+     * Find or create a route, which is matched with a resource method.
+     * @param name Name of the route
+     * @return Route
+     */
+    private Admission.Route learn(final String name) {
+        return this.routes.putIfAbsent(name, new Admission.Route());
+    }
+
+    /**
+     * Admitted request, must be closed when it is finished.
+     */
+    public static final class Ticket {
+        /**
+         * Admission control.
+         */
+        private final transient Admission admission;
+        /**
+         * Name of the route.
+         */
+        private final transient String name;
+        /**
+         * The route.
+         */
+        private final transient Admission.Route route;
+        /**
+         * Ctor.
+         * @param adm Admission control
+         * @param label Name of the route
+         * @param rte The route
+         */
+        Ticket(final Admission adm, final String label,
+            final Admission.Route rte) {
+            this.admission = adm;
+            this.name = label;
+            this.route = rte;
+        }
+        /**
+         * The request is finished, by a resource method.
+         * @param msec How long it took, in milliseconds, or a negative
+         *  number if it was not served
+         */
+        public void close(final long msec) {
+            this.close(msec, true);
+        }
+        /**
+         * The request is finished.
+         * @param msec How long it took, in milliseconds, or a negative
+         *  number if it was not served
+         * @param matched Was it matched with a resource method?
+         */
+        public void close(final long msec, final boolean matched) {
+            this.route.active.decrementAndGet();
+            this.admission.flying.decrementAndGet();
+            if (msec >= 0L) {
+                Admission.Route target = this.route;
+                if (matched && target == this.admission.other) {
+                    target = this.admission.learn(this.name);
+                }
+                target.record(msec);
+            }
+        }
+    }
+
+    /**
+     * Route statistics.
+     */
+    private static final class Route {
+        /**
+         * Requests in flight.
+         */
+        private final transient AtomicInteger active = new AtomicInteger();
+        /**
+         * Average latency, in milliseconds.
+         */
+        private transient double avg;
+        /**
+         * Average latency.
+         * @return Milliseconds
+         */
+        public synchronized long average() {
+            return (long) this.avg;
+        }
+        /**
+         * Record latency of a finished request.
+         * @param msec Milliseconds
+         */
+        public synchronized void record(final long msec) {
+            this.avg += (msec - this.avg) * Admission.WEIGHT;
+        }
+    }
+
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Pool of direct byte buffers (slabs) of the same size, kept outside of
+ * the heap.
+ *
+ * <p>Slabs are taken by {@link Slabs} and must be released when they are
+ * not needed any more. Released slabs are reused, up to the limit;
+ * slabs above the limit are left for the garbage collector.
+ *
+ * <p>The number of direct slabs taken and pooled is limited too (four
+ * times the pool, by default); above that limit, slabs are allocated in
+ * the heap, and they are never pooled. Slabs which are never released
+ * stay in the count, so a leak makes the arena fall back to the heap,
+ * instead of exhausting direct memory.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = { "size", "max", "limit" })
+@EqualsAndHashCode(of = { "size", "max", "limit" })
+final class Arena {
+
+    /**
+     * Default arena, with 16Kb slabs and up to 16Mb pooled.
+     */
+    public static final Arena DEFAULT = new Arena(16 * 1024, 1024);
+
+    /**
+     * How many times more direct slabs may exist than pooled, by default.
+     */
+    private static final int RATIO = 4;
+
+    /**
+     * Size of every slab, in bytes.
+     */
+    private final transient int size;
+
+    /**
+     * Maximum number of slabs to keep in the pool.
+     */
+    private final transient int max;
+
+    /**
+     * Maximum number of direct slabs taken and pooled.
+     */
+    private final transient int limit;
+
+    /**
+     * Free slabs.
+     */
+    private final transient Queue<ByteBuffer> free =
+        new ConcurrentLinkedQueue<ByteBuffer>();
+
+    /**
+     * Number of free slabs (the queue doesn't know its size quickly).
+     */
+    private final transient AtomicInteger count = new AtomicInteger();
+
+    /**
+     * Number of direct slabs taken and pooled.
+     */
+    private final transient AtomicInteger direct = new AtomicInteger();
+
+    /**
+     * Public ctor.
+     * @param bytes Size of every slab, in bytes
+     * @param slabs Maximum number of slabs to keep in the pool
+     */
+    Arena(final int bytes, final int slabs) {
+        this(bytes, slabs, slabs * Arena.RATIO);
+    }
+
+    /**
+     * Public ctor.
+     * @param bytes Size of every slab, in bytes
+     * @param slabs Maximum number of slabs to keep in the pool
+     * @param total Maximum number of direct slabs taken and pooled
+     */
+    Arena(final int bytes, final int slabs, final int total) {
+        this.size = bytes;
+        this.max = slabs;
+        this.limit = total;
+    }
+
+    /**
+     * Take a slab, empty and ready for writing.
+     * @return The slab, direct or in the heap if there are too many
+     *  direct slabs already
+     */
+    public ByteBuffer take() {
+        ByteBuffer slab = this.free.poll();
+        if (slab == null) {
+            if (this.direct.incrementAndGet() <= this.limit) {
+                slab = ByteBuffer.allocateDirect(this.size);
+            } else {
+                this.direct.decrementAndGet();
+                slab = ByteBuffer.allocate(this.size);
+            }
+        } else {
+            this.count.decrementAndGet();
+            slab.clear();
+        }
+        return slab;
+    }
+
+    /**
+     * Return the slab back to the pool.
+     * @param slab The slab taken before
+     */
+    public void release(final ByteBuffer slab) {
+        if (slab.isDirect() && slab.capacity() == this.size) {
+            if (this.count.incrementAndGet() <= this.max) {
+                this.free.offer(slab);
+            } else {
+                this.count.decrementAndGet();
+                this.direct.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * How many free slabs are in the pool now.
+     * @return Number of slabs
+     */
+    public int pooled() {
+        return this.count.get();
+    }
+
+}
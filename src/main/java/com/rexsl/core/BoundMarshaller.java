@@ -0,0 +1,278 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.Writer;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.PropertyException;
+import javax.xml.bind.ValidationEventHandler;
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+import javax.xml.bind.attachment.AttachmentMarshaller;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.Result;
+import javax.xml.validation.Schema;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.w3c.dom.Node;
+import org.xml.sax.ContentHandler;
+
+/**
+ * Marshaller made by {@link XslResolver}, which makes the resolver known
+ * to the current thread while it marshals.
+ *
+ * <p>The resolver is bound to the thread before marshalling starts and
+ * is unbound when it ends, even if it fails, for example because of
+ * XSD validation. A pooled thread of the container is never left with
+ * a resolver of a page it doesn't marshal any more. Latency of
+ * marshalling is recorded in {@link ServerTiming} as {@code marshal}
+ * stage.
+ *
+ * <p>The class is NOT thread-safe, as well as the marshaller it wraps.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ * @checkstyle MethodCount (500 lines)
+ */
+@ToString(of = "origin")
+@EqualsAndHashCode(of = { "origin", "resolver" })
+@SuppressWarnings("PMD.TooManyMethods")
+final class BoundMarshaller implements Marshaller {
+
+    /**
+     * Name of the stage in {@link ServerTiming}.
+     */
+    public static final String STAGE = "marshal";
+
+    /**
+     * Original marshaller.
+     */
+    private final transient Marshaller origin;
+
+    /**
+     * The resolver.
+     */
+    private final transient XslResolver resolver;
+
+    /**
+     * Ctor.
+     * @param mrsh Original marshaller
+     * @param rslv The resolver, which made it
+     */
+    BoundMarshaller(final Marshaller mrsh, final XslResolver rslv) {
+        this.origin = mrsh;
+        this.resolver = rslv;
+    }
+
+    @Override
+    public void marshal(final Object obj, final Result result)
+        throws JAXBException {
+        final long start = System.nanoTime();
+        final XslResolver before = JaxbFragments.publish(this.resolver);
+        try {
+            this.origin.marshal(obj, result);
+        } finally {
+            JaxbFragments.publish(before);
+            ServerTiming.record(BoundMarshaller.STAGE, start);
+        }
+    }
+
+    @Override
+    public void marshal(final Object obj, final OutputStream stream)
+        throws JAXBException {
+        final long start = System.nanoTime();
+        final XslResolver before = JaxbFragments.publish(this.resolver);
+        try {
+            this.origin.marshal(obj, stream);
+        } finally {
+            JaxbFragments.publish(before);
+            ServerTiming.record(BoundMarshaller.STAGE, start);
+        }
+    }
+
+    @Override
+    public void marshal(final Object obj, final File file)
+        throws JAXBException {
+        final long start = System.nanoTime();
+        final XslResolver before = JaxbFragments.publish(this.resolver);
+        try {
+            this.origin.marshal(obj, file);
+        } finally {
+            JaxbFragments.publish(before);
+            ServerTiming.record(BoundMarshaller.STAGE, start);
+        }
+    }
+
+    @Override
+    public void marshal(final Object obj, final Writer writer)
+        throws JAXBException {
+        final long start = System.nanoTime();
+        final XslResolver before = JaxbFragments.publish(this.resolver);
+        try {
+            this.origin.marshal(obj, writer);
+        } finally {
+            JaxbFragments.publish(before);
+            ServerTiming.record(BoundMarshaller.STAGE, start);
+        }
+    }
+
+    @Override
+    public void marshal(final Object obj, final ContentHandler handler)
+        throws JAXBException {
+        final long start = System.nanoTime();
+        final XslResolver before = JaxbFragments.publish(this.resolver);
+        try {
+            this.origin.marshal(obj, handler);
+        } finally {
+            JaxbFragments.publish(before);
+            ServerTiming.record(BoundMarshaller.STAGE, start);
+        }
+    }
+
+    @Override
+    public void marshal(final Object obj, final Node node)
+        throws JAXBException {
+        final long start = System.nanoTime();
+        final XslResolver before = JaxbFragments.publish(this.resolver);
+        try {
+            this.origin.marshal(obj, node);
+        } finally {
+            JaxbFragments.publish(before);
+            ServerTiming.record(BoundMarshaller.STAGE, start);
+        }
+    }
+
+    @Override
+    public void marshal(final Object obj, final XMLStreamWriter writer)
+        throws JAXBException {
+        final long start = System.nanoTime();
+        final XslResolver before = JaxbFragments.publish(this.resolver);
+        try {
+            this.origin.marshal(obj, writer);
+        } finally {
+            JaxbFragments.publish(before);
+            ServerTiming.record(BoundMarshaller.STAGE, start);
+        }
+    }
+
+    @Override
+    public void marshal(final Object obj, final XMLEventWriter writer)
+        throws JAXBException {
+        final long start = System.nanoTime();
+        final XslResolver before = JaxbFragments.publish(this.resolver);
+        try {
+            this.origin.marshal(obj, writer);
+        } finally {
+            JaxbFragments.publish(before);
+            ServerTiming.record(BoundMarshaller.STAGE, start);
+        }
+    }
+
+    @Override
+    public Node getNode(final Object obj) throws JAXBException {
+        return this.origin.getNode(obj);
+    }
+
+    @Override
+    public void setProperty(final String name, final Object value)
+        throws PropertyException {
+        this.origin.setProperty(name, value);
+    }
+
+    @Override
+    public Object getProperty(final String name) throws PropertyException {
+        return this.origin.getProperty(name);
+    }
+
+    @Override
+    public void setEventHandler(final ValidationEventHandler handler)
+        throws JAXBException {
+        this.origin.setEventHandler(handler);
+    }
+
+    @Override
+    public ValidationEventHandler getEventHandler() throws JAXBException {
+        return this.origin.getEventHandler();
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void setAdapter(final XmlAdapter adapter) {
+        this.origin.setAdapter(adapter);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public <A extends XmlAdapter> void setAdapter(final Class<A> type,
+        final A adapter) {
+        this.origin.setAdapter(type, adapter);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public <A extends XmlAdapter> A getAdapter(final Class<A> type) {
+        return this.origin.getAdapter(type);
+    }
+
+    @Override
+    public void setAttachmentMarshaller(final AttachmentMarshaller amrsh) {
+        this.origin.setAttachmentMarshaller(amrsh);
+    }
+
+    @Override
+    public AttachmentMarshaller getAttachmentMarshaller() {
+        return this.origin.getAttachmentMarshaller();
+    }
+
+    @Override
+    public void setSchema(final Schema schema) {
+        this.origin.setSchema(schema);
+    }
+
+    @Override
+    public Schema getSchema() {
+        return this.origin.getSchema();
+    }
+
+    @Override
+    public void setListener(final Marshaller.Listener listener) {
+        this.origin.setListener(listener);
+    }
+
+    @Override
+    public Marshaller.Listener getListener() {
+        return this.origin.getListener();
+    }
+
+}
@@ -29,7 +29,6 @@
  */
 package com.rexsl.core;
 
-import java.io.ByteArrayOutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
@@ -42,7 +41,11 @@ import lombok.ToString;
 import org.apache.commons.lang3.CharEncoding;
 
 /**
- * Wrapper that redirects all the writes to {@link ByteArrayOutputStream}.
+ * Wrapper that redirects all the writes to {@link Slabs}, outside of
+ * the heap.
+ *
+ * <p>Slabs must be returned to the arena by {@link #release()}, when
+ * the content is not needed any more.
  *
  * @author Yegor Bugayenko (yegor@tpc2.com)
  * @author Krzysztof Krason (Krzysztof.Krason@gmail.com)
@@ -55,8 +58,7 @@ final class ByteArrayResponseWrapper extends HttpServletResponseWrapper {
     /**
      * Stream for keeping the servlet response.
      */
-    private final transient ByteArrayOutputStream stream =
-        new ByteArrayOutputStream();
+    private final transient Slabs stream;
 
     /**
      * Wraps ByteArrayOutputStream into a PrintWriter.
@@ -69,7 +71,20 @@ final class ByteArrayResponseWrapper extends HttpServletResponseWrapper {
      */
     ByteArrayResponseWrapper(
         @NotNull final HttpServletResponse response) {
+        this(response, Arena.DEFAULT);
+    }
+
+    /**
+     * Public ctor.
+     * @param response Servlet response being wrapped.
+     * @param arena Where to take slabs from
+     * @since 2.0
+     */
+    ByteArrayResponseWrapper(
+        @NotNull final HttpServletResponse response,
+        @NotNull final Arena arena) {
         super(response);
+        this.stream = new Slabs(arena);
         try {
             this.writer = new PrintWriter(
                 new OutputStreamWriter(this.stream, CharEncoding.UTF_8)
@@ -85,7 +100,26 @@ final class ByteArrayResponseWrapper extends HttpServletResponseWrapper {
      */
     @NotNull
     public byte[] getByteArray() {
-        return this.stream.toByteArray();
+        return this.getSlabs().bytes();
+    }
+
+    /**
+     * Get the content, without copying it into the heap.
+     * @return Slabs that contain the response.
+     * @since 2.0
+     */
+    @NotNull
+    public Slabs getSlabs() {
+        this.writer.flush();
+        return this.stream;
+    }
+
+    /**
+     * Return all slabs to the arena, the content is lost.
+     * @since 2.0
+     */
+    public void release() {
+        this.stream.close();
     }
 
     @Override
@@ -102,6 +136,11 @@ final class ByteArrayResponseWrapper extends HttpServletResponseWrapper {
             public void write(final int part) {
                 ByteArrayResponseWrapper.this.stream.write(part);
             }
+            @Override
+            public void write(final byte[] data, final int off,
+                final int len) {
+                ByteArrayResponseWrapper.this.stream.write(data, off, len);
+            }
         };
     }
 
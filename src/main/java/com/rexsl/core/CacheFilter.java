@@ -0,0 +1,781 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import com.jcabi.log.Logger;
+import com.jcabi.log.VerboseRunnable;
+import com.jcabi.log.VerboseThreads;
+import com.rexsl.core.cache.Entry;
+import com.rexsl.core.cache.FileStore;
+import com.rexsl.core.cache.HeapStore;
+import com.rexsl.core.cache.Policy;
+import com.rexsl.core.cache.Store;
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URLEncoder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import javax.validation.constraints.NotNull;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.HttpHeaders;
+import javax.xml.bind.DatatypeConverter;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Caches entire pages of resource methods annotated with
+ * {@link com.rexsl.core.annotations.Cached}.
+ *
+ * <p>You don't need to instantiate this class directly. It is instantiated
+ * by servlet container according to configuration from {@code web.xml}.
+ * Should be used in {@code web.xml} before {@link XsltFilter}:
+ *
+ * <pre> &lt;filter>
+ *  &lt;filter-name>CacheFilter&lt;/filter-name>
+ *  &lt;filter-class>com.rexsl.core.CacheFilter&lt;/filter-class>
+ *  &lt;init-param>
+ *   &lt;param-name>com.rexsl.CACHE&lt;/param-name>
+ *   &lt;param-value>/var/cache/my-app&lt;/param-value>
+ *  &lt;/init-param>
+ * &lt;/filter>
+ * &lt;filter-mapping>
+ *  &lt;filter-name>CacheFilter&lt;/filter-name>
+ *  &lt;servlet-name>RestfulServlet&lt;/servlet-name>
+ * &lt;/filter-mapping></pre>
+ *
+ * <p>When {@code com.rexsl.CACHE} init parameter is set, pages are kept
+ * in files in this directory (see {@link FileStore}), otherwise they are
+ * kept in memory (see {@link HeapStore}). Their total size is limited
+ * by {@code com.rexsl.CACHE_MAX} init parameter, in bytes.
+ *
+ * <p>The filter learns which paths are cacheable from responses: the
+ * first request to a path goes through, and if its resource method is
+ * annotated, the next ones are served from cache. Expired pages are
+ * served while their stale period lasts, and one of them is rendered
+ * again in background, by one of a few threads of the filter, with
+ * a snapshot of the request (see {@link DetachedRequest}). The client
+ * gets the stale page at once, without waiting for it. When all threads
+ * are busy and their queue is full, the page is not rendered now, and
+ * one of the next requests tries again.
+ *
+ * <p>Identical anonymous requests for a page which is not in cache are
+ * coalesced: only one of them renders the page and the others wait for
+ * it to get into cache. Those who wait longer than
+ * {@code com.rexsl.WAIT} milliseconds (five seconds by default), render
+ * the page on their own.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ * @checkstyle ClassDataAbstractionCoupling (400 lines)
+ */
+@ToString(of = "store")
+@EqualsAndHashCode(of = "store")
+public final class CacheFilter implements Filter {
+
+    /**
+     * Name of init parameter with the directory to keep pages in.
+     */
+    public static final String DIR = "com.rexsl.CACHE";
+
+    /**
+     * Name of init parameter with maximum total size of pages kept, in
+     * bytes (16Mb in memory and 256Mb in files by default).
+     */
+    public static final String MAX = "com.rexsl.CACHE_MAX";
+
+    /**
+     * Name of init parameter with maximum time to wait for a page being
+     * rendered by another request, in milliseconds.
+     */
+    public static final String WAIT = "com.rexsl.WAIT";
+
+    /**
+     * Name of request attribute, which tells {@link CachedFilterFactory}
+     * that the filter is installed and will take {@link Policy#HEADER}
+     * out of the response.
+     */
+    static final String INSTALLED = CacheFilter.class.getName();
+
+    /**
+     * Header with the time when the page stops being fresh, never
+     * sent to clients.
+     */
+    private static final String FRESH = "X-Rexsl-Fresh";
+
+    /**
+     * Name of the cookie with an identity, see
+     * {@code com.rexsl.page.auth.AuthInset}.
+     */
+    private static final String AUTH = "Rexsl-Auth";
+
+    /**
+     * Encoding of credentials and query parameters.
+     */
+    private static final String UTF_8 = "UTF-8";
+
+    /**
+     * Maximum number of paths to remember.
+     */
+    private static final int PATHS = 4096;
+
+    /**
+     * Maximum number of pages waiting to be rendered again.
+     */
+    private static final int QUEUE = 64;
+
+    /**
+     * Policies of paths seen so far.
+     */
+    private final transient Lru<String, Policy> policies =
+        new Lru<String, Policy>(CacheFilter.PATHS);
+
+    /**
+     * Keys of pages being rendered again now.
+     */
+    private final transient Set<String> refreshing =
+        Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>(0));
+
+    /**
+     * Threads rendering stale pages again.
+     */
+    private final transient ThreadPoolExecutor refresher =
+        new ThreadPoolExecutor(
+            Runtime.getRuntime().availableProcessors(),
+            Runtime.getRuntime().availableProcessors(),
+            1L, TimeUnit.MINUTES,
+            new LinkedBlockingQueue<Runnable>(CacheFilter.QUEUE),
+            new VerboseThreads("rexsl-cache", true, Thread.NORM_PRIORITY)
+        );
+
+    /**
+     * Pages being rendered now, for the first time, by their keys.
+     */
+    private final transient ConcurrentMap<String, CountDownLatch> flights =
+        new ConcurrentHashMap<String, CountDownLatch>(0);
+
+    /**
+     * The store.
+     */
+    private transient Store store;
+
+    /**
+     * How long to wait for a page rendered by another request, in msec.
+     */
+    private transient long wait = TimeUnit.SECONDS.toMillis(5L);
+
+    /**
+     * Public ctor, the store is configured by init parameters.
+     */
+    public CacheFilter() {
+        this(null);
+    }
+
+    /**
+     * Public ctor.
+     * @param str The store to use, or NULL to configure it by init
+     *  parameters
+     */
+    public CacheFilter(final Store str) {
+        this.store = str;
+        this.refresher.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void init(@NotNull final FilterConfig config) {
+        if (this.store == null) {
+            final String dir = config.getInitParameter(CacheFilter.DIR);
+            final String max = config.getInitParameter(CacheFilter.MAX);
+            if (dir == null && max == null) {
+                this.store = new HeapStore();
+            } else if (dir == null) {
+                this.store = new HeapStore(Long.parseLong(max));
+            } else if (max == null) {
+                this.store = new FileStore(new File(dir));
+            } else {
+                this.store = new FileStore(new File(dir), Long.parseLong(max));
+            }
+        }
+        final String msec = config.getInitParameter(CacheFilter.WAIT);
+        if (msec != null) {
+            this.wait = Long.parseLong(msec);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * @checkstyle ThrowsCount (5 lines)
+     * @checkstyle RedundantThrows (5 lines)
+     */
+    @Override
+    public void doFilter(final ServletRequest req, final ServletResponse res,
+        final FilterChain chain) throws IOException, ServletException {
+        if (req instanceof HttpServletRequest
+            && res instanceof HttpServletResponse) {
+            this.filter(
+                HttpServletRequest.class.cast(req),
+                HttpServletResponse.class.cast(res),
+                chain
+            );
+        } else {
+            chain.doFilter(req, res);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        this.refresher.shutdownNow();
+    }
+
+    /**
+     * Serve the page from cache, or render it.
+     * @param request The request
+     * @param response The response
+     * @param chain Filter chain
+     * @throws IOException If something goes wrong
+     * @throws ServletException If something goes wrong
+     * @checkstyle ThrowsCount (6 lines)
+     * @checkstyle RedundantThrows (5 lines)
+     */
+    private void filter(final HttpServletRequest request,
+        final HttpServletResponse response, final FilterChain chain)
+        throws IOException, ServletException {
+        request.setAttribute(CacheFilter.INSTALLED, Boolean.TRUE);
+        final String path = request.getRequestURI();
+        Policy policy = null;
+        if (HttpMethod.GET.equals(request.getMethod())) {
+            policy = this.policies.get(path);
+        }
+        if (policy == null
+            || !policy.identity() && CacheFilter.identified(request)) {
+            chain.doFilter(
+                request, new CacheFilter.Learning(response, this, path)
+            );
+        } else {
+            final String key = CacheFilter.key(policy, request);
+            final Entry entry = this.store.get(key);
+            if (entry == null) {
+                this.coalesce(key, request, response, chain);
+            } else if (CacheFilter.fresh(entry)) {
+                CacheFilter.send(entry, response);
+            } else if (this.refreshing.add(key)) {
+                final HttpServletRequest detached = DetachedRequest.of(request);
+                CacheFilter.send(entry, response);
+                this.refresh(key, detached, chain);
+            } else {
+                CacheFilter.send(entry, response);
+            }
+        }
+    }
+
+    /**
+     * Render the page again in background, if there is a free thread
+     * or a place in the queue.
+     * @param key The key in the store
+     * @param request Snapshot of the request
+     * @param chain Filter chain
+     */
+    private void refresh(final String key, final HttpServletRequest request,
+        final FilterChain chain) {
+        try {
+            this.refresher.execute(
+                new VerboseRunnable(
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                CacheFilter.this.rerender(key, request, chain);
+                            } finally {
+                                CacheFilter.this.refreshing.remove(key);
+                            }
+                        }
+                    },
+                    true
+                )
+            );
+        } catch (final RejectedExecutionException ex) {
+            this.refreshing.remove(key);
+        }
+    }
+
+    /**
+     * Render the page again and save it, without sending it anywhere.
+     * @param key The key in the store
+     * @param request Snapshot of the request
+     * @param chain Filter chain
+     */
+    private void rerender(final String key, final HttpServletRequest request,
+        final FilterChain chain) {
+        try {
+            this.render(
+                key, request,
+                HttpServletResponse.class.cast(
+                    Proxy.newProxyInstance(
+                        HttpServletResponse.class.getClassLoader(),
+                        new Class<?>[] {HttpServletResponse.class},
+                        new CacheFilter.Nowhere()
+                    )
+                ),
+                chain, false
+            );
+        } catch (final IOException ex) {
+            Logger.warn(
+                this, "failed to render %s again: %s", key, ex.getMessage()
+            );
+        } catch (final ServletException ex) {
+            Logger.warn(
+                this, "failed to render %s again: %s", key, ex.getMessage()
+            );
+        }
+    }
+
+    /**
+     * Render the page, unless an identical request is rendering it now.
+     * @param key The key in the store
+     * @param request The request
+     * @param response The response
+     * @param chain Filter chain
+     * @throws IOException If something goes wrong
+     * @throws ServletException If something goes wrong
+     * @checkstyle ThrowsCount (6 lines)
+     * @checkstyle RedundantThrows (5 lines)
+     */
+    private void coalesce(final String key, final HttpServletRequest request,
+        final HttpServletResponse response, final FilterChain chain)
+        throws IOException, ServletException {
+        if (CacheFilter.identified(request)) {
+            this.render(key, request, response, chain, true);
+        } else {
+            final CountDownLatch latch = new CountDownLatch(1);
+            final CountDownLatch flight = this.flights.putIfAbsent(key, latch);
+            if (flight == null) {
+                try {
+                    this.render(key, request, response, chain, true);
+                } finally {
+                    this.flights.remove(key);
+                    latch.countDown();
+                }
+            } else {
+                Entry entry = null;
+                if (this.landed(flight)) {
+                    entry = this.store.get(key);
+                }
+                if (entry == null) {
+                    this.render(key, request, response, chain, true);
+                } else {
+                    CacheFilter.send(entry, response);
+                }
+            }
+        }
+    }
+
+    /**
+     * Wait for the page being rendered by another request.
+     * @param flight Latch of the rendering
+     * @return TRUE if the page is rendered, FALSE if it takes too long
+     */
+    private boolean landed(final CountDownLatch flight) {
+        try {
+            return flight.await(this.wait, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Render the page, save it and send to the client.
+     * @param key The key in the store
+     * @param request The request
+     * @param response The response
+     * @param chain Filter chain
+     * @param reply Shall the page be sent to the client?
+     * @throws IOException If something goes wrong
+     * @throws ServletException If something goes wrong
+     * @checkstyle ThrowsCount (7 lines)
+     * @checkstyle RedundantThrows (6 lines)
+     * @checkstyle ParameterNumber (5 lines)
+     */
+    private void render(final String key, final HttpServletRequest request,
+        final HttpServletResponse response, final FilterChain chain,
+        final boolean reply) throws IOException, ServletException {
+        final RecordingResponseWrapper recorded =
+            new RecordingResponseWrapper(response);
+        try {
+            chain.doFilter(request, recorded);
+            final List<String> header =
+                recorded.headers().remove(Policy.HEADER);
+            final Policy policy;
+            if (header == null) {
+                policy = null;
+            } else {
+                policy = Policy.parse(header.get(0));
+            }
+            this.learn(request.getRequestURI(), policy);
+            if (policy != null
+                && recorded.status() == HttpServletResponse.SC_OK
+                && !recorded.failed()
+                && recorded.cookies().isEmpty()
+                && !recorded.headers().containsKey("Set-Cookie")) {
+                this.save(key, request.getRequestURI(), policy, recorded);
+            }
+            if (reply) {
+                CacheFilter.send(recorded, response);
+            }
+        } finally {
+            recorded.release();
+        }
+    }
+
+    /**
+     * Save recorded page to the store.
+     * @param key The key
+     * @param path Path of the page
+     * @param policy Its policy
+     * @param recorded Recorded page
+     * @throws IOException If fails
+     * @checkstyle ParameterNumber (4 lines)
+     */
+    private void save(final String key, final String path,
+        final Policy policy, final RecordingResponseWrapper recorded)
+        throws IOException {
+        final long now = System.currentTimeMillis();
+        final Map<String, List<String>> headers =
+            new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(recorded.headers());
+        headers.remove(ServerTiming.HEADER);
+        headers.put(
+            CacheFilter.FRESH,
+            Collections.singletonList(Long.toString(now + policy.lifetime()))
+        );
+        this.store.put(
+            new Entry(
+                key, recorded.content().input(),
+                (int) recorded.content().size(), headers,
+                now + policy.lifetime() + policy.stale(),
+                Collections.singleton(path)
+            )
+        );
+    }
+
+    /**
+     * Remember the policy of the path, or forget it.
+     * @param path The path
+     * @param policy The policy or NULL if the path is not cacheable
+     */
+    private void learn(final String path, final Policy policy) {
+        if (policy == null) {
+            this.policies.remove(path);
+        } else {
+            this.policies.put(path, policy);
+        }
+    }
+
+    /**
+     * Make a key of the page.
+     * @param policy Policy of the page
+     * @param request The request
+     * @return The key
+     */
+    private static String key(final Policy policy,
+        final HttpServletRequest request) {
+        final StringBuilder key = new StringBuilder(request.getRequestURI());
+        for (final String name : policy.query()) {
+            final String[] values = request.getParameterValues(name);
+            if (values != null) {
+                for (final String value : values) {
+                    key.append('&')
+                        .append(CacheFilter.encode(name))
+                        .append('=')
+                        .append(CacheFilter.encode(value));
+                }
+            }
+        }
+        if (policy.accept()) {
+            if (new PageAnalyzer("", request).xmlAccepted()) {
+                key.append(" xml");
+            } else {
+                key.append(" html");
+            }
+        }
+        final String identity = CacheFilter.identity(request);
+        if (policy.identity() && identity != null) {
+            key.append(" identity=").append(CacheFilter.digest(identity));
+        }
+        return key.toString();
+    }
+
+    /**
+     * URL-encode a name or a value of a query parameter, so that they
+     * can't be confused with separators in the key.
+     * @param text The text
+     * @return Encoded text
+     */
+    private static String encode(final String text) {
+        try {
+            return URLEncoder.encode(text, CacheFilter.UTF_8);
+        } catch (final UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Does the request have an identity?
+     * @param request The request
+     * @return TRUE if it has
+     */
+    private static boolean identified(final HttpServletRequest request) {
+        return CacheFilter.identity(request) != null;
+    }
+
+    /**
+     * Get credentials of the request: its {@code Authorization} header
+     * and authentication cookie.
+     *
+     * <p>The filter can't check them, that's a job of the application,
+     * but the page rendered for them is never given to a request with
+     * other credentials, since the key includes their digest.
+     * @param request The request
+     * @return Credentials or NULL if there are none
+     */
+    private static String identity(final HttpServletRequest request) {
+        final StringBuilder text = new StringBuilder(0);
+        final String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null) {
+            text.append(header);
+        }
+        final Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (final Cookie cookie : cookies) {
+                if (CacheFilter.AUTH.equals(cookie.getName())) {
+                    text.append('\n').append(cookie.getValue());
+                }
+            }
+        }
+        final String identity;
+        if (header == null && text.length() == 0) {
+            identity = null;
+        } else {
+            identity = text.toString();
+        }
+        return identity;
+    }
+
+    /**
+     * Make a digest of the credentials.
+     * @param identity Credentials
+     * @return Hex digest
+     */
+    private static String digest(final String identity) {
+        try {
+            return DatatypeConverter.printHexBinary(
+                MessageDigest.getInstance("SHA-256").digest(
+                    identity.getBytes(CacheFilter.UTF_8)
+                )
+            );
+        } catch (final NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        } catch (final UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Is the entry still fresh?
+     * @param entry The entry
+     * @return TRUE if it is
+     */
+    private static boolean fresh(final Entry entry) {
+        final List<String> values = entry.headers().get(CacheFilter.FRESH);
+        return values != null
+            && Long.parseLong(values.get(0)) > System.currentTimeMillis();
+    }
+
+    /**
+     * Send cached page to the client.
+     * @param entry The page
+     * @param response The response
+     * @throws IOException If fails
+     */
+    private static void send(final Entry entry,
+        final HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        CacheFilter.headers(entry.headers(), response);
+        response.setContentLength(entry.size());
+        entry.writeTo(response.getOutputStream());
+    }
+
+    /**
+     * Send recorded page to the client.
+     * @param recorded The page
+     * @param response The response
+     * @throws IOException If fails
+     */
+    private static void send(final RecordingResponseWrapper recorded,
+        final HttpServletResponse response) throws IOException {
+        CacheFilter.headers(recorded.headers(), response);
+        for (final Cookie cookie : recorded.cookies()) {
+            response.addCookie(cookie);
+        }
+        if (recorded.failed()) {
+            if (recorded.reason() == null) {
+                response.sendError(recorded.status());
+            } else {
+                response.sendError(recorded.status(), recorded.reason());
+            }
+        } else {
+            response.setStatus(recorded.status());
+            final Slabs content = recorded.content();
+            response.setContentLength((int) content.size());
+            content.writeTo(response.getOutputStream());
+        }
+    }
+
+    /**
+     * Copy headers to the response.
+     * @param headers Headers
+     * @param response The response
+     */
+    private static void headers(final Map<String, List<String>> headers,
+        final HttpServletResponse response) {
+        for (final Map.Entry<String, List<String>> header
+            : headers.entrySet()) {
+            final String name = header.getKey();
+            if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+                response.setContentType(header.getValue().get(0));
+            } else if (!CacheFilter.FRESH.equalsIgnoreCase(name)) {
+                for (final String value : header.getValue()) {
+                    response.addHeader(name, value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Response that goes nowhere, under pages rendered in background.
+     *
+     * <p>Its methods return NULL, zero or FALSE, except those which
+     * encode URLs, they return URLs as they are.
+     */
+    private static final class Nowhere implements InvocationHandler {
+        @Override
+        public Object invoke(final Object proxy, final Method method,
+            final Object[] args) {
+            final Class<?> type = method.getReturnType();
+            Object result = null;
+            if (method.getName().startsWith("encode")) {
+                result = args[0];
+            } else if ("hashCode".equals(method.getName())) {
+                result = System.identityHashCode(proxy);
+            } else if ("equals".equals(method.getName())) {
+                result = proxy == args[0];
+            } else if ("toString".equals(method.getName())) {
+                result = "nowhere";
+            } else if (type.equals(boolean.class)) {
+                result = false;
+            } else if (type.equals(int.class)) {
+                result = 0;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Wrapper that passes everything through, but takes the policy out
+     * of the headers and remembers it.
+     */
+    private static final class Learning extends HttpServletResponseWrapper {
+        /**
+         * The filter.
+         */
+        private final transient CacheFilter filter;
+        /**
+         * Path of the page.
+         */
+        private final transient String path;
+        /**
+         * Ctor.
+         * @param response The response
+         * @param flt The filter
+         * @param uri Path of the page
+         */
+        Learning(final HttpServletResponse response, final CacheFilter flt,
+            final String uri) {
+            super(response);
+            this.filter = flt;
+            this.path = uri;
+        }
+        @Override
+        public void setHeader(final String name, final String value) {
+            if (Policy.HEADER.equalsIgnoreCase(name)) {
+                this.filter.learn(this.path, Policy.parse(value));
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+        @Override
+        public void addHeader(final String name, final String value) {
+            if (Policy.HEADER.equalsIgnoreCase(name)) {
+                this.filter.learn(this.path, Policy.parse(value));
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+    }
+
+}
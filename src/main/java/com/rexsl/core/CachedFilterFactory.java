@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import com.rexsl.core.annotations.Cached;
+import com.rexsl.core.cache.Policy;
+import com.sun.jersey.api.model.AbstractMethod;
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.ContainerRequestFilter;
+import com.sun.jersey.spi.container.ContainerResponse;
+import com.sun.jersey.spi.container.ContainerResponseFilter;
+import com.sun.jersey.spi.container.ResourceFilter;
+import com.sun.jersey.spi.container.ResourceFilterFactory;
+import java.util.Collections;
+import java.util.List;
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.constraints.NotNull;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.Response;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Factory of Jersey filters for resource methods annotated with
+ * {@link Cached}.
+ *
+ * <p>The filter adds {@link Policy#HEADER} to successful responses to
+ * {@code GET} requests, and {@link CacheFilter} caches them. The header
+ * is added only when {@link CacheFilter} is installed, since it's the
+ * filter who takes it out of the response; otherwise it would leak to
+ * clients. The factory is registered by {@link RestfulServlet}, you don't
+ * need to instantiate it.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(exclude = "request")
+@EqualsAndHashCode
+public final class CachedFilterFactory implements ResourceFilterFactory {
+
+    /**
+     * Servlet request, injected by JAX-RS framework.
+     */
+    private transient HttpServletRequest request;
+
+    /**
+     * Set request, to be called by JAX-RS framework because of
+     * {@link Context} annotation.
+     * @param req The request
+     */
+    @Context
+    public void setHttpServletRequest(@NotNull final HttpServletRequest req) {
+        this.request = req;
+    }
+
+    @Override
+    public List<ResourceFilter> create(final AbstractMethod method) {
+        final Cached cached = method.getAnnotation(Cached.class);
+        final List<ResourceFilter> filters;
+        if (cached == null) {
+            filters = Collections.emptyList();
+        } else {
+            filters = Collections.<ResourceFilter>singletonList(
+                new CachedFilterFactory.Filter(
+                    new Policy(cached), this.request
+                )
+            );
+        }
+        return filters;
+    }
+
+    /**
+     * Filter that adds the policy to the response.
+     */
+    @ToString(of = "header")
+    @EqualsAndHashCode(of = "header")
+    private static final class Filter
+        implements ResourceFilter, ContainerResponseFilter {
+        /**
+         * The policy, as HTTP header.
+         */
+        private final transient String header;
+        /**
+         * Servlet request, or NULL if it's unknown.
+         */
+        private final transient HttpServletRequest servlet;
+        /**
+         * Ctor.
+         * @param policy The policy
+         * @param req Servlet request, or NULL if it's unknown
+         */
+        Filter(final Policy policy, final HttpServletRequest req) {
+            this.header = policy.header();
+            this.servlet = req;
+        }
+        @Override
+        public ContainerRequestFilter getRequestFilter() {
+            return null;
+        }
+        @Override
+        public ContainerResponseFilter getResponseFilter() {
+            return this;
+        }
+        @Override
+        public ContainerResponse filter(final ContainerRequest request,
+            final ContainerResponse response) {
+            if (HttpMethod.GET.equals(request.getMethod())
+                && response.getStatus() == Response.Status.OK.getStatusCode()
+                && this.installed()) {
+                response.getHttpHeaders().putSingle(Policy.HEADER, this.header);
+            }
+            return response;
+        }
+        /**
+         * Is {@link CacheFilter} installed for the current request?
+         * @return TRUE if it is
+         */
+        private boolean installed() {
+            return this.servlet != null
+                && this.servlet.getAttribute(CacheFilter.INSTALLED) != null;
+        }
+    }
+
+}
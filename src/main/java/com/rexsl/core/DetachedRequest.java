@@ -0,0 +1,262 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Snapshot of a servlet request, which can be used outside of the
+ * thread of the request, after the container recycled it.
+ *
+ * <p>The snapshot is made by {@link #of(HttpServletRequest)}, which has
+ * to be called in the thread of the request. It answers about the client,
+ * the URI, headers, cookies, parameters and attributes of the request,
+ * attributes may be changed. The body is always empty. Everything else
+ * (sessions, roles of the user, dispatchers, etc.) throws
+ * {@link IllegalStateException}.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class DetachedRequest implements InvocationHandler {
+
+    /**
+     * Values of getters, by their names.
+     */
+    private final transient Map<String, Object> values;
+
+    /**
+     * Headers.
+     */
+    private final transient Map<String, List<String>> hdrs;
+
+    /**
+     * Parameters.
+     */
+    private final transient Map<String, String[]> params;
+
+    /**
+     * Attributes.
+     */
+    private final transient Map<String, Object> attrs;
+
+    /**
+     * Private ctor.
+     * @param vals Values of getters
+     * @param heads Headers
+     * @param prms Parameters
+     * @param atts Attributes
+     * @checkstyle ParameterNumber (3 lines)
+     */
+    private DetachedRequest(final Map<String, Object> vals,
+        final Map<String, List<String>> heads,
+        final Map<String, String[]> prms, final Map<String, Object> atts) {
+        this.values = vals;
+        this.hdrs = heads;
+        this.params = prms;
+        this.attrs = atts;
+    }
+
+    /**
+     * Make a snapshot of servlet request.
+     * @param origin The request
+     * @return Snapshot
+     */
+    @SuppressWarnings("unchecked")
+    public static HttpServletRequest of(
+        @NotNull final HttpServletRequest origin) {
+        final Map<String, Object> values = new HashMap<String, Object>(0);
+        values.put("getRemoteAddr", origin.getRemoteAddr());
+        values.put("getRemoteHost", origin.getRemoteHost());
+        values.put("getRemotePort", origin.getRemotePort());
+        values.put("getRemoteUser", origin.getRemoteUser());
+        values.put("getUserPrincipal", origin.getUserPrincipal());
+        values.put("getAuthType", origin.getAuthType());
+        values.put("getMethod", origin.getMethod());
+        values.put("getScheme", origin.getScheme());
+        values.put("getProtocol", origin.getProtocol());
+        values.put("isSecure", origin.isSecure());
+        values.put("getServerName", origin.getServerName());
+        values.put("getServerPort", origin.getServerPort());
+        values.put("getLocalAddr", origin.getLocalAddr());
+        values.put("getLocalName", origin.getLocalName());
+        values.put("getLocalPort", origin.getLocalPort());
+        values.put("getRequestURI", origin.getRequestURI());
+        values.put("getContextPath", origin.getContextPath());
+        values.put("getServletPath", origin.getServletPath());
+        values.put("getPathInfo", origin.getPathInfo());
+        values.put("getQueryString", origin.getQueryString());
+        values.put("getCharacterEncoding", origin.getCharacterEncoding());
+        values.put("getContentType", origin.getContentType());
+        values.put("getContentLength", origin.getContentLength());
+        values.put("getLocale", origin.getLocale());
+        final StringBuffer url = origin.getRequestURL();
+        if (url != null) {
+            values.put("getRequestURL", url.toString());
+        }
+        final Cookie[] cookies = origin.getCookies();
+        if (cookies != null) {
+            values.put("getCookies", cookies.clone());
+        }
+        final Map<String, List<String>> hdrs =
+            new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+        final Enumeration<String> names = origin.getHeaderNames();
+        while (names != null && names.hasMoreElements()) {
+            final String name = names.nextElement();
+            hdrs.put(name, Collections.list(origin.getHeaders(name)));
+        }
+        final Map<String, String[]> params =
+            new LinkedHashMap<String, String[]>(0);
+        final Map<String, String[]> all = origin.getParameterMap();
+        if (all != null) {
+            params.putAll(all);
+        }
+        final Map<String, Object> attrs =
+            new ConcurrentHashMap<String, Object>(0);
+        final Enumeration<String> anames = origin.getAttributeNames();
+        while (anames != null && anames.hasMoreElements()) {
+            final String name = anames.nextElement();
+            final Object value = origin.getAttribute(name);
+            if (value != null) {
+                attrs.put(name, value);
+            }
+        }
+        return HttpServletRequest.class.cast(
+            Proxy.newProxyInstance(
+                HttpServletRequest.class.getClassLoader(),
+                new Class<?>[] {HttpServletRequest.class},
+                new DetachedRequest(values, hdrs, params, attrs)
+            )
+        );
+    }
+
+    @Override
+    @SuppressWarnings({ "PMD.CyclomaticComplexity", "PMD.NcssMethodCount" })
+    public Object invoke(final Object proxy, final Method method,
+        final Object[] args) {
+        final String name = method.getName();
+        Object result = null;
+        if ("getRequestURL".equals(name)) {
+            result = new StringBuffer(String.valueOf(this.values.get(name)));
+        } else if ("getCookies".equals(name)) {
+            final Object[] cookies = (Object[]) this.values.get(name);
+            if (cookies != null) {
+                result = cookies.clone();
+            }
+        } else if (this.values.containsKey(name)) {
+            result = this.values.get(name);
+        } else if ("getHeader".equals(name)) {
+            final List<String> list = this.hdrs.get(args[0]);
+            if (list != null && !list.isEmpty()) {
+                result = list.get(0);
+            }
+        } else if ("getHeaders".equals(name)) {
+            List<String> list = this.hdrs.get(args[0]);
+            if (list == null) {
+                list = Collections.emptyList();
+            }
+            result = Collections.enumeration(list);
+        } else if ("getHeaderNames".equals(name)) {
+            result = Collections.enumeration(this.hdrs.keySet());
+        } else if ("getParameter".equals(name)) {
+            final String[] vals = this.params.get(args[0]);
+            if (vals != null && vals.length > 0) {
+                result = vals[0];
+            }
+        } else if ("getParameterValues".equals(name)) {
+            result = this.params.get(args[0]);
+        } else if ("getParameterNames".equals(name)) {
+            result = Collections.enumeration(this.params.keySet());
+        } else if ("getParameterMap".equals(name)) {
+            result = Collections.unmodifiableMap(this.params);
+        } else if ("getAttribute".equals(name)) {
+            result = this.attrs.get(args[0]);
+        } else if ("getAttributeNames".equals(name)) {
+            result = Collections.enumeration(this.attrs.keySet());
+        } else if ("setAttribute".equals(name) && args[1] != null) {
+            this.attrs.put(String.class.cast(args[0]), args[1]);
+        } else if ("setAttribute".equals(name)
+            || "removeAttribute".equals(name)) {
+            this.attrs.remove(args[0]);
+        } else if ("getInputStream".equals(name)) {
+            result = new DetachedRequest.Empty();
+        } else if ("getReader".equals(name)) {
+            result = new BufferedReader(new StringReader(""));
+        } else if ("toString".equals(name)) {
+            result = String.format(
+                "%s %s", this.values.get("getMethod"),
+                this.values.get("getRequestURI")
+            );
+        } else if ("hashCode".equals(name)) {
+            result = System.identityHashCode(proxy);
+        } else if ("equals".equals(name)) {
+            result = proxy == args[0];
+        } else {
+            throw new IllegalStateException(
+                String.format(
+                    // @checkstyle LineLength (1 line)
+                    "HttpServletRequest#%s() is not available outside of its thread",
+                    name
+                )
+            );
+        }
+        return result;
+    }
+
+    /**
+     * Empty body of the request.
+     */
+    private static final class Empty extends ServletInputStream {
+        @Override
+        public int read() {
+            return -1;
+        }
+    }
+
+}
@@ -0,0 +1,192 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import java.io.IOException;
+import java.util.Locale;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import javax.validation.constraints.NotNull;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Wrapper that sends all writes straight to the client, flushing them
+ * as soon as the first bytes arrive and then every time a new chunk
+ * is written.
+ *
+ * <p>The first flush sends the XML prologue (including
+ * {@code <?xml-stylesheet?>} instruction) and the root element with its
+ * attributes, so that the browser can start loading the stylesheet
+ * while the rest of the page is still being produced.
+ *
+ * <p>When the content type of the response turns out to be XML, the page
+ * is counted in {@link Metrics#DECISIONS} (unless another meter is given)
+ * as sent to the client for transformation. Other responses are not
+ * counted.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString
+@EqualsAndHashCode(callSuper = false, of = "chunk")
+final class FlushingResponseWrapper extends HttpServletResponseWrapper {
+
+    /**
+     * Size of chunk, in bytes.
+     */
+    private final transient int chunk;
+
+    /**
+     * Meter of decisions where to transform XML pages.
+     */
+    private final transient Meter decisions;
+
+    /**
+     * Total amount of bytes written so far.
+     */
+    private transient long written;
+
+    /**
+     * When to flush next time.
+     */
+    private transient long next;
+
+    /**
+     * Is it already counted as an XML page?
+     */
+    private transient boolean xml;
+
+    /**
+     * Public ctor.
+     * @param response Servlet response being wrapped
+     * @param size Size of chunk, in bytes
+     */
+    FlushingResponseWrapper(@NotNull final HttpServletResponse response,
+        final int size) {
+        this(response, size, Metrics.DECISIONS);
+    }
+
+    /**
+     * Ctor.
+     * @param response Servlet response being wrapped
+     * @param size Size of chunk, in bytes
+     * @param mtr Meter of decisions where to transform XML pages
+     */
+    FlushingResponseWrapper(@NotNull final HttpServletResponse response,
+        final int size, @NotNull final Meter mtr) {
+        super(response);
+        this.chunk = size;
+        this.decisions = mtr;
+    }
+
+    @Override
+    @NotNull
+    public ServletOutputStream getOutputStream() throws IOException {
+        final ServletOutputStream origin = super.getOutputStream();
+        return new ServletOutputStream() {
+            @Override
+            public void write(final int part) throws IOException {
+                origin.write(part);
+                FlushingResponseWrapper.this.written(origin, 1);
+            }
+            @Override
+            public void write(final byte[] data, final int off,
+                final int len) throws IOException {
+                origin.write(data, off, len);
+                FlushingResponseWrapper.this.written(origin, len);
+            }
+            @Override
+            public void flush() throws IOException {
+                origin.flush();
+            }
+        };
+    }
+
+    @Override
+    public void setContentType(final String type) {
+        super.setContentType(type);
+        this.typed(type);
+    }
+
+    @Override
+    public void setHeader(final String name, final String value) {
+        super.setHeader(name, value);
+        if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+            this.typed(value);
+        }
+    }
+
+    @Override
+    public void addHeader(final String name, final String value) {
+        super.addHeader(name, value);
+        if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+            this.typed(value);
+        }
+    }
+
+    /**
+     * Content type is set, count the page if it's XML.
+     * @param type The content type
+     */
+    private void typed(final String type) {
+        if (!this.xml && type != null) {
+            final String media = StringUtils.substringBefore(type, ";")
+                .trim().toLowerCase(Locale.ENGLISH);
+            if (MediaType.TEXT_XML.equals(media)
+                || MediaType.APPLICATION_XML.equals(media)
+                || media.endsWith("+xml")) {
+                this.xml = true;
+                this.decisions.record(PageAnalyzer.CLIENT, 1L);
+            }
+        }
+    }
+
+    /**
+     * Some bytes were written, flush them if it's time.
+     * @param stream The stream to flush
+     * @param len How many bytes were written
+     * @throws IOException If fails
+     */
+    private void written(final ServletOutputStream stream, final int len)
+        throws IOException {
+        this.written += len;
+        if (this.written > this.next) {
+            stream.flush();
+            this.next = this.written + this.chunk;
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import javax.validation.constraints.NotNull;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+
+/**
+ * Marshallers of XML fragments, which are streamed into a page while
+ * it is being marshalled.
+ *
+ * <p>When a page is marshalled by {@link XslResolver}, the resolver is
+ * known to the current thread, and fragments are marshalled from its
+ * JAXB context. Their output becomes a part of the page and is validated
+ * by the XSD schema of the page, together with the rest of it.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class JaxbFragments {
+
+    /**
+     * Resolver whose marshaller is marshalling in the current thread.
+     */
+    private static final ThreadLocal<XslResolver> CURRENT =
+        new ThreadLocal<XslResolver>();
+
+    /**
+     * Utility class.
+     */
+    private JaxbFragments() {
+        // intentionally empty
+    }
+
+    /**
+     * Make a marshaller of XML fragments of this type, from JAXB context
+     * of the resolver whose marshaller is marshalling a page in the
+     * current thread.
+     * @param type The class of fragments
+     * @return Marshaller or NULL if nothing is being marshalled by
+     *  a resolver in the current thread
+     * @throws JAXBException If fails
+     */
+    public static Marshaller marshaller(@NotNull final Class<?> type)
+        throws JAXBException {
+        final XslResolver resolver = JaxbFragments.CURRENT.get();
+        Marshaller mrsh = null;
+        if (resolver != null) {
+            mrsh = resolver.fragments(type);
+        }
+        return mrsh;
+    }
+
+    /**
+     * Make the resolver known to the current thread, or forget it.
+     * @param resolver The resolver or NULL to forget it
+     * @return The resolver known to the thread before, or NULL
+     */
+    static XslResolver publish(final XslResolver resolver) {
+        final XslResolver before = JaxbFragments.CURRENT.get();
+        if (resolver == null) {
+            JaxbFragments.CURRENT.remove();
+        } else {
+            JaxbFragments.CURRENT.set(resolver);
+        }
+        return before;
+    }
+
+}
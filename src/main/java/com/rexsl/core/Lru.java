@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import com.jcabi.aspects.Tv;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.ToString;
+
+/**
+ * Bounded map, which forgets least recently used entries.
+ *
+ * <p>Reading and writing never take a lock: entries are kept in a
+ * {@link ConcurrentHashMap} and every entry remembers when it was used
+ * last time. When the map grows above its limit, the thread which made
+ * it grow forgets the least recently used entries, until one eighth of
+ * the limit is free. Other threads don't wait for it, so the map may
+ * be a bit bigger than its limit for a short time, and the entries
+ * forgotten are the least recently used ones only approximately.
+ *
+ * <p>The class is mutable and thread-safe.
+ *
+ * @param <K> Type of keys
+ * @param <V> Type of values
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = "max")
+public final class Lru<K, V> {
+
+    /**
+     * Maximum number of entries.
+     */
+    private final transient int max;
+
+    /**
+     * Entries.
+     */
+    private final transient ConcurrentMap<K, Lru.Node<V>> map;
+
+    /**
+     * Is anyone forgetting entries now?
+     */
+    private final transient AtomicBoolean trimming = new AtomicBoolean();
+
+    /**
+     * Public ctor.
+     * @param size Maximum number of entries to keep
+     */
+    public Lru(final int size) {
+        this.max = size;
+        this.map = new ConcurrentHashMap<K, Lru.Node<V>>(0);
+    }
+
+    /**
+     * Get value by key.
+     * @param key The key
+     * @return The value or NULL if absent
+     */
+    public V get(final K key) {
+        final Lru.Node<V> node = this.map.get(key);
+        V value = null;
+        if (node != null) {
+            node.touch();
+            value = node.value;
+        }
+        return value;
+    }
+
+    /**
+     * Save value.
+     * @param key The key
+     * @param value The value
+     */
+    public void put(final K key, final V value) {
+        if (this.map.put(key, new Lru.Node<V>(value)) == null) {
+            this.trim();
+        }
+    }
+
+    /**
+     * Save value, unless there is one already.
+     * @param key The key
+     * @param value The value
+     * @return The value saved before or the new one
+     */
+    public V putIfAbsent(final K key, final V value) {
+        final Lru.Node<V> before =
+            this.map.putIfAbsent(key, new Lru.Node<V>(value));
+        final V saved;
+        if (before == null) {
+            this.trim();
+            saved = value;
+        } else {
+            before.touch();
+            saved = before.value;
+        }
+        return saved;
+    }
+
+    /**
+     * Remove value.
+     * @param key The key
+     */
+    public void remove(final K key) {
+        this.map.remove(key);
+    }
+
+    /**
+     * Total number of entries.
+     * @return Size
+     */
+    public int size() {
+        return this.map.size();
+    }
+
+    /**
+     * Forget least recently used entries, if there are too many of them.
+     */
+    private void trim() {
+        if (this.map.size() > this.max
+            && this.trimming.compareAndSet(false, true)) {
+            try {
+                final long[] times = new long[this.map.size()];
+                int total = 0;
+                for (final Lru.Node<V> node : this.map.values()) {
+                    if (total == times.length) {
+                        break;
+                    }
+                    times[total] = node.used;
+                    ++total;
+                }
+                final int excess = total - this.max + this.max / Tv.EIGHT;
+                if (excess > 0) {
+                    Arrays.sort(times, 0, total);
+                    final long oldest = times[excess - 1];
+                    final Iterator<Map.Entry<K, Lru.Node<V>>> entries =
+                        this.map.entrySet().iterator();
+                    while (entries.hasNext()) {
+                        if (entries.next().getValue().used <= oldest) {
+                            entries.remove();
+                        }
+                    }
+                }
+            } finally {
+                this.trimming.set(false);
+            }
+        }
+    }
+
+    /**
+     * Value with the time it was used last time.
+     * @param <V> Type of value
+     */
+    private static final class Node<V> {
+        /**
+         * The value.
+         */
+        private final transient V value;
+        /**
+         * When it was used last time, in nanoseconds.
+         */
+        private transient volatile long used;
+        /**
+         * Ctor.
+         * @param val The value
+         */
+        Node(final V val) {
+            this.value = val;
+            this.used = System.nanoTime();
+        }
+        /**
+         * It is used now.
+         */
+        public void touch() {
+            this.used = System.nanoTime();
+        }
+    }
+
+}
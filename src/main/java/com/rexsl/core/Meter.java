@@ -0,0 +1,252 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Counters of events by their keys, with sums and histograms of
+ * their values.
+ *
+ * <p>Every key has its own cell of counters, which is striped: threads
+ * update different stripes, by their IDs, and the stripes are summed up
+ * only when the counters are read. Thus, recording is cheap and doesn't
+ * lock anything, even when many threads record the same key. Stripes are
+ * padded to 64 bytes, to avoid false sharing of cache lines.
+ *
+ * <p>The number of keys is limited, the events of keys above the limit
+ * are counted under {@code "other"} key.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @see Metrics
+ * @since 2.0
+ */
+@ToString(of = "cells")
+@EqualsAndHashCode(of = "cells")
+public final class Meter {
+
+    /**
+     * Maximum number of keys.
+     */
+    private static final int KEYS = 1024;
+
+    /**
+     * Key of events above the limit.
+     */
+    private static final String OTHER = "other";
+
+    /**
+     * Number of longs in a cache line.
+     */
+    private static final int LINE = 8;
+
+    /**
+     * Number of stripes, a power of two.
+     */
+    private static final int STRIPES = Integer.highestOneBit(
+        Math.min(Runtime.getRuntime().availableProcessors(), Meter.LINE * 2)
+    ) << 1;
+
+    /**
+     * Upper bounds of histogram buckets, inclusive, ascending.
+     */
+    private final transient long[] limits;
+
+    /**
+     * Cells, by keys.
+     */
+    private final transient ConcurrentMap<String, Meter.Cell> cells =
+        new ConcurrentHashMap<String, Meter.Cell>(0);
+
+    /**
+     * Ctor.
+     *
+     * <p>Histograms have one bucket per bound, and one more bucket for
+     * values above the last bound. Without bounds, there is only this
+     * last bucket.
+     *
+     * @param bounds Upper bounds of histogram buckets, ascending
+     */
+    public Meter(final long... bounds) {
+        this.limits = bounds.clone();
+        Arrays.sort(this.limits);
+    }
+
+    /**
+     * Record an event.
+     * @param key The key
+     * @param value Its value, for example duration or size
+     */
+    public void record(final String key, final long value) {
+        int bucket = Arrays.binarySearch(this.limits, value);
+        if (bucket < 0) {
+            bucket = -bucket - 1;
+        }
+        this.cell(key).add(value, bucket);
+    }
+
+    /**
+     * Upper bounds of histogram buckets.
+     * @return Bounds
+     */
+    public long[] bounds() {
+        return this.limits.clone();
+    }
+
+    /**
+     * Numbers of events.
+     * @return Numbers, by keys
+     */
+    public Map<String, Long> counts() {
+        final Map<String, Long> map = new TreeMap<String, Long>();
+        for (final Map.Entry<String, Meter.Cell> cell : this.cells.entrySet()) {
+            map.put(cell.getKey(), cell.getValue().sum(0));
+        }
+        return map;
+    }
+
+    /**
+     * Sums of event values.
+     * @return Sums, by keys
+     */
+    public Map<String, Long> sums() {
+        final Map<String, Long> map = new TreeMap<String, Long>();
+        for (final Map.Entry<String, Meter.Cell> cell : this.cells.entrySet()) {
+            map.put(cell.getKey(), cell.getValue().sum(1));
+        }
+        return map;
+    }
+
+    /**
+     * Histograms of event values, numbers of events in buckets.
+     * @return Histograms, by keys
+     * @see #bounds()
+     */
+    public Map<String, long[]> histograms() {
+        final Map<String, long[]> map = new TreeMap<String, long[]>();
+        for (final Map.Entry<String, Meter.Cell> cell : this.cells.entrySet()) {
+            final long[] buckets = new long[this.limits.length + 1];
+            for (int idx = 0; idx < buckets.length; ++idx) {
+                buckets[idx] = cell.getValue().sum(idx + 2);
+            }
+            map.put(cell.getKey(), buckets);
+        }
+        return map;
+    }
+
+    /**
+     * Forget all events.
+     */
+    public void reset() {
+        this.cells.clear();
+    }
+
+    /**
+     * Find or create a cell.
+     * @param key The key
+     * @return The cell
+     */
+    private Meter.Cell cell(final String key) {
+        Meter.Cell cell = this.cells.get(key);
+        if (cell == null) {
+            String name = key;
+            if (this.cells.size() >= Meter.KEYS) {
+                name = Meter.OTHER;
+            }
+            cell = new Meter.Cell(this.limits.length + 1);
+            final Meter.Cell before = this.cells.putIfAbsent(name, cell);
+            if (before != null) {
+                cell = before;
+            }
+        }
+        return cell;
+    }
+
+    /**
+     * Striped counters of one key: number of events, sum of values
+     * and histogram buckets.
+     */
+    private static final class Cell {
+        /**
+         * Counters, stripe by stripe, after one empty stripe of padding.
+         */
+        private final transient AtomicLongArray counters;
+        /**
+         * Width of a stripe.
+         */
+        private final transient int width;
+        /**
+         * Ctor.
+         * @param buckets Number of histogram buckets
+         */
+        Cell(final int buckets) {
+            this.width = (buckets + 2 + Meter.LINE - 1)
+                / Meter.LINE * Meter.LINE;
+            this.counters = new AtomicLongArray(
+                (Meter.STRIPES + 1) * this.width
+            );
+        }
+        /**
+         * Add an event.
+         * @param value Its value
+         * @param bucket Its bucket
+         */
+        public void add(final long value, final int bucket) {
+            final int base = (int) (Thread.currentThread().getId()
+                & (Meter.STRIPES - 1)) * this.width + this.width;
+            this.counters.incrementAndGet(base);
+            this.counters.addAndGet(base + 1, value);
+            this.counters.incrementAndGet(base + 2 + bucket);
+        }
+        /**
+         * Sum up one counter in all stripes.
+         * @param offset Position of the counter in a stripe
+         * @return The sum
+         */
+        public long sum(final int offset) {
+            long sum = 0L;
+            for (int stripe = 1; stripe <= Meter.STRIPES; ++stripe) {
+                sum += this.counters.get(stripe * this.width + offset);
+            }
+            return sum;
+        }
+    }
+
+}
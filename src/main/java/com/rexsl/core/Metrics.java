@@ -0,0 +1,269 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import com.jcabi.log.Logger;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Metrics of the rendering pipeline, exposed through JMX.
+ *
+ * <p>Events are recorded into static {@link Meter}s by
+ * {@link RestfulServlet}, {@link Admission}, {@link XsltFilter},
+ * {@link PageAnalyzer}, {@link XslResolver},
+ * {@link com.rexsl.page.PageBuilder} and
+ * {@link com.rexsl.page.JaxbGroup}. They are visible in JMX as
+ * {@code com.rexsl:type=Metrics} MXBean, registered by
+ * {@link RestfulServlet} when it starts, and unregistered when it stops.
+ * The name of the MXBean also contains the identity of the class loader,
+ * to keep metrics of different web applications in one JVM apart.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString
+@EqualsAndHashCode
+public final class Metrics implements MetricsMXBean {
+
+    /**
+     * Upper bounds of latency histogram buckets, in milliseconds.
+     */
+    private static final long[] LATENCY = {
+        1L, 5L, 10L, 50L, 100L, 500L, 1000L, 5000L,
+    };
+
+    /**
+     * Requests served, by routes, with latency.
+     */
+    public static final Meter REQUESTS = new Meter(Metrics.LATENCY);
+
+    /**
+     * Requests rejected by admission control, by routes.
+     */
+    public static final Meter REJECTIONS = new Meter();
+
+    /**
+     * XSL transformations, by stylesheets, with latency.
+     */
+    public static final Meter TRANSFORMATIONS = new Meter(Metrics.LATENCY);
+
+    /**
+     * XSL transformations aborted by their budgets, by stylesheets.
+     */
+    public static final Meter ABORTS = new Meter();
+
+    /**
+     * XML documents transformed, by stylesheets, with sizes.
+     */
+    public static final Meter XML = new Meter();
+
+    /**
+     * HTML documents produced, by stylesheets, with sizes.
+     */
+    public static final Meter HTML = new Meter();
+
+    /**
+     * Decisions where to transform XML pages.
+     */
+    public static final Meter DECISIONS = new Meter();
+
+    /**
+     * JAXB context rebuilds, by classes.
+     */
+    public static final Meter CONTEXTS = new Meter();
+
+    /**
+     * Marshallers with XSD validation, by classes.
+     */
+    public static final Meter VALIDATIONS = new Meter();
+
+    /**
+     * Classes generated at runtime, by generators.
+     */
+    public static final Meter CLASSES = new Meter();
+
+    /**
+     * How many times the MXBean is registered.
+     */
+    private static final AtomicInteger USERS = new AtomicInteger();
+
+    /**
+     * Register MXBean, if it's not registered yet.
+     */
+    public static void register() {
+        if (Metrics.USERS.getAndIncrement() == 0) {
+            final MBeanServer server =
+                ManagementFactory.getPlatformMBeanServer();
+            try {
+                final ObjectName name = Metrics.name();
+                if (!server.isRegistered(name)) {
+                    server.registerMBean(new Metrics(), name);
+                    Logger.info(Metrics.class, "#register(): %s", name);
+                }
+            } catch (final JMException ex) {
+                Logger.warn(
+                    Metrics.class, "#register(): failed, %[exception]s", ex
+                );
+            }
+        }
+    }
+
+    /**
+     * Unregister MXBean, if it's not used any more.
+     */
+    public static void unregister() {
+        if (Metrics.USERS.decrementAndGet() == 0) {
+            final MBeanServer server =
+                ManagementFactory.getPlatformMBeanServer();
+            try {
+                final ObjectName name = Metrics.name();
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            } catch (final JMException ex) {
+                Logger.warn(
+                    Metrics.class, "#unregister(): failed, %[exception]s", ex
+                );
+            }
+        }
+    }
+
+    /**
+     * Name of the MXBean.
+     * @return The name
+     * @throws JMException If fails
+     */
+    public static ObjectName name() throws JMException {
+        return new ObjectName(
+            String.format(
+                "com.rexsl:type=Metrics,loader=%x",
+                System.identityHashCode(Metrics.class.getClassLoader())
+            )
+        );
+    }
+
+    @Override
+    public long[] getLatencyBounds() {
+        return Metrics.REQUESTS.bounds();
+    }
+
+    @Override
+    public Map<String, Long> getRequests() {
+        return Metrics.REQUESTS.counts();
+    }
+
+    @Override
+    public Map<String, Long> getRequestMillis() {
+        return Metrics.REQUESTS.sums();
+    }
+
+    @Override
+    public Map<String, long[]> getRequestHistograms() {
+        return Metrics.REQUESTS.histograms();
+    }
+
+    @Override
+    public Map<String, Long> getRejections() {
+        return Metrics.REJECTIONS.counts();
+    }
+
+    @Override
+    public Map<String, Long> getTransformations() {
+        return Metrics.TRANSFORMATIONS.counts();
+    }
+
+    @Override
+    public Map<String, Long> getTransformationMillis() {
+        return Metrics.TRANSFORMATIONS.sums();
+    }
+
+    @Override
+    public Map<String, long[]> getTransformationHistograms() {
+        return Metrics.TRANSFORMATIONS.histograms();
+    }
+
+    @Override
+    public Map<String, Long> getTransformationAborts() {
+        return Metrics.ABORTS.counts();
+    }
+
+    @Override
+    public Map<String, Long> getTransformationBytesIn() {
+        return Metrics.XML.sums();
+    }
+
+    @Override
+    public Map<String, Long> getTransformationBytesOut() {
+        return Metrics.HTML.sums();
+    }
+
+    @Override
+    public Map<String, Long> getDecisions() {
+        return Metrics.DECISIONS.counts();
+    }
+
+    @Override
+    public Map<String, Long> getContextRebuilds() {
+        return Metrics.CONTEXTS.counts();
+    }
+
+    @Override
+    public Map<String, Long> getValidations() {
+        return Metrics.VALIDATIONS.counts();
+    }
+
+    @Override
+    public Map<String, Long> getGeneratedClasses() {
+        return Metrics.CLASSES.counts();
+    }
+
+    @Override
+    public void reset() {
+        final Meter[] meters = {
+            Metrics.REQUESTS, Metrics.REJECTIONS, Metrics.TRANSFORMATIONS,
+            Metrics.ABORTS, Metrics.XML, Metrics.HTML, Metrics.DECISIONS,
+            Metrics.CONTEXTS, Metrics.VALIDATIONS, Metrics.CLASSES,
+        };
+        for (final Meter meter : meters) {
+            meter.reset();
+        }
+    }
+
+}
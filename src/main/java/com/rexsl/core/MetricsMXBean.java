@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link Metrics}.
+ *
+ * <p>Latencies are in milliseconds, histograms contain numbers of events
+ * in buckets with upper bounds from {@link #getLatencyBounds()}, plus one
+ * bucket for longer events.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public interface MetricsMXBean {
+
+    /**
+     * Upper bounds of latency histogram buckets, in milliseconds.
+     * @return Bounds
+     */
+    long[] getLatencyBounds();
+
+    /**
+     * Numbers of requests served by {@link RestfulServlet}.
+     * @return Numbers, by routes
+     */
+    Map<String, Long> getRequests();
+
+    /**
+     * Total latency of requests served by {@link RestfulServlet}.
+     * @return Milliseconds, by routes
+     */
+    Map<String, Long> getRequestMillis();
+
+    /**
+     * Latency histograms of requests served by {@link RestfulServlet}.
+     * @return Histograms, by routes
+     */
+    Map<String, long[]> getRequestHistograms();
+
+    /**
+     * Numbers of requests rejected by admission control of
+     * {@link RestfulServlet}.
+     * @return Numbers, by routes
+     */
+    Map<String, Long> getRejections();
+
+    /**
+     * Numbers of XSL transformations made by {@link XsltFilter}.
+     * @return Numbers, by stylesheets
+     */
+    Map<String, Long> getTransformations();
+
+    /**
+     * Total latency of XSL transformations.
+     * @return Milliseconds, by stylesheets
+     */
+    Map<String, Long> getTransformationMillis();
+
+    /**
+     * Latency histograms of XSL transformations.
+     * @return Histograms, by stylesheets
+     */
+    Map<String, long[]> getTransformationHistograms();
+
+    /**
+     * Numbers of XSL transformations aborted because they ran out of
+     * their time budgets.
+     * @return Numbers, by stylesheets
+     */
+    Map<String, Long> getTransformationAborts();
+
+    /**
+     * Total size of XML documents transformed.
+     * @return Bytes, by stylesheets
+     */
+    Map<String, Long> getTransformationBytesIn();
+
+    /**
+     * Total size of HTML documents produced by XSL transformations.
+     * @return Bytes, by stylesheets
+     */
+    Map<String, Long> getTransformationBytesOut();
+
+    /**
+     * Numbers of XML pages transformed on the server and sent to clients
+     * for transformation.
+     * @return Numbers, by {@code "server"} and {@code "client"}
+     */
+    Map<String, Long> getDecisions();
+
+    /**
+     * Numbers of JAXB context rebuilds in {@link XslResolver}.
+     * @return Numbers, by classes added to the context
+     */
+    Map<String, Long> getContextRebuilds();
+
+    /**
+     * Numbers of marshallers created by {@link XslResolver} with XSD
+     * validation.
+     * @return Numbers, by classes validated
+     */
+    Map<String, Long> getValidations();
+
+    /**
+     * Numbers of classes generated at runtime.
+     * @return Numbers, by {@code "PageBuilder"} and {@code "JaxbGroup"}
+     */
+    Map<String, Long> getGeneratedClasses();
+
+    /**
+     * Forget all recorded events.
+     */
+    void reset();
+
+}
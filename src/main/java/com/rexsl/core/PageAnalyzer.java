@@ -41,6 +41,8 @@ import lombok.ToString;
  * Makes a decision whether page should be transformed to HTML or returned
  * to the user as untouched XML (or anything else).
  *
+ * <p>Decisions about XML pages are counted in {@link Metrics#DECISIONS}.
+ *
  * @author Yegor Bugayenko (yegor@tpc2.com)
  * @version $Id$
  */
@@ -49,6 +51,16 @@ import lombok.ToString;
 @Loggable(Loggable.DEBUG)
 final class PageAnalyzer {
 
+    /**
+     * Decision to transform the page on the server.
+     */
+    public static final String SERVER = "server";
+
+    /**
+     * Decision to send XML to the client.
+     */
+    public static final String CLIENT = "client";
+
     /**
      * The page.
      */
@@ -91,9 +103,34 @@ final class PageAnalyzer {
             this.request.getRequestURI(), this.page,
             agent, accept, needs
         );
+        if (needs) {
+            Metrics.DECISIONS.record(PageAnalyzer.SERVER, 1L);
+        } else if (this.notEmpty() && this.containsXml()) {
+            Metrics.DECISIONS.record(PageAnalyzer.CLIENT, 1L);
+        }
         return needs;
     }
 
+    /**
+     * Does the client accept XML as is, no matter what the page is?
+     *
+     * <p>The decision is made only by request headers, before the page
+     * is rendered. If this method returns TRUE,
+     * {@link #needsTransformation()} will return FALSE for any page.
+     *
+     * @return TRUE if XML will be sent to the client without transformation
+     * @since 2.0
+     */
+    public boolean xmlAccepted() {
+        final TypesMatcher accept = new TypesMatcher(
+            this.request.getHeader(HttpHeaders.ACCEPT)
+        );
+        return this.xmlDemanded(accept) || this.xslAccepted(
+            new UserAgent(this.request.getHeader(HttpHeaders.USER_AGENT)),
+            accept
+        );
+    }
+
     /**
      * Page require transformation, since it's not an empty page?
      * @return TRUE if the page requires transformation
@@ -0,0 +1,381 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import javax.validation.constraints.NotNull;
+import javax.ws.rs.core.HttpHeaders;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.lang3.CharEncoding;
+
+/**
+ * Wrapper that records status, headers, cookies and content of the
+ * response, without sending anything to the client. Errors reported by
+ * {@code sendError()} are recorded too, see {@link #failed()}.
+ *
+ * <p>The response underneath may be committed already, the wrapper
+ * never touches it, except for encoding URLs. Content is kept in
+ * {@link Slabs}, which must be returned to the arena by
+ * {@link #release()}.
+ *
+ * <p>The class is mutable and NOT thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ * @checkstyle ClassDataAbstractionCoupling (300 lines)
+ */
+@ToString(of = { "code", "headers" })
+@EqualsAndHashCode(callSuper = false, of = "stream")
+@SuppressWarnings("PMD.TooManyMethods")
+final class RecordingResponseWrapper extends HttpServletResponseWrapper {
+
+    /**
+     * Content.
+     */
+    private final transient Slabs stream;
+
+    /**
+     * Writer on top of the content.
+     */
+    private final transient PrintWriter writer;
+
+    /**
+     * Headers, case-insensitive.
+     */
+    private final transient Map<String, List<String>> headers =
+        new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+
+    /**
+     * Cookies.
+     */
+    private final transient List<Cookie> cookies = new ArrayList<Cookie>(0);
+
+    /**
+     * HTTP status.
+     */
+    private transient int code = HttpServletResponse.SC_OK;
+
+    /**
+     * Was the status reported by {@code sendError()}?
+     */
+    private transient boolean failed;
+
+    /**
+     * Message of the error, if any.
+     */
+    private transient String reason;
+
+    /**
+     * Character encoding, if set explicitly.
+     */
+    private transient String encoding;
+
+    /**
+     * Public ctor.
+     * @param response Servlet response being wrapped
+     */
+    RecordingResponseWrapper(@NotNull final HttpServletResponse response) {
+        super(response);
+        this.stream = new Slabs(Arena.DEFAULT);
+        try {
+            this.writer = new PrintWriter(
+                new OutputStreamWriter(this.stream, CharEncoding.UTF_8)
+            );
+        } catch (final UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * HTTP status recorded.
+     * @return Status
+     */
+    public int status() {
+        return this.code;
+    }
+
+    /**
+     * Was the status reported as an error, by {@code sendError()}? Such
+     * a response has to be sent to the client by {@code sendError()} too,
+     * to let the container render its error page.
+     * @return TRUE if it was
+     */
+    public boolean failed() {
+        return this.failed;
+    }
+
+    /**
+     * Message of the error reported by {@code sendError()}.
+     * @return Message or NULL if there is none
+     */
+    public String reason() {
+        return this.reason;
+    }
+
+    /**
+     * Headers recorded, including {@code Content-Type}.
+     * @return Headers
+     */
+    public Map<String, List<String>> headers() {
+        return this.headers;
+    }
+
+    /**
+     * Cookies recorded.
+     * @return Cookies
+     */
+    public List<Cookie> cookies() {
+        return this.cookies;
+    }
+
+    /**
+     * Content recorded.
+     * @return Content
+     */
+    public Slabs content() {
+        this.writer.flush();
+        return this.stream;
+    }
+
+    /**
+     * Return all slabs to the arena, the content is lost.
+     */
+    public void release() {
+        this.stream.close();
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        return new ServletOutputStream() {
+            @Override
+            public void write(final int part) {
+                RecordingResponseWrapper.this.stream.write(part);
+            }
+            @Override
+            public void write(final byte[] data, final int off,
+                final int len) {
+                RecordingResponseWrapper.this.stream.write(data, off, len);
+            }
+        };
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        return this.writer;
+    }
+
+    @Override
+    public void setStatus(final int status) {
+        this.code = status;
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void setStatus(final int status, final String message) {
+        this.code = status;
+    }
+
+    @Override
+    public void sendError(final int status) {
+        this.sendError(status, null);
+    }
+
+    @Override
+    public void sendError(final int status, final String message) {
+        this.resetBuffer();
+        this.code = status;
+        this.failed = true;
+        this.reason = message;
+    }
+
+    @Override
+    public void sendRedirect(final String location) {
+        this.code = HttpServletResponse.SC_FOUND;
+        this.setHeader(HttpHeaders.LOCATION, location);
+    }
+
+    @Override
+    public void addCookie(final Cookie cookie) {
+        this.cookies.add(cookie);
+    }
+
+    @Override
+    public boolean containsHeader(final String name) {
+        return this.headers.containsKey(name);
+    }
+
+    @Override
+    public void setHeader(final String name, final String value) {
+        this.headers.remove(name);
+        this.addHeader(name, value);
+    }
+
+    @Override
+    public void addHeader(final String name, final String value) {
+        List<String> values = this.headers.get(name);
+        if (values == null) {
+            values = new ArrayList<String>(1);
+            this.headers.put(name, values);
+        }
+        values.add(value);
+    }
+
+    @Override
+    public void setIntHeader(final String name, final int value) {
+        this.setHeader(name, Integer.toString(value));
+    }
+
+    @Override
+    public void addIntHeader(final String name, final int value) {
+        this.addHeader(name, Integer.toString(value));
+    }
+
+    @Override
+    public void setDateHeader(final String name, final long value) {
+        this.setHeader(name, RecordingResponseWrapper.date(value));
+    }
+
+    @Override
+    public void addDateHeader(final String name, final long value) {
+        this.addHeader(name, RecordingResponseWrapper.date(value));
+    }
+
+    @Override
+    public void setContentType(final String type) {
+        if (this.encoding == null || type.contains(";")) {
+            this.setHeader(HttpHeaders.CONTENT_TYPE, type);
+        } else {
+            this.setHeader(
+                HttpHeaders.CONTENT_TYPE,
+                String.format("%s; charset=%s", type, this.encoding)
+            );
+        }
+    }
+
+    @Override
+    public String getContentType() {
+        final List<String> values = this.headers.get(HttpHeaders.CONTENT_TYPE);
+        String type = null;
+        if (values != null) {
+            type = values.get(0);
+        }
+        return type;
+    }
+
+    @Override
+    public void setCharacterEncoding(final String charset) {
+        this.encoding = charset;
+        final String type = this.getContentType();
+        if (type != null) {
+            this.setContentType(type.split(";", 2)[0].trim());
+        }
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        String charset = this.encoding;
+        if (charset == null) {
+            charset = CharEncoding.UTF_8;
+        }
+        return charset;
+    }
+
+    @Override
+    public void setContentLength(final int length) {
+        // it is calculated when the content is sent
+    }
+
+    @Override
+    public void setLocale(final Locale locale) {
+        this.setHeader(HttpHeaders.CONTENT_LANGUAGE, locale.toString());
+    }
+
+    @Override
+    public void setBufferSize(final int size) {
+        // nothing is sent, nothing to buffer
+    }
+
+    @Override
+    public void flushBuffer() {
+        this.writer.flush();
+    }
+
+    @Override
+    public boolean isCommitted() {
+        return false;
+    }
+
+    @Override
+    public void resetBuffer() {
+        this.writer.flush();
+        this.stream.close();
+    }
+
+    @Override
+    public void reset() {
+        this.resetBuffer();
+        this.headers.clear();
+        this.cookies.clear();
+        this.code = HttpServletResponse.SC_OK;
+        this.failed = false;
+        this.reason = null;
+        this.encoding = null;
+    }
+
+    /**
+     * Format HTTP date.
+     * @param time Milliseconds since epoch
+     * @return Date
+     */
+    private static String date(final long time) {
+        final SimpleDateFormat fmt = new SimpleDateFormat(
+            "EEE, dd MMM yyyy HH:mm:ss zzz", Locale.ENGLISH
+        );
+        fmt.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return fmt.format(new Date(time));
+    }
+
+}
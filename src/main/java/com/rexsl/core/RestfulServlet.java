@@ -33,6 +33,7 @@ import com.jcabi.aspects.Loggable;
 import com.jcabi.log.Logger;
 import com.jcabi.manifests.Manifests;
 import com.sun.jersey.api.core.PackagesResourceConfig;
+import com.sun.jersey.api.core.ResourceConfig;
 import com.sun.jersey.spi.container.servlet.ServletContainer;
 import java.io.IOException;
 import java.util.Collection;
@@ -79,6 +80,22 @@ import org.apache.commons.lang3.StringUtils;
  * contains incorrect data. We will consider a package is valid if and only if
  * it abides to the Java package naming conventions.
  *
+ * <p>Optional {@code com.rexsl.CONCURRENCY} and {@code com.rexsl.LATENCY}
+ * init parameters limit the number of requests in flight and average
+ * latency of a route, in milliseconds. Requests above the limits are
+ * rejected with {@code 503} and {@code Retry-After} header, before
+ * Jersey is touched (see {@link Admission}).
+ *
+ * <p>Latency of the resource method, marshalling of its entity and the
+ * entire request is reported in {@code Server-Timing} header, together
+ * with other stages recorded down the stack (see {@link ServerTiming}).
+ * The resource method and stages before it are always reported, before
+ * the entity is written. Marshalling and the entire request are reported
+ * only if the response is not committed by then, which is the case when
+ * it is buffered by {@link XsltFilter} or {@link CacheFilter}; otherwise
+ * they are only logged. Numbers and latency of requests, by routes, are available through JMX
+ * (see {@link Metrics}).
+ *
  * @author Yegor Bugayenko (yegor@tpc2.com)
  * @version $Id$
  * @see <a href="http://www.rexsl.com">Introduction to ReXSL</a>
@@ -106,6 +123,19 @@ public final class RestfulServlet extends ServletContainer {
      */
     public static final String PACKAGES = "com.rexsl.PACKAGES";
 
+    /**
+     * Name of servlet init param with maximum number of requests in flight.
+     * @since 2.0
+     */
+    public static final String CONCURRENCY = "com.rexsl.CONCURRENCY";
+
+    /**
+     * Name of servlet init param with maximum average latency of a route,
+     * in milliseconds.
+     * @since 2.0
+     */
+    public static final String LATENCY = "com.rexsl.LATENCY";
+
     /**
      * Serialization marker.
      */
@@ -116,6 +146,11 @@ public final class RestfulServlet extends ServletContainer {
      */
     private static final String COMMA = ",";
 
+    /**
+     * Admission control.
+     */
+    private transient Admission admission = new Admission(0, 0L);
+
     // @checkstyle RedundantThrows (4 lines)
     @Override
     public void init(@NotNull final ServletConfig config)
@@ -161,7 +196,49 @@ public final class RestfulServlet extends ServletContainer {
             PackagesResourceConfig.PROPERTY_PACKAGES,
             StringUtils.join(packages, RestfulServlet.COMMA)
         );
+        final String ours = StringUtils.join(
+            new String[] {
+                TimingFilterFactory.class.getName(),
+                CachedFilterFactory.class.getName(),
+            },
+            RestfulServlet.COMMA
+        );
+        final String factories = config.getInitParameter(
+            ResourceConfig.PROPERTY_RESOURCE_FILTER_FACTORIES
+        );
+        if (factories == null) {
+            props.setProperty(
+                ResourceConfig.PROPERTY_RESOURCE_FILTER_FACTORIES, ours
+            );
+        } else {
+            props.setProperty(
+                ResourceConfig.PROPERTY_RESOURCE_FILTER_FACTORIES,
+                StringUtils.join(
+                    new String[] {factories, ours},
+                    RestfulServlet.COMMA
+                )
+            );
+        }
+        this.admission = new Admission(
+            Integer.parseInt(
+                StringUtils.defaultString(
+                    config.getInitParameter(RestfulServlet.CONCURRENCY), "0"
+                )
+            ),
+            Long.parseLong(
+                StringUtils.defaultString(
+                    config.getInitParameter(RestfulServlet.LATENCY), "0"
+                )
+            )
+        );
         this.init(new ServletConfigWrapper(config, props));
+        Metrics.register();
+    }
+
+    @Override
+    public void destroy() {
+        super.destroy();
+        Metrics.unregister();
     }
 
     // @checkstyle ThrowsCount (8 lines)
@@ -171,9 +248,66 @@ public final class RestfulServlet extends ServletContainer {
     public void service(final HttpServletRequest request,
         final HttpServletResponse response)
         throws ServletException, IOException {
+        final String route = RestfulServlet.route(request);
+        Admission.Ticket ticket = null;
+        if (this.admission.enabled()) {
+            ticket = this.admission.admit(route);
+        }
+        if (ticket == null && this.admission.enabled()) {
+            response.setHeader(
+                "Retry-After", Long.toString(this.admission.retry(route))
+            );
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        } else {
+            final long start = System.currentTimeMillis();
+            try {
+                this.serve(request, response, ticket);
+            } finally {
+                Metrics.REQUESTS.record(
+                    route, System.currentTimeMillis() - start
+                );
+            }
+        }
+    }
+
+    /**
+     * Serve admitted request.
+     * @param request The request
+     * @param response The response
+     * @param ticket Its admission ticket, or NULL if there is no
+     *  admission control
+     * @throws ServletException If fails
+     * @throws IOException If fails
+     * @checkstyle ThrowsCount (6 lines)
+     * @checkstyle RedundantThrows (5 lines)
+     */
+    private void serve(final HttpServletRequest request,
+        final HttpServletResponse response, final Admission.Ticket ticket)
+        throws ServletException, IOException {
+        final ServerTiming timing = ServerTiming.begin();
+        final long nano = System.nanoTime();
         final long start = System.currentTimeMillis();
-        super.service(request, response);
+        try {
+            super.service(request, response);
+        } finally {
+            if (ticket != null) {
+                ticket.close(
+                    System.currentTimeMillis() - start,
+                    timing.nanos(TimingFilterFactory.STAGE) > 0L
+                );
+            }
+            timing.end();
+        }
         final long duration = System.currentTimeMillis() - start;
+        timing.add("app", System.nanoTime() - nano);
+        final String stages = timing.flush();
+        if (!stages.isEmpty() && !response.isCommitted()) {
+            response.addHeader(ServerTiming.HEADER, stages);
+        }
+        Logger.debug(
+            this, "#service(%s %s): %s",
+            request.getMethod(), request.getRequestURI(), stages
+        );
         if (duration > TimeUnit.SECONDS.toMillis(1L)) {
             Logger.warn(
                 this,
@@ -195,4 +329,21 @@ public final class RestfulServlet extends ServletContainer {
         );
     }
 
+    /**
+     * Route of the request, for admission control.
+     * @param request The request
+     * @return Method and the first segment of the path
+     */
+    private static String route(final HttpServletRequest request) {
+        final String path = StringUtils.removeStart(
+            request.getRequestURI(),
+            StringUtils.defaultString(request.getContextPath())
+        );
+        return String.format(
+            "%s /%s",
+            request.getMethod(),
+            StringUtils.substringBefore(StringUtils.stripStart(path, "/"), "/")
+        );
+    }
+
 }
@@ -0,0 +1,241 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Latency of request processing stages, for {@code Server-Timing}
+ * HTTP header.
+ *
+ * <p>Timing is started by {@link #begin()} in the current thread, stages
+ * are recorded by {@link #record(String,long)} from anywhere down the
+ * stack, and {@link #flush()} renders them as a header value, for example:
+ *
+ * <pre> resource;dur=12.4, insets;dur=7.1, marshal;dur=3.0</pre>
+ *
+ * <p>The header has to be added before the response is committed, that's
+ * why stages are flushed as early as possible: {@link TimingFilterFactory}
+ * flushes everything recorded before the entity is written, by
+ * {@link #drain()}. Stages recorded later (marshalling, for example) get
+ * into the header only when the response is still buffered, for example by
+ * {@link XsltFilter}; otherwise they are only logged.
+ *
+ * <p>Calls to {@link #begin()} can be nested, the timing is discarded
+ * by the last {@link #end()}. When no timing is started in the current
+ * thread, {@link #record(String,long)} does nothing, so stages executed
+ * in background threads are not recorded.
+ *
+ * <p>The class is not thread-safe, its instances are confined
+ * to their threads.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @see <a href="http://www.w3.org/TR/server-timing/">Server Timing</a>
+ * @since 2.0
+ */
+@ToString(of = "totals")
+@EqualsAndHashCode(of = "totals")
+public final class ServerTiming {
+
+    /**
+     * Name of HTTP header.
+     */
+    public static final String HEADER = "Server-Timing";
+
+    /**
+     * Timing of the current thread.
+     */
+    private static final ThreadLocal<ServerTiming> CURRENT =
+        new ThreadLocal<ServerTiming>();
+
+    /**
+     * Stages recorded and not flushed yet, in nanoseconds.
+     */
+    private final transient Map<String, Long> stages =
+        new LinkedHashMap<String, Long>(0);
+
+    /**
+     * All stages recorded, including flushed ones, in nanoseconds.
+     */
+    private final transient Map<String, Long> totals =
+        new LinkedHashMap<String, Long>(0);
+
+    /**
+     * How many times it was started and not ended yet.
+     */
+    private transient int depth;
+
+    /**
+     * Start timing in the current thread, or join the one already started.
+     * @return The timing
+     */
+    public static ServerTiming begin() {
+        ServerTiming timing = ServerTiming.CURRENT.get();
+        if (timing == null) {
+            timing = new ServerTiming();
+            ServerTiming.CURRENT.set(timing);
+        }
+        ++timing.depth;
+        return timing;
+    }
+
+    /**
+     * Record a stage of the timing started in the current thread, if any.
+     *
+     * <p>If the stage is already recorded, its durations are summed up.
+     *
+     * @param stage Name of the stage, an HTTP token
+     * @param start When the stage started, as {@link System#nanoTime()}
+     */
+    public static void record(final String stage, final long start) {
+        final ServerTiming timing = ServerTiming.CURRENT.get();
+        if (timing != null) {
+            timing.add(stage, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Duration of the stage recorded so far by the timing started in the
+     * current thread, including flushed records.
+     * @param stage Name of the stage
+     * @return Nanoseconds, or zero if it's not recorded or there is no
+     *  timing in the current thread
+     */
+    public static long recorded(final String stage) {
+        final ServerTiming timing = ServerTiming.CURRENT.get();
+        final long nanos;
+        if (timing == null) {
+            nanos = 0L;
+        } else {
+            nanos = timing.nanos(stage);
+        }
+        return nanos;
+    }
+
+    /**
+     * Render stages of the timing started in the current thread, which
+     * are not flushed yet, and forget them.
+     * @return Header value, empty if nothing is recorded or there is
+     *  no timing in the current thread
+     */
+    public static String drain() {
+        final ServerTiming timing = ServerTiming.CURRENT.get();
+        final String stages;
+        if (timing == null) {
+            stages = "";
+        } else {
+            stages = timing.flush();
+        }
+        return stages;
+    }
+
+    /**
+     * End the timing, discard it from the current thread if it's the
+     * last end.
+     */
+    public void end() {
+        --this.depth;
+        if (this.depth <= 0 && ServerTiming.CURRENT.get() == this) {
+            ServerTiming.CURRENT.remove();
+        }
+    }
+
+    /**
+     * Add a stage.
+     * @param stage Name of the stage
+     * @param nanos Its duration, in nanoseconds
+     */
+    public void add(final String stage, final long nanos) {
+        ServerTiming.sum(this.stages, stage, nanos);
+        ServerTiming.sum(this.totals, stage, nanos);
+    }
+
+    /**
+     * Duration of the stage recorded so far, including flushed records.
+     * @param stage Name of the stage
+     * @return Nanoseconds, or zero if it's not recorded
+     */
+    public long nanos(final String stage) {
+        final Long nanos = this.totals.get(stage);
+        final long total;
+        if (nanos == null) {
+            total = 0L;
+        } else {
+            total = nanos;
+        }
+        return total;
+    }
+
+    /**
+     * Render all stages recorded so far as a value of {@code Server-Timing}
+     * header, and forget them.
+     * @return Header value, empty if nothing is recorded
+     */
+    public String flush() {
+        final StringBuilder text = new StringBuilder(0);
+        for (final Map.Entry<String, Long> stage : this.stages.entrySet()) {
+            if (text.length() > 0) {
+                text.append(", ");
+            }
+            text.append(stage.getKey()).append(";dur=").append(
+                String.format(
+                    Locale.ENGLISH, "%.1f",
+                    (double) stage.getValue()
+                        / (double) TimeUnit.MILLISECONDS.toNanos(1L)
+                )
+            );
+        }
+        this.stages.clear();
+        return text.toString();
+    }
+
+    /**
+     * Add duration to the stage in the map.
+     * @param map The map
+     * @param stage Name of the stage
+     * @param nanos Its duration, in nanoseconds
+     */
+    private static void sum(final Map<String, Long> map, final String stage,
+        final long nanos) {
+        final Long before = map.get(stage);
+        if (before == null) {
+            map.put(stage, nanos);
+        } else {
+            map.put(stage, before + nanos);
+        }
+    }
+
+}
@@ -0,0 +1,316 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.lang3.CharEncoding;
+
+/**
+ * Output stream that keeps everything written into direct byte buffers,
+ * taken from an {@link Arena}.
+ *
+ * <p>The content doesn't occupy the heap, no matter how big it is. Slabs
+ * have to be returned to the arena by {@link #close()}, once the content
+ * is not needed any more; after that the stream is empty.
+ *
+ * <p>The class is mutable and NOT thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = "total")
+@EqualsAndHashCode(callSuper = false, of = { "arena", "slabs" })
+final class Slabs extends OutputStream {
+
+    /**
+     * The arena.
+     */
+    private final transient Arena arena;
+
+    /**
+     * Slabs taken so far, all of them full except the last one.
+     */
+    private final transient List<ByteBuffer> slabs =
+        new ArrayList<ByteBuffer>(1);
+
+    /**
+     * Total number of bytes written.
+     */
+    private transient long total;
+
+    /**
+     * Public ctor.
+     * @param source Where to take slabs from
+     */
+    Slabs(final Arena source) {
+        super();
+        this.arena = source;
+    }
+
+    @Override
+    public void write(final int part) {
+        this.last(1).put((byte) part);
+        ++this.total;
+    }
+
+    @Override
+    public void write(final byte[] data, final int off, final int len) {
+        int pos = off;
+        final int end = off + len;
+        while (pos < end) {
+            final ByteBuffer slab = this.last(1);
+            final int chunk = Math.min(slab.remaining(), end - pos);
+            slab.put(data, pos, chunk);
+            pos += chunk;
+        }
+        this.total += len;
+    }
+
+    /**
+     * Release all slabs back to the arena.
+     */
+    @Override
+    public void close() {
+        for (final ByteBuffer slab : this.slabs) {
+            this.arena.release(slab);
+        }
+        this.slabs.clear();
+        this.total = 0L;
+    }
+
+    /**
+     * Total number of bytes written.
+     * @return Bytes
+     */
+    public long size() {
+        return this.total;
+    }
+
+    /**
+     * Beginning of the content, as UTF-8 text, no longer than one slab.
+     * @return Text
+     */
+    public String head() {
+        final String text;
+        if (this.slabs.isEmpty()) {
+            text = "";
+        } else {
+            final ByteBuffer slab = this.slabs.get(0).duplicate();
+            slab.flip();
+            final byte[] bytes = new byte[slab.remaining()];
+            slab.get(bytes);
+            text = Slabs.utf(bytes);
+        }
+        return text;
+    }
+
+    /**
+     * Entire content, copied into the heap.
+     * @return Bytes
+     */
+    public byte[] bytes() {
+        final byte[] bytes = new byte[(int) this.total];
+        int pos = 0;
+        for (final ByteBuffer slab : this.slabs) {
+            final ByteBuffer dup = slab.duplicate();
+            dup.flip();
+            final int len = dup.remaining();
+            dup.get(bytes, pos, len);
+            pos += len;
+        }
+        return bytes;
+    }
+
+    /**
+     * Entire content, as UTF-8 text, copied into the heap.
+     * @return Text
+     */
+    public String text() {
+        return Slabs.utf(this.bytes());
+    }
+
+    /**
+     * Read the content, without copying it into the heap.
+     * @return Stream
+     */
+    public InputStream input() {
+        final List<ByteBuffer> dups = new ArrayList<ByteBuffer>(
+            this.slabs.size()
+        );
+        for (final ByteBuffer slab : this.slabs) {
+            final ByteBuffer dup = slab.duplicate();
+            dup.flip();
+            dups.add(dup);
+        }
+        return new Slabs.Input(dups);
+    }
+
+    /**
+     * Send the content to the stream.
+     *
+     * <p>If the stream is a channel (some servlet containers implement
+     * it that way) slabs are written to it directly. Otherwise direct
+     * slabs are copied through one array in the heap, reused for all of
+     * them, and slabs in the heap are written as they are.
+     *
+     * @param output Where to write
+     * @throws IOException If fails
+     */
+    public void writeTo(final OutputStream output) throws IOException {
+        byte[] chunk = null;
+        for (final ByteBuffer slab : this.slabs) {
+            final ByteBuffer dup = slab.duplicate();
+            dup.flip();
+            if (output instanceof WritableByteChannel) {
+                final WritableByteChannel channel =
+                    WritableByteChannel.class.cast(output);
+                while (dup.hasRemaining()) {
+                    channel.write(dup);
+                }
+            } else if (dup.hasArray()) {
+                output.write(
+                    dup.array(), dup.arrayOffset() + dup.position(),
+                    dup.remaining()
+                );
+            } else {
+                if (chunk == null || chunk.length < dup.remaining()) {
+                    chunk = new byte[dup.capacity()];
+                }
+                final int len = dup.remaining();
+                dup.get(chunk, 0, len);
+                output.write(chunk, 0, len);
+            }
+        }
+    }
+
+    /**
+     * Get the last slab, with some space left in it.
+     * @param space How many bytes are needed, at least
+     * @return The slab
+     */
+    private ByteBuffer last(final int space) {
+        ByteBuffer slab = null;
+        if (!this.slabs.isEmpty()) {
+            slab = this.slabs.get(this.slabs.size() - 1);
+        }
+        if (slab == null || slab.remaining() < space) {
+            slab = this.arena.take();
+            this.slabs.add(slab);
+        }
+        return slab;
+    }
+
+    /**
+     * Decode UTF-8 bytes.
+     * @param bytes The bytes
+     * @return Text
+     */
+    private static String utf(final byte[] bytes) {
+        try {
+            return new String(bytes, CharEncoding.UTF_8);
+        } catch (final UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Input stream through a list of buffers.
+     */
+    private static final class Input extends InputStream {
+        /**
+         * Buffers, ready for reading.
+         */
+        private final transient List<ByteBuffer> buffers;
+        /**
+         * Current buffer.
+         */
+        private transient int current;
+        /**
+         * Ctor.
+         * @param list Buffers
+         */
+        Input(final List<ByteBuffer> list) {
+            super();
+            this.buffers = list;
+        }
+        @Override
+        public int read() {
+            final ByteBuffer buf = this.buffer();
+            final int part;
+            if (buf == null) {
+                part = -1;
+            } else {
+                part = buf.get() & 0xFF;
+            }
+            return part;
+        }
+        @Override
+        public int read(final byte[] data, final int off, final int len) {
+            final ByteBuffer buf = this.buffer();
+            final int read;
+            if (len == 0) {
+                read = 0;
+            } else if (buf == null) {
+                read = -1;
+            } else {
+                read = Math.min(len, buf.remaining());
+                buf.get(data, off, read);
+            }
+            return read;
+        }
+        /**
+         * Current buffer with something to read.
+         * @return Buffer or NULL if nothing left
+         */
+        private ByteBuffer buffer() {
+            ByteBuffer buf = null;
+            while (this.current < this.buffers.size()) {
+                buf = this.buffers.get(this.current);
+                if (buf.hasRemaining()) {
+                    break;
+                }
+                ++this.current;
+                buf = null;
+            }
+            return buf;
+        }
+    }
+
+}
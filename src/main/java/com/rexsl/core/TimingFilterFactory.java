@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import com.sun.jersey.api.model.AbstractMethod;
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.ContainerRequestFilter;
+import com.sun.jersey.spi.container.ContainerResponse;
+import com.sun.jersey.spi.container.ContainerResponseFilter;
+import com.sun.jersey.spi.container.ResourceFilter;
+import com.sun.jersey.spi.container.ResourceFilterFactory;
+import java.util.Collections;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Factory of Jersey filters that record execution of resource methods
+ * in {@link ServerTiming}, as {@code resource} stage.
+ *
+ * <p>The stage ends before the entity is marshalled, which is recorded
+ * by the marshaller separately, as {@code marshal} stage. Insets of
+ * {@link com.rexsl.page.BasePage}, executed by the resource method, are
+ * reported as {@code insets} stage and are not included into
+ * {@code resource}. All stages recorded so far are
+ * added to the response as {@code Server-Timing} header right here,
+ * since it's the last moment when the response is surely not committed.
+ * The factory is registered by {@link RestfulServlet}, you don't need
+ * to instantiate it.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString
+@EqualsAndHashCode
+public final class TimingFilterFactory implements ResourceFilterFactory {
+
+    /**
+     * Name of the stage.
+     */
+    public static final String STAGE = "resource";
+
+    /**
+     * Name of the stage of insets, nested into the resource method.
+     */
+    public static final String INSETS = "insets";
+
+    /**
+     * Request property with start time.
+     */
+    private static final String START = "com.rexsl.core.TimingFilterFactory";
+
+    @Override
+    public List<ResourceFilter> create(final AbstractMethod method) {
+        return Collections.<ResourceFilter>singletonList(
+            new TimingFilterFactory.Filter()
+        );
+    }
+
+    /**
+     * Filter that records the stage.
+     */
+    @ToString
+    @EqualsAndHashCode
+    private static final class Filter implements ResourceFilter,
+        ContainerRequestFilter, ContainerResponseFilter {
+        @Override
+        public ContainerRequestFilter getRequestFilter() {
+            return this;
+        }
+        @Override
+        public ContainerResponseFilter getResponseFilter() {
+            return this;
+        }
+        @Override
+        public ContainerRequest filter(final ContainerRequest request) {
+            request.getProperties().put(
+                TimingFilterFactory.START, System.nanoTime()
+            );
+            return request;
+        }
+        @Override
+        public ContainerResponse filter(final ContainerRequest request,
+            final ContainerResponse response) {
+            final Object start = request.getProperties().get(
+                TimingFilterFactory.START
+            );
+            if (start != null) {
+                ServerTiming.record(
+                    TimingFilterFactory.STAGE,
+                    (Long) start
+                        + ServerTiming.recorded(TimingFilterFactory.INSETS)
+                );
+            }
+            final String stages = ServerTiming.drain();
+            if (!stages.isEmpty()) {
+                response.getHttpHeaders().add(ServerTiming.HEADER, stages);
+            }
+            return response;
+        }
+    }
+
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.validation.constraints.NotNull;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Time budgets of XSL transformations, per stylesheet.
+ *
+ * <p>Budgets are configured by a comma-separated list of entries, where
+ * each entry is either a number of milliseconds, which is the default
+ * budget, or a suffix of stylesheet URI, equal sign and a number of
+ * milliseconds, for example {@code "2000, /xsl/report.xsl=10000"}. Zero
+ * means that there is no budget.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = { "fallback", "budgets" })
+@EqualsAndHashCode(of = { "fallback", "budgets" })
+final class XslBudget {
+
+    /**
+     * Default budget, in milliseconds.
+     */
+    private final transient long fallback;
+
+    /**
+     * Budgets of stylesheets, by suffixes of their URIs.
+     */
+    private final transient Map<String, Long> budgets =
+        new ConcurrentHashMap<String, Long>(0);
+
+    /**
+     * Public ctor.
+     * @param text Configuration, see the class description
+     */
+    XslBudget(@NotNull final String text) {
+        long dflt = 0L;
+        for (final String entry : StringUtils.split(text, ',')) {
+            final String[] parts = entry.trim().split("=", 2);
+            if (parts.length == 1) {
+                dflt = Long.parseLong(parts[0]);
+            } else {
+                this.budgets.put(
+                    parts[0].trim(), Long.parseLong(parts[1].trim())
+                );
+            }
+        }
+        this.fallback = dflt;
+    }
+
+    /**
+     * Is any budget configured?
+     * @return TRUE if there is at least one budget
+     */
+    public boolean enabled() {
+        boolean enabled = this.fallback > 0L;
+        for (final long msec : this.budgets.values()) {
+            enabled |= msec > 0L;
+        }
+        return enabled;
+    }
+
+    /**
+     * Budget of the stylesheet.
+     * @param uri URI of the stylesheet
+     * @return Milliseconds, zero if there is no budget
+     */
+    public long millis(final String uri) {
+        long msec = this.fallback;
+        int best = -1;
+        if (uri != null) {
+            for (final Map.Entry<String, Long> entry
+                : this.budgets.entrySet()) {
+                if (uri.endsWith(entry.getKey())
+                    && entry.getKey().length() > best) {
+                    best = entry.getKey().length();
+                    msec = entry.getValue();
+                }
+            }
+        }
+        return msec;
+    }
+
+    /**
+     * Thrown when a transformation runs out of its budget.
+     */
+    static final class Exceeded extends RuntimeException {
+        /**
+         * Serialization marker.
+         */
+        private static final long serialVersionUID = 0x3D1E7A90C4B25F6AL;
+        /**
+         * Ctor.
+         * @param msec The budget, in milliseconds
+         */
+        Exceeded(final long msec) {
+            super(String.format("XSL transformation exceeded %d ms", msec));
+        }
+    }
+
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import net.sf.saxon.Controller;
+import net.sf.saxon.FeatureKeys;
+import net.sf.saxon.expr.XPathContext;
+import net.sf.saxon.om.Item;
+import net.sf.saxon.trace.InstructionInfo;
+import net.sf.saxon.trace.TraceListener;
+
+/**
+ * Saxon trace listener, which aborts the transformation when it takes
+ * longer than allowed.
+ *
+ * <p>Saxon calls the listener on every instruction, but only if the
+ * stylesheet is compiled with tracing, see
+ * {@link #enable(TransformerFactory)}. The listener throws
+ * {@link XslBudget.Exceeded} from the first instruction after the
+ * deadline.
+ *
+ * <p>This is the only class that depends on Saxon, it is used only when
+ * the factory of transformers is Saxon.
+ *
+ * <p>The class is mutable and NOT thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString
+@EqualsAndHashCode(of = { "budget", "deadline" })
+final class XslDeadline implements TraceListener {
+
+    /**
+     * The budget, in milliseconds.
+     */
+    private final transient long budget;
+
+    /**
+     * When the time is over, in nanoseconds of {@link System#nanoTime()}.
+     */
+    private final transient long deadline;
+
+    /**
+     * Public ctor.
+     * @param msec Budget, in milliseconds
+     */
+    XslDeadline(final long msec) {
+        this.budget = msec;
+        this.deadline = System.nanoTime() + msec * 1000L * 1000L;
+    }
+
+    /**
+     * Make the factory compile stylesheets with tracing.
+     * @param factory Saxon factory
+     */
+    public static void enable(final TransformerFactory factory) {
+        factory.setAttribute(FeatureKeys.COMPILE_WITH_TRACING, Boolean.TRUE);
+    }
+
+    /**
+     * Attach a new deadline to the transformer made by Saxon.
+     * @param transformer The transformer
+     * @param msec Budget, in milliseconds
+     */
+    public static void attach(final Transformer transformer,
+        final long msec) {
+        Controller.class.cast(transformer).addTraceListener(
+            new XslDeadline(msec)
+        );
+    }
+
+    @Override
+    public void open() {
+        this.check();
+    }
+
+    @Override
+    public void close() {
+        // nothing to do
+    }
+
+    @Override
+    public void enter(final InstructionInfo info,
+        final XPathContext context) {
+        this.check();
+    }
+
+    @Override
+    public void leave(final InstructionInfo info) {
+        // nothing to do
+    }
+
+    @Override
+    public void startCurrentItem(final Item item) {
+        this.check();
+    }
+
+    @Override
+    public void endCurrentItem(final Item item) {
+        // nothing to do
+    }
+
+    /**
+     * Throw if the time is over.
+     */
+    private void check() {
+        if (System.nanoTime() > this.deadline) {
+            throw new XslBudget.Exceeded(this.budget);
+        }
+    }
+
+}
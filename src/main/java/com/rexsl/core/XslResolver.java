@@ -64,6 +64,19 @@ import org.xml.sax.SAXException;
  * <p>You don't need to use this class directly. It is made public only becuase
  * JAX-RS implementation should be able to discover it in classpath.
  *
+ * <p>Creation of marshallers and compilation of their XSD schemas are
+ * recorded in {@link ServerTiming} as {@code jaxb} and {@code xsd}
+ * stages. Marshalling itself, together with XSD validation, is done by
+ * JAX-RS and is recorded by {@link BoundMarshaller} as {@code marshal}.
+ * Rebuilds of JAXB context and marshallers with XSD validation are
+ * counted in {@link Metrics}.
+ *
+ * <p>While a marshaller made here is marshalling a page, the resolver is
+ * known to the current thread (see {@link BoundMarshaller}), and
+ * {@link JaxbFragments} makes marshallers of XML fragments from the same
+ * JAXB context. Fragments streamed into the page by them are validated
+ * by the XSD schema of the page, together with the rest of it.
+ *
  * @author Yegor Bugayenko (yegor@tpc2.com)
  * @author Krzysztof Krason (Krzysztof.Krason@gmail.com)
  * @version $Id$
@@ -146,9 +159,12 @@ public final class XslResolver implements ContextResolver<Marshaller> {
     @Override
     @NotNull
     public Marshaller getContext(@NotNull final Class<?> type) {
-        Marshaller mrsh;
+        final long start = System.nanoTime();
+        final Marshaller mrsh;
         try {
-            mrsh = this.buildContext(type).createMarshaller();
+            mrsh = new BoundMarshaller(
+                this.buildContext(type).createMarshaller(), this
+            );
             mrsh.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
             final String header = Logger.format(
                 "\n<?xml-stylesheet type='text/xsl' href='%s'?>",
@@ -158,6 +174,7 @@ public final class XslResolver implements ContextResolver<Marshaller> {
         } catch (final JAXBException ex) {
             throw new IllegalStateException(ex);
         }
+        ServerTiming.record("jaxb", start);
         if (this.folder == null) {
             Logger.debug(
                 this,
@@ -170,6 +187,19 @@ public final class XslResolver implements ContextResolver<Marshaller> {
         return mrsh;
     }
 
+    /**
+     * Make a marshaller of XML fragments of this type, from the same
+     * JAXB context as pages.
+     * @param type The class of fragments
+     * @return Marshaller
+     * @throws JAXBException If fails
+     */
+    Marshaller fragments(final Class<?> type) throws JAXBException {
+        final Marshaller mrsh = this.buildContext(type).createMarshaller();
+        mrsh.setProperty(Marshaller.JAXB_FRAGMENT, true);
+        return mrsh;
+    }
+
     /**
      * Add new class to context.
      * @param cls The class we should add
@@ -182,6 +212,7 @@ public final class XslResolver implements ContextResolver<Marshaller> {
                     this.context = JAXBContext.newInstance(
                         this.classes.toArray(new Class<?>[this.classes.size()])
                     );
+                    Metrics.CONTEXTS.record(cls.getName(), 1L);
                     Logger.info(
                         this,
                         // @checkstyle LineLength (1 line)
@@ -279,6 +310,7 @@ public final class XslResolver implements ContextResolver<Marshaller> {
         } else {
             final File xsd = new File(this.folder, name);
             if (xsd.exists()) {
+                final long start = System.nanoTime();
                 final SchemaFactory factory = SchemaFactory.newInstance(
                     XMLConstants.W3C_XML_SCHEMA_NS_URI
                 );
@@ -299,6 +331,8 @@ public final class XslResolver implements ContextResolver<Marshaller> {
                 } catch (final JAXBException ex) {
                     throw new IllegalStateException(ex);
                 }
+                ServerTiming.record("xsd", start);
+                Metrics.VALIDATIONS.record(type.getName(), 1L);
                 Logger.debug(
                     this,
                     "Class '%s' will be validated with '%s' schema",
@@ -34,8 +34,10 @@ import com.jcabi.log.Logger;
 import com.jcabi.manifests.Manifests;
 import com.jcabi.manifests.ServletMfs;
 import java.io.IOException;
-import java.io.StringReader;
-import java.io.StringWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
 import javax.servlet.FilterConfig;
@@ -47,6 +49,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.xml.transform.Source;
 import javax.xml.transform.Transformer;
@@ -58,6 +61,7 @@ import javax.xml.transform.stream.StreamSource;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.apache.commons.lang3.CharEncoding;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 
 /**
  * Converts XML to XHTML, if necessary.
@@ -78,6 +82,28 @@ import org.apache.commons.lang3.CharEncoding;
  *  &lt;dispatcher>ERROR&lt;/dispatcher>
  * &lt;/filter-mapping></pre>
  *
+ * <p>When {@code com.rexsl.STREAMING} init parameter is set to
+ * {@code true}, pages requested by clients, which will get raw XML
+ * anyway (they either demand XML or are able to run XSL themselves), are
+ * not buffered. They are sent to the client while being rendered,
+ * flushed in chunks, starting with the XML prologue. Pages that have to be
+ * transformed on the server are always buffered, since the XSL processor
+ * needs the entire document.
+ *
+ * <p>When {@code com.rexsl.BUDGET} init parameter is set, transformations
+ * are aborted when they take longer than allowed, for example
+ * {@code "2000, /xsl/report.xsl=10000"} (see {@link XslBudget}). Then
+ * clients that can run XSL themselves get the XML page as is, while the
+ * others get an error. Budgets work only with Saxon, which
+ * compiles stylesheets with tracing for that, see {@link XslDeadline}.
+ * Aborted transformations are counted in {@link Metrics#ABORTS}.
+ *
+ * <p>Latency of stylesheet compilation and of the transformation is
+ * reported in {@code Server-Timing} header, as {@code xsl-compile} and
+ * {@code xsl} stages (see {@link ServerTiming}). Numbers, latency and
+ * sizes of transformations, by stylesheets, are available through JMX
+ * (see {@link Metrics}).
+ *
  * @author Yegor Bugayenko (yegor@tpc2.com)
  * @author Krzysztof Krason (Krzysztof.Krason@gmail.com)
  * @version $Id$
@@ -89,11 +115,43 @@ import org.apache.commons.lang3.CharEncoding;
 @Loggable(Loggable.DEBUG)
 public final class XsltFilter implements Filter {
 
+    /**
+     * Name of init parameter that enables streaming.
+     * @since 2.0
+     */
+    public static final String STREAMING = "com.rexsl.STREAMING";
+
+    /**
+     * Name of init parameter with time budgets of transformations.
+     * @since 2.0
+     */
+    public static final String BUDGET = "com.rexsl.BUDGET";
+
+    /**
+     * Size of chunk to flush while streaming, in bytes.
+     */
+    private static final int CHUNK = 8 * 1024;
+
     /**
      * XSLT factory.
      */
     private transient TransformerFactory tfactory;
 
+    /**
+     * Shall we stream pages to XML-capable clients?
+     */
+    private transient boolean streaming;
+
+    /**
+     * Time budgets of transformations.
+     */
+    private transient XslBudget budget;
+
+    /**
+     * Are stylesheets compiled with tracing, to enforce budgets?
+     */
+    private transient boolean traced;
+
     /**
      * {@inheritDoc}
      * @checkstyle RedundantThrows (4 lines)
@@ -116,6 +174,10 @@ public final class XsltFilter implements Filter {
                 this.tfactory, TransformerFactory.class.getName()
             );
         }
+        this.streaming = Boolean.parseBoolean(
+            config.getInitParameter(XsltFilter.STREAMING)
+        );
+        this.budgets(config.getInitParameter(XsltFilter.BUDGET));
         final ServletContext context = config.getServletContext();
         this.tfactory.setURIResolver(new ContextResourceResolver(context));
         try {
@@ -163,50 +225,200 @@ public final class XsltFilter implements Filter {
      * @checkstyle RedundantThrows (5 lines)
      */
     private void filter(final HttpServletRequest request,
+        final HttpServletResponse response, final FilterChain chain)
+        throws IOException, ServletException {
+        if (this.streaming
+            && new PageAnalyzer("", request).xmlAccepted()) {
+            chain.doFilter(
+                request,
+                new FlushingResponseWrapper(response, XsltFilter.CHUNK)
+            );
+        } else {
+            this.buffered(request, response, chain);
+        }
+    }
+
+    /**
+     * Buffer the entire page and transform it, if necessary.
+     * @param request The request
+     * @param response The response
+     * @param chain Filter chain
+     * @throws IOException If something goes wrong
+     * @throws ServletException If something goes wrong
+     * @checkstyle ThrowsCount (6 lines)
+     * @checkstyle RedundantThrows (5 lines)
+     */
+    private void buffered(final HttpServletRequest request,
         final HttpServletResponse response, final FilterChain chain)
         throws IOException, ServletException {
         final ByteArrayResponseWrapper wrapper =
             new ByteArrayResponseWrapper(response);
-        chain.doFilter(request, wrapper);
-        if (!response.isCommitted()) {
-            byte[] data = wrapper.getByteArray();
-            String page = new String(data, CharEncoding.UTF_8);
-            final PageAnalyzer analyzer = new PageAnalyzer(page, request);
-            if (analyzer.needsTransformation()) {
-                page = this.transform(page);
-                data = page.getBytes(CharEncoding.UTF_8);
-                response.setContentType(MediaType.TEXT_HTML);
-                response.setCharacterEncoding(CharEncoding.UTF_8);
-                response.setContentLength(data.length);
+        final ServerTiming timing = ServerTiming.begin();
+        try {
+            chain.doFilter(request, wrapper);
+            if (!response.isCommitted()) {
+                final Slabs body = wrapper.getSlabs();
+                final PageAnalyzer analyzer =
+                    new PageAnalyzer(body.head(), request);
+                if (analyzer.needsTransformation()) {
+                    this.transformed(body, request, response, timing);
+                } else {
+                    body.writeTo(response.getOutputStream());
+                }
+            }
+        } finally {
+            wrapper.release();
+            timing.end();
+        }
+    }
+
+    /**
+     * Configure time budgets of transformations.
+     * @param text Configuration or NULL if there are no budgets
+     */
+    private void budgets(final String text) {
+        if (text == null) {
+            this.budget = new XslBudget("");
+        } else {
+            this.budget = new XslBudget(text);
+        }
+        if (this.budget.enabled()) {
+            if ("net.sf.saxon.TransformerFactoryImpl"
+                .equals(this.tfactory.getClass().getName())) {
+                XslDeadline.enable(this.tfactory);
+                this.traced = true;
+            } else {
+                Logger.warn(
+                    this, "XSL budgets %s are ignored by %[type]s",
+                    this.budget, this.tfactory
+                );
+            }
+        }
+    }
+
+    /**
+     * Transform XML into HTML and send it to the client.
+     *
+     * <p>If the transformation runs out of its budget, the client gets
+     * XML as is, if it can transform it itself.
+     *
+     * @param xml XML page to be transformed
+     * @param request The request
+     * @param response The response
+     * @param timing Timing of the request
+     * @throws IOException If something goes wrong
+     * @throws ServletException If something goes wrong
+     * @checkstyle RedundantThrows (7 lines)
+     * @checkstyle ParameterNumber (4 lines)
+     */
+    private void transformed(final Slabs xml,
+        final HttpServletRequest request, final HttpServletResponse response,
+        final ServerTiming timing) throws IOException, ServletException {
+        final Slabs html = new Slabs(Arena.DEFAULT);
+        try {
+            final Writer writer = new OutputStreamWriter(
+                html, CharEncoding.UTF_8
+            );
+            final String uri;
+            try {
+                uri = this.transform(xml, writer);
+            } finally {
+                final String stages = timing.flush();
+                response.addHeader(ServerTiming.HEADER, stages);
+                Logger.debug(
+                    this, "#transformed(%s): %s",
+                    request.getRequestURI(), stages
+                );
+            }
+            writer.flush();
+            Metrics.XML.record(uri, xml.size());
+            Metrics.HTML.record(uri, html.size());
+            response.setContentType(MediaType.TEXT_HTML);
+            response.setCharacterEncoding(CharEncoding.UTF_8);
+            response.setContentLength((int) html.size());
+            html.writeTo(response.getOutputStream());
+        } catch (final XslBudget.Exceeded ex) {
+            if (!new UserAgent(request.getHeader(HttpHeaders.USER_AGENT))
+                .isXsltCapable()) {
+                throw new ServletException(ex);
             }
-            response.getOutputStream().write(data);
+            response.setContentType(MediaType.TEXT_XML);
+            response.setCharacterEncoding(CharEncoding.UTF_8);
+            response.setContentLength((int) xml.size());
+            xml.writeTo(response.getOutputStream());
+        } finally {
+            html.close();
         }
     }
 
     /**
      * Transform XML into HTML.
      * @param xml XML page to be transformed.
-     * @return Resulting HTML page.
+     * @param writer Where to write resulting HTML page.
+     * @return URI of the stylesheet used
      * @throws ServletException If some problem inside
      * @checkstyle RedundantThrows (2 lines)
      */
-    private String transform(final String xml) throws ServletException {
-        final StringWriter writer = new StringWriter();
+    private String transform(final Slabs xml, final Writer writer)
+        throws ServletException {
+        final long start = System.nanoTime();
+        final Source stylesheet = this.stylesheet(xml);
+        final Transformer tran = this.transformer(stylesheet);
+        ServerTiming.record("xsl-compile", start);
+        final long msec = this.budget.millis(stylesheet.getSystemId());
+        if (this.traced && msec > 0L) {
+            XslDeadline.attach(tran, msec);
+        }
+        final long begun = System.nanoTime();
         try {
-            this.transformer(this.stylesheet(xml)).transform(
-                this.source(xml),
-                new StreamResult(writer)
+            tran.transform(this.source(xml), new StreamResult(writer));
+            ServerTiming.record("xsl", begun);
+            Metrics.TRANSFORMATIONS.record(
+                stylesheet.getSystemId(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begun)
             );
+        } catch (final XslBudget.Exceeded ex) {
+            throw this.aborted(stylesheet, msec, ex);
         } catch (final TransformerException ex) {
+            final int idx = ExceptionUtils.indexOfType(
+                ex, XslBudget.Exceeded.class
+            );
+            if (idx >= 0) {
+                throw this.aborted(
+                    stylesheet, msec,
+                    XslBudget.Exceeded.class.cast(
+                        ExceptionUtils.getThrowables(ex)[idx]
+                    )
+                );
+            }
             throw new ServletException(
                 Logger.format(
                     "Failed to transform XML to XHTML: '%s'",
-                    xml
+                    xml.text()
                 ),
                 ex
             );
         }
-        return writer.toString();
+        return stylesheet.getSystemId();
+    }
+
+    /**
+     * Count and log aborted transformation.
+     * @param stylesheet The stylesheet
+     * @param msec Its budget, in milliseconds
+     * @param cause Why it was aborted
+     * @return The cause
+     */
+    private XslBudget.Exceeded aborted(final Source stylesheet,
+        final long msec, final XslBudget.Exceeded cause) {
+        Metrics.ABORTS.record(
+            String.valueOf(stylesheet.getSystemId()), msec
+        );
+        Logger.warn(
+            this, "#transform(): '%s' aborted after %[ms]s",
+            stylesheet.getSystemId(), msec
+        );
+        return cause;
     }
 
     /**
@@ -214,8 +426,8 @@ public final class XsltFilter implements Filter {
      * @param xml XML page to be transformed.
      * @return Source
      */
-    private Source source(final String xml) {
-        return new StreamSource(new StringReader(xml));
+    private Source source(final Slabs xml) {
+        return new StreamSource(xml.input());
     }
 
     /**
@@ -226,7 +438,7 @@ public final class XsltFilter implements Filter {
      * @throws ServletException If fails
      * @checkstyle RedundantThrows (3 lines)
      */
-    private Source stylesheet(final String xml) throws ServletException {
+    private Source stylesheet(final Slabs xml) throws ServletException {
         final Source stylesheet;
         try {
             stylesheet = this.tfactory.getAssociatedStylesheet(
@@ -236,7 +448,7 @@ public final class XsltFilter implements Filter {
             throw new ServletException(
                 Logger.format(
                     "Failed to configure XSL transformer: '%[text]s'",
-                    xml
+                    xml.head()
                 ),
                 ex
             );
@@ -245,14 +457,14 @@ public final class XsltFilter implements Filter {
             throw new ServletException(
                 Logger.format(
                     "No associated stylesheet found at: '%[text]s'",
-                    xml
+                    xml.head()
                 )
             );
         }
         Logger.debug(
             this,
-            "#transform(%d chars): found '%s' associated stylesheet by %s",
-            xml.length(),
+            "#transform(%d bytes): found '%s' associated stylesheet by %s",
+            xml.size(),
             stylesheet.getSystemId(),
             this.tfactory.getClass().getName()
         );
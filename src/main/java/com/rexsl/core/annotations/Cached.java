@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Annotation for a JAX-RS resource method, whose page can be cached
+ * entirely, after XSL transformation.
+ *
+ * <p>For example, the front page is the same for all anonymous users and
+ * changes rarely:
+ *
+ * <pre> &#64;Path("/")
+ * public final class IndexRs extends BaseResource {
+ *  &#64;GET
+ *  &#64;Path("/")
+ *  &#64;Cached(lifetime = 5, stale = 1, query = "page")
+ *  public Response index() {
+ *   return new PageBuilder()...;
+ *  }
+ * }</pre>
+ *
+ * <p>Pages are cached by {@link com.rexsl.core.CacheFilter}, which has to
+ * be configured in {@code web.xml} before {@link com.rexsl.core.XsltFilter}.
+ * Cached page is sent to the client before the resource method, its
+ * insets, JAXB and XSL are touched. The page is cached by the path of
+ * the request URI and values of query parameters listed in
+ * {@link #query()}, and optionally by the type of content the client
+ * accepts (XML or HTML) and by the presence of an identity. Responses
+ * with HTTP status other than 200 or with {@code Set-Cookie} headers are
+ * never cached. When the lifetime is over, the page is still sent from
+ * cache during {@link #stale()} period, while one of the requests renders
+ * it again.
+ *
+ * <p>Don't use it for pages that render anything specific to the current
+ * user, the same cached page is sent to everybody.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Cached {
+
+    /**
+     * How long the page is fresh.
+     */
+    long lifetime();
+
+    /**
+     * How long the page may be sent after its lifetime is over, while
+     * it is being rendered again.
+     */
+    long stale() default 0L;
+
+    /**
+     * Time unit of the lifetime and stale period.
+     */
+    TimeUnit unit() default TimeUnit.MINUTES;
+
+    /**
+     * Names of query parameters that change the page.
+     */
+    String[] query() default { };
+
+    /**
+     * Does the page depend on whether the client accepts XML and renders
+     * it with XSL itself, or needs HTML?
+     */
+    boolean accept() default true;
+
+    /**
+     * Shall requests with an identity (authentication cookie or
+     * {@code Authorization} header) be cached too, separately from
+     * anonymous ones and from each other? Pages are kept by a digest of
+     * the credentials, so a page rendered for one identity is never given
+     * to another one. When FALSE, only anonymous requests are cached.
+     */
+    boolean identity() default false;
+
+}
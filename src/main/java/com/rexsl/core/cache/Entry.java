@@ -0,0 +1,426 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core.cache;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import javax.validation.constraints.NotNull;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Rendered response, kept in a {@link Store}.
+ *
+ * <p>The entry has a key, a body, HTTP headers, absolute time of
+ * expiration and a set of tags, which are used to invalidate groups
+ * of entries (see {@link Store#invalidate(String)}).
+ *
+ * <p>The body is kept outside of the heap, in a direct byte buffer of
+ * the entry, and is copied in and out of it through a small array, so
+ * the heap doesn't depend on the size of the body, use
+ * {@link #writeTo(OutputStream)} to send it. The buffer is released
+ * when the entry is garbage collected, after it is evicted from its
+ * store and is not being sent to anyone.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = { "name", "expires", "labels" })
+@EqualsAndHashCode
+public final class Entry {
+
+    /**
+     * Marker of serialized entry, and version of the format.
+     */
+    private static final int MAGIC = 0x52584331;
+
+    /**
+     * Size of the array to copy bodies through, in bytes.
+     */
+    private static final int CHUNK = 8 * 1024;
+
+    /**
+     * The key.
+     */
+    private final transient String name;
+
+    /**
+     * The body, read-only and direct.
+     */
+    private final transient ByteBuffer buffer;
+
+    /**
+     * HTTP headers.
+     */
+    private final transient Map<String, List<String>> hdrs;
+
+    /**
+     * When it expires, in milliseconds since epoch.
+     */
+    private final transient long expires;
+
+    /**
+     * Tags.
+     */
+    private final transient Set<String> labels;
+
+    /**
+     * Public ctor.
+     * @param key The key
+     * @param body The body
+     * @param headers HTTP headers
+     * @param time When it expires, in milliseconds since epoch
+     * @param tags Tags
+     * @checkstyle ParameterNumber (5 lines)
+     */
+    public Entry(@NotNull final String key, @NotNull final byte[] body,
+        @NotNull final Map<String, ? extends Collection<String>> headers,
+        final long time, @NotNull final Collection<String> tags) {
+        this(
+            key,
+            Entry.direct(ByteBuffer.wrap(body)),
+            headers, time, tags
+        );
+    }
+
+    /**
+     * Public ctor, with the body read from a stream.
+     * @param key The key
+     * @param body The body
+     * @param size Size of the body, in bytes
+     * @param headers HTTP headers
+     * @param time When it expires, in milliseconds since epoch
+     * @param tags Tags
+     * @throws IOException If the stream fails or it is too short
+     * @checkstyle ParameterNumber (6 lines)
+     */
+    public Entry(@NotNull final String key, @NotNull final InputStream body,
+        final int size,
+        @NotNull final Map<String, ? extends Collection<String>> headers,
+        final long time, @NotNull final Collection<String> tags)
+        throws IOException {
+        this(
+            key, Entry.direct(new DataInputStream(body), size),
+            headers, time, tags
+        );
+    }
+
+    /**
+     * Private ctor.
+     * @param key The key
+     * @param body The body, read-only and direct, which is not copied
+     * @param headers HTTP headers
+     * @param time When it expires, in milliseconds since epoch
+     * @param tags Tags
+     * @checkstyle ParameterNumber (5 lines)
+     */
+    private Entry(final String key, final ByteBuffer body,
+        final Map<String, ? extends Collection<String>> headers,
+        final long time, final Collection<String> tags) {
+        this.name = key;
+        this.buffer = body;
+        final Map<String, List<String>> map =
+            new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+        for (final Map.Entry<String, ? extends Collection<String>> header
+            : headers.entrySet()) {
+            map.put(
+                header.getKey(),
+                Collections.unmodifiableList(
+                    new ArrayList<String>(header.getValue())
+                )
+            );
+        }
+        this.hdrs = Collections.unmodifiableMap(map);
+        this.expires = time;
+        this.labels = Collections.unmodifiableSet(new TreeSet<String>(tags));
+    }
+
+    /**
+     * The key.
+     * @return Key
+     */
+    public String key() {
+        return this.name;
+    }
+
+    /**
+     * The body, copied into the heap.
+     * @return Bytes
+     */
+    public byte[] body() {
+        final byte[] bytes = new byte[this.buffer.capacity()];
+        this.buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Send the body to the stream, without copying all of it into
+     * the heap.
+     * @param output Where to write
+     * @throws IOException If fails
+     */
+    public void writeTo(@NotNull final OutputStream output)
+        throws IOException {
+        final ByteBuffer dup = this.buffer.duplicate();
+        if (output instanceof WritableByteChannel) {
+            final WritableByteChannel channel =
+                WritableByteChannel.class.cast(output);
+            while (dup.hasRemaining()) {
+                channel.write(dup);
+            }
+        } else {
+            final byte[] chunk = new byte[Math.min(Entry.CHUNK, this.size())];
+            while (dup.hasRemaining()) {
+                final int len = Math.min(chunk.length, dup.remaining());
+                dup.get(chunk, 0, len);
+                output.write(chunk, 0, len);
+            }
+        }
+    }
+
+    /**
+     * Size of the body.
+     * @return Number of bytes
+     */
+    public int size() {
+        return this.buffer.capacity();
+    }
+
+    /**
+     * HTTP headers, names are case-insensitive.
+     * @return Headers
+     */
+    public Map<String, List<String>> headers() {
+        return this.hdrs;
+    }
+
+    /**
+     * When it expires.
+     * @return Milliseconds since epoch
+     */
+    public long expires() {
+        return this.expires;
+    }
+
+    /**
+     * Tags.
+     * @return Tags
+     */
+    public Set<String> tags() {
+        return this.labels;
+    }
+
+    /**
+     * Is it expired already?
+     * @return TRUE if expired
+     */
+    public boolean expired() {
+        return this.expires <= System.currentTimeMillis();
+    }
+
+    /**
+     * Write it.
+     * @param output Where to write
+     * @throws IOException If fails
+     */
+    void write(final DataOutput output) throws IOException {
+        output.writeInt(Entry.MAGIC);
+        output.writeLong(this.expires);
+        output.writeUTF(this.name);
+        output.writeInt(this.labels.size());
+        for (final String tag : this.labels) {
+            output.writeUTF(tag);
+        }
+        output.writeInt(this.hdrs.size());
+        for (final Map.Entry<String, List<String>> header
+            : this.hdrs.entrySet()) {
+            output.writeUTF(header.getKey());
+            output.writeInt(header.getValue().size());
+            for (final String value : header.getValue()) {
+                output.writeUTF(value);
+            }
+        }
+        output.writeInt(this.size());
+        final ByteBuffer dup = this.buffer.duplicate();
+        final byte[] chunk = new byte[Math.min(Entry.CHUNK, this.size())];
+        while (dup.hasRemaining()) {
+            final int len = Math.min(chunk.length, dup.remaining());
+            dup.get(chunk, 0, len);
+            output.write(chunk, 0, len);
+        }
+    }
+
+    /**
+     * Read it.
+     * @param input Where to read from
+     * @return Entry
+     * @throws IOException If fails or the data are not an entry
+     */
+    static Entry read(final DataInput input) throws IOException {
+        final Entry.Head head = Entry.head(input);
+        final int total = input.readInt();
+        final Map<String, List<String>> headers =
+            new TreeMap<String, List<String>>();
+        for (int idx = 0; idx < total; ++idx) {
+            final String header = input.readUTF();
+            final int count = input.readInt();
+            final List<String> values = new ArrayList<String>(count);
+            for (int val = 0; val < count; ++val) {
+                values.add(input.readUTF());
+            }
+            headers.put(header, values);
+        }
+        return new Entry(
+            head.key(), Entry.direct(input, input.readInt()), headers,
+            head.expires(), head.tags()
+        );
+    }
+
+    /**
+     * Copy bytes into a new direct buffer.
+     * @param bytes The bytes
+     * @return Read-only direct buffer
+     */
+    private static ByteBuffer direct(final ByteBuffer bytes) {
+        final ByteBuffer buf = ByteBuffer.allocateDirect(bytes.remaining());
+        buf.put(bytes.duplicate());
+        buf.flip();
+        return buf.asReadOnlyBuffer();
+    }
+
+    /**
+     * Read bytes into a new direct buffer, through a small array.
+     * @param input Where to read from
+     * @param size How many bytes to read
+     * @return Read-only direct buffer
+     * @throws IOException If fails or there are not enough bytes
+     */
+    private static ByteBuffer direct(final DataInput input, final int size)
+        throws IOException {
+        final ByteBuffer buf = ByteBuffer.allocateDirect(size);
+        final byte[] chunk = new byte[Math.min(Entry.CHUNK, size)];
+        while (buf.hasRemaining()) {
+            final int len = Math.min(chunk.length, buf.remaining());
+            input.readFully(chunk, 0, len);
+            buf.put(chunk, 0, len);
+        }
+        buf.flip();
+        return buf.asReadOnlyBuffer();
+    }
+
+    /**
+     * Read key, expiration time and tags only.
+     * @param input Where to read from
+     * @return Head of the entry
+     * @throws IOException If fails or the data are not an entry
+     */
+    static Entry.Head head(final DataInput input) throws IOException {
+        if (input.readInt() != Entry.MAGIC) {
+            throw new IOException("not a cache entry");
+        }
+        final long time = input.readLong();
+        final String key = input.readUTF();
+        final int count = input.readInt();
+        final Collection<String> tags = new ArrayList<String>(count);
+        for (int idx = 0; idx < count; ++idx) {
+            tags.add(input.readUTF());
+        }
+        return new Entry.Head(key, time, tags);
+    }
+
+    /**
+     * Key, expiration time and tags of an entry.
+     */
+    static final class Head {
+        /**
+         * The key.
+         */
+        private final transient String key;
+        /**
+         * Expiration time.
+         */
+        private final transient long time;
+        /**
+         * Tags.
+         */
+        private final transient Collection<String> tags;
+        /**
+         * Ctor.
+         * @param name The key
+         * @param when Expiration time
+         * @param tgs Tags
+         */
+        Head(final String name, final long when,
+            final Collection<String> tgs) {
+            this.key = name;
+            this.time = when;
+            this.tags = tgs;
+        }
+        /**
+         * The key.
+         * @return Key
+         */
+        String key() {
+            return this.key;
+        }
+        /**
+         * Expiration time.
+         * @return Milliseconds since epoch
+         */
+        long expires() {
+            return this.time;
+        }
+        /**
+         * Tags.
+         * @return Tags
+         */
+        Collection<String> tags() {
+            return this.tags;
+        }
+    }
+
+}
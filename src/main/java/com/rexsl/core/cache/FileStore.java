@@ -0,0 +1,404 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core.cache;
+
+import com.jcabi.log.Logger;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.validation.constraints.NotNull;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Store of entries in files, in a local directory.
+ *
+ * <p>Entries survive restart and may be shared by a few JVMs on the same
+ * host, if all of them use the same directory. Every entry is written
+ * into a temporary file first and then renamed, so that readers never
+ * see partially written entries. Files that can't be read (truncated or
+ * written by something else) are deleted and treated as absent.
+ *
+ * <p>Total size of files is limited (256Mb by default). The directory is
+ * swept after every eighth part of the limit written (and on the first
+ * write): expired and broken entries are deleted, together with
+ * temporary files orphaned by writers that crashed, and then least
+ * recently used entries are deleted until the total fits the limit.
+ * Expired entries are also deleted when somebody tries to read them.
+ *
+ * <p>The class is mutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = { "dir", "max" })
+@EqualsAndHashCode(of = "dir")
+public final class FileStore implements Store {
+
+    /**
+     * Suffix of entry files.
+     */
+    private static final String SUFFIX = ".entry";
+
+    /**
+     * Prefix of temporary files.
+     */
+    private static final String PREFIX = "entry";
+
+    /**
+     * Suffix of temporary files.
+     */
+    private static final String TEMP = ".tmp";
+
+    /**
+     * Default maximum total size of files, in bytes.
+     */
+    private static final long DEFAULT = 256L * 1024 * 1024;
+
+    /**
+     * How many sweeps per one limit of bytes written.
+     */
+    private static final long SWEEPS = 8L;
+
+    /**
+     * Age of a temporary file, after which it is an orphan, in msec.
+     */
+    private static final long ORPHAN = TimeUnit.MINUTES.toMillis(10L);
+
+    /**
+     * Directory.
+     */
+    private final transient File dir;
+
+    /**
+     * Maximum total size of files, in bytes.
+     */
+    private final transient long max;
+
+    /**
+     * Bytes written since the last sweep, starts from the limit, in order
+     * to sweep whatever was left by previous runs on the first write.
+     */
+    private final transient AtomicLong written;
+
+    /**
+     * Is the directory being swept now?
+     */
+    private final transient AtomicBoolean sweeping = new AtomicBoolean();
+
+    /**
+     * Public ctor, with default limit of 256Mb.
+     * @param path Directory to keep files in, will be created if absent
+     */
+    public FileStore(@NotNull final File path) {
+        this(path, FileStore.DEFAULT);
+    }
+
+    /**
+     * Public ctor.
+     * @param path Directory to keep files in, will be created if absent
+     * @param bytes Maximum total size of files, in bytes
+     */
+    public FileStore(@NotNull final File path, final long bytes) {
+        this.dir = path;
+        this.max = bytes;
+        this.written = new AtomicLong(bytes);
+    }
+
+    @Override
+    public Entry get(final String key) throws IOException {
+        final File file = this.file(key);
+        Entry entry = null;
+        if (file.exists()) {
+            try {
+                final InputStream input = new FileInputStream(file);
+                try {
+                    entry = Entry.read(
+                        new DataInputStream(new BufferedInputStream(input))
+                    );
+                } finally {
+                    input.close();
+                }
+            } catch (final FileNotFoundException ex) {
+                entry = null;
+            } catch (final IOException ex) {
+                Logger.warn(this, "broken %s deleted: %s", file, ex);
+                FileStore.delete(file);
+            }
+        }
+        if (entry != null && (!entry.key().equals(key) || entry.expired())) {
+            FileStore.delete(file);
+            entry = null;
+        }
+        if (entry != null
+            && !file.setLastModified(System.currentTimeMillis())) {
+            Logger.debug(this, "can't touch %s", file);
+        }
+        return entry;
+    }
+
+    @Override
+    public void put(final Entry entry) throws IOException {
+        final File file = this.file(entry.key());
+        final File folder = file.getParentFile();
+        if (!folder.exists() && !folder.mkdirs() && !folder.exists()) {
+            throw new IOException(String.format("can't create %s", folder));
+        }
+        final File temp = File.createTempFile(
+            FileStore.PREFIX, FileStore.TEMP, folder
+        );
+        try {
+            final OutputStream output = new FileOutputStream(temp);
+            try {
+                final DataOutputStream data = new DataOutputStream(
+                    new BufferedOutputStream(output)
+                );
+                entry.write(data);
+                data.flush();
+            } finally {
+                output.close();
+            }
+            if (!temp.renameTo(file)) {
+                FileStore.delete(file);
+                if (!temp.renameTo(file)) {
+                    throw new IOException(
+                        String.format("can't rename %s to %s", temp, file)
+                    );
+                }
+            }
+        } finally {
+            FileStore.delete(temp);
+        }
+        if (this.written.addAndGet(file.length())
+            >= this.max / FileStore.SWEEPS) {
+            this.sweep();
+        }
+    }
+
+    @Override
+    public void remove(final String key) {
+        FileStore.delete(this.file(key));
+    }
+
+    @Override
+    public void invalidate(final String tag) {
+        for (final File file : this.files()) {
+            if (file.getName().endsWith(FileStore.SUFFIX)
+                && FileStore.tagged(file, tag)) {
+                FileStore.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Delete expired and broken entries, orphaned temporary files and
+     * least recently used entries over the limit.
+     *
+     * <p>It is called by {@link #put(Entry)} from time to time, and does
+     * nothing if another thread is sweeping the directory now.
+     */
+    public void sweep() {
+        if (this.sweeping.compareAndSet(false, true)) {
+            try {
+                this.written.set(0L);
+                final List<Map.Entry<Long, File>> alive =
+                    new ArrayList<Map.Entry<Long, File>>(0);
+                long total = 0L;
+                for (final File file : this.files()) {
+                    if (FileStore.obsolete(file)) {
+                        FileStore.delete(file);
+                    } else if (file.getName().endsWith(FileStore.SUFFIX)) {
+                        alive.add(
+                            new AbstractMap.SimpleImmutableEntry<Long, File>(
+                                file.lastModified(), file
+                            )
+                        );
+                        total += file.length();
+                    }
+                }
+                if (total > this.max) {
+                    this.evict(alive, total);
+                }
+            } finally {
+                this.sweeping.set(false);
+            }
+        }
+    }
+
+    /**
+     * Delete least recently used entries, until they fit the limit.
+     * @param alive Entries with their modification times
+     * @param bytes Their total size
+     */
+    private void evict(final List<Map.Entry<Long, File>> alive,
+        final long bytes) {
+        Collections.sort(
+            alive,
+            new Comparator<Map.Entry<Long, File>>() {
+                @Override
+                public int compare(final Map.Entry<Long, File> left,
+                    final Map.Entry<Long, File> right) {
+                    return left.getKey().compareTo(right.getKey());
+                }
+            }
+        );
+        long total = bytes;
+        final Iterator<Map.Entry<Long, File>> eldest = alive.iterator();
+        while (total > this.max && eldest.hasNext()) {
+            final File file = eldest.next().getValue();
+            total -= file.length();
+            FileStore.delete(file);
+        }
+        Logger.info(
+            this, "%s swept down to %d bytes, limit is %d",
+            this.dir, total, this.max
+        );
+    }
+
+    /**
+     * All files in the directory.
+     * @return Files
+     */
+    private Collection<File> files() {
+        final Collection<File> all = new ArrayList<File>(0);
+        final File[] folders = this.dir.listFiles();
+        if (folders != null) {
+            for (final File folder : folders) {
+                final File[] files = folder.listFiles();
+                if (files != null) {
+                    all.addAll(Arrays.asList(files));
+                }
+            }
+        }
+        return all;
+    }
+
+    /**
+     * File of the entry.
+     * @param key The key
+     * @return File
+     */
+    private File file(final String key) {
+        final String hash = DigestUtils.sha1Hex(key);
+        return new File(
+            new File(this.dir, hash.substring(0, 2)),
+            String.format("%s%s", hash.substring(2), FileStore.SUFFIX)
+        );
+    }
+
+    /**
+     * Does this file have an entry with this tag (or is it broken)?
+     * @param file The file
+     * @param tag The tag
+     * @return TRUE if it should be deleted
+     */
+    private static boolean tagged(final File file, final String tag) {
+        boolean tagged;
+        InputStream input = null;
+        try {
+            input = new FileInputStream(file);
+            tagged = Entry.head(
+                new DataInputStream(new BufferedInputStream(input))
+            ).tags().contains(tag);
+        } catch (final FileNotFoundException ex) {
+            tagged = false;
+        } catch (final IOException ex) {
+            tagged = true;
+        } finally {
+            IOUtils.closeQuietly(input);
+        }
+        return tagged;
+    }
+
+    /**
+     * Shall this file be deleted by the sweep?
+     * @param file The file
+     * @return TRUE if it's an orphaned temporary file, or an entry which
+     *  is expired or broken
+     */
+    private static boolean obsolete(final File file) {
+        final String name = file.getName();
+        boolean obsolete = false;
+        if (name.startsWith(FileStore.PREFIX)
+            && name.endsWith(FileStore.TEMP)) {
+            obsolete = file.lastModified()
+                < System.currentTimeMillis() - FileStore.ORPHAN;
+        } else if (name.endsWith(FileStore.SUFFIX)) {
+            InputStream input = null;
+            try {
+                input = new FileInputStream(file);
+                obsolete = Entry.head(
+                    new DataInputStream(new BufferedInputStream(input))
+                ).expires() < System.currentTimeMillis();
+            } catch (final FileNotFoundException ex) {
+                obsolete = false;
+            } catch (final IOException ex) {
+                obsolete = true;
+            } finally {
+                IOUtils.closeQuietly(input);
+            }
+        }
+        return obsolete;
+    }
+
+    /**
+     * Delete the file, if it exists.
+     * @param file The file
+     */
+    private static void delete(final File file) {
+        if (file.exists() && !file.delete() && file.exists()) {
+            Logger.warn(FileStore.class, "failed to delete %s", file);
+        }
+    }
+
+}
@@ -0,0 +1,162 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Store of entries in memory, limited by total size of their bodies.
+ *
+ * <p>Only keys, headers and tags of entries are kept in the heap, their
+ * bodies are in direct buffers outside of it (see {@link Entry}). When
+ * the limit is exceeded, least recently used entries are forgotten. Entries don't survive restart and are not shared between
+ * JVMs, use {@link FileStore} for that.
+ *
+ * <p>The class is mutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = "max")
+@EqualsAndHashCode(of = "max")
+public final class HeapStore implements Store {
+
+    /**
+     * Default maximum total size of bodies, in bytes.
+     */
+    private static final long DEFAULT = 16L * 1024 * 1024;
+
+    /**
+     * Maximum total size of bodies, in bytes.
+     */
+    private final transient long max;
+
+    /**
+     * Entries, in access order.
+     */
+    private final transient Map<String, Entry> map =
+        new LinkedHashMap<String, Entry>(16, 0.75f, true);
+
+    /**
+     * Total size of bodies now, in bytes.
+     */
+    private transient long total;
+
+    /**
+     * Public ctor, with default limit of 16Mb.
+     */
+    public HeapStore() {
+        this(HeapStore.DEFAULT);
+    }
+
+    /**
+     * Public ctor.
+     * @param bytes Maximum total size of bodies, in bytes
+     */
+    public HeapStore(final long bytes) {
+        this.max = bytes;
+    }
+
+    @Override
+    public Entry get(final String key) {
+        synchronized (this.map) {
+            Entry entry = this.map.get(key);
+            if (entry != null && entry.expired()) {
+                this.drop(key);
+                entry = null;
+            }
+            return entry;
+        }
+    }
+
+    @Override
+    public void put(final Entry entry) {
+        synchronized (this.map) {
+            this.drop(entry.key());
+            if (entry.size() <= this.max) {
+                this.map.put(entry.key(), entry);
+                this.total += entry.size();
+                final Iterator<Entry> eldest = this.map.values().iterator();
+                while (this.total > this.max) {
+                    this.total -= eldest.next().size();
+                    eldest.remove();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void remove(final String key) {
+        synchronized (this.map) {
+            this.drop(key);
+        }
+    }
+
+    @Override
+    public void invalidate(final String tag) {
+        synchronized (this.map) {
+            final Iterator<Entry> entries = this.map.values().iterator();
+            while (entries.hasNext()) {
+                final Entry entry = entries.next();
+                if (entry.tags().contains(tag)) {
+                    this.total -= entry.size();
+                    entries.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Total size of bodies kept now.
+     * @return Bytes
+     */
+    public long size() {
+        synchronized (this.map) {
+            return this.total;
+        }
+    }
+
+    /**
+     * Remove an entry, must be called under lock.
+     * @param key The key
+     */
+    private void drop(final String key) {
+        final Entry entry = this.map.remove(key);
+        if (entry != null) {
+            this.total -= entry.size();
+        }
+    }
+
+}
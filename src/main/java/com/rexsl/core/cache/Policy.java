@@ -0,0 +1,211 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core.cache;
+
+import com.rexsl.core.annotations.Cached;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import javax.validation.constraints.NotNull;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * How to cache a page: lifetime, stale period and parts of the request
+ * that change the page.
+ *
+ * <p>The policy travels from the resource method (see {@link Cached}) to
+ * the servlet filter in HTTP header {@link #HEADER}, which is never sent
+ * to the client.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString
+@EqualsAndHashCode
+public final class Policy {
+
+    /**
+     * Name of HTTP header with the policy.
+     */
+    public static final String HEADER = "X-Rexsl-Cache";
+
+    /**
+     * Separator between parts of the header.
+     */
+    private static final String SEMICOLON = ";";
+
+    /**
+     * Lifetime, in milliseconds.
+     */
+    private final transient long life;
+
+    /**
+     * Stale period, in milliseconds.
+     */
+    private final transient long grace;
+
+    /**
+     * Names of query parameters.
+     */
+    private final transient List<String> params;
+
+    /**
+     * Does accepted type matter?
+     */
+    private final transient boolean types;
+
+    /**
+     * Cache requests with identities?
+     */
+    private final transient boolean users;
+
+    /**
+     * Public ctor.
+     * @param cached The annotation
+     */
+    public Policy(@NotNull final Cached cached) {
+        this(
+            cached.unit().toMillis(cached.lifetime()),
+            cached.unit().toMillis(cached.stale()),
+            Arrays.asList(cached.query()),
+            cached.accept(),
+            cached.identity()
+        );
+    }
+
+    /**
+     * Public ctor.
+     * @param lifetime Lifetime, in milliseconds
+     * @param stale Stale period, in milliseconds
+     * @param query Names of query parameters
+     * @param accept Does accepted type matter?
+     * @param identity Cache requests with identities?
+     * @checkstyle ParameterNumber (5 lines)
+     */
+    public Policy(final long lifetime, final long stale,
+        @NotNull final Collection<String> query, final boolean accept,
+        final boolean identity) {
+        this.life = lifetime;
+        this.grace = stale;
+        this.params = Collections.unmodifiableList(
+            new ArrayList<String>(query)
+        );
+        this.types = accept;
+        this.users = identity;
+    }
+
+    /**
+     * Parse HTTP header.
+     * @param header Value of HTTP header {@link #HEADER}
+     * @return Policy
+     */
+    public static Policy parse(@NotNull final String header) {
+        final String[] parts = StringUtils.splitPreserveAllTokens(
+            header, Policy.SEMICOLON
+        );
+        if (parts.length != 5) {
+            throw new IllegalArgumentException(
+                String.format("invalid cache policy: '%s'", header)
+            );
+        }
+        return new Policy(
+            Long.parseLong(parts[0]),
+            Long.parseLong(parts[1]),
+            Arrays.asList(StringUtils.split(parts[2], ',')),
+            Boolean.parseBoolean(parts[3]),
+            Boolean.parseBoolean(parts[4])
+        );
+    }
+
+    /**
+     * Make HTTP header, to be parsed by {@link #parse(String)}.
+     * @return Value of HTTP header {@link #HEADER}
+     */
+    public String header() {
+        return StringUtils.join(
+            new Object[] {
+                this.life,
+                this.grace,
+                StringUtils.join(this.params, ','),
+                this.types,
+                this.users,
+            },
+            Policy.SEMICOLON
+        );
+    }
+
+    /**
+     * Lifetime.
+     * @return Milliseconds
+     */
+    public long lifetime() {
+        return this.life;
+    }
+
+    /**
+     * Stale period.
+     * @return Milliseconds
+     */
+    public long stale() {
+        return this.grace;
+    }
+
+    /**
+     * Names of query parameters that change the page.
+     * @return Names
+     */
+    public List<String> query() {
+        return this.params;
+    }
+
+    /**
+     * Does the type of content accepted by the client change the page?
+     * @return TRUE if it does
+     */
+    public boolean accept() {
+        return this.types;
+    }
+
+    /**
+     * Shall requests with identities be cached?
+     * @return TRUE if they shall
+     */
+    public boolean identity() {
+        return this.users;
+    }
+
+}
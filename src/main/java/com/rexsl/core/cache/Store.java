@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core.cache;
+
+import java.io.IOException;
+
+/**
+ * Storage of rendered responses, possibly shared by several JVMs.
+ *
+ * <p>Implementations must be thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ * @see HeapStore
+ * @see FileStore
+ */
+public interface Store {
+
+    /**
+     * Find an entry.
+     * @param key The key
+     * @return Entry found or NULL if it is absent or expired
+     * @throws IOException If fails
+     */
+    Entry get(String key) throws IOException;
+
+    /**
+     * Save an entry, replacing the one with the same key.
+     * @param entry The entry
+     * @throws IOException If fails
+     */
+    void put(Entry entry) throws IOException;
+
+    /**
+     * Remove an entry, if it exists.
+     * @param key The key
+     * @throws IOException If fails
+     */
+    void remove(String key) throws IOException;
+
+    /**
+     * Remove all entries with this tag.
+     * @param tag The tag
+     * @throws IOException If fails
+     */
+    void invalidate(String tag) throws IOException;
+
+}
@@ -31,21 +31,15 @@ package com.rexsl.page;
 
 import com.jcabi.aspects.Loggable;
 import com.jcabi.log.Logger;
+import com.rexsl.core.ServerTiming;
+import com.rexsl.core.TimingFilterFactory;
 import com.rexsl.core.XslResolver;
-import java.lang.management.ManagementFactory;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.net.InetAddress;
-import java.net.UnknownHostException;
-import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Date;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.concurrent.CopyOnWriteArrayList;
 import javax.validation.constraints.NotNull;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.annotation.XmlAccessType;
@@ -134,19 +128,23 @@ public class BasePage<T extends BasePage<?, ?>, R extends Resource> {
     /**
      * The resource.
      */
-    private transient R resource;
+    private transient volatile R resource;
+
+    /**
+     * Version of the entity, if known.
+     */
+    private transient volatile EntityVersion version;
 
     /**
      * Collection of links.
      */
-    private final transient Collection<Link> links =
-        new CopyOnWriteArrayList<Link>();
+    private final transient Sequence<Link> links = new Sequence<Link>();
 
     /**
      * Collection of elements.
      */
-    private final transient Collection<Object> elements =
-        new CopyOnWriteArrayList<Object>();
+    private final transient Sequence<Object> elements =
+        new Sequence<Object>();
 
     /**
      * Init it with Resource.
@@ -154,27 +152,72 @@ public class BasePage<T extends BasePage<?, ?>, R extends Resource> {
      * @return This object
      */
     public final T init(@NotNull final R res) {
-        synchronized (this.links) {
-            this.resource = res;
-        }
+        this.resource = res;
+        return (T) this;
+    }
+
+    /**
+     * Set version of the entity rendered by this page.
+     *
+     * <p>The version is checked against conditional headers of the
+     * request ({@code If-Modified-Since}, {@code If-None-Match}, etc.)
+     * in {@link #render()}, before any insets are executed. The check
+     * needs the JAX-RS request, so it is done only when the resource is
+     * a {@link ScopedResource}. Otherwise, the version only goes to
+     * {@code Last-Modified} and {@code ETag} headers.
+     *
+     * @param ver The version
+     * @return This object
+     * @since 2.0
+     */
+    public final T version(@NotNull final EntityVersion ver) {
+        this.version = ver;
         return (T) this;
     }
 
     /**
      * Render it.
+     *
+     * <p>If the page has an {@link EntityVersion} and the client already
+     * has it, a response without entity is returned immediately (usually
+     * {@code 304 Not Modified}), and nothing is rendered.
+     *
+     * <p>Insets annotated with {@link Inset.Independent} are started in
+     * background first, and then merged into the page in their
+     * normal order. Insets annotated with {@link Inset.Cached} are
+     * rendered only when their cached output is absent or expired.
+     * Their total latency is recorded in {@link ServerTiming}
+     * as {@code insets} stage, which is not included into
+     * {@code resource} stage of {@link TimingFilterFactory}.
+     *
      * @return JAX-RS response
      */
     public final Response.ResponseBuilder render() {
+        final EntityVersion ver = this.version;
+        Date modified = null;
+        EntityTag tag = null;
+        if (ver != null) {
+            modified = ver.lastModified();
+            tag = ver.entityTag();
+            final Response.ResponseBuilder early =
+                this.preconditions(modified, tag);
+            if (early != null) {
+                return early;
+            }
+        }
         final Response.ResponseBuilder builder = Response.ok();
-        for (final Class<? extends Inset> type
-            : BasePage.defaults(this.resource.getClass())) {
-            this.inset(type).render(this, builder);
+        if (modified != null) {
+            builder.lastModified(modified);
         }
-        for (final Method method : this.resource.getClass().getMethods()) {
-            if (method.isAnnotationPresent(Inset.Runtime.class)) {
-                this.inset(method).render(this, builder);
-            }
+        if (tag != null) {
+            builder.tag(tag);
+        }
+        final long start = System.nanoTime();
+        final R res = this.home();
+        for (final Inset inset : InsetPlan.of(res.getClass()).insets(res)) {
+            InsetCache.render(inset, this, builder);
         }
+        ServerTiming.record(TimingFilterFactory.INSETS, start);
         builder.entity(this);
         return builder;
     }
@@ -193,7 +236,9 @@ public class BasePage<T extends BasePage<?, ?>, R extends Resource> {
                 )
             );
         }
-        this.elements.add(element);
+        synchronized (this.elements) {
+            this.elements.add(element);
+        }
         XslResolver.class.cast(
             this.home().providers().getContextResolver(
                 Marshaller.class,
@@ -209,18 +254,62 @@ public class BasePage<T extends BasePage<?, ?>, R extends Resource> {
      * @return This object
      */
     public final T append(@NotNull final Element element) {
-        this.elements.add(element);
+        synchronized (this.elements) {
+            this.elements.add(element);
+        }
         return (T) this;
     }
 
     /**
-     * Add new element.
+     * Add new element (the bundle is streamed when the page is marshalled).
      * @param bundle The element
      * @return This object
      */
     public final T append(@NotNull final JaxbBundle bundle) {
-        this.append(bundle.element());
-        return (T) this;
+        return this.append(StreamedElement.of(bundle));
+    }
+
+    /**
+     * Add new lazy group of elements, which will be created one by one
+     * when the page is marshalled.
+     * @param stream The group
+     * @return This object
+     * @since 2.0
+     */
+    public final T append(@NotNull final JaxbStream<?> stream) {
+        return this.append(StreamedElement.of(stream));
+    }
+
+    /**
+     * Add pre-serialized XML fragment.
+     * @param fragment The fragment
+     * @return This object
+     * @since 2.0
+     */
+    public final T append(@NotNull final XmlFragment fragment) {
+        return this.append(StreamedElement.of(fragment));
+    }
+
+    /**
+     * Take all elements and links from another page.
+     * @param stage The page to take them from
+     */
+    final void absorb(final BasePage<?, ?> stage) {
+        this.absorb(stage.getElements(), stage.links());
+    }
+
+    /**
+     * Take elements and links, which are already attached to the resource.
+     * @param elms Elements
+     * @param lnks Links
+     */
+    final void absorb(final Collection<?> elms, final Collection<Link> lnks) {
+        synchronized (this.elements) {
+            this.elements.addAll(elms);
+        }
+        synchronized (this.links) {
+            this.links.addAll(lnks);
+        }
     }
 
     /**
@@ -228,10 +317,11 @@ public class BasePage<T extends BasePage<?, ?>, R extends Resource> {
      * @return The home resource
      */
     public final R home() {
-        if (this.resource == null) {
+        final R res = this.resource;
+        if (res == null) {
             throw new IllegalStateException("call BasePage#init() first");
         }
-        return this.resource;
+        return res;
     }
 
     /**
@@ -241,7 +331,9 @@ public class BasePage<T extends BasePage<?, ?>, R extends Resource> {
      */
     public final T link(@NotNull final Link link) {
         link.attachTo(this.home());
-        this.links.add(link);
+        synchronized (this.links) {
+            this.links.add(link);
+        }
         return (T) this;
     }
 
@@ -249,10 +341,12 @@ public class BasePage<T extends BasePage<?, ?>, R extends Resource> {
      * Get all elements.
      * @return Full list of injected elements
      */
-    @XmlAnyElement(lax = true)
+    @XmlAnyElement(lax = true, value = JaxbStreamHandler.class)
     @XmlMixed
     public final Collection<Object> getElements() {
-        return Collections.unmodifiableCollection(this.elements);
+        synchronized (this.elements) {
+            return this.elements.snapshot();
+        }
     }
 
     /**
@@ -262,40 +356,72 @@ public class BasePage<T extends BasePage<?, ?>, R extends Resource> {
     @XmlElement(name = "link")
     @XmlElementWrapper(name = "links")
     public final Collection<Link> getLinks() {
+        final Collection<Link> all = this.links();
         Collection<Link> list = null;
-        if (!this.links.isEmpty()) {
-            list = Collections.unmodifiableCollection(this.links);
+        if (!all.isEmpty()) {
+            list = all;
         }
         return list;
     }
 
     /**
-     * Get IP address of the server.
+     * Evaluate request preconditions against the version of the entity.
+     * @param modified Last modification date or NULL
+     * @param tag Entity tag or NULL
+     * @return Response builder if preconditions are not met, or NULL
+     */
+    private Response.ResponseBuilder preconditions(final Date modified,
+        final EntityTag tag) {
+        Response.ResponseBuilder builder = null;
+        final R res = this.home();
+        if (res instanceof ScopedResource) {
+            final Request request = ScopedResource.class.cast(res).request();
+            if (modified != null && tag != null) {
+                builder = request.evaluatePreconditions(modified, tag);
+            } else if (modified != null) {
+                builder = request.evaluatePreconditions(modified);
+            } else if (tag != null) {
+                builder = request.evaluatePreconditions(tag);
+            }
+        }
+        if (builder != null) {
+            if (modified != null) {
+                builder.lastModified(modified);
+            }
+            if (tag != null) {
+                builder.tag(tag);
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Get all links.
+     * @return Snapshot of links
+     */
+    private Collection<Link> links() {
+        synchronized (this.links) {
+            return this.links.snapshot();
+        }
+    }
+
+    /**
+     * Get IP address of the server (refreshed in background every minute).
      * @return The IP address
      */
     @XmlAttribute
     public final String getIp() {
-        String addr;
-        try {
-            addr = InetAddress.getLocalHost().getHostAddress();
-        } catch (final UnknownHostException ex) {
-            Logger.error(this, "#getIp(): %[exception]s", ex);
-            addr = "";
-        }
-        return addr;
+        return ServerFacts.INSTANCE.ip();
     }
 
     /**
-     * Get system load average of the server.
+     * Get system load average of the server (refreshed in background).
      * @return The SLA number
      * @since 1.2
      */
     @XmlAttribute
     public final String getSla() {
-        return String.format(
-            "%.3f",
-            ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage()
-        );
+        return ServerFacts.INSTANCE.sla();
     }
 
     /**
@@ -325,68 +451,4 @@ public class BasePage<T extends BasePage<?, ?>, R extends Resource> {
         return System.currentTimeMillis() - this.home().started();
     }
 
-    /**
-     * Get all specified (by annotations) default insets.
-     * @param type The type to fetch them from or NULL
-     * @return List of them
-     */
-    private static Set<Class<? extends Inset>> defaults(
-        final Class<?> type) {
-        final Set<Class<? extends Inset>> insets =
-            new HashSet<Class<? extends Inset>>(0);
-        if (type != null) {
-            if (type.isAnnotationPresent(Inset.Default.class)) {
-                insets.addAll(
-                    Arrays.asList(
-                        type.getAnnotation(Inset.Default.class).value()
-                    )
-                );
-            }
-            insets.addAll(BasePage.defaults(type.getSuperclass()));
-            for (final Class<?> iface : type.getInterfaces()) {
-                insets.addAll(BasePage.defaults(iface));
-            }
-        }
-        return insets;
-    }
-
-    /**
-     * Instantiate inset.
-     * @param type Type of inset
-     * @return Instance of it
-     */
-    private Inset inset(final Class<? extends Inset> type) {
-        try {
-            return type.getConstructor(Resource.class)
-                .newInstance(this.resource);
-        } catch (final InstantiationException ex) {
-            throw new IllegalStateException(ex);
-        } catch (final IllegalAccessException ex) {
-            throw new IllegalStateException(ex);
-        } catch (final InvocationTargetException ex) {
-            throw new IllegalStateException(ex);
-        } catch (final NoSuchMethodException ex) {
-            throw new IllegalStateException(ex);
-        } catch (final SecurityException ex) {
-            throw new IllegalStateException(ex);
-        }
-    }
-
-    /**
-     * Instantiate inset from a method.
-     * @param method The method
-     * @return Instance of it
-     */
-    private Inset inset(final Method method) {
-        try {
-            return Inset.class.cast(method.invoke(this.resource));
-        } catch (final IllegalAccessException ex) {
-            throw new IllegalStateException(ex);
-        } catch (final IllegalArgumentException ex) {
-            throw new IllegalStateException(ex);
-        } catch (final InvocationTargetException ex) {
-            throw new IllegalStateException(ex);
-        }
-    }
-
 }
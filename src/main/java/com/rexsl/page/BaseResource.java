@@ -37,13 +37,14 @@ import javax.servlet.http.HttpServletRequest;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.SecurityContext;
 import javax.ws.rs.core.UriInfo;
 import javax.ws.rs.ext.Providers;
 import lombok.ToString;
 
 /**
- * Base implementation of {@link Resource}.
+ * Base implementation of {@link Resource} and {@link ScopedResource}.
  *
  * <p>It is recommended to use this class as a base of all your JAX-RS resource
  * classes and construct pages with {@link PageBuilder},
@@ -72,7 +73,7 @@ import lombok.ToString;
  */
 @ToString
 @Loggable(Loggable.DEBUG)
-public class BaseResource implements Resource {
+public class BaseResource implements ScopedResource {
 
     /**
      * Start time of page building.
@@ -112,6 +113,18 @@ public class BaseResource implements Resource {
      */
     private transient ServletContext ctx;
 
+    /**
+     * JAX-RS request.
+     * @since 2.0
+     */
+    private transient Request jaxrs;
+
+    /**
+     * Memo of this request.
+     * @since 2.0
+     */
+    private final transient Memo mem = new Memo();
+
     @Override
     public final long started() {
         return this.start;
@@ -185,6 +198,30 @@ public class BaseResource implements Resource {
         return this.ctx;
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 2.0
+     */
+    @Override
+    @NotNull
+    public final Request request() {
+        this.assertNotNull(
+            this.jaxrs,
+            "%[type]s#request was never injected by JAX-RS"
+        );
+        return this.jaxrs;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 2.0
+     */
+    @Override
+    @NotNull
+    public final Memo memo() {
+        return this.mem;
+    }
+
     /**
      * Set URI Info. Should be called by JAX-RS implementation
      * because of {@code @Context} annotation.
@@ -254,6 +291,17 @@ public class BaseResource implements Resource {
         this.ctx = context;
     }
 
+    /**
+     * Set JAX-RS Request. Should be called by JAX-RS implementation
+     * because of {@code @Context} annotation.
+     * @param request The request
+     * @since 2.0
+     */
+    @Context
+    public final void setRequest(@NotNull final Request request) {
+        this.jaxrs = request;
+    }
+
     /**
      * This resource needs forwarding of {@link UriInfo}?
      * @return TRUE if yes, it needs to use {@link ForwardedUriInfo}
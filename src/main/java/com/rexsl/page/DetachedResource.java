@@ -0,0 +1,669 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.page;
+
+import com.rexsl.core.DetachedRequest;
+import java.net.URI;
+import java.security.Principal;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.core.Cookie;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.PathSegment;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.UriBuilder;
+import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.ext.Providers;
+import lombok.ToString;
+
+/**
+ * Snapshot of a resource, which can be used outside of the thread
+ * of its request.
+ *
+ * <p>JAX-RS implementation injects request-scoped objects ({@link UriInfo},
+ * {@link HttpHeaders}, {@link HttpServletRequest}, etc.) as proxies, which
+ * work only in the thread that serves the request. This class reads
+ * everything it needs from them in its constructor, which has to be called
+ * in that thread, and then may be used anywhere. It is used for insets
+ * rendered in background, see {@link Inset.Independent}.
+ *
+ * <p>The snapshot of {@link HttpServletRequest} answers only about the
+ * client, the URI, headers, cookies, parameters and attributes of the
+ * request (see {@link DetachedRequest}). JAX-RS {@link Request} and roles of the user
+ * ({@link SecurityContext#isUserInRole(String)}) are not available at all.
+ * Everything else throws {@link IllegalStateException}. {@link Providers},
+ * {@link ServletContext} and the memo are shared with the original
+ * resource.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ * @checkstyle ClassDataAbstractionCoupling (500 lines)
+ */
+@ToString(of = "uri")
+@SuppressWarnings({ "PMD.TooManyMethods", "PMD.ExcessiveImports" })
+final class DetachedResource implements ScopedResource {
+
+    /**
+     * When the original resource was started.
+     */
+    private final transient long start;
+
+    /**
+     * URI info.
+     */
+    private final transient UriInfo uri;
+
+    /**
+     * HTTP headers.
+     */
+    private final transient HttpHeaders headers;
+
+    /**
+     * Servlet request.
+     */
+    private final transient HttpServletRequest req;
+
+    /**
+     * Security context.
+     */
+    private final transient SecurityContext security;
+
+    /**
+     * Providers.
+     */
+    private final transient Providers iproviders;
+
+    /**
+     * Servlet context.
+     */
+    private final transient ServletContext ctx;
+
+    /**
+     * Memo.
+     */
+    private final transient Memo mem;
+
+    /**
+     * Public ctor, must be called in the thread of the request.
+     * @param origin The resource to take a snapshot of
+     */
+    DetachedResource(final Resource origin) {
+        this.start = origin.started();
+        this.uri = DetachedResource.uri(origin);
+        this.headers = DetachedResource.headers(origin);
+        this.req = DetachedResource.request(origin);
+        this.security = DetachedResource.security(origin);
+        Providers prov;
+        try {
+            prov = origin.providers();
+        } catch (final IllegalStateException ex) {
+            prov = null;
+        }
+        this.iproviders = prov;
+        ServletContext servlet;
+        try {
+            servlet = origin.servletContext();
+        } catch (final IllegalStateException ex) {
+            servlet = null;
+        }
+        this.ctx = servlet;
+        if (origin instanceof ScopedResource) {
+            this.mem = ScopedResource.class.cast(origin).memo();
+        } else {
+            this.mem = new Memo();
+        }
+    }
+
+    @Override
+    public long started() {
+        return this.start;
+    }
+
+    @Override
+    public UriInfo uriInfo() {
+        return DetachedResource.present(this.uri, "URI info");
+    }
+
+    @Override
+    public Providers providers() {
+        return DetachedResource.present(this.iproviders, "providers");
+    }
+
+    @Override
+    public HttpHeaders httpHeaders() {
+        return DetachedResource.present(this.headers, "HTTP headers");
+    }
+
+    @Override
+    public HttpServletRequest httpServletRequest() {
+        return DetachedResource.present(this.req, "servlet request");
+    }
+
+    @Override
+    public SecurityContext securityContext() {
+        return DetachedResource.present(this.security, "security context");
+    }
+
+    @Override
+    public ServletContext servletContext() {
+        return DetachedResource.present(this.ctx, "servlet context");
+    }
+
+    @Override
+    public Request request() {
+        throw new IllegalStateException(
+            "JAX-RS request is not available outside of its thread"
+        );
+    }
+
+    @Override
+    public Memo memo() {
+        return this.mem;
+    }
+
+    /**
+     * Check that the object was available in the original resource.
+     * @param object The object or NULL
+     * @param name Its name
+     * @return The object
+     * @param <T> Type of it
+     */
+    private static <T> T present(final T object, final String name) {
+        if (object == null) {
+            throw new IllegalStateException(
+                String.format("%s was not available in the resource", name)
+            );
+        }
+        return object;
+    }
+
+    /**
+     * Make a snapshot of URI info.
+     * @param res The resource
+     * @return Snapshot or NULL if it's not available
+     */
+    private static UriInfo uri(final Resource res) {
+        UriInfo info = null;
+        try {
+            final UriInfo origin = res.uriInfo();
+            if (origin != null) {
+                info = new DetachedResource.Uri(origin);
+            }
+        } catch (final IllegalStateException ex) {
+            info = null;
+        }
+        return info;
+    }
+
+    /**
+     * Make a snapshot of HTTP headers.
+     * @param res The resource
+     * @return Snapshot or NULL if they are not available
+     */
+    private static HttpHeaders headers(final Resource res) {
+        HttpHeaders hdrs = null;
+        try {
+            final HttpHeaders origin = res.httpHeaders();
+            if (origin != null) {
+                hdrs = new DetachedResource.Headers(origin);
+            }
+        } catch (final IllegalStateException ex) {
+            hdrs = null;
+        }
+        return hdrs;
+    }
+
+    /**
+     * Make a snapshot of security context.
+     * @param res The resource
+     * @return Snapshot or NULL if it's not available
+     */
+    private static SecurityContext security(final Resource res) {
+        SecurityContext context = null;
+        try {
+            final SecurityContext origin = res.securityContext();
+            if (origin != null) {
+                context = new DetachedResource.Security(origin);
+            }
+        } catch (final IllegalStateException ex) {
+            context = null;
+        }
+        return context;
+    }
+
+    /**
+     * Make a snapshot of servlet request.
+     * @param res The resource
+     * @return Snapshot or NULL if it's not available
+     */
+    private static HttpServletRequest request(final Resource res) {
+        HttpServletRequest request = null;
+        try {
+            final HttpServletRequest origin = res.httpServletRequest();
+            if (origin != null) {
+                request = DetachedRequest.of(origin);
+            }
+        } catch (final IllegalStateException ex) {
+            request = null;
+        }
+        return request;
+    }
+
+    /**
+     * Snapshot of URI info.
+     */
+    @ToString(of = "request")
+    private static final class Uri implements UriInfo {
+        /**
+         * Base URI.
+         */
+        private final transient URI base;
+        /**
+         * Request URI.
+         */
+        private final transient URI request;
+        /**
+         * Absolute path.
+         */
+        private final transient URI absolute;
+        /**
+         * Path, decoded and not.
+         */
+        private final transient String[] path;
+        /**
+         * Path segments, decoded and not.
+         */
+        private final transient List<List<PathSegment>> segments;
+        /**
+         * Path parameters, decoded and not.
+         */
+        private final transient List<MultivaluedMap<String, String>> prms;
+        /**
+         * Query parameters, decoded and not.
+         */
+        private final transient List<MultivaluedMap<String, String>> query;
+        /**
+         * Matched URIs, decoded and not.
+         */
+        private final transient List<List<String>> matched;
+        /**
+         * Matched resources.
+         */
+        private final transient List<Object> resources;
+        /**
+         * Ctor.
+         * @param info Original info
+         */
+        Uri(final UriInfo info) {
+            this.base = info.getBaseUri();
+            this.request = info.getRequestUri();
+            this.absolute = info.getAbsolutePath();
+            this.path = new String[] {info.getPath(false), info.getPath()};
+            this.segments = new ArrayList<List<PathSegment>>(2);
+            this.prms = new ArrayList<MultivaluedMap<String, String>>(2);
+            this.query = new ArrayList<MultivaluedMap<String, String>>(2);
+            this.matched = new ArrayList<List<String>>(2);
+            for (final boolean decode : new boolean[] {false, true}) {
+                this.segments.add(
+                    DetachedResource.copy(info.getPathSegments(decode))
+                );
+                this.prms.add(
+                    new DetachedResource.Values(
+                        info.getPathParameters(decode), false
+                    )
+                );
+                this.query.add(
+                    new DetachedResource.Values(
+                        info.getQueryParameters(decode), false
+                    )
+                );
+                this.matched.add(
+                    DetachedResource.copy(info.getMatchedURIs(decode))
+                );
+            }
+            this.resources = DetachedResource.copy(info.getMatchedResources());
+        }
+        @Override
+        public String getPath() {
+            return this.getPath(true);
+        }
+        @Override
+        public String getPath(final boolean decode) {
+            return this.path[DetachedResource.index(decode)];
+        }
+        @Override
+        public List<PathSegment> getPathSegments() {
+            return this.getPathSegments(true);
+        }
+        @Override
+        public List<PathSegment> getPathSegments(final boolean decode) {
+            return this.segments.get(DetachedResource.index(decode));
+        }
+        @Override
+        public URI getRequestUri() {
+            return this.request;
+        }
+        @Override
+        public UriBuilder getRequestUriBuilder() {
+            return UriBuilder.fromUri(this.request);
+        }
+        @Override
+        public URI getAbsolutePath() {
+            return this.absolute;
+        }
+        @Override
+        public UriBuilder getAbsolutePathBuilder() {
+            return UriBuilder.fromUri(this.absolute);
+        }
+        @Override
+        public URI getBaseUri() {
+            return this.base;
+        }
+        @Override
+        public UriBuilder getBaseUriBuilder() {
+            return UriBuilder.fromUri(this.base);
+        }
+        @Override
+        public MultivaluedMap<String, String> getPathParameters() {
+            return this.getPathParameters(true);
+        }
+        @Override
+        public MultivaluedMap<String, String> getPathParameters(
+            final boolean decode) {
+            return this.prms.get(DetachedResource.index(decode));
+        }
+        @Override
+        public MultivaluedMap<String, String> getQueryParameters() {
+            return this.getQueryParameters(true);
+        }
+        @Override
+        public MultivaluedMap<String, String> getQueryParameters(
+            final boolean decode) {
+            return this.query.get(DetachedResource.index(decode));
+        }
+        @Override
+        public List<String> getMatchedURIs() {
+            return this.getMatchedURIs(true);
+        }
+        @Override
+        public List<String> getMatchedURIs(final boolean decode) {
+            return this.matched.get(DetachedResource.index(decode));
+        }
+        @Override
+        public List<Object> getMatchedResources() {
+            return this.resources;
+        }
+    }
+
+    /**
+     * Snapshot of HTTP headers.
+     */
+    @ToString(of = "map")
+    private static final class Headers implements HttpHeaders {
+        /**
+         * All headers.
+         */
+        private final transient MultivaluedMap<String, String> map;
+        /**
+         * Acceptable media types.
+         */
+        private final transient List<MediaType> types;
+        /**
+         * Acceptable languages.
+         */
+        private final transient List<Locale> languages;
+        /**
+         * Media type.
+         */
+        private final transient MediaType type;
+        /**
+         * Language.
+         */
+        private final transient Locale language;
+        /**
+         * Cookies.
+         */
+        private final transient Map<String, Cookie> cookies;
+        /**
+         * Ctor.
+         * @param origin Original headers
+         */
+        Headers(final HttpHeaders origin) {
+            this.map = new DetachedResource.Values(
+                origin.getRequestHeaders(), true
+            );
+            this.types = DetachedResource.copy(
+                origin.getAcceptableMediaTypes()
+            );
+            this.languages = DetachedResource.copy(
+                origin.getAcceptableLanguages()
+            );
+            this.type = origin.getMediaType();
+            this.language = origin.getLanguage();
+            final Map<String, Cookie> all = origin.getCookies();
+            if (all == null) {
+                this.cookies = Collections.emptyMap();
+            } else {
+                this.cookies = Collections.unmodifiableMap(
+                    new LinkedHashMap<String, Cookie>(all)
+                );
+            }
+        }
+        @Override
+        public List<String> getRequestHeader(final String name) {
+            return this.map.get(name);
+        }
+        @Override
+        public MultivaluedMap<String, String> getRequestHeaders() {
+            return this.map;
+        }
+        @Override
+        public List<MediaType> getAcceptableMediaTypes() {
+            return this.types;
+        }
+        @Override
+        public List<Locale> getAcceptableLanguages() {
+            return this.languages;
+        }
+        @Override
+        public MediaType getMediaType() {
+            return this.type;
+        }
+        @Override
+        public Locale getLanguage() {
+            return this.language;
+        }
+        @Override
+        public Map<String, Cookie> getCookies() {
+            return this.cookies;
+        }
+    }
+
+    /**
+     * Snapshot of security context.
+     */
+    @ToString
+    private static final class Security implements SecurityContext {
+        /**
+         * User principal.
+         */
+        private final transient Principal principal;
+        /**
+         * Is it secure?
+         */
+        private final transient boolean secure;
+        /**
+         * Authentication scheme.
+         */
+        private final transient String scheme;
+        /**
+         * Ctor.
+         * @param origin Original context
+         */
+        Security(final SecurityContext origin) {
+            this.principal = origin.getUserPrincipal();
+            this.secure = origin.isSecure();
+            this.scheme = origin.getAuthenticationScheme();
+        }
+        @Override
+        public Principal getUserPrincipal() {
+            return this.principal;
+        }
+        @Override
+        public boolean isUserInRole(final String role) {
+            throw new IllegalStateException(
+                "roles of the user are not available outside of request thread"
+            );
+        }
+        @Override
+        public boolean isSecure() {
+            return this.secure;
+        }
+        @Override
+        public String getAuthenticationScheme() {
+            return this.scheme;
+        }
+    }
+
+    /**
+     * Read-only copy of multivalued map.
+     */
+    private static final class Values
+        extends AbstractMap<String, List<String>>
+        implements MultivaluedMap<String, String> {
+        /**
+         * The map.
+         */
+        private final transient Map<String, List<String>> map;
+        /**
+         * Ctor.
+         * @param origin Original map, may be NULL
+         * @param insensitive Keys are case-insensitive
+         */
+        Values(final Map<String, List<String>> origin,
+            final boolean insensitive) {
+            super();
+            final Map<String, List<String>> copy;
+            if (insensitive) {
+                copy = new TreeMap<String, List<String>>(
+                    String.CASE_INSENSITIVE_ORDER
+                );
+            } else {
+                copy = new LinkedHashMap<String, List<String>>(0);
+            }
+            if (origin != null) {
+                for (final Map.Entry<String, List<String>> entry
+                    : origin.entrySet()) {
+                    copy.put(
+                        entry.getKey(),
+                        DetachedResource.copy(entry.getValue())
+                    );
+                }
+            }
+            this.map = Collections.unmodifiableMap(copy);
+        }
+        @Override
+        public Set<Map.Entry<String, List<String>>> entrySet() {
+            return this.map.entrySet();
+        }
+        @Override
+        public List<String> get(final Object key) {
+            return this.map.get(key);
+        }
+        @Override
+        public boolean containsKey(final Object key) {
+            return this.map.containsKey(key);
+        }
+        @Override
+        public void putSingle(final String key, final String value) {
+            throw new UnsupportedOperationException();
+        }
+        @Override
+        public void add(final String key, final String value) {
+            throw new UnsupportedOperationException();
+        }
+        @Override
+        public String getFirst(final String key) {
+            final List<String> list = this.map.get(key);
+            String first = null;
+            if (list != null && !list.isEmpty()) {
+                first = list.get(0);
+            }
+            return first;
+        }
+    }
+
+    /**
+     * Read-only copy of a list.
+     * @param list The list, may be NULL
+     * @return Copy
+     * @param <T> Type of items
+     */
+    private static <T> List<T> copy(final List<T> list) {
+        final List<T> copy;
+        if (list == null) {
+            copy = Collections.emptyList();
+        } else {
+            copy = Collections.unmodifiableList(new ArrayList<T>(list));
+        }
+        return copy;
+    }
+
+    /**
+     * Index of decoded or not decoded value.
+     * @param decode Decoded?
+     * @return Index
+     */
+    private static int index(final boolean decode) {
+        final int idx;
+        if (decode) {
+            idx = 1;
+        } else {
+            idx = 0;
+        }
+        return idx;
+    }
+
+}
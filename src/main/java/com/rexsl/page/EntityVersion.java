@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.page;
+
+import java.util.Date;
+import javax.ws.rs.core.EntityTag;
+
+/**
+ * Version of the entity rendered by a page, used to answer conditional
+ * HTTP requests before the page is rendered.
+ *
+ * <p>For example:
+ *
+ * <pre> &#64;GET
+ * public Response front() {
+ *   return new PageBuilder()
+ *     .stylesheet("/xsl/front.xsl")
+ *     .build(BasePage.class)
+ *     .init(this)
+ *     .version(
+ *       new EntityVersion() {
+ *         &#64;Override
+ *         public Date lastModified() {
+ *           return articles.updated();
+ *         }
+ *         &#64;Override
+ *         public EntityTag entityTag() {
+ *           return null;
+ *         }
+ *       }
+ *     )
+ *     .render()
+ *     .build();
+ * }</pre>
+ *
+ * <p>When the client already has this version, {@link BasePage#render()}
+ * returns {@code 304 Not Modified} (or {@code 412 Precondition Failed})
+ * without running insets, marshalling or transforming the page.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ * @see BasePage#version(EntityVersion)
+ */
+public interface EntityVersion {
+
+    /**
+     * When the entity was modified last time.
+     * @return The date or NULL if unknown
+     */
+    Date lastModified();
+
+    /**
+     * Entity tag of the entity.
+     * @return The tag or NULL if unknown
+     */
+    EntityTag entityTag();
+
+}
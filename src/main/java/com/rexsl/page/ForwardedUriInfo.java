@@ -81,6 +81,16 @@ final class ForwardedUriInfo implements UriInfo {
      */
     private transient String scheme;
 
+    /**
+     * Base URI, already forwarded, or NULL if not yet calculated.
+     */
+    private transient URI base;
+
+    /**
+     * Request URI, already forwarded, or NULL if not yet calculated.
+     */
+    private transient URI request;
+
     /**
      * Public ctor.
      * @param inf The original UriInfo
@@ -112,7 +122,10 @@ final class ForwardedUriInfo implements UriInfo {
     @Override
     @NotNull
     public URI getBaseUri() {
-        return this.getBaseUriBuilder().build();
+        if (this.base == null) {
+            this.base = this.getBaseUriBuilder().build();
+        }
+        return this.base;
     }
 
     @Override
@@ -124,7 +137,10 @@ final class ForwardedUriInfo implements UriInfo {
     @Override
     @NotNull
     public URI getRequestUri() {
-        return this.getRequestUriBuilder().build();
+        if (this.request == null) {
+            this.request = this.getRequestUriBuilder().build();
+        }
+        return this.request;
     }
 
     @Override
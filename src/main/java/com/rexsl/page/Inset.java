@@ -34,6 +34,7 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
 import javax.ws.rs.core.Response;
 
 /**
@@ -94,7 +95,8 @@ public interface Inset {
      *
      * <p>All classes listed in the annotation will be instantiated with
      * one-argument constructors. If such constructor is absent a runtime
-     * exception is thrown.
+     * exception is thrown. Classes annotated with {@link Inset.Stateless}
+     * are instantiated only once, with no-argument constructors.
      */
     @Documented
     @Retention(RetentionPolicy.RUNTIME)
@@ -106,6 +108,108 @@ public interface Inset {
         Class<? extends Inset>[] value();
     }
 
+    /**
+     * Annotates an inset class, which doesn't depend on the resource
+     * and can be shared by all pages.
+     *
+     * <p>When such an inset is listed in {@link Inset.Default}, it is
+     * instantiated only once, with its public no-argument constructor, and
+     * then reused for every page rendered. The class must be thread-safe.
+     *
+     * @since 2.0
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.TYPE)
+    @interface Stateless {
+    }
+
+    /**
+     * Annotates an inset class, which doesn't depend on other insets and
+     * may be rendered in parallel with them.
+     *
+     * <p>Such an inset is rendered in a background thread, into its own
+     * staging page and response builder, which are merged into the real
+     * ones in the order of insets. The inset may use only methods of
+     * {@link BasePage} and may change only headers and cookies of
+     * the response. Since request-scoped objects of JAX-RS work only in the
+     * thread of the request, the staging page and default insets
+     * (see {@link Inset.Default}) get a snapshot of the resource, made
+     * before the rendering starts. The snapshot doesn't provide JAX-RS
+     * {@link javax.ws.rs.core.Request} and roles of the user, and its
+     * servlet request answers only about the client, the URI, headers,
+     * cookies, parameters and attributes. Insets returned by
+     * {@link Inset.Runtime} methods are bound to the real resource, so they
+     * should get it only through {@link BasePage#home()} of the page. If the inset doesn't finish within
+     * {@link #timeout()} milliseconds, or fails with an exception other than
+     * {@link javax.ws.rs.WebApplicationException}, its
+     * {@link Inset.Fallback} is used, if the inset implements it.
+     * Otherwise, the slow inset is skipped and the failed one
+     * fails the page.
+     *
+     * @since 2.0
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.TYPE)
+    @interface Independent {
+        /**
+         * Maximum time to wait for the inset, in milliseconds.
+         */
+        long timeout() default 1000L;
+    }
+
+    /**
+     * Annotates an inset class, whose output is the same for all users and
+     * can be cached for some time.
+     *
+     * <p>The output (elements, links and headers, except
+     * {@code Set-Cookie}) is cached by the class of the inset, class of
+     * the resource, base URI, path of the request URI and values of
+     * query parameters listed in {@link #query()}. Until it expires,
+     * the inset is not rendered and its cached output is added to the page
+     * instead. Don't use it for insets that render anything specific to
+     * the current user, like {@code AuthInset} or {@code FlashInset}, they
+     * are rendered for every page.
+     *
+     * @since 2.0
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.TYPE)
+    @interface Cached {
+        /**
+         * How long to keep the output.
+         */
+        long lifetime();
+        /**
+         * Time unit of the lifetime.
+         */
+        TimeUnit unit() default TimeUnit.MINUTES;
+        /**
+         * Names of query parameters that change the output.
+         */
+        String[] query() default { };
+    }
+
+    /**
+     * Inset that can render something instead of itself, when it
+     * is too slow or fails.
+     *
+     * @see Inset.Independent
+     * @since 2.0
+     */
+    interface Fallback extends Inset {
+        /**
+         * Render the fallback into the page and response builder.
+         * @param page The page to render
+         * @param builder The builder
+         * @param cause Why the inset failed
+         */
+        void fallback(BasePage<?, ?> page, Response.ResponseBuilder builder,
+            Throwable cause);
+    }
+
     /**
      * Render it into the response builder.
      * @param page The page to render
@@ -0,0 +1,446 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.page;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+import javax.xml.bind.JAXBException;
+import lombok.ToString;
+import org.w3c.dom.Element;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+
+/**
+ * Cache of inset output, for insets annotated with {@link Inset.Cached}.
+ *
+ * <p>When there is nothing in cache, the inset is rendered into a staging
+ * page and its output is recorded. Cookies it sets go only to the
+ * current response and are never replayed. When many requests miss the
+ * same entry at the same time, only one of them renders the inset, while
+ * the others wait for its output.
+ *
+ * <p>The output is kept as immutable recorded XML fragments and values of
+ * links, and every page gets its own copies of them.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ */
+final class InsetCache {
+
+    /**
+     * Maximum number of entries in cache.
+     */
+    private static final int MAX = 1024;
+
+    /**
+     * Cached outputs.
+     */
+    private static final ConcurrentMap<String, InsetCache.Output> CACHE =
+        new ConcurrentHashMap<String, InsetCache.Output>(0);
+
+    /**
+     * Outputs being rendered now.
+     */
+    private static final ConcurrentMap<String, FutureTask<InsetCache.Output>>
+        FLIGHTS = new ConcurrentHashMap<String, FutureTask<InsetCache.Output>>(
+            0
+        );
+
+    /**
+     * Utility class.
+     */
+    private InsetCache() {
+        // intentionally empty
+    }
+
+    /**
+     * Render the inset into the page, taking the output from cache,
+     * if possible.
+     * @param inset The inset
+     * @param page The page
+     * @param builder The builder
+     */
+    public static void render(final Inset inset, final BasePage<?, ?> page,
+        final Response.ResponseBuilder builder) {
+        InsetCache.render(
+            inset, InsetCache.key(inset, page.home()), page, builder
+        );
+    }
+
+    /**
+     * Render the inset into the page, taking the output from cache by the
+     * key, which was calculated before, if possible.
+     * @param inset The inset
+     * @param key The key, or NULL if the inset is not cached
+     * @param page The page
+     * @param builder The builder
+     */
+    public static void render(final Inset inset, final String key,
+        final BasePage<?, ?> page, final Response.ResponseBuilder builder) {
+        if (key == null) {
+            inset.render(page, builder);
+        } else {
+            InsetCache.Output output = InsetCache.CACHE.get(key);
+            if (output == null || output.expired()) {
+                output = InsetCache.fly(inset, key, page, builder);
+            }
+            output.render(page, builder);
+        }
+    }
+
+    /**
+     * Make a key of the inset, which has to be called in the thread of
+     * the request.
+     * @param inset The inset
+     * @param resource The resource
+     * @return Key or NULL if the inset is not cached
+     */
+    public static String key(final Inset inset, final Resource resource) {
+        final Inset.Cached cached =
+            inset.getClass().getAnnotation(Inset.Cached.class);
+        String key = null;
+        if (cached != null) {
+            key = InsetCache.key(inset, resource, cached);
+        }
+        return key;
+    }
+
+    /**
+     * Render the inset, or wait while another thread renders it.
+     * @param inset The inset
+     * @param key The key
+     * @param page The page
+     * @param builder The builder, to get cookies of the inset
+     * @return Output
+     */
+    private static InsetCache.Output fly(final Inset inset, final String key,
+        final BasePage<?, ?> page, final Response.ResponseBuilder builder) {
+        final Inset.Cached cached =
+            inset.getClass().getAnnotation(Inset.Cached.class);
+        final BasePage<?, ?> stage =
+            new BasePage<BasePage<?, ?>, Resource>().init(page.home());
+        final Collection<Object> cookies = new Sequence<Object>();
+        final FutureTask<InsetCache.Output> mine =
+            new FutureTask<InsetCache.Output>(
+                new Callable<InsetCache.Output>() {
+                    @Override
+                    public InsetCache.Output call() {
+                        final Response.ResponseBuilder staged = Response.ok();
+                        inset.render(stage, staged);
+                        final Response response = staged.build();
+                        final List<Object> values = response.getMetadata()
+                            .get(HttpHeaders.SET_COOKIE);
+                        if (values != null) {
+                            cookies.addAll(values);
+                        }
+                        return new InsetCache.Output(
+                            stage, response,
+                            cached.unit().toNanos(cached.lifetime())
+                        );
+                    }
+                }
+            );
+        FutureTask<InsetCache.Output> flight =
+            InsetCache.FLIGHTS.putIfAbsent(key, mine);
+        if (flight == null) {
+            flight = mine;
+            try {
+                mine.run();
+                final InsetCache.Output output = InsetCache.await(mine);
+                if (InsetCache.CACHE.size() >= InsetCache.MAX) {
+                    InsetCache.clean();
+                }
+                InsetCache.CACHE.put(key, output);
+                for (final Object cookie : cookies) {
+                    builder.header(HttpHeaders.SET_COOKIE, cookie);
+                }
+            } finally {
+                InsetCache.FLIGHTS.remove(key, mine);
+            }
+        }
+        return InsetCache.await(flight);
+    }
+
+    /**
+     * Wait for the output.
+     * @param flight The rendering
+     * @return Output
+     */
+    private static InsetCache.Output await(
+        final FutureTask<InsetCache.Output> flight) {
+        try {
+            return flight.get();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        } catch (final ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw RuntimeException.class.cast(cause);
+            }
+            if (cause instanceof Error) {
+                throw Error.class.cast(cause);
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Make a key.
+     * @param inset The inset
+     * @param resource The resource
+     * @param cached Annotation
+     * @return Key
+     */
+    private static String key(final Inset inset, final Resource resource,
+        final Inset.Cached cached) {
+        final UriInfo info = resource.uriInfo();
+        final StringBuilder key = new StringBuilder(0)
+            .append(inset.getClass().getName())
+            .append(' ')
+            .append(resource.getClass().getName())
+            .append(' ')
+            .append(info.getBaseUri())
+            .append(' ')
+            .append(info.getPath());
+        for (final String param : cached.query()) {
+            key.append(' ').append(param).append('=')
+                .append(info.getQueryParameters().get(param));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Remove all expired entries, or everything if that's not enough.
+     */
+    private static void clean() {
+        for (final Map.Entry<String, InsetCache.Output> entry
+            : InsetCache.CACHE.entrySet()) {
+            if (entry.getValue().expired()) {
+                InsetCache.CACHE.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        if (InsetCache.CACHE.size() >= InsetCache.MAX) {
+            InsetCache.CACHE.clear();
+        }
+    }
+
+    /**
+     * Recorded output of an inset.
+     */
+    @ToString
+    private static final class Output {
+        /**
+         * Elements, as pre-serialized fragments.
+         */
+        private final transient Collection<XmlFragment> elements =
+            new Sequence<XmlFragment>();
+        /**
+         * Links, as their attributes and pre-serialized sub-elements.
+         */
+        private final transient Collection<InsetCache.Anchor> links =
+            new Sequence<InsetCache.Anchor>();
+        /**
+         * Headers, names and values one after another.
+         */
+        private final transient List<Object> headers = new Sequence<Object>();
+        /**
+         * When it expires, in nanoseconds.
+         */
+        private final transient long expires;
+        /**
+         * Public ctor.
+         * @param stage Staging page with the output
+         * @param response Response with headers
+         * @param lifetime Lifetime in nanoseconds
+         */
+        Output(final BasePage<?, ?> stage, final Response response,
+            final long lifetime) {
+            for (final Object element : stage.getElements()) {
+                this.elements.add(InsetCache.Output.record(element));
+            }
+            final Collection<Link> lnks = stage.getLinks();
+            if (lnks != null) {
+                for (final Link link : lnks) {
+                    this.links.add(new InsetCache.Anchor(link));
+                }
+            }
+            for (final Map.Entry<String, List<Object>> header
+                : response.getMetadata().entrySet()) {
+                if (!HttpHeaders.SET_COOKIE.equalsIgnoreCase(
+                    header.getKey()
+                )) {
+                    for (final Object value : header.getValue()) {
+                        this.headers.add(header.getKey());
+                        this.headers.add(value);
+                    }
+                }
+            }
+            this.expires = System.nanoTime() + lifetime;
+        }
+        /**
+         * Is it expired already?
+         * @return TRUE if expired
+         */
+        public boolean expired() {
+            return System.nanoTime() - this.expires > 0;
+        }
+        /**
+         * Render it to the page.
+         * @param page The page
+         * @param builder The builder
+         */
+        public void render(final BasePage<?, ?> page,
+            final Response.ResponseBuilder builder) {
+            final Collection<Object> elms = new Sequence<Object>();
+            for (final XmlFragment element : this.elements) {
+                elms.add(StreamedElement.of(element));
+            }
+            final Collection<Link> lnks = new Sequence<Link>();
+            for (final InsetCache.Anchor link : this.links) {
+                lnks.add(link.link());
+            }
+            page.absorb(elms, lnks);
+            for (int idx = 0; idx < this.headers.size(); idx += 2) {
+                builder.header(
+                    this.headers.get(idx).toString(), this.headers.get(idx + 1)
+                );
+            }
+        }
+        /**
+         * Record an element of page.
+         * @param element The element
+         * @return Recorded fragment
+         */
+        public static XmlFragment record(final Object element) {
+            return XmlFragment.record(InsetCache.Output.source(element));
+        }
+        /**
+         * Make a source of SAX events from an element of page.
+         * @param element The element
+         * @return Streamable
+         */
+        private static Streamable source(final Object element) {
+            final Streamable source;
+            if (element instanceof Element) {
+                final Streamable origin =
+                    StreamedElement.source(Element.class.cast(element));
+                if (origin == null) {
+                    source = new Streamable() {
+                        @Override
+                        public void stream(final ContentHandler handler)
+                            throws SAXException {
+                            JaxbBundle.stream(
+                                Element.class.cast(element), handler
+                            );
+                        }
+                    };
+                } else {
+                    source = origin;
+                }
+            } else {
+                source = new Streamable() {
+                    @Override
+                    public void stream(final ContentHandler handler)
+                        throws SAXException {
+                        try {
+                            JaxbStream.marshaller(element.getClass())
+                                .marshal(element, handler);
+                        } catch (final JAXBException ex) {
+                            throw new SAXException(ex);
+                        }
+                    }
+                };
+            }
+            return source;
+        }
+    }
+
+    /**
+     * Recorded link.
+     */
+    @ToString
+    private static final class Anchor {
+        /**
+         * REL attribute.
+         */
+        private final transient String rel;
+        /**
+         * HREF attribute.
+         */
+        private final transient URI href;
+        /**
+         * Type of destination.
+         */
+        private final transient String type;
+        /**
+         * Sub-elements, as pre-serialized fragments.
+         */
+        private final transient Collection<XmlFragment> elements =
+            new Sequence<XmlFragment>();
+        /**
+         * Public ctor.
+         * @param link The link to record
+         */
+        Anchor(final Link link) {
+            this.rel = link.getRel();
+            this.href = link.getHref();
+            this.type = link.getType();
+            for (final Object element : link.getElements()) {
+                this.elements.add(InsetCache.Output.record(element));
+            }
+        }
+        /**
+         * Make a new link.
+         * @return The link
+         */
+        public Link link() {
+            final Link link = new Link(this.rel, this.href, this.type);
+            for (final XmlFragment element : this.elements) {
+                link.with(StreamedElement.of(element));
+            }
+            return link;
+        }
+    }
+
+}
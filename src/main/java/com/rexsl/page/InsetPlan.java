@@ -0,0 +1,287 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.page;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Execution plan of insets, for one class of JAX-RS resources.
+ *
+ * <p>The plan is built once per resource class, when the first page
+ * is rendered for it, and then reused. It contains constructors of all
+ * default insets (see {@link Inset.Default}), in a stable order, and
+ * all methods annotated with {@link Inset.Runtime}, sorted by name.
+ * Insets annotated with {@link Inset.Stateless} are instantiated
+ * only once and shared by all pages.
+ *
+ * <p>Insets annotated with {@link Inset.Independent} are wrapped into
+ * {@link StagedInset}s and get a {@link DetachedResource} instead of the
+ * real one, since they are rendered outside of the thread of the request.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString
+@EqualsAndHashCode(of = { "ctors", "methods" })
+final class InsetPlan {
+
+    /**
+     * All plans, built so far, per class of resource.
+     */
+    private static final ConcurrentMap<Class<?>, InsetPlan> PLANS =
+        new ConcurrentHashMap<Class<?>, InsetPlan>(0);
+
+    /**
+     * Shared instances of stateless insets (NULL for all others).
+     */
+    private final transient Inset[] shared;
+
+    /**
+     * Constructors of default insets (NULL for stateless ones).
+     */
+    private final transient Constructor<?>[] ctors;
+
+    /**
+     * Methods annotated with {@link Inset.Runtime}.
+     */
+    private final transient Method[] methods;
+
+    /**
+     * Private ctor.
+     * @param type Type of resource
+     */
+    private InsetPlan(final Class<?> type) {
+        final Set<Class<? extends Inset>> types = InsetPlan.defaults(type);
+        this.shared = new Inset[types.size()];
+        this.ctors = new Constructor<?>[types.size()];
+        int idx = 0;
+        for (final Class<? extends Inset> inset : types) {
+            if (inset.isAnnotationPresent(Inset.Stateless.class)) {
+                this.shared[idx] = InsetPlan.instantiate(
+                    InsetPlan.ctor(inset), new Object[0]
+                );
+            } else {
+                this.ctors[idx] = InsetPlan.ctor(inset, Resource.class);
+            }
+            ++idx;
+        }
+        final List<Method> runtime = new LinkedList<Method>();
+        for (final Method method : type.getMethods()) {
+            if (method.isAnnotationPresent(Inset.Runtime.class)) {
+                runtime.add(method);
+            }
+        }
+        this.methods = runtime.toArray(new Method[runtime.size()]);
+        Arrays.sort(
+            this.methods,
+            new Comparator<Method>() {
+                @Override
+                public int compare(final Method left, final Method right) {
+                    return left.getName().compareTo(right.getName());
+                }
+            }
+        );
+    }
+
+    /**
+     * Get a plan for the given class of resource.
+     * @param type Type of resource
+     * @return The plan
+     */
+    public static InsetPlan of(final Class<?> type) {
+        InsetPlan plan = InsetPlan.PLANS.get(type);
+        if (plan == null) {
+            InsetPlan.PLANS.putIfAbsent(type, new InsetPlan(type));
+            plan = InsetPlan.PLANS.get(type);
+        }
+        return plan;
+    }
+
+    /**
+     * Make all insets for the resource, in order of their execution.
+     * @param resource The resource
+     * @return Insets
+     */
+    public Collection<Inset> insets(final Resource resource) {
+        final Collection<Inset> insets = new Sequence<Inset>();
+        final Resource[] detached = new Resource[1];
+        for (int idx = 0; idx < this.shared.length; ++idx) {
+            Inset inset = this.shared[idx];
+            if (inset == null) {
+                Resource res = resource;
+                if (StagedInset.independent(
+                    this.ctors[idx].getDeclaringClass()
+                )) {
+                    res = InsetPlan.detached(resource, detached);
+                }
+                inset = InsetPlan.instantiate(
+                    this.ctors[idx], new Object[] {res}
+                );
+            }
+            insets.add(InsetPlan.staged(inset, resource, detached));
+        }
+        for (final Method method : this.methods) {
+            insets.add(
+                InsetPlan.staged(
+                    InsetPlan.inset(method, resource), resource, detached
+                )
+            );
+        }
+        return insets;
+    }
+
+    /**
+     * Start rendering of the inset in background, if it's independent.
+     * @param inset The inset
+     * @param resource The resource
+     * @param detached Its detached snapshot, if already made
+     * @return The inset to render
+     */
+    private static Inset staged(final Inset inset, final Resource resource,
+        final Resource[] detached) {
+        Inset staged = inset;
+        if (StagedInset.independent(inset.getClass())) {
+            staged = new StagedInset(
+                inset, InsetPlan.detached(resource, detached)
+            );
+        }
+        return staged;
+    }
+
+    /**
+     * Get detached snapshot of the resource, making it if necessary.
+     * @param resource The resource
+     * @param detached The snapshot, if already made
+     * @return The snapshot
+     */
+    private static Resource detached(final Resource resource,
+        final Resource[] detached) {
+        if (detached[0] == null) {
+            detached[0] = new DetachedResource(resource);
+        }
+        return detached[0];
+    }
+
+    /**
+     * Get all specified (by annotations) default insets.
+     * @param type The type to fetch them from or NULL
+     * @return List of them
+     */
+    private static Set<Class<? extends Inset>> defaults(
+        final Class<?> type) {
+        final Set<Class<? extends Inset>> insets =
+            new LinkedHashSet<Class<? extends Inset>>(0);
+        if (type != null) {
+            if (type.isAnnotationPresent(Inset.Default.class)) {
+                insets.addAll(
+                    Arrays.asList(
+                        type.getAnnotation(Inset.Default.class).value()
+                    )
+                );
+            }
+            insets.addAll(InsetPlan.defaults(type.getSuperclass()));
+            for (final Class<?> iface : type.getInterfaces()) {
+                insets.addAll(InsetPlan.defaults(iface));
+            }
+        }
+        return insets;
+    }
+
+    /**
+     * Find public constructor of inset.
+     * @param type Type of inset
+     * @param args Types of arguments
+     * @return Constructor
+     */
+    private static Constructor<?> ctor(final Class<? extends Inset> type,
+        final Class<?>... args) {
+        try {
+            return type.getConstructor(args);
+        } catch (final NoSuchMethodException ex) {
+            throw new IllegalStateException(ex);
+        } catch (final SecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Instantiate inset.
+     * @param ctor Constructor to use
+     * @param args Arguments
+     * @return Instance of it
+     */
+    private static Inset instantiate(final Constructor<?> ctor,
+        final Object[] args) {
+        try {
+            return Inset.class.cast(ctor.newInstance(args));
+        } catch (final InstantiationException ex) {
+            throw new IllegalStateException(ex);
+        } catch (final IllegalAccessException ex) {
+            throw new IllegalStateException(ex);
+        } catch (final InvocationTargetException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Instantiate inset from a method.
+     * @param method The method
+     * @param resource The resource to call it on
+     * @return Instance of it
+     */
+    private static Inset inset(final Method method, final Resource resource) {
+        try {
+            return Inset.class.cast(method.invoke(resource));
+        } catch (final IllegalAccessException ex) {
+            throw new IllegalStateException(ex);
+        } catch (final IllegalArgumentException ex) {
+            throw new IllegalStateException(ex);
+        } catch (final InvocationTargetException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+}
@@ -30,20 +30,23 @@
 package com.rexsl.page;
 
 import com.jcabi.aspects.Loggable;
-import java.util.Collection;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import javax.validation.constraints.NotNull;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
+import org.w3c.dom.Attr;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
 
 /**
  * JAXB bundle.
@@ -114,7 +117,19 @@ import org.w3c.dom.Element;
  *   .add(new JaxbBundle("owner").add("email", "...").up())
  *   .element();</pre>
  *
- * <p>The class is mutable and thread-safe.
+ * <p>Since version 2.0 groups are not converted to bundles when they are
+ * added, but only when the bundle is rendered. Their objects are consumed
+ * one by one, straight from their {@link Iterable}.
+ *
+ * <p>When a bundle is appended to {@link BasePage} or {@link Link}, it is
+ * not converted to DOM. Instead, JAXB streams it, when the page is being
+ * marshalled (see {@link JaxbStreamHandler}).
+ *
+ * <p>Since version 2.0 the class keeps its content in compact append-only
+ * arrays and is supposed to be built by one thread. A bundle appended to
+ * {@link BasePage} or {@link Link} must not be modified afterwards.
+ *
+ * <p>The class is mutable and NOT thread-safe.
  *
  * @todo #430 A new design would be required for this class. <br/>
  *  <b>The problems</b>:
@@ -154,7 +169,23 @@ import org.w3c.dom.Element;
 @ToString(of = { "name", "content" })
 @EqualsAndHashCode(of = { "name", "content", "parent" })
 @Loggable(Loggable.DEBUG)
-public final class JaxbBundle {
+public final class JaxbBundle implements Streamable {
+
+    /**
+     * DOM document builder factory.
+     */
+    private static final DocumentBuilderFactory DOCS =
+        DocumentBuilderFactory.newInstance();
+
+    /**
+     * Name of XML element with links.
+     */
+    private static final String LINKS = "links";
+
+    /**
+     * Type of all XML attributes.
+     */
+    private static final String CDATA = "CDATA";
 
     /**
      * Parent bundle, if exists.
@@ -173,28 +204,26 @@ public final class JaxbBundle {
     private final transient String content;
 
     /**
-     * Children.
+     * Children, bundles and groups of them.
      */
-    private final transient List<JaxbBundle> children =
-        new CopyOnWriteArrayList<JaxbBundle>();
+    private final transient Sequence<Object> children =
+        new Sequence<Object>();
 
     /**
      * DOM children.
      */
-    private final transient List<Element> elements =
-        new CopyOnWriteArrayList<Element>();
+    private final transient Sequence<Element> elements =
+        new Sequence<Element>();
 
     /**
      * Links.
      */
-    private final transient List<Link> links =
-        new CopyOnWriteArrayList<Link>();
+    private final transient Sequence<Link> links = new Sequence<Link>();
 
     /**
-     * Attributes.
+     * Attributes, names and values one after another.
      */
-    private final transient ConcurrentMap<String, String> attrs =
-        new ConcurrentHashMap<String, String>(0);
+    private final transient Sequence<String> attrs = new Sequence<String>();
 
     /**
      * Default ctor, for JAXB (always throws a runtime exception).
@@ -289,7 +318,16 @@ public final class JaxbBundle {
     @NotNull
     public JaxbBundle attr(@NotNull final String nam,
         @NotNull final String val) {
-        this.attrs.put(nam, val);
+        int pos = 0;
+        while (pos < this.attrs.size() && !this.attrs.get(pos).equals(nam)) {
+            pos += 2;
+        }
+        if (pos < this.attrs.size()) {
+            this.attrs.set(pos + 1, val);
+        } else {
+            this.attrs.add(nam);
+            this.attrs.add(val);
+        }
         return this;
     }
 
@@ -325,11 +363,8 @@ public final class JaxbBundle {
      */
     @NotNull
     public JaxbBundle add(@NotNull final JaxbBundle.Group<?> group) {
-        JaxbBundle holder = this;
-        for (final JaxbBundle bundle : group.bundles()) {
-            holder = holder.add(bundle);
-        }
-        return holder;
+        this.children.add(group);
+        return this;
     }
 
     /**
@@ -359,15 +394,61 @@ public final class JaxbBundle {
                 "You can convert only top level JaxbBundle to DOM"
             );
         }
+        final Document doc;
         try {
-            return this.element(
-                DocumentBuilderFactory.newInstance()
-                    .newDocumentBuilder()
-                    .newDocument()
-            );
+            synchronized (JaxbBundle.DOCS) {
+                doc = JaxbBundle.DOCS.newDocumentBuilder().newDocument();
+            }
         } catch (final ParserConfigurationException ex) {
             throw new IllegalStateException(ex);
         }
+        return this.element(doc);
+    }
+
+    @Override
+    public void stream(@NotNull final ContentHandler handler)
+        throws SAXException {
+        final AttributesImpl attributes = new AttributesImpl();
+        for (int idx = 0; idx < this.attrs.size(); idx += 2) {
+            attributes.addAttribute(
+                "", this.attrs.get(idx), this.attrs.get(idx),
+                JaxbBundle.CDATA, this.attrs.get(idx + 1)
+            );
+        }
+        handler.startElement("", this.name, this.name, attributes);
+        for (final JaxbBundle child : this.kids()) {
+            child.stream(handler);
+        }
+        for (final Element child : this.elements) {
+            JaxbBundle.stream(child, handler);
+        }
+        if (!this.links.isEmpty()) {
+            handler.startElement(
+                "", JaxbBundle.LINKS, JaxbBundle.LINKS, new AttributesImpl()
+            );
+            for (final Link link : this.links) {
+                final AttributesImpl lnk = new AttributesImpl();
+                lnk.addAttribute(
+                    "", "rel", "rel", JaxbBundle.CDATA, link.getRel()
+                );
+                lnk.addAttribute(
+                    "", "href", "href", JaxbBundle.CDATA,
+                    link.getHref().toString()
+                );
+                lnk.addAttribute(
+                    "", "type", "type", JaxbBundle.CDATA, link.getType()
+                );
+                handler.startElement("", "link", "link", lnk);
+                handler.endElement("", "link", "link");
+            }
+            handler.endElement("", JaxbBundle.LINKS, JaxbBundle.LINKS);
+        }
+        if (!this.content.isEmpty()) {
+            handler.characters(
+                this.content.toCharArray(), 0, this.content.length()
+            );
+        }
+        handler.endElement("", this.name, this.name);
     }
 
     /**
@@ -377,17 +458,17 @@ public final class JaxbBundle {
      */
     private Element element(final Document doc) {
         final Element element = doc.createElement(this.name);
-        for (final Map.Entry<String, String> attr : this.attrs.entrySet()) {
-            element.setAttribute(attr.getKey(), attr.getValue());
+        for (int idx = 0; idx < this.attrs.size(); idx += 2) {
+            element.setAttribute(this.attrs.get(idx), this.attrs.get(idx + 1));
         }
-        for (final JaxbBundle child : this.children) {
+        for (final JaxbBundle child : this.kids()) {
             element.appendChild(child.element(doc));
         }
         for (final Element child : this.elements) {
             element.appendChild(doc.importNode(child, true));
         }
         if (!this.links.isEmpty()) {
-            final Element lnks = doc.createElement("links");
+            final Element lnks = doc.createElement(JaxbBundle.LINKS);
             for (final Link link : this.links) {
                 final Element lnk = doc.createElement("link");
                 lnk.setAttribute("rel", link.getRel());
@@ -401,6 +482,152 @@ public final class JaxbBundle {
         return element;
     }
 
+    /**
+     * All child bundles, including the ones from groups.
+     * @return Iterable of them, groups are expanded on the fly
+     */
+    private Iterable<JaxbBundle> kids() {
+        return new Iterable<JaxbBundle>() {
+            @Override
+            public Iterator<JaxbBundle> iterator() {
+                return new JaxbBundle.Kids(
+                    JaxbBundle.this.children.iterator()
+                );
+            }
+        };
+    }
+
+    /**
+     * Write DOM node into SAX handler.
+     * @param node The node
+     * @param handler The handler
+     * @throws SAXException If fails
+     */
+    static void stream(final Node node, final ContentHandler handler)
+        throws SAXException {
+        if (node.getNodeType() == Node.ELEMENT_NODE) {
+            final AttributesImpl attributes = new AttributesImpl();
+            final NamedNodeMap map = node.getAttributes();
+            for (int idx = 0; idx < map.getLength(); ++idx) {
+                final Attr attr = Attr.class.cast(map.item(idx));
+                if (!attr.getName().startsWith("xmlns")) {
+                    attributes.addAttribute(
+                        JaxbBundle.namespace(attr), JaxbBundle.local(attr),
+                        attr.getName(), JaxbBundle.CDATA, attr.getValue()
+                    );
+                }
+            }
+            final String prefix = JaxbBundle.prefix(node);
+            final String uri = JaxbBundle.namespace(node);
+            if (!uri.isEmpty()) {
+                handler.startPrefixMapping(prefix, uri);
+            }
+            handler.startElement(
+                uri, JaxbBundle.local(node), node.getNodeName(), attributes
+            );
+            final NodeList kids = node.getChildNodes();
+            for (int idx = 0; idx < kids.getLength(); ++idx) {
+                JaxbBundle.stream(kids.item(idx), handler);
+            }
+            handler.endElement(
+                uri, JaxbBundle.local(node), node.getNodeName()
+            );
+            if (!uri.isEmpty()) {
+                handler.endPrefixMapping(prefix);
+            }
+        } else if (node.getNodeType() == Node.TEXT_NODE
+            || node.getNodeType() == Node.CDATA_SECTION_NODE) {
+            final String text = node.getNodeValue();
+            handler.characters(text.toCharArray(), 0, text.length());
+        }
+    }
+
+    /**
+     * Namespace URI of the DOM node.
+     * @param node The node
+     * @return URI or empty string
+     */
+    private static String namespace(final Node node) {
+        String uri = node.getNamespaceURI();
+        if (uri == null) {
+            uri = "";
+        }
+        return uri;
+    }
+
+    /**
+     * Namespace prefix of the DOM node.
+     * @param node The node
+     * @return Prefix or empty string
+     */
+    private static String prefix(final Node node) {
+        String prefix = node.getPrefix();
+        if (prefix == null) {
+            prefix = "";
+        }
+        return prefix;
+    }
+
+    /**
+     * Local name of the DOM node.
+     * @param node The node
+     * @return Local name
+     */
+    private static String local(final Node node) {
+        String local = node.getLocalName();
+        if (local == null) {
+            local = node.getNodeName();
+        }
+        return local;
+    }
+
+    /**
+     * Iterator of children, which expands groups.
+     */
+    private static final class Kids implements Iterator<JaxbBundle> {
+        /**
+         * Children, bundles and groups.
+         */
+        private final transient Iterator<Object> origin;
+        /**
+         * Group currently being expanded, or NULL.
+         */
+        private transient Iterator<JaxbBundle> group;
+        /**
+         * Public ctor.
+         * @param kids Children
+         */
+        Kids(final Iterator<Object> kids) {
+            this.origin = kids;
+        }
+        @Override
+        public boolean hasNext() {
+            while ((this.group == null || !this.group.hasNext())
+                && this.origin.hasNext()) {
+                final Object next = this.origin.next();
+                if (next instanceof JaxbBundle) {
+                    this.group = Collections.singleton(
+                        JaxbBundle.class.cast(next)
+                    ).iterator();
+                } else {
+                    this.group = ((JaxbBundle.Group<?>) next).bundles();
+                }
+            }
+            return this.group != null && this.group.hasNext();
+        }
+        @Override
+        public JaxbBundle next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return this.group.next();
+        }
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("#remove()");
+        }
+    }
+
     /**
      * Group.
      * @param <T> Type of encapsulated elements
@@ -427,15 +654,25 @@ public final class JaxbBundle {
          */
         public abstract JaxbBundle bundle(T object);
         /**
-         * Fetch all bundles.
+         * Fetch all bundles, one by one.
          * @return All bundles
          */
-        private Collection<JaxbBundle> bundles() {
-            final Collection<JaxbBundle> bundles = new LinkedList<JaxbBundle>();
-            for (final T object : this.objects) {
-                bundles.add(this.bundle(object));
-            }
-            return bundles;
+        private Iterator<JaxbBundle> bundles() {
+            final Iterator<T> origin = this.objects.iterator();
+            return new Iterator<JaxbBundle>() {
+                @Override
+                public boolean hasNext() {
+                    return origin.hasNext();
+                }
+                @Override
+                public JaxbBundle next() {
+                    return JaxbBundle.Group.this.bundle(origin.next());
+                }
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException("#remove()");
+                }
+            };
         }
     }
 
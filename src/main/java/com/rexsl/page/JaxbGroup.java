@@ -30,6 +30,7 @@
 package com.rexsl.page;
 
 import com.jcabi.log.Logger;
+import com.rexsl.core.Metrics;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Collection;
 import java.util.Collections;
@@ -217,6 +218,7 @@ public final class JaxbGroup {
             }
             final Class<?> cls = ctc.toClass();
             ctc.defrost();
+            Metrics.CLASSES.record(JaxbGroup.class.getSimpleName(), 1L);
             Logger.debug(
                 JaxbGroup.class,
                 "#construct('%s'): class %s constructed",
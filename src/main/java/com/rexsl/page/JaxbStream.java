@@ -0,0 +1,227 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.page;
+
+import com.rexsl.core.JaxbFragments;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.validation.constraints.NotNull;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.w3c.dom.Element;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Lazy group of elements, which are created one by one, while the page
+ * is being marshalled.
+ *
+ * <p>Use it when a page has to list many objects, for example
+ * fetched from a database cursor, without keeping all of them in memory:
+ *
+ * <pre> page.append(
+ *   new JaxbStream&lt;Row&gt;("employees", cursor) {
+ *     &#64;Override
+ *     public Object element(final Row row) {
+ *       return new JaxbBundle("employee").add("name", row.name()).up();
+ *     }
+ *   }
+ * );</pre>
+ *
+ * <p>Items are fetched from the {@link Iterable} only when JAXB reaches
+ * the group and each of them is converted by {@link #element(Object)} and
+ * written to the output right away. The method may return a
+ * {@link JaxbBundle}, a DOM {@link Element} or an object of a class
+ * annotated with {@code &#64;XmlRootElement}, or NULL to skip the item.
+ * Objects are marshalled with JAXB context of
+ * {@link com.rexsl.core.XslResolver}, which
+ * is marshalling the page, so that they get into the XSD validation of
+ * the page; when the group is marshalled by something else, every class
+ * gets its own JAXB context.
+ *
+ * <p>The class is immutable and thread-safe, but the group can be
+ * marshalled only as many times as its {@link Iterable} can be iterated.
+ *
+ * @param <T> Type of items
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ * @see BasePage#append(JaxbStream)
+ */
+@ToString(of = "name")
+@EqualsAndHashCode(of = { "name", "items" })
+public abstract class JaxbStream<T> implements Streamable {
+
+    /**
+     * JAXB contexts, per class of items.
+     */
+    private static final ConcurrentMap<Class<?>, JAXBContext> CONTEXTS =
+        new ConcurrentHashMap<Class<?>, JAXBContext>(0);
+
+    /**
+     * Name of XML element to wrap items.
+     */
+    private final transient String name;
+
+    /**
+     * Items to convert.
+     */
+    private final transient Iterable<T> items;
+
+    /**
+     * Public ctor.
+     * @param nam Name of XML element to wrap all items
+     * @param itms Items
+     */
+    public JaxbStream(@NotNull final String nam,
+        @NotNull final Iterable<T> itms) {
+        this.name = nam;
+        this.items = itms;
+    }
+
+    /**
+     * Public ctor, with an iterator that can be iterated only once.
+     * @param nam Name of XML element to wrap all items
+     * @param itms Items
+     */
+    public JaxbStream(@NotNull final String nam,
+        @NotNull final Iterator<T> itms) {
+        this(nam, new JaxbStream.Once<T>(itms));
+    }
+
+    /**
+     * Convert an item to XML element.
+     * @param item The item to convert
+     * @return JAXB annotated object, {@link JaxbBundle}, DOM element or
+     *  NULL if the item has to be skipped
+     */
+    public abstract Object element(T item);
+
+    @Override
+    public final void stream(@NotNull final ContentHandler handler)
+        throws SAXException {
+        handler.startElement("", this.name, this.name, new AttributesImpl());
+        final Map<Class<?>, Marshaller> marshallers =
+            new HashMap<Class<?>, Marshaller>(0);
+        for (final T item : this.items) {
+            final Object element = this.element(item);
+            if (element == null) {
+                continue;
+            }
+            if (element instanceof JaxbBundle) {
+                JaxbBundle.class.cast(element).stream(handler);
+            } else if (element instanceof Element) {
+                JaxbBundle.stream(Element.class.cast(element), handler);
+            } else {
+                Marshaller mrsh = marshallers.get(element.getClass());
+                if (mrsh == null) {
+                    mrsh = JaxbStream.marshaller(element.getClass());
+                    marshallers.put(element.getClass(), mrsh);
+                }
+                try {
+                    mrsh.marshal(element, handler);
+                } catch (final JAXBException ex) {
+                    throw new SAXException(ex);
+                }
+            }
+        }
+        handler.endElement("", this.name, this.name);
+    }
+
+    /**
+     * Make a marshaller of XML fragments for the class, from JAXB context
+     * of {@link com.rexsl.core.XslResolver} marshalling the page in the
+     * current thread, if any (see {@link JaxbFragments}), or from the
+     * context of this class only.
+     * @param type The class
+     * @return Marshaller
+     * @throws SAXException If fails
+     */
+    static Marshaller marshaller(final Class<?> type)
+        throws SAXException {
+        try {
+            Marshaller mrsh = JaxbFragments.marshaller(type);
+            if (mrsh == null) {
+                JAXBContext context = JaxbStream.CONTEXTS.get(type);
+                if (context == null) {
+                    JaxbStream.CONTEXTS.putIfAbsent(
+                        type, JAXBContext.newInstance(type)
+                    );
+                    context = JaxbStream.CONTEXTS.get(type);
+                }
+                mrsh = context.createMarshaller();
+                mrsh.setProperty(Marshaller.JAXB_FRAGMENT, true);
+            }
+            return mrsh;
+        } catch (final JAXBException ex) {
+            throw new SAXException(ex);
+        }
+    }
+
+    /**
+     * Iterable that can be iterated only once.
+     * @param <T> Type of items
+     */
+    private static final class Once<T> implements Iterable<T> {
+        /**
+         * The iterator.
+         */
+        private final transient Iterator<T> iterator;
+        /**
+         * Was it used already?
+         */
+        private final transient AtomicBoolean used = new AtomicBoolean();
+        /**
+         * Public ctor.
+         * @param itr The iterator
+         */
+        Once(final Iterator<T> itr) {
+            this.iterator = itr;
+        }
+        @Override
+        public Iterator<T> iterator() {
+            if (this.used.getAndSet(true)) {
+                throw new IllegalStateException(
+                    "JaxbStream with an iterator can be marshalled only once"
+                );
+            }
+            return this.iterator;
+        }
+    }
+
+}
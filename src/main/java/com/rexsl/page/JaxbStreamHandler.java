@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.page;
+
+import javax.xml.bind.ValidationEventHandler;
+import javax.xml.bind.annotation.W3CDomHandler;
+import javax.xml.transform.Source;
+import javax.xml.transform.sax.SAXSource;
+import lombok.ToString;
+import org.w3c.dom.Element;
+import org.xml.sax.InputSource;
+
+/**
+ * JAXB handler of DOM elements, which streams {@link Streamable} content.
+ *
+ * <p>You don't need to use this class directly. It is made public only
+ * because JAXB implementation should be able to instantiate it, when
+ * it finds it in {@code @XmlAnyElement} annotation, for example:
+ *
+ * <pre> &#64;XmlAnyElement(lax = true, value = JaxbStreamHandler.class)
+ * public Collection&lt;Object&gt; getElements() {
+ *   return this.elements;
+ * }</pre>
+ *
+ * <p>Usual DOM elements are marshalled exactly as {@link W3CDomHandler}
+ * does it. Elements made by {@link StreamedElement} are marshalled from
+ * their SAX events, without a DOM.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString
+public final class JaxbStreamHandler extends W3CDomHandler {
+
+    @Override
+    public Source marshal(final Element element,
+        final ValidationEventHandler handler) {
+        final Streamable src = StreamedElement.source(element);
+        final Source source;
+        if (src == null) {
+            source = super.marshal(element, handler);
+        } else {
+            source = new SAXSource(new StreamReader(src), new InputSource());
+        }
+        return source;
+    }
+
+}
@@ -32,7 +32,6 @@ package com.rexsl.page;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Pattern;
@@ -137,8 +136,8 @@ public final class Link {
     /**
      * Optional sub-elements.
      */
-    private final transient List<Object> elements =
-        new CopyOnWriteArrayList<Object>();
+    private final transient Sequence<Object> elements =
+        new Sequence<Object>();
 
     /**
      * Content of {@code href} attribute, with URI.
@@ -232,11 +231,13 @@ public final class Link {
      * Get all elements.
      * @return Full list of injected elements
      */
-    @XmlAnyElement(lax = true)
+    @XmlAnyElement(lax = true, value = JaxbStreamHandler.class)
     @XmlMixed
     @NotNull
     public List<Object> getElements() {
-        return this.elements;
+        synchronized (this.elements) {
+            return this.elements.snapshot();
+        }
     }
 
     /**
@@ -246,7 +247,9 @@ public final class Link {
      */
     @NotNull
     public Link with(@NotNull final Object element) {
-        this.elements.add(element);
+        synchronized (this.elements) {
+            this.elements.add(element);
+        }
         return this;
     }
 
@@ -257,8 +260,7 @@ public final class Link {
      */
     @NotNull
     public Link with(@NotNull final JaxbBundle bundle) {
-        this.with(bundle.element());
-        return this;
+        return this.with((Object) StreamedElement.of(bundle));
     }
 
     /**
@@ -313,7 +315,6 @@ public final class Link {
      */
     private static URI combine(final URI base, final String path,
         final String params) {
-        final URI rel = URI.create(path);
         final StringBuilder query = new StringBuilder(0);
         if (base.getQuery() != null) {
             query.append(base.getQuery());
@@ -330,7 +331,7 @@ public final class Link {
                 base.getUserInfo(),
                 base.getHost(),
                 base.getPort(),
-                UriBuilder.fromUri(base).path(rel.getPath()).build().getPath(),
+                Link.join(base, path),
                 // @checkstyle AvoidInlineConditionals (1 line)
                 query.length() == 0 ? null : query.toString(),
                 base.getFragment()
@@ -340,4 +341,47 @@ public final class Link {
         }
     }
 
+    /**
+     * Append path to the path of base URI, making sure there is exactly
+     * one slash between them.
+     *
+     * <p>Plain paths are concatenated as strings, only URI templates
+     * (with curly brackets) go through {@link UriBuilder}.
+     *
+     * @param base Base URI
+     * @param path The path to append
+     * @return Decoded path
+     */
+    private static String join(final URI base, final String path) {
+        final String result;
+        if (path.indexOf('{') >= 0 || path.indexOf('}') >= 0) {
+            result = UriBuilder.fromUri(base)
+                .path(URI.create(path).getPath()).build().getPath();
+        } else {
+            String left = base.getPath();
+            if (left == null) {
+                left = "";
+            }
+            final StringBuilder text = new StringBuilder(
+                left.length() + path.length() + 1
+            ).append(left);
+            final boolean slashed = left.length() > 0
+                && left.charAt(left.length() - 1) == '/';
+            if (path.length() > 0 && path.charAt(0) == '/') {
+                if (slashed) {
+                    text.append(path, 1, path.length());
+                } else {
+                    text.append(path);
+                }
+            } else if (path.length() > 0) {
+                if (!slashed) {
+                    text.append('/');
+                }
+                text.append(path);
+            }
+            result = text.toString();
+        }
+        return result;
+    }
+
 }
@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.page;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import javax.validation.constraints.NotNull;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Memo of values computed during one request.
+ *
+ * <p>Every {@link BaseResource} has its own memo, available through
+ * {@link ScopedResource#memo()}. Since JAX-RS creates a new resource for every
+ * request, all values in the memo are computed at most once per request
+ * and are discarded together with the resource, for example:
+ *
+ * <pre> private static final Memo.Key&lt;Prefs&gt; PREFS =
+ *   new Memo.Key&lt;Prefs&gt;("prefs");
+ * public Prefs prefs() {
+ *   return this.memo().get(
+ *     MyRs.PREFS,
+ *     new Memo.Source&lt;Prefs&gt;() {
+ *       &#64;Override
+ *       public Prefs get() {
+ *         return Prefs.load(MyRs.this.user());
+ *       }
+ *     }
+ *   );
+ * }</pre>
+ *
+ * <p>If a value is being computed by one thread (for example, by an
+ * independent inset), other threads asking for it wait for the result.
+ * If the computation fails with an exception, nothing is remembered.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString
+@EqualsAndHashCode(of = "values")
+public final class Memo {
+
+    /**
+     * Values, computed or being computed.
+     */
+    private final transient ConcurrentMap<Memo.Key<?>, FutureTask<?>> values =
+        new ConcurrentHashMap<Memo.Key<?>, FutureTask<?>>(0);
+
+    /**
+     * Get the value, computing it if it's absent.
+     * @param key The key
+     * @param source Source of the value
+     * @param <T> Type of value
+     * @return The value
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(@NotNull final Memo.Key<T> key,
+        @NotNull final Memo.Source<T> source) {
+        FutureTask<?> task = this.values.get(key);
+        if (task == null) {
+            final FutureTask<T> fresh = new FutureTask<T>(
+                new Callable<T>() {
+                    @Override
+                    public T call() {
+                        return source.get();
+                    }
+                }
+            );
+            task = this.values.putIfAbsent(key, fresh);
+            if (task == null) {
+                task = fresh;
+                fresh.run();
+            }
+        }
+        try {
+            return (T) task.get();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        } catch (final ExecutionException ex) {
+            this.values.remove(key, task);
+            final Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw RuntimeException.class.cast(cause);
+            }
+            if (cause instanceof Error) {
+                throw Error.class.cast(cause);
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Forget the value, it will be computed again next time.
+     * @param key The key
+     */
+    public void forget(@NotNull final Memo.Key<?> key) {
+        this.values.remove(key);
+    }
+
+    /**
+     * Typed key of a value.
+     *
+     * <p>Keys are equal when their names are equal, so it's better to
+     * keep them in static final fields.
+     *
+     * @param <T> Type of value
+     */
+    @ToString
+    @EqualsAndHashCode(of = "name")
+    public static final class Key<T> {
+        /**
+         * Name of it.
+         */
+        private final transient String name;
+        /**
+         * Public ctor.
+         * @param nam Unique name
+         */
+        public Key(@NotNull final String nam) {
+            this.name = nam;
+        }
+    }
+
+    /**
+     * Source of a value.
+     * @param <T> Type of value
+     */
+    public interface Source<T> {
+        /**
+         * Compute the value.
+         * @return The value
+         */
+        T get();
+    }
+
+}
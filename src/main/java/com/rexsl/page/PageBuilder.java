@@ -30,6 +30,7 @@
 package com.rexsl.page;
 
 import com.jcabi.aspects.Loggable;
+import com.rexsl.core.Metrics;
 import com.rexsl.core.annotations.Schema;
 import com.rexsl.core.annotations.Stylesheet;
 import java.net.URI;
@@ -259,7 +260,9 @@ public final class PageBuilder {
                 attribute.addAnnotation(existing);
             }
             file.addAttribute(attribute);
-            return ctc.toClass();
+            final Class<?> cls = ctc.toClass();
+            Metrics.CLASSES.record(PageBuilder.class.getSimpleName(), 1L);
+            return cls;
         } catch (final NotFoundException ex) {
             throw new IllegalStateException(ex);
         } catch (final CannotCompileException ex) {
@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.page;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Append-only list, for one writer.
+ *
+ * <p>Items are kept in a plain array, which grows twice when it's full,
+ * so that adding N items costs O(N) in total, unlike
+ * {@link java.util.concurrent.CopyOnWriteArrayList}, which copies the
+ * entire array on every addition.
+ *
+ * <p>The class is mutable and NOT thread-safe. It is supposed to be filled
+ * by one thread; when the content has to be handed over to another thread,
+ * use {@link #snapshot()} inside a synchronized block.
+ *
+ * @param <T> Type of items
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ */
+final class Sequence<T> extends AbstractList<T> {
+
+    /**
+     * Array without items, shared by all empty sequences.
+     */
+    private static final Object[] EMPTY = new Object[0];
+
+    /**
+     * Capacity of the array, when the first item is added.
+     */
+    private static final int FIRST = 4;
+
+    /**
+     * Items, only the first {@code size} of them are used.
+     */
+    private transient Object[] items = Sequence.EMPTY;
+
+    /**
+     * Total amount of items.
+     */
+    private transient int total;
+
+    @Override
+    public boolean add(final T item) {
+        if (this.total == this.items.length) {
+            this.items = Arrays.copyOf(
+                this.items, Math.max(Sequence.FIRST, this.total << 1)
+            );
+        }
+        this.items[this.total] = item;
+        ++this.total;
+        ++this.modCount;
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(final int index) {
+        if (index < 0 || index >= this.total) {
+            throw new IndexOutOfBoundsException(
+                String.format("#%d is out of [0..%d)", index, this.total)
+            );
+        }
+        return (T) this.items[index];
+    }
+
+    @Override
+    public T set(final int index, final T item) {
+        final T before = this.get(index);
+        this.items[index] = item;
+        return before;
+    }
+
+    @Override
+    public int size() {
+        return this.total;
+    }
+
+    @Override
+    public Object[] toArray() {
+        return Arrays.copyOf(this.items, this.total);
+    }
+
+    /**
+     * Make an immutable copy of all items.
+     * @return Immutable list
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> snapshot() {
+        final List<T> list;
+        if (this.total == 0) {
+            list = Collections.emptyList();
+        } else {
+            list = Collections.unmodifiableList(
+                Arrays.asList((T[]) this.toArray())
+            );
+        }
+        return list;
+    }
+
+}
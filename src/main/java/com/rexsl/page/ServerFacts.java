@@ -0,0 +1,210 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.page;
+
+import com.jcabi.log.Logger;
+import com.jcabi.log.VerboseRunnable;
+import com.jcabi.log.VerboseThreads;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.ToString;
+
+/**
+ * Facts about the server, shared by all pages.
+ *
+ * <p>IP address of the host and its system load average are expensive
+ * to fetch (the first one may even require a DNS lookup), so they are
+ * refreshed by a background daemon thread and {@link BasePage} just reads
+ * the latest known values. The thread is started when the facts are read
+ * for the first time; the IP address is empty until the first lookup
+ * in the thread is finished. The thread is stopped by {@link #stop()},
+ * which is called by {@link PageListener} when the application is
+ * undeployed, and started again if the facts are read after that.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString
+final class ServerFacts {
+
+    /**
+     * The only instance, refreshed in background.
+     */
+    public static final ServerFacts INSTANCE = new ServerFacts();
+
+    /**
+     * How often to refresh the load average, in seconds.
+     */
+    private static final long SLA_PERIOD = 5L;
+
+    /**
+     * How often to refresh the IP address, in seconds.
+     */
+    private static final long IP_PERIOD = 60L;
+
+    /**
+     * Operating system bean.
+     */
+    private final transient OperatingSystemMXBean bean =
+        ManagementFactory.getOperatingSystemMXBean();
+
+    /**
+     * Lock for starting and stopping.
+     */
+    private final transient Object lock = new Object();
+
+    /**
+     * Background refreshing, or NULL if it's not started.
+     */
+    private transient volatile ScheduledExecutorService service;
+
+    /**
+     * Latest known IP address of the host.
+     */
+    private transient volatile String address = "";
+
+    /**
+     * Latest known system load average, formatted.
+     */
+    private transient volatile String load = "";
+
+    /**
+     * IP address of the server.
+     * @return The IP address, or empty string if it's unknown
+     */
+    public String ip() {
+        this.start();
+        return this.address;
+    }
+
+    /**
+     * System load average of the server.
+     * @return The SLA number, formatted
+     */
+    public String sla() {
+        this.start();
+        return this.load;
+    }
+
+    /**
+     * Fetch the IP address again.
+     */
+    public void refreshIp() {
+        String addr;
+        try {
+            addr = InetAddress.getLocalHost().getHostAddress();
+        } catch (final UnknownHostException ex) {
+            Logger.error(this, "#refreshIp(): %[exception]s", ex);
+            addr = "";
+        }
+        this.address = addr;
+    }
+
+    /**
+     * Fetch the load average again.
+     */
+    public void refreshSla() {
+        this.load = String.format("%.3f", this.bean.getSystemLoadAverage());
+    }
+
+    /**
+     * Stop background refreshing, if it's started.
+     */
+    public void stop() {
+        synchronized (this.lock) {
+            if (this.service != null) {
+                this.service.shutdownNow();
+                this.service = null;
+            }
+        }
+    }
+
+    /**
+     * Start background refreshing, if it's not started yet.
+     *
+     * <p>Only the load average is fetched right here, the IP address is
+     * fetched in background, since it may take a DNS lookup.
+     */
+    private void start() {
+        if (this.service == null) {
+            synchronized (this.lock) {
+                if (this.service == null) {
+                    this.refreshSla();
+                    this.service = this.schedule();
+                }
+            }
+        }
+    }
+
+    /**
+     * Schedule regular refreshing of all facts.
+     * @return Service running in background
+     */
+    private ScheduledExecutorService schedule() {
+        final ScheduledExecutorService svc =
+            Executors.newSingleThreadScheduledExecutor(
+                new VerboseThreads("rexsl-facts", true, Thread.MIN_PRIORITY)
+            );
+        svc.scheduleWithFixedDelay(
+            new VerboseRunnable(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        ServerFacts.this.refreshSla();
+                    }
+                },
+                true
+            ),
+            ServerFacts.SLA_PERIOD, ServerFacts.SLA_PERIOD, TimeUnit.SECONDS
+        );
+        svc.scheduleWithFixedDelay(
+            new VerboseRunnable(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        ServerFacts.this.refreshIp();
+                    }
+                },
+                true
+            ),
+            0L, ServerFacts.IP_PERIOD, TimeUnit.SECONDS
+        );
+        return svc;
+    }
+
+}
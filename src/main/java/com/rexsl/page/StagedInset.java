@@ -0,0 +1,241 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.page;
+
+import com.jcabi.log.Logger;
+import com.jcabi.log.VerboseThreads;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+import lombok.ToString;
+
+/**
+ * Inset, which is being rendered in background, into a staging area.
+ *
+ * <p>The inset is started as soon as the object is constructed. Its
+ * {@link #render(BasePage,Response.ResponseBuilder)} waits for
+ * the background rendering to finish and merges the staging page and
+ * response headers into the real ones.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ * @see Inset.Independent
+ */
+@ToString(of = "origin")
+final class StagedInset implements Inset {
+
+    /**
+     * Maximum amount of insets rendered in parallel.
+     */
+    private static final int THREADS =
+        java.lang.Runtime.getRuntime().availableProcessors() * 4;
+
+    /**
+     * Maximum amount of insets waiting for a thread.
+     */
+    private static final int QUEUE = 1024;
+
+    /**
+     * Executor for all independent insets (when it's full, the insets
+     * are rendered in the calling thread).
+     */
+    private static final ThreadPoolExecutor EXECUTOR =
+        StagedInset.executor();
+
+    /**
+     * Original inset.
+     */
+    private final transient Inset origin;
+
+    /**
+     * Staging page.
+     */
+    private final transient BasePage<?, ?> stage;
+
+    /**
+     * Staging response builder.
+     */
+    private final transient Response.ResponseBuilder builder;
+
+    /**
+     * When the rendering has to be finished, in nanoseconds.
+     */
+    private final transient long deadline;
+
+    /**
+     * Key of the inset in cache, or NULL if it's not cached.
+     */
+    private final transient String key;
+
+    /**
+     * Background rendering.
+     */
+    private final transient Future<?> future;
+
+    /**
+     * Public ctor, starts rendering immediately.
+     *
+     * <p>The ctor has to be called in the thread of the request, since
+     * the key of the inset in cache is calculated here.
+     * @param inset The inset to render
+     * @param resource The resource, detached from the thread of its
+     *  request (see {@link DetachedResource})
+     */
+    StagedInset(final Inset inset, final Resource resource) {
+        this.origin = inset;
+        this.stage = new BasePage<BasePage<?, ?>, Resource>().init(resource);
+        this.builder = Response.ok();
+        this.key = InsetCache.key(inset, resource);
+        this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(
+            inset.getClass().getAnnotation(Inset.Independent.class).timeout()
+        );
+        this.future = StagedInset.EXECUTOR.submit(
+            new Callable<Void>() {
+                @Override
+                public Void call() {
+                    InsetCache.render(
+                        StagedInset.this.origin, StagedInset.this.key,
+                        StagedInset.this.stage, StagedInset.this.builder
+                    );
+                    return null;
+                }
+            }
+        );
+    }
+
+    /**
+     * Is it a class of independent insets?
+     * @param type Class of the inset
+     * @return TRUE if it should be rendered in background
+     */
+    public static boolean independent(final Class<?> type) {
+        return type.isAnnotationPresent(Inset.Independent.class);
+    }
+
+    @Override
+    public void render(final BasePage<?, ?> page,
+        final Response.ResponseBuilder response) {
+        try {
+            this.future.get(
+                Math.max(0L, this.deadline - System.nanoTime()),
+                TimeUnit.NANOSECONDS
+            );
+            page.absorb(this.stage);
+            final Response built = this.builder.build();
+            for (final Map.Entry<String, List<Object>> header
+                : built.getMetadata().entrySet()) {
+                for (final Object value : header.getValue()) {
+                    response.header(header.getKey(), value);
+                }
+            }
+        } catch (final TimeoutException ex) {
+            this.future.cancel(true);
+            this.fallback(page, response, ex);
+        } catch (final ExecutionException ex) {
+            this.failed(page, response, ex.getCause());
+        } catch (final InterruptedException ex) {
+            this.future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * The inset failed with an exception.
+     * @param page The page
+     * @param response The response builder
+     * @param cause The exception
+     */
+    private void failed(final BasePage<?, ?> page,
+        final Response.ResponseBuilder response, final Throwable cause) {
+        if (cause instanceof WebApplicationException
+            || !(this.origin instanceof Inset.Fallback)) {
+            if (cause instanceof RuntimeException) {
+                throw RuntimeException.class.cast(cause);
+            }
+            if (cause instanceof Error) {
+                throw Error.class.cast(cause);
+            }
+            throw new IllegalStateException(cause);
+        }
+        this.fallback(page, response, cause);
+    }
+
+    /**
+     * Render the fallback of the inset, if it has one.
+     * @param page The page
+     * @param response The response builder
+     * @param cause Why the inset failed
+     */
+    private void fallback(final BasePage<?, ?> page,
+        final Response.ResponseBuilder response, final Throwable cause) {
+        if (this.origin instanceof Inset.Fallback) {
+            Logger.warn(
+                this, "%[type]s failed, using fallback: %s",
+                this.origin, cause
+            );
+            Inset.Fallback.class.cast(this.origin)
+                .fallback(page, response, cause);
+        } else {
+            Logger.warn(
+                this, "%[type]s is too slow, skipped: %s",
+                this.origin, cause
+            );
+        }
+    }
+
+    /**
+     * Make an executor.
+     * @return Executor
+     */
+    private static ThreadPoolExecutor executor() {
+        final ThreadPoolExecutor service = new ThreadPoolExecutor(
+            StagedInset.THREADS, StagedInset.THREADS,
+            1L, TimeUnit.MINUTES,
+            new LinkedBlockingQueue<Runnable>(StagedInset.QUEUE),
+            new VerboseThreads("rexsl-insets", true, Thread.NORM_PRIORITY),
+            new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+        service.allowCoreThreadTimeOut(true);
+        return service;
+    }
+
+}
@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.page;
+
+import lombok.ToString;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.DTDHandler;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.XMLReader;
+
+/**
+ * SAX reader that "parses" a {@link Streamable}, instead of a text.
+ *
+ * <p>It is used as a source of an identity XSL transformation, which
+ * JAXB runs when it marshals DOM elements. Input source provided to
+ * {@link #parse(InputSource)} is ignored.
+ *
+ * <p>The class is mutable and NOT thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = "source")
+final class StreamReader implements XMLReader {
+
+    /**
+     * SAX feature of namespaces.
+     */
+    private static final String NAMESPACES =
+        "http://xml.org/sax/features/namespaces";
+
+    /**
+     * The source of events.
+     */
+    private final transient Streamable source;
+
+    /**
+     * Content handler.
+     */
+    private transient ContentHandler content;
+
+    /**
+     * DTD handler.
+     */
+    private transient DTDHandler dtd;
+
+    /**
+     * Entity resolver.
+     */
+    private transient EntityResolver resolver;
+
+    /**
+     * Error handler.
+     */
+    private transient ErrorHandler errors;
+
+    /**
+     * Public ctor.
+     * @param src The source of SAX events
+     */
+    StreamReader(final Streamable src) {
+        this.source = src;
+    }
+
+    @Override
+    public boolean getFeature(final String name) {
+        return StreamReader.NAMESPACES.equals(name);
+    }
+
+    @Override
+    public void setFeature(final String name, final boolean value) {
+        // all features are ignored, we always report namespaces
+    }
+
+    @Override
+    public Object getProperty(final String name)
+        throws SAXNotRecognizedException {
+        throw new SAXNotRecognizedException(name);
+    }
+
+    @Override
+    public void setProperty(final String name, final Object value) {
+        // no properties are supported, lexical handler is not used
+    }
+
+    @Override
+    public void setEntityResolver(final EntityResolver res) {
+        this.resolver = res;
+    }
+
+    @Override
+    public EntityResolver getEntityResolver() {
+        return this.resolver;
+    }
+
+    @Override
+    public void setDTDHandler(final DTDHandler handler) {
+        this.dtd = handler;
+    }
+
+    @Override
+    public DTDHandler getDTDHandler() {
+        return this.dtd;
+    }
+
+    @Override
+    public void setContentHandler(final ContentHandler handler) {
+        this.content = handler;
+    }
+
+    @Override
+    public ContentHandler getContentHandler() {
+        return this.content;
+    }
+
+    @Override
+    public void setErrorHandler(final ErrorHandler handler) {
+        this.errors = handler;
+    }
+
+    @Override
+    public ErrorHandler getErrorHandler() {
+        return this.errors;
+    }
+
+    @Override
+    public void parse(final InputSource input) throws SAXException {
+        if (this.content == null) {
+            throw new IllegalStateException("content handler is not set");
+        }
+        this.content.startDocument();
+        this.source.stream(this.content);
+        this.content.endDocument();
+    }
+
+    @Override
+    public void parse(final String system) throws SAXException {
+        this.parse(new InputSource(system));
+    }
+
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.page;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.sax.SAXSource;
+import lombok.ToString;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.InputSource;
+
+/**
+ * DOM {@link Element} that is backed by a {@link Streamable}.
+ *
+ * <p>JAXB marshals only JAXB-annotated objects and DOM elements in
+ * {@code @XmlAnyElement} collections. This class makes a lightweight
+ * proxy of {@link Element}, which {@link JaxbStreamHandler} recognizes
+ * and marshals by streaming SAX events straight from the source, without
+ * creating any DOM nodes.
+ *
+ * <p>If any method of {@link Element} is called on the proxy (by some code
+ * other than our JAXB handler), a real DOM element is built once from
+ * the source and the call is delegated to it.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = "source")
+final class StreamedElement implements InvocationHandler {
+
+    /**
+     * DOM document builder factory.
+     */
+    private static final DocumentBuilderFactory DOCS =
+        DocumentBuilderFactory.newInstance();
+
+    /**
+     * XSL transformer factory.
+     */
+    private static final TransformerFactory XSL =
+        TransformerFactory.newInstance();
+
+    /**
+     * The source.
+     */
+    private final transient Streamable source;
+
+    /**
+     * DOM element, built on demand.
+     */
+    private transient Element dom;
+
+    /**
+     * Private ctor.
+     * @param src The source
+     */
+    private StreamedElement(final Streamable src) {
+        this.source = src;
+    }
+
+    /**
+     * Make a DOM element backed by this source.
+     * @param src The source
+     * @return The element
+     */
+    public static Element of(final Streamable src) {
+        return Element.class.cast(
+            Proxy.newProxyInstance(
+                StreamedElement.class.getClassLoader(),
+                new Class<?>[] {Element.class},
+                new StreamedElement(src)
+            )
+        );
+    }
+
+    /**
+     * Get the source of this element, if it was made by {@link #of}.
+     * @param element The element
+     * @return The source or NULL if it's a usual DOM element
+     */
+    public static Streamable source(final Element element) {
+        Streamable src = null;
+        if (Proxy.isProxyClass(element.getClass())) {
+            final InvocationHandler handler =
+                Proxy.getInvocationHandler(element);
+            if (handler instanceof StreamedElement) {
+                src = StreamedElement.class.cast(handler).source;
+            }
+        }
+        return src;
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method,
+        final Object[] args) throws Throwable {
+        final Object result;
+        if (!method.getDeclaringClass().equals(Object.class)) {
+            try {
+                result = method.invoke(this.element(), args);
+            } catch (final InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        } else if ("equals".equals(method.getName())) {
+            result = proxy == args[0];
+        } else if ("hashCode".equals(method.getName())) {
+            result = System.identityHashCode(proxy);
+        } else {
+            result = this.source.toString();
+        }
+        return result;
+    }
+
+    /**
+     * Build DOM element from the source, if not yet built.
+     * @return The element
+     */
+    private Element element() {
+        synchronized (this.source) {
+            if (this.dom == null) {
+                final Document doc;
+                try {
+                    synchronized (StreamedElement.DOCS) {
+                        doc = StreamedElement.DOCS.newDocumentBuilder()
+                            .newDocument();
+                    }
+                    final Transformer tran;
+                    synchronized (StreamedElement.XSL) {
+                        tran = StreamedElement.XSL.newTransformer();
+                    }
+                    tran.transform(
+                        new SAXSource(
+                            new StreamReader(this.source),
+                            new InputSource()
+                        ),
+                        new DOMResult(doc)
+                    );
+                } catch (final ParserConfigurationException ex) {
+                    throw new IllegalStateException(ex);
+                } catch (final TransformerException ex) {
+                    throw new IllegalStateException(ex);
+                }
+                this.dom = doc.getDocumentElement();
+            }
+            return this.dom;
+        }
+    }
+
+}
@@ -0,0 +1,479 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.page;
+
+import com.jcabi.aspects.Immutable;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UnsupportedEncodingException;
+import java.util.LinkedList;
+import java.util.List;
+import javax.validation.constraints.NotNull;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXSource;
+import javax.xml.transform.stream.StreamResult;
+import lombok.EqualsAndHashCode;
+import org.apache.commons.lang3.CharEncoding;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Pre-serialized XML fragment, parsed once and reused by many pages.
+ *
+ * <p>Use it for content that rarely changes, like navigation menus or
+ * footers, for example:
+ *
+ * <pre> private static final XmlFragment MENU = new XmlFragment(
+ *   "&lt;menu&gt;&lt;item href='/'&gt;home&lt;/item&gt;&lt;/menu&gt;"
+ * );
+ * public BasePage front() {
+ *   return new PageBuilder()
+ *     .build(BasePage.class)
+ *     .init(this)
+ *     .append(MyRs.MENU);
+ * }</pre>
+ *
+ * <p>The XML is parsed and validated in the constructor (it has to be
+ * a well-formed document with one root element). The result of parsing is
+ * kept as a list of SAX events, which are replayed straight into the
+ * output of JAXB every time the page is marshalled, without any
+ * parsing, DOM or JAXB reflection.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ * @see BasePage#append(XmlFragment)
+ */
+@Immutable
+@EqualsAndHashCode(of = "xml")
+public final class XmlFragment implements Streamable {
+
+    /**
+     * SAX parser factory.
+     */
+    private static final SAXParserFactory PARSERS = XmlFragment.parsers();
+
+    /**
+     * XSL transformer factory.
+     */
+    private static final TransformerFactory XSL =
+        TransformerFactory.newInstance();
+
+    /**
+     * XML text.
+     */
+    private final transient String xml;
+
+    /**
+     * SAX events.
+     */
+    @Immutable.Array
+    private final transient XmlFragment.Event[] events;
+
+    /**
+     * Public ctor.
+     * @param text XML text of the fragment
+     */
+    public XmlFragment(@NotNull final String text) {
+        this.xml = text;
+        this.events = XmlFragment.parse(text);
+    }
+
+    /**
+     * Public ctor.
+     * @param utf UTF-8 bytes of XML
+     */
+    public XmlFragment(@NotNull final byte[] utf) {
+        this(XmlFragment.text(utf));
+    }
+
+    /**
+     * Make a fragment from a bundle.
+     * @param bundle The bundle
+     * @return Fragment with the same XML
+     */
+    public static XmlFragment of(@NotNull final JaxbBundle bundle) {
+        return XmlFragment.record(bundle);
+    }
+
+    @Override
+    public String toString() {
+        return this.xml;
+    }
+
+    @Override
+    public void stream(@NotNull final ContentHandler handler)
+        throws SAXException {
+        for (final XmlFragment.Event event : this.events) {
+            event.replay(handler);
+        }
+    }
+
+    /**
+     * Make a fragment from a streamable source.
+     * @param source The source
+     * @return Fragment with the same XML
+     */
+    static XmlFragment record(final Streamable source) {
+        final StringWriter writer = new StringWriter();
+        try {
+            final Transformer tran;
+            synchronized (XmlFragment.XSL) {
+                tran = XmlFragment.XSL.newTransformer();
+            }
+            tran.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+            tran.transform(
+                new SAXSource(new StreamReader(source), new InputSource()),
+                new StreamResult(writer)
+            );
+        } catch (final TransformerConfigurationException ex) {
+            throw new IllegalStateException(ex);
+        } catch (final TransformerException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return new XmlFragment(writer.toString());
+    }
+
+    /**
+     * Convert bytes to text.
+     * @param utf UTF-8 bytes
+     * @return Text
+     */
+    private static String text(final byte[] utf) {
+        try {
+            return new String(utf, CharEncoding.UTF_8);
+        } catch (final UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Parse XML text into SAX events.
+     * @param text The XML
+     * @return Events
+     */
+    private static XmlFragment.Event[] parse(final String text) {
+        final XmlFragment.Recorder recorder = new XmlFragment.Recorder();
+        try {
+            final SAXParser parser;
+            synchronized (XmlFragment.PARSERS) {
+                parser = XmlFragment.PARSERS.newSAXParser();
+            }
+            parser.parse(new InputSource(new StringReader(text)), recorder);
+        } catch (final ParserConfigurationException ex) {
+            throw new IllegalStateException(ex);
+        } catch (final SAXException ex) {
+            throw new IllegalArgumentException(
+                String.format("invalid XML fragment: %s", text), ex
+            );
+        } catch (final IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return recorder.events();
+    }
+
+    /**
+     * Make SAX parser factory.
+     *
+     * <p>Fragments don't need DTDs, so document type declarations are
+     * rejected and external entities and DTDs are never loaded, to
+     * prevent XXE attacks through fragments built from untrusted text.
+     *
+     * @return Factory
+     */
+    private static SAXParserFactory parsers() {
+        final SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setXIncludeAware(false);
+        try {
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature(
+                "http://apache.org/xml/features/disallow-doctype-decl", true
+            );
+            factory.setFeature(
+                "http://xml.org/sax/features/external-general-entities", false
+            );
+            factory.setFeature(
+                "http://xml.org/sax/features/external-parameter-entities",
+                false
+            );
+            factory.setFeature(
+                // @checkstyle LineLength (1 line)
+                "http://apache.org/xml/features/nonvalidating/load-external-dtd",
+                false
+            );
+        } catch (final ParserConfigurationException ex) {
+            throw new IllegalStateException(ex);
+        } catch (final SAXException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return factory;
+    }
+
+    /**
+     * SAX event.
+     */
+    @Immutable
+    private interface Event {
+        /**
+         * Replay it.
+         * @param handler Handler to replay to
+         * @throws SAXException If fails
+         */
+        void replay(ContentHandler handler) throws SAXException;
+    }
+
+    /**
+     * Start of element.
+     */
+    @Immutable
+    private static final class Start implements XmlFragment.Event {
+        /**
+         * Namespace URI.
+         */
+        private final transient String uri;
+        /**
+         * Local name.
+         */
+        private final transient String local;
+        /**
+         * Qualified name.
+         */
+        private final transient String qname;
+        /**
+         * Attributes, five strings per each: URI, local name, qualified
+         * name, type and value.
+         */
+        @Immutable.Array
+        private final transient String[] attrs;
+        /**
+         * Public ctor.
+         * @param urn Namespace URI
+         * @param name Local name
+         * @param qnm Qualified name
+         * @param attributes Attributes
+         * @checkstyle ParameterNumber (3 lines)
+         */
+        Start(final String urn, final String name, final String qnm,
+            final Attributes attributes) {
+            this.uri = urn;
+            this.local = name;
+            this.qname = qnm;
+            final int size = 5;
+            this.attrs = new String[attributes.getLength() * size];
+            for (int idx = 0; idx < attributes.getLength(); ++idx) {
+                this.attrs[idx * size] = attributes.getURI(idx);
+                this.attrs[idx * size + 1] = attributes.getLocalName(idx);
+                this.attrs[idx * size + 2] = attributes.getQName(idx);
+                this.attrs[idx * size + 3] = attributes.getType(idx);
+                this.attrs[idx * size + 4] = attributes.getValue(idx);
+            }
+        }
+        @Override
+        public void replay(final ContentHandler handler)
+            throws SAXException {
+            final AttributesImpl attributes = new AttributesImpl();
+            for (int idx = 0; idx < this.attrs.length; idx += 5) {
+                attributes.addAttribute(
+                    this.attrs[idx], this.attrs[idx + 1], this.attrs[idx + 2],
+                    this.attrs[idx + 3], this.attrs[idx + 4]
+                );
+            }
+            handler.startElement(this.uri, this.local, this.qname, attributes);
+        }
+    }
+
+    /**
+     * End of element.
+     */
+    @Immutable
+    private static final class End implements XmlFragment.Event {
+        /**
+         * Namespace URI.
+         */
+        private final transient String uri;
+        /**
+         * Local name.
+         */
+        private final transient String local;
+        /**
+         * Qualified name.
+         */
+        private final transient String qname;
+        /**
+         * Public ctor.
+         * @param urn Namespace URI
+         * @param name Local name
+         * @param qnm Qualified name
+         */
+        End(final String urn, final String name, final String qnm) {
+            this.uri = urn;
+            this.local = name;
+            this.qname = qnm;
+        }
+        @Override
+        public void replay(final ContentHandler handler)
+            throws SAXException {
+            handler.endElement(this.uri, this.local, this.qname);
+        }
+    }
+
+    /**
+     * Text.
+     */
+    @Immutable
+    private static final class Text implements XmlFragment.Event {
+        /**
+         * The text.
+         */
+        private final transient String text;
+        /**
+         * Public ctor.
+         * @param txt The text
+         */
+        Text(final String txt) {
+            this.text = txt;
+        }
+        @Override
+        public void replay(final ContentHandler handler)
+            throws SAXException {
+            handler.characters(this.text.toCharArray(), 0, this.text.length());
+        }
+    }
+
+    /**
+     * Start or end of namespace prefix mapping.
+     */
+    @Immutable
+    private static final class Prefix implements XmlFragment.Event {
+        /**
+         * The prefix.
+         */
+        private final transient String prefix;
+        /**
+         * Namespace URI, or NULL if it's the end of mapping.
+         */
+        private final transient String uri;
+        /**
+         * Public ctor.
+         * @param pfx The prefix
+         * @param urn Namespace URI or NULL
+         */
+        Prefix(final String pfx, final String urn) {
+            this.prefix = pfx;
+            this.uri = urn;
+        }
+        @Override
+        public void replay(final ContentHandler handler)
+            throws SAXException {
+            if (this.uri == null) {
+                handler.endPrefixMapping(this.prefix);
+            } else {
+                handler.startPrefixMapping(this.prefix, this.uri);
+            }
+        }
+    }
+
+    /**
+     * SAX handler that records events.
+     */
+    private static final class Recorder extends DefaultHandler {
+        /**
+         * Events recorded.
+         */
+        private final transient List<XmlFragment.Event> list =
+            new LinkedList<XmlFragment.Event>();
+        /**
+         * Text being collected.
+         */
+        private final transient StringBuilder text = new StringBuilder(0);
+        /**
+         * Get all events.
+         * @return Events
+         */
+        public XmlFragment.Event[] events() {
+            return this.list.toArray(new XmlFragment.Event[this.list.size()]);
+        }
+        @Override
+        public void startPrefixMapping(final String prefix, final String uri) {
+            this.flush();
+            this.list.add(new XmlFragment.Prefix(prefix, uri));
+        }
+        @Override
+        public void endPrefixMapping(final String prefix) {
+            this.flush();
+            this.list.add(new XmlFragment.Prefix(prefix, null));
+        }
+        @Override
+        public void startElement(final String uri, final String local,
+            final String qname, final Attributes attributes) {
+            this.flush();
+            this.list.add(
+                new XmlFragment.Start(uri, local, qname, attributes)
+            );
+        }
+        @Override
+        public void endElement(final String uri, final String local,
+            final String qname) {
+            this.flush();
+            this.list.add(new XmlFragment.End(uri, local, qname));
+        }
+        @Override
+        public void characters(final char[] chars, final int start,
+            final int length) {
+            this.text.append(chars, start, length);
+        }
+        /**
+         * Record collected text, if any.
+         */
+        private void flush() {
+            if (this.text.length() > 0) {
+                this.list.add(new XmlFragment.Text(this.text.toString()));
+                this.text.setLength(0);
+            }
+        }
+    }
+
+}
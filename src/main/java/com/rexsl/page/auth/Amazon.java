@@ -31,7 +31,6 @@ package com.rexsl.page.auth;
 
 import com.jcabi.aspects.Loggable;
 import com.jcabi.http.Request;
-import com.jcabi.http.request.JdkRequest;
 import com.jcabi.http.response.JsonResponse;
 import com.jcabi.http.response.RestResponse;
 import com.jcabi.urn.URN;
@@ -83,6 +82,11 @@ public final class Amazon implements Provider, Provider.Visible {
      */
     private final transient String key;
 
+    /**
+     * HTTP transport.
+     */
+    private final transient Transport transport;
+
     /**
      * Public ctor.
      * @param res JAX-RS resource
@@ -91,9 +95,24 @@ public final class Amazon implements Provider, Provider.Visible {
      */
     public Amazon(@NotNull final Resource res,
         @NotNull final String aid, @NotNull final String secret) {
+        this(res, aid, secret, Transport.DEFAULT);
+    }
+
+    /**
+     * Public ctor.
+     * @param res JAX-RS resource
+     * @param aid Application id
+     * @param secret Application secret key
+     * @param trans HTTP transport to use
+     * @since 2.0
+     */
+    public Amazon(@NotNull final Resource res,
+        @NotNull final String aid, @NotNull final String secret,
+        @NotNull final Transport trans) {
         this.resource = res;
         this.app = aid;
         this.key = secret;
+        this.transport = trans;
     }
 
     @Override
@@ -164,7 +183,7 @@ public final class Amazon implements Provider, Provider.Visible {
                 code,
                 "authorization_code"
             );
-        return new JdkRequest(uri)
+        return this.transport.request(uri)
             .method(Request.POST)
             .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON)
             .fetch().as(RestResponse.class)
@@ -186,7 +205,7 @@ public final class Amazon implements Provider, Provider.Visible {
             .queryParam("access_token", "{token}")
             .build(token);
         return this.parse(
-            new JdkRequest(uri)
+            this.transport.request(uri)
                 .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON)
                 .fetch().as(RestResponse.class)
                 .assertStatus(HttpURLConnection.HTTP_OK)
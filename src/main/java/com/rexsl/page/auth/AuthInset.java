@@ -29,7 +29,6 @@
  */
 package com.rexsl.page.auth;
 
-import com.jcabi.aspects.Cacheable;
 import com.jcabi.aspects.Loggable;
 import com.jcabi.log.Logger;
 import com.rexsl.page.BasePage;
@@ -37,13 +36,17 @@ import com.rexsl.page.CookieBuilder;
 import com.rexsl.page.Inset;
 import com.rexsl.page.JaxbBundle;
 import com.rexsl.page.Link;
+import com.rexsl.page.Memo;
 import com.rexsl.page.Resource;
+import com.rexsl.page.ScopedResource;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.validation.constraints.NotNull;
+import javax.ws.rs.core.Cookie;
 import javax.ws.rs.core.NewCookie;
 import javax.ws.rs.core.Response;
 import lombok.EqualsAndHashCode;
@@ -74,6 +77,12 @@ public final class AuthInset implements Inset {
      */
     private static final String LOGOUT_FLAG = "rexsl-logout";
 
+    /**
+     * Key of identity in request memo.
+     */
+    private static final Memo.Key<Identity> IDENTITY =
+        new Memo.Key<Identity>(AuthInset.class.getName());
+
     /**
      * The resource.
      */
@@ -89,6 +98,12 @@ public final class AuthInset implements Inset {
      */
     private final transient Set<Provider> providers = new HashSet<Provider>(0);
 
+    /**
+     * Age of auth cookie, in milliseconds, after which it is re-issued.
+     */
+    private final transient AtomicLong refresh =
+        new AtomicLong(TimeUnit.HOURS.toMillis(1L));
+
     /**
      * Public ctor.
      * @param res The resource
@@ -130,16 +145,53 @@ public final class AuthInset implements Inset {
         return this;
     }
 
+    /**
+     * Re-issue auth cookie only when it is older than this.
+     *
+     * <p>Until then, authenticated responses don't have
+     * {@code Set-Cookie} header at all, which keeps them smaller and
+     * cacheable by intermediaries. By default, the cookie is re-issued
+     * once an hour.
+     *
+     * @param time Maximum age of the cookie
+     * @param unit Unit of time
+     * @return This object
+     * @since 2.0
+     */
+    public AuthInset refreshAfter(final long time,
+        @NotNull final TimeUnit unit) {
+        this.refresh.set(unit.toMillis(time));
+        return this;
+    }
+
     /**
      * Get user's identity ({@link AuthException}
      * if not authenticated).
+     *
+     * <p>The identity is found only once per request and is kept in
+     * the memo of the resource, if the resource has it (see
+     * {@link ScopedResource#memo()}). Otherwise, it is found every time.
+     *
      * @return Identity, if authenticated
      */
-    @Cacheable(lifetime = 1, unit = TimeUnit.SECONDS)
     public Identity identity() {
-        Identity identity = this.ofProviders();
-        if (identity.equals(Identity.ANONYMOUS)) {
-            identity = this.ofCookies();
+        final Memo.Source<Identity> source = new Memo.Source<Identity>() {
+            @Override
+            public Identity get() {
+                Identity identity = AuthInset.this.ofProviders();
+                if (identity.equals(Identity.ANONYMOUS)) {
+                    identity = AuthInset.this.ofCookies();
+                }
+                return identity;
+            }
+        };
+        final Identity identity;
+        if (this.resource instanceof ScopedResource) {
+            identity = ScopedResource.class.cast(this.resource).memo().get(
+                AuthInset.IDENTITY, source
+            );
+        } else {
+            identity = source.get();
         }
         return identity;
     }
@@ -175,7 +227,9 @@ public final class AuthInset implements Inset {
                         .build()
                 )
             );
-            builder.cookie(this.cookie(identity));
+            if (!this.fresh(identity)) {
+                builder.cookie(this.cookie(identity));
+            }
             builder.header("X-Rexsl-Identity", identity.urn());
         }
         if (this.resource.uriInfo().getQueryParameters()
@@ -223,8 +277,11 @@ public final class AuthInset implements Inset {
      *
      * @return The cookie
      */
-    @Cacheable.FlushAfter
     public NewCookie logout() {
+        if (this.resource instanceof ScopedResource) {
+            ScopedResource.class.cast(this.resource).memo()
+                .forget(AuthInset.IDENTITY);
+        }
         return new CookieBuilder(this.resource.uriInfo().getBaseUri())
             .name(AuthInset.AUTH_COOKIE)
             .build();
@@ -267,6 +324,32 @@ public final class AuthInset implements Inset {
         return identity;
     }
 
+    /**
+     * The request already has a recent auth cookie of this identity?
+     * @param identity The identity
+     * @return TRUE if the cookie doesn't need to be issued again
+     */
+    private boolean fresh(final Identity identity) {
+        boolean fresh = false;
+        final Cookie cookie = this.resource.httpHeaders().getCookies()
+            .get(AuthInset.AUTH_COOKIE);
+        if (cookie != null) {
+            try {
+                final Encrypted enc = Encrypted.parse(
+                    cookie.getValue(), this.key
+                );
+                fresh = enc.urn().equals(identity.urn())
+                    && enc.name().equals(identity.name())
+                    && enc.photo().equals(identity.photo())
+                    && System.currentTimeMillis() - enc.issued()
+                    < this.refresh.get();
+            } catch (final Encrypted.DecryptionException ex) {
+                fresh = false;
+            }
+        }
+        return fresh;
+    }
+
     /**
      * Authenticate using cookies.
      * @return Identity found or ANONYMOUS
@@ -33,15 +33,17 @@ import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.Loggable;
 import com.jcabi.aspects.Tv;
 import com.jcabi.urn.URN;
+import com.rexsl.core.Lru;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
 import javax.validation.constraints.NotNull;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
@@ -75,6 +77,24 @@ final class Encrypted implements Identity {
      */
     private static final Random RND = new SecureRandom();
 
+    /**
+     * How many fields are encrypted.
+     */
+    private static final int FIELDS = 3;
+
+    /**
+     * Cookie values recently issued, by URN, name, photo, key and
+     * minute of issue.
+     */
+    private static final Lru<List<String>, String> ISSUED =
+        new Lru<List<String>, String>(Tv.THOUSAND);
+
+    /**
+     * Identities recently decrypted, by cookie value and key.
+     */
+    private static final Lru<List<String>, Encrypted> VERIFIED =
+        new Lru<List<String>, Encrypted>(Tv.THOUSAND);
+
     /**
      * The user.
      */
@@ -85,6 +105,11 @@ final class Encrypted implements Identity {
      */
     private final transient String key;
 
+    /**
+     * When the cookie was issued, in milliseconds (zero if unknown).
+     */
+    private final transient long time;
+
     /**
      * Public ctor.
      * @param idn The identity to encapsulate
@@ -92,8 +117,20 @@ final class Encrypted implements Identity {
      */
     Encrypted(@NotNull final Identity idn,
         @NotNull final String secret) {
+        this(idn, secret, 0L);
+    }
+
+    /**
+     * Private ctor.
+     * @param idn The identity to encapsulate
+     * @param secret Secret key for encryption
+     * @param issued When the cookie was issued, in milliseconds
+     */
+    private Encrypted(final Identity idn, final String secret,
+        final long issued) {
         this.identity = idn;
         this.key = secret;
+        this.time = issued;
     }
 
     @Override
@@ -111,31 +148,41 @@ final class Encrypted implements Identity {
         return this.identity.photo();
     }
 
+    /**
+     * When the cookie this identity was decrypted from was issued.
+     * @return Time in milliseconds, or zero if it is unknown (the identity
+     *  was not decrypted or the cookie was issued before the time was
+     *  added to the format)
+     * @since 2.0
+     */
+    public long issued() {
+        return this.time;
+    }
+
     /**
      * Get its value for cookie.
+     *
+     * <p>The value contains the time of issue. Values are cached for a
+     * minute, so the same identity gets the same cookie value during
+     * this minute, without salting and encrypting it again.
+     *
      * @return The value
      */
     public String cookie() {
-        final ByteArrayOutputStream data = new ByteArrayOutputStream();
-        final DataOutputStream stream = new DataOutputStream(data);
-        try {
-            stream.writeUTF(this.urn().toString());
-            stream.writeUTF(this.name());
-            stream.writeUTF(this.photo().toString());
-        } catch (final IOException ex) {
-            throw new IllegalArgumentException(ex);
-        } finally {
-            IOUtils.closeQuietly(stream);
-        }
-        return StringUtils.join(
-            Encrypted.CODER.encodeToString(
-                Encrypted.xor(
-                    Encrypted.salt(data.toByteArray()),
-                    this.key.getBytes(Charsets.UTF_8)
-                )
-            ).split("(?<=\\G.{8})"),
-            "-"
+        final long now = System.currentTimeMillis();
+        final List<String> ckey = Arrays.asList(
+            this.urn().toString(),
+            this.name(),
+            this.photo().toString(),
+            this.key,
+            Long.toString(now / TimeUnit.MINUTES.toMillis(1L))
         );
+        String value = Encrypted.ISSUED.get(ckey);
+        if (value == null) {
+            value = Encrypted.encrypt(ckey, this.key, now);
+            Encrypted.ISSUED.put(ckey, value);
+        }
+        return value;
     }
 
     /**
@@ -151,21 +198,80 @@ final class Encrypted implements Identity {
         if (txt == null) {
             throw new Encrypted.DecryptionException("text can't be NULL");
         }
-        final byte[] bytes = Encrypted.CODER.decode(txt.replaceAll("- ", ""));
+        final List<String> ckey = Arrays.asList(txt, ekey);
+        Encrypted enc = Encrypted.VERIFIED.get(ckey);
+        if (enc == null) {
+            enc = Encrypted.decrypt(txt, ekey);
+            Encrypted.VERIFIED.put(ckey, enc);
+        }
+        return enc;
+    }
+
+    /**
+     * Encrypt URN, name and photo into cookie value.
+     * @param fields URN, name and photo (other items are ignored)
+     * @param ekey Encryption key
+     * @param issued Time of issue, in milliseconds
+     * @return Cookie value
+     */
+    private static String encrypt(final List<String> fields,
+        final String ekey, final long issued) {
+        int len = Tv.EIGHT;
+        for (final String field : fields.subList(0, Encrypted.FIELDS)) {
+            len += Encrypted.utflen(field) + 2;
+        }
+        final byte size = (byte) Encrypted.RND.nextInt(Tv.TEN);
+        final byte[] data = new byte[len + size + 2];
+        data[0] = size;
+        byte sum = (byte) 0;
+        for (int idx = 0; idx < (int) size; ++idx) {
+            data[idx + 1] = (byte) Encrypted.RND.nextInt();
+            sum += data[idx + 1];
+        }
+        int pos = size + 1;
+        for (final String field : fields.subList(0, Encrypted.FIELDS)) {
+            pos = Encrypted.utf(field, data, pos);
+        }
+        for (int idx = 0; idx < Tv.EIGHT; ++idx) {
+            data[pos + idx] = (byte) (
+                issued >>> (Tv.EIGHT * (Tv.SEVEN - idx))
+            );
+        }
+        data[data.length - 1] = sum;
+        Encrypted.xor(data, ekey.getBytes(Charsets.UTF_8));
+        return Encrypted.dashed(Encrypted.CODER.encodeToString(data));
+    }
+
+    /**
+     * Decrypt cookie value.
+     * @param txt The text to decrypt
+     * @param ekey Encryption key
+     * @return Instance of the class
+     * @throws Encrypted.DecryptionException If can't decrypt
+     * @checkstyle RedundantThrowsCheck (5 lines)
+     */
+    private static Encrypted decrypt(final String txt, final String ekey)
+        throws Encrypted.DecryptionException {
+        final byte[] bytes = Encrypted.CODER.decode(
+            StringUtils.remove(txt, "- ")
+        );
+        Encrypted.xor(bytes, ekey.getBytes(Charsets.UTF_8));
+        final int size = Encrypted.unsalt(bytes);
         final DataInputStream stream = new DataInputStream(
-            new ByteArrayInputStream(
-                Encrypted.unsalt(
-                    Encrypted.xor(bytes, ekey.getBytes(Charsets.UTF_8))
-                )
-            )
+            new ByteArrayInputStream(bytes, size + 1, bytes.length - size - 2)
         );
         try {
             final URN urn = new URN(stream.readUTF());
             final String name = stream.readUTF();
             final String photo = stream.readUTF();
+            long issued = 0L;
+            if (stream.available() >= Tv.EIGHT) {
+                issued = stream.readLong();
+            }
             return new Encrypted(
                 new Identity.Simple(urn, name, URI.create(photo)),
-                ekey
+                ekey,
+                issued
             );
         } catch (final URISyntaxException ex) {
             throw new Encrypted.DecryptionException(ex);
@@ -177,39 +283,19 @@ final class Encrypted implements Identity {
     }
 
     /**
-     * Salt the string.
-     * @param text Original text to salt
-     * @return Salted string
-     */
-    @SuppressWarnings("PMD.AvoidArrayLoops")
-    private static byte[] salt(final byte[] text) {
-        final byte size = (byte) Encrypted.RND.nextInt(Tv.TEN);
-        final byte[] output = new byte[text.length + size + 2];
-        output[0] = size;
-        byte sum = (byte) 0;
-        for (int idx = 0; idx < (int) size; ++idx) {
-            output[idx + 1] = (byte) Encrypted.RND.nextInt();
-            sum += output[idx + 1];
-        }
-        System.arraycopy(text, 0, output, size + 1, text.length);
-        output[output.length - 1] = sum;
-        return output;
-    }
-
-    /**
-     * Un-salt the string.
+     * Check the salt of the text.
      * @param text Salted text
-     * @return Original text
+     * @return Size of the salt
      * @throws Encrypted.DecryptionException If salt is wrong
      * @checkstyle RedundantThrowsCheck (5 lines)
      */
-    private static byte[] unsalt(final byte[] text)
+    private static int unsalt(final byte[] text)
         throws Encrypted.DecryptionException {
         if (text.length == 0) {
             throw new Encrypted.DecryptionException("empty input");
         }
         final int size = text[0];
-        if (text.length < size + 2) {
+        if (size < 0 || text.length < size + 2) {
             throw new Encrypted.DecryptionException(
                 String.format(
                     "not enough bytes for salt, length is %d while %d required",
@@ -229,32 +315,110 @@ final class Encrypted implements Identity {
                 )
             );
         }
-        final byte[] output = new byte[text.length - size - 2];
-        System.arraycopy(text, size + 1, output, 0, output.length);
-        return output;
+        return size;
     }
 
     /**
-     * XOR array of bytes.
-     * @param input The input to XOR
+     * XOR array of bytes, in place.
+     * @param data The data to XOR
      * @param secret Secret key
-     * @return Encrypted output
      */
-    private static byte[] xor(final byte[] input, final byte[] secret) {
-        final byte[] output = new byte[input.length];
-        if (secret.length == 0) {
-            System.arraycopy(input, 0, output, 0, input.length);
-        } else {
+    private static void xor(final byte[] data, final byte[] secret) {
+        if (secret.length > 0) {
             int spos = 0;
-            for (int pos = 0; pos < input.length; ++pos) {
-                output[pos] = (byte) (input[pos] ^ secret[spos]);
+            for (int pos = 0; pos < data.length; ++pos) {
+                data[pos] = (byte) (data[pos] ^ secret[spos]);
                 ++spos;
                 if (spos >= secret.length) {
                     spos = 0;
                 }
             }
         }
-        return output;
+    }
+
+    /**
+     * Split text into groups of eight characters, separated by dashes.
+     * @param text The text
+     * @return Text with dashes
+     */
+    private static String dashed(final String text) {
+        final int len = text.length();
+        int dashes = 0;
+        if (len > 0) {
+            dashes = (len - 1) / Tv.EIGHT;
+        }
+        final char[] out = new char[len + dashes];
+        int pos = 0;
+        for (int idx = 0; idx < len; ++idx) {
+            if (idx > 0 && idx % Tv.EIGHT == 0) {
+                out[pos] = '-';
+                ++pos;
+            }
+            out[pos] = text.charAt(idx);
+            ++pos;
+        }
+        return new String(out);
+    }
+
+    /**
+     * Length of the text in modified UTF-8, as in
+     * {@link java.io.DataOutput#writeUTF(String)}.
+     * @param text The text
+     * @return Number of bytes
+     * @checkstyle MagicNumber (20 lines)
+     */
+    private static int utflen(final String text) {
+        int len = 0;
+        for (int idx = 0; idx < text.length(); ++idx) {
+            final char chr = text.charAt(idx);
+            if (chr >= 0x0001 && chr <= 0x007F) {
+                len += 1;
+            } else if (chr > 0x07FF) {
+                len += Tv.THREE;
+            } else {
+                len += 2;
+            }
+        }
+        if (len > 0xFFFF) {
+            throw new IllegalArgumentException(
+                String.format("too long text: %d bytes", len)
+            );
+        }
+        return len;
+    }
+
+    /**
+     * Write text in modified UTF-8 into the buffer, as
+     * {@link java.io.DataOutput#writeUTF(String)} does.
+     * @param text The text
+     * @param buf The buffer
+     * @param start Position in the buffer to start from
+     * @return Position after the last written byte
+     * @checkstyle MagicNumber (30 lines)
+     */
+    private static int utf(final String text, final byte[] buf,
+        final int start) {
+        int pos = start + 2;
+        for (int idx = 0; idx < text.length(); ++idx) {
+            final char chr = text.charAt(idx);
+            if (chr >= 0x0001 && chr <= 0x007F) {
+                buf[pos] = (byte) chr;
+                pos += 1;
+            } else if (chr > 0x07FF) {
+                buf[pos] = (byte) (0xE0 | ((chr >> 12) & 0x0F));
+                buf[pos + 1] = (byte) (0x80 | ((chr >> 6) & 0x3F));
+                buf[pos + 2] = (byte) (0x80 | (chr & 0x3F));
+                pos += Tv.THREE;
+            } else {
+                buf[pos] = (byte) (0xC0 | ((chr >> 6) & 0x1F));
+                buf[pos + 1] = (byte) (0x80 | (chr & 0x3F));
+                pos += 2;
+            }
+        }
+        final int len = pos - start - 2;
+        buf[start] = (byte) (len >>> 8);
+        buf[start + 1] = (byte) len;
+        return pos;
     }
 
     /**
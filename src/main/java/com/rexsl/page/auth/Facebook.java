@@ -30,7 +30,6 @@
 package com.rexsl.page.auth;
 
 import com.jcabi.aspects.Loggable;
-import com.jcabi.http.request.JdkRequest;
 import com.jcabi.http.response.RestResponse;
 import com.jcabi.urn.URN;
 import com.restfb.DefaultFacebookClient;
@@ -83,6 +82,11 @@ public final class Facebook implements Provider, Provider.Visible {
      */
     private final transient String key;
 
+    /**
+     * HTTP transport.
+     */
+    private final transient Transport transport;
+
     /**
      * Public ctor.
      * @param res Resource
@@ -91,9 +95,24 @@ public final class Facebook implements Provider, Provider.Visible {
      */
     public Facebook(@NotNull final Resource res,
         @NotNull final String aid, @NotNull final String secret) {
+        this(res, aid, secret, Transport.DEFAULT);
+    }
+
+    /**
+     * Public ctor.
+     * @param res Resource
+     * @param aid Application id
+     * @param secret Application secret key
+     * @param trans HTTP transport to use
+     * @since 2.0
+     */
+    public Facebook(@NotNull final Resource res,
+        @NotNull final String aid, @NotNull final String secret,
+        @NotNull final Transport trans) {
         this.resource = res;
         this.app = aid;
         this.key = secret;
+        this.transport = trans;
     }
 
     @Override
@@ -167,7 +186,7 @@ public final class Facebook implements Provider, Provider.Visible {
                 this.key,
                 code
             );
-        final String response = new JdkRequest(uri)
+        final String response = this.transport.request(uri)
             .fetch().as(RestResponse.class)
             .assertStatus(HttpURLConnection.HTTP_OK)
             .body();
@@ -31,7 +31,6 @@ package com.rexsl.page.auth;
 
 import com.jcabi.aspects.Loggable;
 import com.jcabi.http.Request;
-import com.jcabi.http.request.JdkRequest;
 import com.jcabi.http.response.JsonResponse;
 import com.jcabi.http.response.RestResponse;
 import com.jcabi.urn.URN;
@@ -41,7 +40,10 @@ import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.json.JsonNumber;
 import javax.json.JsonObject;
+import javax.json.JsonString;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.HttpHeaders;
@@ -75,6 +77,16 @@ public final class Google implements Provider, Provider.Visible {
      */
     private static final String STATE = "state";
 
+    /**
+     * Name of ID token in Google response.
+     */
+    private static final String ID_TOKEN = "id_token";
+
+    /**
+     * Allowed clock skew for expiration of ID tokens, in milliseconds.
+     */
+    private static final long SKEW = TimeUnit.MINUTES.toMillis(5L);
+
     /**
      * Resource.
      */
@@ -90,6 +102,17 @@ public final class Google implements Provider, Provider.Visible {
      */
     private final transient String secret;
 
+    /**
+     * HTTP transport.
+     */
+    private final transient Transport transport;
+
+    /**
+     * Keys to verify ID tokens with, or NULL if user profile should be
+     * fetched from Google instead.
+     */
+    private final transient Jwks keys;
+
     /**
      * Public ctor.
      * @param res Resource
@@ -98,9 +121,49 @@ public final class Google implements Provider, Provider.Visible {
      */
     public Google(@NotNull final Resource res,
         @NotNull final String aid, @NotNull final String key) {
+        this(res, aid, key, Transport.DEFAULT);
+    }
+
+    /**
+     * Public ctor.
+     * @param res Resource
+     * @param aid Application id
+     * @param key Application secret key
+     * @param trans HTTP transport to use
+     * @since 2.0
+     */
+    public Google(@NotNull final Resource res,
+        @NotNull final String aid, @NotNull final String key,
+        @NotNull final Transport trans) {
+        this(res, aid, key, trans, null);
+    }
+
+    /**
+     * Public ctor, which makes a provider that verifies ID tokens locally.
+     *
+     * <p>Google returns a signed OpenID Connect ID token together with
+     * the access token. When keys are provided, the provider verifies the
+     * signature of this token with them and takes user's ID, name and
+     * photo from its claims, instead of fetching the profile from Google
+     * with one more HTTP request. {@link Jwks#GOOGLE} are the keys
+     * published by Google.
+     *
+     * @param res Resource
+     * @param aid Application id
+     * @param key Application secret key
+     * @param trans HTTP transport to use
+     * @param jwks Keys to verify ID tokens with, or NULL to fetch profile
+     * @since 2.0
+     * @checkstyle ParameterNumber (5 lines)
+     */
+    public Google(@NotNull final Resource res,
+        @NotNull final String aid, @NotNull final String key,
+        @NotNull final Transport trans, final Jwks jwks) {
         this.resource = res;
         this.app = aid;
         this.secret = key;
+        this.transport = trans;
+        this.keys = jwks;
     }
 
     @Override
@@ -122,7 +185,13 @@ public final class Google implements Provider, Provider.Visible {
                     HttpURLConnection.HTTP_BAD_REQUEST
                 );
             }
-            identity = this.fetch(this.token(code.get(0)));
+            final JsonObject token = this.token(code.get(0));
+            if (this.keys == null || !token.containsKey(Google.ID_TOKEN)) {
+                // @checkstyle MultipleStringLiterals (1 line)
+                identity = this.fetch(token.getString("access_token"));
+            } else {
+                identity = this.verified(token.getString(Google.ID_TOKEN));
+            }
         }
         return identity;
     }
@@ -138,22 +207,85 @@ public final class Google implements Provider, Provider.Visible {
                 .queryParam("redirect_uri", "{uri}")
                 .queryParam("response_type", "code")
                 .queryParam(Google.STATE, Google.FLAG)
-                .queryParam(
-                    "scope",
-                    "https://www.googleapis.com/auth/userinfo.profile"
+                .queryParam("scope", "{scope}")
+                .build(
+                    this.app,
+                    this.resource.uriInfo().getBaseUri(),
+                    this.scope()
+                )
+        );
+    }
+
+    /**
+     * Make identity from the claims of a signed ID token.
+     * @param jwt The token
+     * @return Identity found
+     * @throws IOException If the token is not valid
+     */
+    Identity verified(final String jwt) throws IOException {
+        final JsonObject claims = this.keys.verify(jwt);
+        final String issuer = claims.getString("iss", "");
+        if (!"accounts.google.com".equals(issuer)
+            && !"https://accounts.google.com".equals(issuer)) {
+            throw new IOException(
+                String.format("ID token is issued by '%s'", issuer)
+            );
+        }
+        if (!this.app.equals(claims.getString("aud", ""))) {
+            throw new IOException(
+                String.format(
+                    "ID token is issued for '%s'",
+                    claims.getString("aud", "")
                 )
-                .build(this.app, this.resource.uriInfo().getBaseUri())
+            );
+        }
+        if (!(claims.get("exp") instanceof JsonNumber)) {
+            throw new IOException("ID token has no expiration time");
+        }
+        if (!(claims.get("sub") instanceof JsonString)) {
+            throw new IOException("ID token has no subject");
+        }
+        final long exp = TimeUnit.SECONDS.toMillis(
+            claims.getJsonNumber("exp").longValue()
         );
+        if (exp < System.currentTimeMillis() - Google.SKEW) {
+            throw new IOException("ID token is expired");
+        }
+        return new Identity.Simple(
+            URN.create(String.format("urn:google:%s", claims.getString("sub"))),
+            claims.getString("name", Identity.ANONYMOUS.name()),
+            URI.create(
+                claims.getString(
+                    "picture",
+                    Identity.ANONYMOUS.photo().toString()
+                )
+            )
+        );
+    }
+
+    /**
+     * Scope to request.
+     * @return Scope
+     */
+    private String scope() {
+        final String scope;
+        if (this.keys == null) {
+            scope = "https://www.googleapis.com/auth/userinfo.profile";
+        } else {
+            scope = "openid profile";
+        }
+        return scope;
     }
 
     /**
-     * Retrieve Google access token.
+     * Retrieve Google access token (and ID token, if it is there).
      * @param code Google "authorization code"
-     * @return The token
+     * @return JSON with tokens
      * @throws IOException If fails
      */
-    private String token(final String code) throws IOException {
-        return new JdkRequest("https://accounts.google.com/o/oauth2/token")
+    private JsonObject token(final String code) throws IOException {
+        return this.transport
+            .request("https://accounts.google.com/o/oauth2/token")
             .body()
             .formParam("client_id", this.app)
             .formParam("redirect_uri", this.resource.uriInfo().getBaseUri())
@@ -169,9 +301,7 @@ public final class Google implements Provider, Provider.Visible {
             .fetch().as(RestResponse.class)
             .assertStatus(HttpURLConnection.HTTP_OK)
             .as(JsonResponse.class).json()
-            .readObject()
-            // @checkstyle MultipleStringLiterals (1 line)
-            .getString("access_token");
+            .readObject();
     }
 
     /**
@@ -187,7 +317,7 @@ public final class Google implements Provider, Provider.Visible {
             .queryParam("access_token", "{token}")
             .build(token);
         return this.parse(
-            new JdkRequest(uri).fetch()
+            this.transport.request(uri).fetch()
                 .as(JsonResponse.class).json()
                 .readObject()
         );
@@ -30,14 +30,27 @@
 package com.rexsl.page.auth;
 
 import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.rexsl.core.Lru;
 import com.rexsl.page.Resource;
 import com.rexsl.page.inset.FlashInset;
 import java.io.IOException;
 import java.net.URLDecoder;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 import javax.validation.constraints.NotNull;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.apache.commons.codec.binary.Base64;
@@ -58,6 +71,11 @@ import org.apache.commons.lang3.StringUtils;
 @Loggable(Loggable.DEBUG)
 public final class HttpBasic implements Provider {
 
+    /**
+     * HTTP status "Too Many Requests".
+     */
+    private static final int TOO_MANY = 429;
+
     /**
      * Never authenticating vault.
      */
@@ -78,6 +96,11 @@ public final class HttpBasic implements Provider {
      */
     private final transient HttpBasic.Vault vault;
 
+    /**
+     * Cache of authentications, or NULL if not used.
+     */
+    private final transient HttpBasic.Cache cache;
+
     /**
      * Public ctor.
      * @param res JAX-RS resource
@@ -85,8 +108,30 @@ public final class HttpBasic implements Provider {
      */
     public HttpBasic(@NotNull final Resource res,
         @NotNull final HttpBasic.Vault vlt) {
+        this(res, vlt, null);
+    }
+
+    /**
+     * Public ctor, with a cache of successful authentications.
+     *
+     * <p>The cache should be shared by all requests, for example:
+     *
+     * <pre> private static final HttpBasic.Cache CACHE = new HttpBasic.Cache();
+     * public AuthInset auth() {
+     *   return new AuthInset(this, "key")
+     *     .with(new HttpBasic(this, new MyVault(), MyResource.CACHE));
+     * }</pre>
+     *
+     * @param res JAX-RS resource
+     * @param vlt Authentication vault
+     * @param che The cache, shared by all requests
+     * @since 2.0
+     */
+    public HttpBasic(@NotNull final Resource res,
+        @NotNull final HttpBasic.Vault vlt, final HttpBasic.Cache che) {
         this.resource = res;
         this.vault = vlt;
+        this.cache = che;
     }
 
     @Override
@@ -95,7 +140,48 @@ public final class HttpBasic implements Provider {
             .getRequestHeader(HttpHeaders.AUTHORIZATION);
         Identity identity = Identity.ANONYMOUS;
         if (headers != null && !headers.isEmpty()) {
-            identity = this.parse(headers.get(0));
+            if (this.cache == null) {
+                identity = this.parse(headers.get(0));
+            } else {
+                identity = this.cached(headers.get(0));
+            }
+        }
+        return identity;
+    }
+
+    /**
+     * Find identity in cache, or parse header and check it in the vault.
+     * @param header The HTTP header
+     * @return Identity found (or anonymous)
+     * @throws IOException If fails
+     */
+    private Identity cached(final String header) throws IOException {
+        final String hash = this.cache.hash(header);
+        Identity identity = this.cache.get(hash);
+        if (identity == null) {
+            final String address =
+                this.resource.httpServletRequest().getRemoteAddr();
+            if (!this.cache.acquire(address)) {
+                throw new WebApplicationException(
+                    Response.status(HttpBasic.TOO_MANY)
+                        .header("Retry-After", 1)
+                        .entity(
+                            String.format(
+                                "too many authentications from %s",
+                                address
+                            )
+                        )
+                        .build()
+                );
+            }
+            try {
+                identity = this.parse(header);
+            } finally {
+                this.cache.release(address);
+            }
+            if (!identity.equals(Identity.ANONYMOUS)) {
+                this.cache.put(hash, identity);
+            }
         }
         return identity;
     }
@@ -152,4 +238,188 @@ public final class HttpBasic implements Provider {
         Identity authenticate(String user, String password);
     }
 
+    /**
+     * Cache of successful authentications, shared by all requests.
+     *
+     * <p>Identities are kept by a keyed hash (HMAC-SHA256 with a random
+     * key) of the entire {@code Authorization} header, for a short time,
+     * so that clients sending the same credentials with every request
+     * don't cause a password check in the vault every time. Changes of
+     * passwords in the vault are visible after this time only.
+     *
+     * <p>The cache also limits the number of concurrent password checks
+     * per remote IP address. A client exceeding the limit gets HTTP
+     * response {@code 429 Too Many Requests}.
+     *
+     * <p>The class is thread-safe.
+     *
+     * @since 2.0
+     */
+    @ToString(of = { "ttl", "permits" })
+    @EqualsAndHashCode(of = { "ttl", "permits" })
+    public static final class Cache {
+        /**
+         * Random generator.
+         */
+        private static final Random RND = new SecureRandom();
+        /**
+         * Size of HMAC key, in bytes.
+         */
+        private static final int KEY_SIZE = 32;
+        /**
+         * Name of HMAC algorithm.
+         */
+        private static final String HMAC = "HmacSHA256";
+        /**
+         * Secret key of the hash.
+         */
+        private final transient byte[] secret;
+        /**
+         * Time to live in milliseconds.
+         */
+        private final transient long ttl;
+        /**
+         * Maximum number of concurrent password checks per address.
+         */
+        private final transient int permits;
+        /**
+         * Identities by hashes of headers.
+         */
+        private final transient Lru<String, HttpBasic.Cache.Entry> entries;
+        /**
+         * Password checks in progress, by remote addresses (only
+         * addresses with at least one check in progress are here).
+         */
+        private final transient Map<String, Integer> checks;
+        /**
+         * Public ctor, with one minute TTL, one thousand identities and
+         * two concurrent password checks per remote address.
+         */
+        public Cache() {
+            this(1L, TimeUnit.MINUTES, Tv.THOUSAND, 2);
+        }
+        /**
+         * Public ctor.
+         * @param time How long to keep an identity
+         * @param unit Unit of time
+         * @param size Maximum number of identities to keep
+         * @param max Maximum number of concurrent password checks
+         *  per remote address
+         * @checkstyle ParameterNumber (5 lines)
+         */
+        public Cache(final long time, @NotNull final TimeUnit unit,
+            final int size, final int max) {
+            this.ttl = unit.toMillis(time);
+            this.permits = max;
+            this.entries = new Lru<String, HttpBasic.Cache.Entry>(size);
+            this.checks = new HashMap<String, Integer>(0);
+            this.secret = new byte[HttpBasic.Cache.KEY_SIZE];
+            HttpBasic.Cache.RND.nextBytes(this.secret);
+        }
+        /**
+         * Keyed hash of the header.
+         * @param header The header
+         * @return Hash
+         */
+        private String hash(final String header) {
+            try {
+                final Mac mac = Mac.getInstance(HttpBasic.Cache.HMAC);
+                mac.init(new SecretKeySpec(this.secret, HttpBasic.Cache.HMAC));
+                return Base64.encodeBase64String(
+                    mac.doFinal(header.getBytes(Charsets.UTF_8))
+                );
+            } catch (final NoSuchAlgorithmException ex) {
+                throw new IllegalStateException(ex);
+            } catch (final InvalidKeyException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+        /**
+         * Get identity by hash, if it is not expired yet.
+         * @param hash The hash
+         * @return Identity or NULL
+         */
+        private Identity get(final String hash) {
+            final HttpBasic.Cache.Entry entry = this.entries.get(hash);
+            Identity identity = null;
+            if (entry != null) {
+                if (entry.expires > System.currentTimeMillis()) {
+                    identity = entry.identity;
+                } else {
+                    this.entries.remove(hash);
+                }
+            }
+            return identity;
+        }
+        /**
+         * Save identity.
+         * @param hash The hash
+         * @param identity The identity
+         */
+        private void put(final String hash, final Identity identity) {
+            this.entries.put(
+                hash,
+                new HttpBasic.Cache.Entry(
+                    identity, System.currentTimeMillis() + this.ttl
+                )
+            );
+        }
+        /**
+         * Start a password check for the remote address, if its limit
+         * is not reached yet.
+         * @param address The address
+         * @return TRUE if the check can start, FALSE if too many of them
+         */
+        private boolean acquire(final String address) {
+            synchronized (this.checks) {
+                int busy = 0;
+                if (this.checks.containsKey(address)) {
+                    busy = this.checks.get(address);
+                }
+                final boolean free = busy < this.permits;
+                if (free) {
+                    this.checks.put(address, busy + 1);
+                }
+                return free;
+            }
+        }
+        /**
+         * Finish a password check for the remote address, started by
+         * {@link #acquire(String)}.
+         * @param address The address
+         */
+        private void release(final String address) {
+            synchronized (this.checks) {
+                final int busy = this.checks.get(address);
+                if (busy > 1) {
+                    this.checks.put(address, busy - 1);
+                } else {
+                    this.checks.remove(address);
+                }
+            }
+        }
+        /**
+         * Identity with its expiration time.
+         */
+        private static final class Entry {
+            /**
+             * The identity.
+             */
+            private final transient Identity identity;
+            /**
+             * When it expires, in milliseconds.
+             */
+            private final transient long expires;
+            /**
+             * Ctor.
+             * @param idt The identity
+             * @param when When it expires
+             */
+            Entry(final Identity idt, final long when) {
+                this.identity = idt;
+                this.expires = when;
+            }
+        }
+    }
+
 }
@@ -0,0 +1,412 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.page.auth;
+
+import com.jcabi.http.response.RestResponse;
+import com.jcabi.log.Logger;
+import com.jcabi.log.VerboseRunnable;
+import com.jcabi.log.VerboseThreads;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonValue;
+import javax.validation.constraints.NotNull;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.io.Charsets;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Set of RSA signing keys (JSON Web Key Set), which verifies
+ * signed JSON Web Tokens locally.
+ *
+ * <p>Keys are loaded from the source URI by a background daemon thread,
+ * which is started when a token is verified for the first time. It
+ * reloads them every refresh period, and also when a token is signed
+ * by an unknown key (but not more often than once a minute, or once
+ * a refresh period, if it's shorter). Verification never waits for
+ * reloading, except for the very first load, since there are no keys
+ * to verify with before it. If reloading fails, the keys loaded before
+ * stay in use. The source may be an HTTP URI, loaded
+ * through a {@link Transport}, or any other URI that JDK can open,
+ * for example a local {@code file:} with keys for tests.
+ *
+ * <p>The thread is stopped by {@link #stop()}, which you may call from
+ * a {@link javax.servlet.ServletContextListener} when the application is
+ * undeployed, and started again if a token is verified after that.
+ *
+ * <p>Only {@code RS256} signatures are supported.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ * @see <a href="https://tools.ietf.org/html/rfc7517">JSON Web Key</a>
+ * @see <a href="https://tools.ietf.org/html/rfc7519">JSON Web Token</a>
+ * @checkstyle ClassDataAbstractionCoupling (500 lines)
+ */
+@ToString(of = "source")
+@EqualsAndHashCode(of = "source")
+public final class Jwks {
+
+    /**
+     * Signing keys of Google, reloaded every hour.
+     */
+    public static final Jwks GOOGLE = new Jwks(
+        URI.create("https://www.googleapis.com/oauth2/v3/certs")
+    );
+
+    /**
+     * Minimum delay between reloads caused by unknown keys, in millis.
+     */
+    private static final long MIN_DELAY = TimeUnit.MINUTES.toMillis(1L);
+
+    /**
+     * Where to load keys from.
+     */
+    private final transient URI source;
+
+    /**
+     * HTTP transport.
+     */
+    private final transient Transport transport;
+
+    /**
+     * Refresh period, in milliseconds.
+     */
+    private final transient long period;
+
+    /**
+     * Lock for starting and stopping.
+     */
+    private final transient Object lock = new Object();
+
+    /**
+     * Background reloading, or NULL if it's not started.
+     */
+    private transient volatile ScheduledExecutorService service;
+
+    /**
+     * Keys by their IDs.
+     */
+    private transient volatile Map<String, PublicKey> keys =
+        Collections.emptyMap();
+
+    /**
+     * Why the latest reload failed, or NULL if it didn't.
+     */
+    private transient volatile IOException failure;
+
+    /**
+     * When keys were requested to be reloaded last time, in milliseconds.
+     */
+    private final transient AtomicLong requested = new AtomicLong();
+
+    /**
+     * Counted down when keys are loaded for the first time, successfully
+     * or not.
+     */
+    private final transient CountDownLatch first = new CountDownLatch(1);
+
+    /**
+     * Public ctor.
+     * @param uri Where to load keys from
+     */
+    public Jwks(@NotNull final URI uri) {
+        this(uri, Transport.DEFAULT, TimeUnit.HOURS.toMillis(1L));
+    }
+
+    /**
+     * Public ctor.
+     * @param uri Where to load keys from
+     * @param trans HTTP transport to use
+     * @param refresh How often to reload keys, in milliseconds (zero
+     *  means that they are reloaded only when an unknown key shows up)
+     */
+    public Jwks(@NotNull final URI uri, @NotNull final Transport trans,
+        final long refresh) {
+        this.source = uri;
+        this.transport = trans;
+        this.period = refresh;
+    }
+
+    /**
+     * Verify signature of the token and return its claims.
+     *
+     * <p>Only the signature is verified here, it's up to the caller
+     * to check issuer, audience and expiration time.
+     *
+     * @param jwt The token, in compact serialization
+     * @return Claims
+     * @throws IOException If the token is broken or its signature is wrong
+     */
+    public JsonObject verify(@NotNull final String jwt) throws IOException {
+        final int first = jwt.indexOf('.');
+        final int last = jwt.lastIndexOf('.');
+        if (first < 0 || first == last) {
+            throw new IOException("JWT must have three parts");
+        }
+        final JsonObject header = Jwks.json(jwt.substring(0, first));
+        if (!"RS256".equals(header.getString("alg", ""))) {
+            throw new IOException(
+                String.format(
+                    "JWT algorithm '%s' is not supported",
+                    header.getString("alg", "")
+                )
+            );
+        }
+        final PublicKey key = this.key(header.getString("kid", ""));
+        try {
+            final Signature sig = Signature.getInstance("SHA256withRSA");
+            sig.initVerify(key);
+            sig.update(jwt.substring(0, last).getBytes(Charsets.US_ASCII));
+            if (!sig.verify(Base64.decodeBase64(jwt.substring(last + 1)))) {
+                throw new IOException("JWT signature is not valid");
+            }
+        } catch (final GeneralSecurityException ex) {
+            throw new IOException(ex);
+        }
+        return Jwks.json(jwt.substring(first + 1, last));
+    }
+
+    /**
+     * Stop background reloading, if it's started.
+     */
+    public void stop() {
+        synchronized (this.lock) {
+            if (this.service != null) {
+                this.service.shutdownNow();
+                this.service = null;
+            }
+        }
+    }
+
+    /**
+     * Reload keys from the source now, keeping the old ones if it fails.
+     */
+    void reload() {
+        try {
+            this.keys = this.load();
+            this.failure = null;
+        } catch (final IOException ex) {
+            Logger.warn(
+                this, "failed to load keys from %s, %d kept: %s",
+                this.source, this.keys.size(), ex.getMessage()
+            );
+            this.failure = ex;
+        } finally {
+            this.first.countDown();
+        }
+    }
+
+    /**
+     * Find a key by its ID, asking for reloading in background if it
+     * is unknown.
+     * @param kid Key ID
+     * @return The key
+     * @throws IOException If there is no such key
+     */
+    private PublicKey key(final String kid) throws IOException {
+        final ScheduledExecutorService svc = this.start();
+        try {
+            this.first.await(Jwks.MIN_DELAY, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        }
+        final PublicKey key = this.keys.get(kid);
+        if (key == null) {
+            final long now = System.currentTimeMillis();
+            final long before = this.requested.get();
+            if (now - before >= Math.min(this.period, Jwks.MIN_DELAY)
+                && this.requested.compareAndSet(before, now)) {
+                svc.execute(this.reloading());
+            }
+            throw new IOException(
+                String.format("JWT key '%s' is unknown", kid), this.failure
+            );
+        }
+        return key;
+    }
+
+    /**
+     * Start background reloading, if it's not started yet.
+     * @return Service running in background
+     */
+    private ScheduledExecutorService start() {
+        ScheduledExecutorService svc = this.service;
+        if (svc == null) {
+            synchronized (this.lock) {
+                svc = this.service;
+                if (svc == null) {
+                    svc = Executors.newSingleThreadScheduledExecutor(
+                        new VerboseThreads(
+                            "rexsl-jwks", true, Thread.MIN_PRIORITY
+                        )
+                    );
+                    this.requested.set(System.currentTimeMillis());
+                    if (this.period > 0L) {
+                        svc.scheduleWithFixedDelay(
+                            this.reloading(), 0L, this.period,
+                            TimeUnit.MILLISECONDS
+                        );
+                    } else {
+                        svc.execute(this.reloading());
+                    }
+                    this.service = svc;
+                }
+            }
+        }
+        return svc;
+    }
+
+    /**
+     * Task that reloads keys.
+     * @return Runnable
+     */
+    private Runnable reloading() {
+        return new VerboseRunnable(
+            new Runnable() {
+                @Override
+                public void run() {
+                    Jwks.this.reload();
+                }
+            },
+            true
+        );
+    }
+
+    /**
+     * Load all keys from the source.
+     * @return Keys by their IDs
+     * @throws IOException If fails
+     */
+    private Map<String, PublicKey> load() throws IOException {
+        final String text;
+        if ("http".equals(this.source.getScheme())
+            || "https".equals(this.source.getScheme())) {
+            text = this.transport.request(this.source).fetch()
+                .as(RestResponse.class)
+                .assertStatus(HttpURLConnection.HTTP_OK)
+                .body();
+        } else {
+            final InputStream input = this.source.toURL().openStream();
+            try {
+                text = IOUtils.toString(input, Charsets.UTF_8);
+            } finally {
+                input.close();
+            }
+        }
+        final Map<String, PublicKey> map = new HashMap<String, PublicKey>(0);
+        try {
+            final KeyFactory factory = KeyFactory.getInstance("RSA");
+            for (final JsonValue value
+                : Jwks.parse(text).getJsonArray("keys")) {
+                final JsonObject jwk = (JsonObject) value;
+                if ("RSA".equals(jwk.getString("kty", ""))) {
+                    map.put(
+                        jwk.getString("kid", ""),
+                        factory.generatePublic(
+                            new RSAPublicKeySpec(
+                                Jwks.number(jwk.getString("n")),
+                                Jwks.number(jwk.getString("e"))
+                            )
+                        )
+                    );
+                }
+            }
+        } catch (final GeneralSecurityException ex) {
+            throw new IOException(ex);
+        }
+        Logger.info(this, "%d key(s) loaded from %s", map.size(), this.source);
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Decode Base64url part of the token into JSON object.
+     * @param part The part
+     * @return JSON
+     * @throws IOException If it's not JSON
+     */
+    private static JsonObject json(final String part) throws IOException {
+        return Jwks.parse(
+            new String(Base64.decodeBase64(part), Charsets.UTF_8)
+        );
+    }
+
+    /**
+     * Parse JSON object.
+     * @param text The text
+     * @return JSON
+     * @throws IOException If it's not JSON
+     */
+    private static JsonObject parse(final String text) throws IOException {
+        final JsonReader reader = Json.createReader(new StringReader(text));
+        try {
+            return reader.readObject();
+        } catch (final JsonException ex) {
+            throw new IOException(ex);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Decode Base64url unsigned big-endian number.
+     * @param text The text
+     * @return The number
+     */
+    private static BigInteger number(final String text) {
+        return new BigInteger(1, Base64.decodeBase64(text));
+    }
+
+}
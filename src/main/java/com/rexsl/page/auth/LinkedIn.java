@@ -31,7 +31,6 @@ package com.rexsl.page.auth;
 
 import com.jcabi.aspects.Loggable;
 import com.jcabi.http.Request;
-import com.jcabi.http.request.JdkRequest;
 import com.jcabi.http.response.JsonResponse;
 import com.jcabi.http.response.RestResponse;
 import com.jcabi.urn.URN;
@@ -92,6 +91,11 @@ public final class LinkedIn implements Provider, Provider.Visible {
      */
     private final transient String key;
 
+    /**
+     * HTTP transport.
+     */
+    private final transient Transport transport;
+
     /**
      * Public ctor.
      * @param res JAX-RS resource
@@ -100,9 +104,24 @@ public final class LinkedIn implements Provider, Provider.Visible {
      */
     public LinkedIn(@NotNull final Resource res,
         @NotNull final String aid, @NotNull final String secret) {
+        this(res, aid, secret, Transport.DEFAULT);
+    }
+
+    /**
+     * Public ctor.
+     * @param res JAX-RS resource
+     * @param aid Application id
+     * @param secret Application secret key
+     * @param trans HTTP transport to use
+     * @since 2.0
+     */
+    public LinkedIn(@NotNull final Resource res,
+        @NotNull final String aid, @NotNull final String secret,
+        @NotNull final Transport trans) {
         this.resource = res;
         this.app = aid;
         this.key = secret;
+        this.transport = trans;
     }
 
     @Override
@@ -171,7 +190,7 @@ public final class LinkedIn implements Provider, Provider.Visible {
                 this.key,
                 code
             );
-        return new JdkRequest(uri)
+        return this.transport.request(uri)
             .method(Request.POST)
             .fetch().as(RestResponse.class)
             .assertStatus(HttpURLConnection.HTTP_OK)
@@ -192,7 +211,7 @@ public final class LinkedIn implements Provider, Provider.Visible {
             .queryParam("oauth2_access_token", "{token}")
             .build(token);
         return this.parse(
-            new JdkRequest(uri)
+            this.transport.request(uri)
                 .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON)
                 .fetch().as(RestResponse.class)
                 .assertStatus(HttpURLConnection.HTTP_OK)
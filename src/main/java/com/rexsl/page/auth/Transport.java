@@ -0,0 +1,543 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.page.auth;
+
+import com.jcabi.http.Request;
+import com.jcabi.http.Response;
+import com.jcabi.http.Wire;
+import com.jcabi.http.request.JdkRequest;
+import com.jcabi.log.Logger;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.validation.constraints.NotNull;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.io.Charsets;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * HTTP transport for authentication providers.
+ *
+ * <p>Every request made through this transport has connect and read
+ * timeouts, waits for a free slot among a limited number of concurrent
+ * requests to the same host, and leaves its connection open after
+ * the response is read, so that JDK can reuse it for the next request
+ * to the same host (HTTP keep-alive). Latency of requests is collected
+ * per host, see {@link #stats()}.
+ *
+ * <p>All providers in this package use {@link #DEFAULT} unless another
+ * transport is given to their constructors, for example:
+ *
+ * <pre> final Transport transport = new Transport(
+ *   TimeUnit.SECONDS.toMillis(2L), TimeUnit.SECONDS.toMillis(5L), 10
+ * );
+ * new AuthInset(this, key)
+ *   .with(new Github(this, "app", "secret", transport));</pre>
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ * @since 2.0
+ * @checkstyle ClassDataAbstractionCoupling (500 lines)
+ */
+@ToString(of = { "connect", "read", "permits" })
+@EqualsAndHashCode(of = { "connect", "read", "permits" })
+public final class Transport {
+
+    /**
+     * Default transport, with five seconds to connect, ten seconds
+     * to read and twenty concurrent requests per host.
+     */
+    public static final Transport DEFAULT = new Transport(
+        TimeUnit.SECONDS.toMillis(5L), TimeUnit.SECONDS.toMillis(10L), 20
+    );
+
+    /**
+     * Connect timeout in milliseconds, also used as maximum time to
+     * wait for a free slot.
+     */
+    private final transient int connect;
+
+    /**
+     * Read timeout in milliseconds.
+     */
+    private final transient int read;
+
+    /**
+     * Maximum number of concurrent requests per host.
+     */
+    private final transient int permits;
+
+    /**
+     * Slots per host.
+     */
+    private final transient ConcurrentMap<String, Semaphore> slots =
+        new ConcurrentHashMap<String, Semaphore>(0);
+
+    /**
+     * Statistics per host.
+     */
+    private final transient ConcurrentMap<String, Transport.Stats> hosts =
+        new ConcurrentHashMap<String, Transport.Stats>(0);
+
+    /**
+     * Public ctor.
+     * @param cnct Connect timeout in milliseconds
+     * @param timeout Read timeout in milliseconds
+     * @param max Maximum number of concurrent requests per host
+     */
+    public Transport(final long cnct, final long timeout, final int max) {
+        if (max < 1) {
+            throw new IllegalArgumentException(
+                String.format("at least one request per host needed: %d", max)
+            );
+        }
+        this.connect = (int) cnct;
+        this.read = (int) timeout;
+        this.permits = max;
+    }
+
+    /**
+     * Make a new request through this transport.
+     * @param uri The URI to request
+     * @return Request
+     */
+    public Request request(@NotNull final URI uri) {
+        return new JdkRequest(uri).through(Transport.Pooled.class, this);
+    }
+
+    /**
+     * Make a new request through this transport.
+     * @param uri The URI to request
+     * @return Request
+     */
+    public Request request(@NotNull final String uri) {
+        return this.request(URI.create(uri));
+    }
+
+    /**
+     * Statistics of all hosts requested so far.
+     * @return Stats by host name
+     */
+    public Map<String, Transport.Stats> stats() {
+        return Collections.unmodifiableMap(
+            new TreeMap<String, Transport.Stats>(this.hosts)
+        );
+    }
+
+    /**
+     * Send HTTP request.
+     * @param req The request
+     * @param home URI to fetch
+     * @param method HTTP method
+     * @param headers Headers
+     * @param content HTTP body
+     * @return Response obtained
+     * @throws IOException If fails
+     * @checkstyle ParameterNumber (5 lines)
+     */
+    private Response send(final Request req, final String home,
+        final String method,
+        final Collection<Map.Entry<String, String>> headers,
+        final InputStream content) throws IOException {
+        final URL url = new URL(home);
+        final Semaphore slot = this.slot(url.getHost());
+        final Transport.Stats stats = this.stats(url.getHost());
+        final long start = System.nanoTime();
+        try {
+            if (!slot.tryAcquire((long) this.connect, TimeUnit.MILLISECONDS)) {
+                stats.failed();
+                throw new IOException(
+                    String.format(
+                        "%d requests to %s are in progress already",
+                        this.permits, url.getHost()
+                    )
+                );
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        }
+        try {
+            final Response response = this.exchange(
+                req, url, method, headers, content
+            );
+            final long nano = System.nanoTime() - start;
+            stats.done(nano);
+            Logger.debug(
+                this, "#send(%s %s): HTTP %d in %[nano]s",
+                method, home, response.status(), nano
+            );
+            return response;
+        } catch (final IOException ex) {
+            stats.failed();
+            throw ex;
+        } finally {
+            slot.release();
+        }
+    }
+
+    /**
+     * Make HTTP exchange through a (possibly reused) connection.
+     * @param req The request
+     * @param url URL to fetch
+     * @param method HTTP method
+     * @param headers Headers
+     * @param content HTTP body
+     * @return Response obtained
+     * @throws IOException If fails
+     * @checkstyle ParameterNumber (5 lines)
+     */
+    private Response exchange(final Request req, final URL url,
+        final String method,
+        final Collection<Map.Entry<String, String>> headers,
+        final InputStream content) throws IOException {
+        final HttpURLConnection conn =
+            (HttpURLConnection) url.openConnection();
+        try {
+            conn.setConnectTimeout(this.connect);
+            conn.setReadTimeout(this.read);
+            conn.setRequestMethod(method);
+            conn.setUseCaches(false);
+            conn.setInstanceFollowRedirects(false);
+            for (final Map.Entry<String, String> header : headers) {
+                conn.addRequestProperty(header.getKey(), header.getValue());
+            }
+            if (Request.POST.equals(method) || Request.PUT.equals(method)
+                || Request.PATCH.equals(method)) {
+                conn.setDoOutput(true);
+                final OutputStream output = conn.getOutputStream();
+                try {
+                    IOUtils.copy(content, output);
+                } finally {
+                    output.close();
+                }
+            }
+            final int status = conn.getResponseCode();
+            final Map<String, List<String>> hdrs =
+                new TreeMap<String, List<String>>(
+                    String.CASE_INSENSITIVE_ORDER
+                );
+            for (final Map.Entry<String, List<String>> header
+                : conn.getHeaderFields().entrySet()) {
+                if (header.getKey() != null) {
+                    hdrs.put(
+                        header.getKey(),
+                        Collections.unmodifiableList(
+                            new ArrayList<String>(header.getValue())
+                        )
+                    );
+                }
+            }
+            return new Transport.Reply(
+                req, status, conn.getResponseMessage(),
+                Collections.unmodifiableMap(hdrs), Transport.body(conn)
+            );
+        } catch (final IOException ex) {
+            conn.disconnect();
+            throw new IOException(
+                String.format("failed to %s %s", method, url), ex
+            );
+        }
+    }
+
+    /**
+     * Read the entire body of the response and close the stream,
+     * which returns the connection to the pool of keep-alive connections.
+     * @param conn The connection
+     * @return Body
+     * @throws IOException If fails
+     */
+    private static byte[] body(final HttpURLConnection conn)
+        throws IOException {
+        InputStream input;
+        try {
+            input = conn.getInputStream();
+        } catch (final IOException ex) {
+            input = conn.getErrorStream();
+        }
+        final byte[] body;
+        if (input == null) {
+            body = new byte[0];
+        } else {
+            try {
+                final ByteArrayOutputStream output =
+                    new ByteArrayOutputStream();
+                IOUtils.copy(input, output);
+                body = output.toByteArray();
+            } finally {
+                input.close();
+            }
+        }
+        return body;
+    }
+
+    /**
+     * Get slots of the host.
+     * @param host The host
+     * @return Semaphore
+     */
+    private Semaphore slot(final String host) {
+        Semaphore slot = this.slots.get(host);
+        if (slot == null) {
+            this.slots.putIfAbsent(host, new Semaphore(this.permits, true));
+            slot = this.slots.get(host);
+        }
+        return slot;
+    }
+
+    /**
+     * Get statistics of the host.
+     * @param host The host
+     * @return Stats
+     */
+    private Transport.Stats stats(final String host) {
+        Transport.Stats stats = this.hosts.get(host);
+        if (stats == null) {
+            this.hosts.putIfAbsent(host, new Transport.Stats());
+            stats = this.hosts.get(host);
+        }
+        return stats;
+    }
+
+    /**
+     * Latency statistics of one host.
+     *
+     * <p>The class is thread-safe.
+     */
+    @ToString
+    @EqualsAndHashCode
+    public static final class Stats {
+        /**
+         * Successful requests.
+         */
+        private final transient AtomicLong calls = new AtomicLong();
+        /**
+         * Failed requests.
+         */
+        private final transient AtomicLong errors = new AtomicLong();
+        /**
+         * Total time of successful requests, in nanoseconds.
+         */
+        private final transient AtomicLong total = new AtomicLong();
+        /**
+         * Longest successful request, in nanoseconds.
+         */
+        private final transient AtomicLong longest = new AtomicLong();
+        /**
+         * Number of successful requests.
+         * @return Total
+         */
+        public long calls() {
+            return this.calls.get();
+        }
+        /**
+         * Number of failed requests (including timeouts).
+         * @return Total
+         */
+        public long errors() {
+            return this.errors.get();
+        }
+        /**
+         * Average latency of successful requests.
+         * @return Milliseconds
+         */
+        public long average() {
+            final long count = this.calls.get();
+            long avg = 0L;
+            if (count > 0L) {
+                avg = TimeUnit.NANOSECONDS.toMillis(this.total.get() / count);
+            }
+            return avg;
+        }
+        /**
+         * Maximum latency of successful requests.
+         * @return Milliseconds
+         */
+        public long max() {
+            return TimeUnit.NANOSECONDS.toMillis(this.longest.get());
+        }
+        /**
+         * Record successful request.
+         * @param nano Its duration in nanoseconds
+         */
+        private void done(final long nano) {
+            this.calls.incrementAndGet();
+            this.total.addAndGet(nano);
+            while (true) {
+                final long before = this.longest.get();
+                if (nano <= before
+                    || this.longest.compareAndSet(before, nano)) {
+                    break;
+                }
+            }
+        }
+        /**
+         * Record failed request.
+         */
+        private void failed() {
+            this.errors.incrementAndGet();
+        }
+    }
+
+    /**
+     * Wire that sends requests through the transport, used by
+     * {@link Transport#request(URI)}.
+     *
+     * <p>The class is immutable and thread-safe.
+     */
+    @ToString
+    @EqualsAndHashCode(of = "transport")
+    public static final class Pooled implements Wire {
+        /**
+         * The transport.
+         */
+        private final transient Transport transport;
+        /**
+         * Public ctor (called by {@link Request#through(Class, Object...)}).
+         * @param origin Original wire (not used)
+         * @param trans The transport
+         */
+        public Pooled(final Wire origin, final Transport trans) {
+            this.transport = trans;
+        }
+        @Override
+        // @checkstyle ParameterNumber (5 lines)
+        public Response send(final Request req, final String home,
+            final String method,
+            final Collection<Map.Entry<String, String>> headers,
+            final InputStream content) throws IOException {
+            return this.transport.send(req, home, method, headers, content);
+        }
+    }
+
+    /**
+     * Response received through the transport.
+     */
+    @ToString(of = { "code", "phrase" })
+    @EqualsAndHashCode(of = { "code", "phrase", "hdrs" })
+    private static final class Reply implements Response {
+        /**
+         * Request.
+         */
+        private final transient Request req;
+        /**
+         * Status code.
+         */
+        private final transient int code;
+        /**
+         * Reason phrase.
+         */
+        private final transient String phrase;
+        /**
+         * Headers.
+         */
+        private final transient Map<String, List<String>> hdrs;
+        /**
+         * Body.
+         */
+        private final transient byte[] bytes;
+        /**
+         * Ctor.
+         * @param request The request
+         * @param status Status code
+         * @param reason Reason phrase
+         * @param headers Headers
+         * @param body Body
+         * @checkstyle ParameterNumber (5 lines)
+         */
+        Reply(final Request request, final int status, final String reason,
+            final Map<String, List<String>> headers, final byte[] body) {
+            this.req = request;
+            this.code = status;
+            this.phrase = reason;
+            this.hdrs = headers;
+            this.bytes = body;
+        }
+        @Override
+        public Request back() {
+            return this.req;
+        }
+        @Override
+        public int status() {
+            return this.code;
+        }
+        @Override
+        public String reason() {
+            return this.phrase;
+        }
+        @Override
+        public Map<String, List<String>> headers() {
+            return this.hdrs;
+        }
+        @Override
+        public String body() {
+            return new String(this.bytes, Charsets.UTF_8);
+        }
+        @Override
+        public byte[] binary() {
+            return this.bytes.clone();
+        }
+        @Override
+        public <T extends Response> T as(final Class<T> type) {
+            try {
+                return type.getDeclaredConstructor(Response.class)
+                    .newInstance(this);
+            } catch (final InstantiationException ex) {
+                throw new IllegalStateException(ex);
+            } catch (final IllegalAccessException ex) {
+                throw new IllegalStateException(ex);
+            } catch (final InvocationTargetException ex) {
+                throw new IllegalStateException(ex);
+            } catch (final NoSuchMethodException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+
+}
@@ -42,33 +42,38 @@ import lombok.ToString;
 /**
  * Most popular default HATEOAS links.
  *
+ * <p>The class is immutable and thread-safe.
+ *
  * @author Yegor Bugayenko (yegor@tpc2.com)
  * @version $Id$
  * @since 0.4.8
  * @see <a href="http://www.rexsl.com/rexsl-page/inset-links.html">Default HATEOAS links</a>
  */
 @ToString
-@EqualsAndHashCode(of = "resource")
+@EqualsAndHashCode
 @Loggable(Loggable.DEBUG)
+@Inset.Stateless
 public final class LinksInset implements Inset {
 
     /**
-     * The resource.
+     * Public ctor.
+     * @since 2.0
      */
-    private final transient Resource resource;
+    public LinksInset() {
+        // nothing to do here
+    }
 
     /**
      * Public ctor.
-     * @param res The resource
+     * @param res The resource (not used)
      */
     public LinksInset(@NotNull final Resource res) {
-        this.resource = res;
+        this();
     }
 
     @Override
     public void render(@NotNull final BasePage<?, ?> page,
         @NotNull final Response.ResponseBuilder builder) {
-        assert this.resource != null;
         page.link(new Link("self", "."));
         page.link(new Link("home", "/"));
     }
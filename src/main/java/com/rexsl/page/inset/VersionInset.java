@@ -34,6 +34,8 @@ import com.jcabi.aspects.Loggable;
 import com.rexsl.page.BasePage;
 import com.rexsl.page.Inset;
 import com.rexsl.page.JaxbBundle;
+import com.rexsl.page.XmlFragment;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.core.Response;
 import lombok.EqualsAndHashCode;
@@ -42,6 +44,10 @@ import lombok.ToString;
 /**
  * Page with a flash message (through cookie).
  *
+ * <p>The XML is built when the inset is rendered for the first time and
+ * is reused by all next pages, while version, revision and date stay
+ * the same, no matter how many instances of the inset are made.
+ *
  * @author Yegor Bugayenko (yegor@tpc2.com)
  * @version $Id$
  * @since 0.4.8
@@ -49,11 +55,17 @@ import lombok.ToString;
  * @see <a href="http://www.rexsl.com/rexsl-page/inset-version.html">How to version WAR packages</a>
  */
 @Immutable
-@ToString
+@ToString(of = { "version", "revision", "date" })
 @EqualsAndHashCode(of = { "version", "revision", "date" })
 @Loggable(Loggable.DEBUG)
 public final class VersionInset implements Inset {
 
+    /**
+     * The latest inset rendered, with its XML.
+     */
+    private static final AtomicReference<VersionInset.Rendered> LATEST =
+        new AtomicReference<VersionInset.Rendered>();
+
     /**
      * Version.
      */
@@ -85,15 +97,46 @@ public final class VersionInset implements Inset {
     @Override
     public void render(@NotNull final BasePage<?, ?> page,
         @NotNull final Response.ResponseBuilder builder) {
-        page.append(
-            new JaxbBundle("version", "")
-                .add("name", this.version)
-                .up()
-                .add("revision", this.revision)
-                .up()
-                .add("date", this.date)
-                .up()
-        );
+        VersionInset.Rendered rendered = VersionInset.LATEST.get();
+        if (rendered == null || !rendered.inset.equals(this)) {
+            rendered = new VersionInset.Rendered(
+                this,
+                XmlFragment.of(
+                    new JaxbBundle("version", "")
+                        .add("name", this.version)
+                        .up()
+                        .add("revision", this.revision)
+                        .up()
+                        .add("date", this.date)
+                        .up()
+                )
+            );
+            VersionInset.LATEST.set(rendered);
+        }
+        page.append(rendered.fragment);
+    }
+
+    /**
+     * Inset with its XML.
+     */
+    private static final class Rendered {
+        /**
+         * The inset.
+         */
+        private final transient VersionInset inset;
+        /**
+         * Its XML.
+         */
+        private final transient XmlFragment fragment;
+        /**
+         * Ctor.
+         * @param ins The inset
+         * @param xml Its XML
+         */
+        Rendered(final VersionInset ins, final XmlFragment xml) {
+            this.inset = ins;
+            this.fragment = xml;
+        }
     }
 
 }
@@ -34,12 +34,15 @@ import com.rexsl.mock.HttpHeadersMocker;
 import com.rexsl.mock.MkServletContext;
 import com.rexsl.mock.UriInfoMocker;
 import com.rexsl.page.BaseResource;
+import com.rexsl.page.Memo;
 import com.rexsl.page.Resource;
+import com.rexsl.page.ScopedResource;
 import java.net.URI;
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.SecurityContext;
 import javax.ws.rs.core.UriInfo;
 import javax.ws.rs.ext.Providers;
@@ -56,7 +59,8 @@ public final class ResourceMocker {
     /**
      * Mock of resource.
      */
-    private final transient Resource resource = Mockito.mock(Resource.class);
+    private final transient ScopedResource resource =
+        Mockito.mock(ScopedResource.class);
 
     /**
      * Public ctor.
@@ -81,6 +85,8 @@ public final class ResourceMocker {
         final SecurityContext security = Mockito.mock(SecurityContext.class);
         this.withSecurityContext(security);
         this.withServletContext(new MkServletContext());
+        this.withRequest(Mockito.mock(Request.class));
+        Mockito.doReturn(new Memo()).when(this.resource).memo();
     }
 
     /**
@@ -144,6 +150,17 @@ public final class ResourceMocker {
         return this;
     }
 
+    /**
+     * With this instance of JAX-RS {@link Request}.
+     * @param req The request
+     * @return This object
+     * @since 2.0
+     */
+    public ResourceMocker withRequest(final Request req) {
+        Mockito.doReturn(req).when(this.resource).request();
+        return this;
+    }
+
     /**
      * Build an instance of {@link Resource}.
      * @return The resource
@@ -174,6 +191,7 @@ public final class ResourceMocker {
         rest.setSecurityContext(this.resource.securityContext());
         rest.setServletContext(this.resource.servletContext());
         rest.setUriInfo(this.resource.uriInfo());
+        rest.setRequest(this.resource.request());
         return rest;
     }
 
@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import com.jcabi.aspects.Tv;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Admission}.
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ */
+public final class AdmissionTest {
+
+    /**
+     * Admission can reject requests above concurrency limit.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void rejectsRequestsAboveConcurrency() throws Exception {
+        final Admission admission = new Admission(2, 0L);
+        final Admission.Ticket first = admission.admit("GET /a");
+        MatcherAssert.assertThat(first, Matchers.notNullValue());
+        MatcherAssert.assertThat(
+            admission.admit("GET /b"),
+            Matchers.notNullValue()
+        );
+        MatcherAssert.assertThat(
+            admission.admit("GET /crowded"),
+            Matchers.nullValue()
+        );
+        first.close(1L);
+        MatcherAssert.assertThat(
+            admission.admit("GET /crowded"),
+            Matchers.notNullValue()
+        );
+        MatcherAssert.assertThat(
+            admission.admit("GET /d"),
+            Matchers.nullValue()
+        );
+        MatcherAssert.assertThat(
+            Metrics.REJECTIONS.counts(),
+            Matchers.hasEntry("GET /crowded", 1L)
+        );
+    }
+
+    /**
+     * Admission can shed slow routes first.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void shedsSlowRoutesFirst() throws Exception {
+        final Admission admission = new Admission(4, 100L);
+        for (int idx = 0; idx < Tv.TEN; ++idx) {
+            admission.admit("GET /slow").close(5000L);
+        }
+        MatcherAssert.assertThat(
+            admission.retry("GET /slow"),
+            Matchers.greaterThan(1L)
+        );
+        admission.admit("GET /fast");
+        admission.admit("GET /fast");
+        MatcherAssert.assertThat(
+            admission.admit("GET /slow"),
+            Matchers.notNullValue()
+        );
+        MatcherAssert.assertThat(
+            admission.admit("GET /slow"),
+            Matchers.nullValue()
+        );
+        MatcherAssert.assertThat(
+            admission.admit("GET /fast"),
+            Matchers.notNullValue()
+        );
+    }
+
+    /**
+     * Admission can track only matched routes, and not too many of them.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void tracksLimitedNumberOfMatchedRoutes() throws Exception {
+        final Admission admission = new Admission(0, 100L);
+        for (int idx = 0; idx < Tv.TEN; ++idx) {
+            admission.admit("GET /junk").close(2000L, false);
+            admission.admit("GET /slow").close(5000L, true);
+        }
+        admission.admit("GET /fast").close(1L, true);
+        MatcherAssert.assertThat(
+            admission.retry("GET /fast"),
+            Matchers.equalTo(1L)
+        );
+        MatcherAssert.assertThat(
+            admission.retry("GET /slow"),
+            Matchers.greaterThan(admission.retry("GET /junk"))
+        );
+        for (int idx = 0; idx < Tv.THOUSAND * 2; ++idx) {
+            admission.admit(String.format("GET /r%d", idx)).close(1L, true);
+        }
+        MatcherAssert.assertThat(
+            admission.retry("GET /slow"),
+            Matchers.equalTo(admission.retry("GET /unknown"))
+        );
+    }
+
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import com.jcabi.aspects.Tv;
+import java.nio.ByteBuffer;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Arena}.
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ */
+public final class ArenaTest {
+
+    /**
+     * Arena can reuse released slabs.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void reusesReleasedSlabs() throws Exception {
+        final Arena arena = new Arena(Tv.TEN, 1);
+        final ByteBuffer first = arena.take();
+        MatcherAssert.assertThat(first.isDirect(), Matchers.is(true));
+        first.put((byte) 1);
+        arena.release(first);
+        final ByteBuffer second = arena.take();
+        MatcherAssert.assertThat(second, Matchers.sameInstance(first));
+        MatcherAssert.assertThat(second.position(), Matchers.equalTo(0));
+    }
+
+    /**
+     * Arena can keep no more slabs than allowed.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void keepsLimitedNumberOfSlabs() throws Exception {
+        final Arena arena = new Arena(Tv.TEN, 1);
+        final ByteBuffer first = arena.take();
+        final ByteBuffer second = arena.take();
+        arena.release(first);
+        arena.release(second);
+        arena.release(ByteBuffer.allocateDirect(Tv.FIVE));
+        MatcherAssert.assertThat(arena.pooled(), Matchers.equalTo(1));
+    }
+
+    /**
+     * Arena can fall back to the heap when there are too many direct slabs.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void fallsBackToHeap() throws Exception {
+        final Arena arena = new Arena(Tv.TEN, 1, 2);
+        final ByteBuffer first = arena.take();
+        arena.take();
+        final ByteBuffer third = arena.take();
+        MatcherAssert.assertThat(first.isDirect(), Matchers.is(true));
+        MatcherAssert.assertThat(third.isDirect(), Matchers.is(false));
+        arena.release(third);
+        MatcherAssert.assertThat(arena.pooled(), Matchers.equalTo(0));
+        arena.release(first);
+        MatcherAssert.assertThat(arena.take().isDirect(), Matchers.is(true));
+    }
+
+}
@@ -62,4 +62,24 @@ public final class ByteArrayResponseWrapperTest {
         );
     }
 
+    /**
+     * ByteArrayResponseWrapper can return slabs to the arena.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void releasesSlabs() throws Exception {
+        final Arena arena = new Arena(2, 2);
+        final ByteArrayResponseWrapper wrapper =
+            new ByteArrayResponseWrapper(
+                Mockito.mock(HttpServletResponse.class), arena
+            );
+        wrapper.getWriter().print("abc");
+        MatcherAssert.assertThat(
+            wrapper.getSlabs().size(),
+            Matchers.equalTo(3L)
+        );
+        wrapper.release();
+        MatcherAssert.assertThat(arena.pooled(), Matchers.equalTo(2));
+    }
+
 }
@@ -0,0 +1,399 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import com.rexsl.core.cache.HeapStore;
+import com.rexsl.core.cache.Policy;
+import com.rexsl.mock.FilterConfigMocker;
+import com.rexsl.mock.HttpServletRequestMocker;
+import com.rexsl.mock.HttpServletResponseMocker;
+import com.jcabi.aspects.Tv;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.HttpHeaders;
+import org.apache.commons.lang3.CharEncoding;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Test case for {@link CacheFilter}.
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ */
+public final class CacheFilterTest {
+
+    /**
+     * CacheFilter can serve cached pages.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void servesCachedPages() throws Exception {
+        final CacheFilterTest.Chain chain =
+            new CacheFilterTest.Chain(60000L, 0L);
+        final Filter filter = CacheFilterTest.filter();
+        final HttpServletRequest request = new HttpServletRequestMocker()
+            .withRequestUri("/front")
+            .mock();
+        CacheFilterTest.render(filter, request, chain);
+        CacheFilterTest.render(filter, request, chain);
+        MatcherAssert.assertThat(
+            CacheFilterTest.render(filter, request, chain),
+            Matchers.equalTo("page #2")
+        );
+        MatcherAssert.assertThat(chain.count(), Matchers.equalTo(2));
+    }
+
+    /**
+     * CacheFilter can serve stale pages while rendering them again.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void servesStalePagesWhileRendering() throws Exception {
+        final CacheFilterTest.Chain chain =
+            new CacheFilterTest.Chain(0L, 60000L);
+        final Filter filter = CacheFilterTest.filter();
+        final HttpServletRequest request = new HttpServletRequestMocker()
+            .withRequestUri("/stale")
+            .mock();
+        CacheFilterTest.render(filter, request, chain);
+        CacheFilterTest.render(filter, request, chain);
+        MatcherAssert.assertThat(
+            CacheFilterTest.render(filter, request, chain),
+            Matchers.equalTo("page #2")
+        );
+        MatcherAssert.assertThat(
+            CacheFilterTest.fresh(filter, request, chain, "page #2"),
+            Matchers.equalTo("page #3")
+        );
+        MatcherAssert.assertThat(
+            CacheFilterTest.fresh(filter, request, chain, "page #3"),
+            Matchers.equalTo("page #4")
+        );
+    }
+
+    /**
+     * CacheFilter can send a stale page before rendering it again.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void sendsStalePageBeforeRefresh() throws Exception {
+        final CacheFilterTest.Chain chain =
+            new CacheFilterTest.Chain(0L, 60000L, Tv.FIVE * Tv.HUNDRED);
+        final Filter filter = CacheFilterTest.filter();
+        final HttpServletRequest request = new HttpServletRequestMocker()
+            .withRequestUri("/slow")
+            .mock();
+        CacheFilterTest.render(filter, request, chain);
+        CacheFilterTest.render(filter, request, chain);
+        MatcherAssert.assertThat(
+            CacheFilterTest.render(filter, request, chain),
+            Matchers.equalTo("page #2")
+        );
+        MatcherAssert.assertThat(chain.count(), Matchers.equalTo(2));
+        MatcherAssert.assertThat(
+            CacheFilterTest.fresh(filter, request, chain, "page #2"),
+            Matchers.equalTo("page #3")
+        );
+    }
+
+    /**
+     * CacheFilter can skip requests with identities.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void skipsRequestsWithIdentities() throws Exception {
+        final CacheFilterTest.Chain chain =
+            new CacheFilterTest.Chain(60000L, 0L);
+        final Filter filter = CacheFilterTest.filter();
+        final HttpServletRequest request = new HttpServletRequestMocker()
+            .withRequestUri("/private")
+            .withHeader(HttpHeaders.AUTHORIZATION, "Basic Zm9vOmJhcg==")
+            .mock();
+        CacheFilterTest.render(filter, request, chain);
+        CacheFilterTest.render(filter, request, chain);
+        MatcherAssert.assertThat(
+            CacheFilterTest.render(filter, request, chain),
+            Matchers.equalTo("page #3")
+        );
+    }
+
+    /**
+     * CacheFilter can keep pages of different identities apart.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void keepsIdentitiesApart() throws Exception {
+        final CacheFilterTest.Chain chain = new CacheFilterTest.Chain(
+            new Policy(
+                60000L, 0L, Collections.<String>emptyList(), true, true
+            ),
+            0L
+        );
+        final Filter filter = CacheFilterTest.filter();
+        final HttpServletRequest first = new HttpServletRequestMocker()
+            .withRequestUri("/mine")
+            .withHeader(HttpHeaders.AUTHORIZATION, "Basic Zm9vOmJhcg==")
+            .mock();
+        final HttpServletRequest second = new HttpServletRequestMocker()
+            .withRequestUri("/mine")
+            .withHeader(HttpHeaders.AUTHORIZATION, "Basic YmFyOmZvbw==")
+            .mock();
+        CacheFilterTest.render(filter, first, chain);
+        MatcherAssert.assertThat(
+            CacheFilterTest.render(filter, first, chain),
+            Matchers.equalTo("page #2")
+        );
+        MatcherAssert.assertThat(
+            CacheFilterTest.render(filter, second, chain),
+            Matchers.equalTo("page #3")
+        );
+        MatcherAssert.assertThat(
+            CacheFilterTest.render(filter, first, chain),
+            Matchers.equalTo("page #2")
+        );
+    }
+
+    /**
+     * CacheFilter can keep pages with different query parameters apart,
+     * even if their values look like separators.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void keepsQueriesApart() throws Exception {
+        final CacheFilterTest.Chain chain = new CacheFilterTest.Chain(
+            new Policy(60000L, 0L, Arrays.asList("a", "b"), true, false),
+            0L
+        );
+        final Filter filter = CacheFilterTest.filter();
+        final HttpServletRequest first = new HttpServletRequestMocker()
+            .withRequestUri("/query")
+            .mock();
+        Mockito.doReturn(new String[] {"1&b=2"})
+            .when(first).getParameterValues("a");
+        final HttpServletRequest second = new HttpServletRequestMocker()
+            .withRequestUri("/query")
+            .mock();
+        Mockito.doReturn(new String[] {"1"})
+            .when(second).getParameterValues("a");
+        Mockito.doReturn(new String[] {"2"})
+            .when(second).getParameterValues("b");
+        CacheFilterTest.render(filter, first, chain);
+        CacheFilterTest.render(filter, first, chain);
+        MatcherAssert.assertThat(
+            CacheFilterTest.render(filter, second, chain),
+            Matchers.equalTo("page #3")
+        );
+        MatcherAssert.assertThat(
+            CacheFilterTest.render(filter, first, chain),
+            Matchers.equalTo("page #2")
+        );
+    }
+
+    /**
+     * CacheFilter can render a page once for concurrent identical requests.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void coalescesConcurrentRenders() throws Exception {
+        final CacheFilterTest.Chain chain =
+            new CacheFilterTest.Chain(60000L, 0L, 200L);
+        final Filter filter = CacheFilterTest.filter();
+        final HttpServletRequest request = new HttpServletRequestMocker()
+            .withRequestUri("/popular")
+            .mock();
+        CacheFilterTest.render(filter, request, chain);
+        final ExecutorService service = Executors.newFixedThreadPool(Tv.TEN);
+        final Collection<Future<String>> pages =
+            new ArrayList<Future<String>>(Tv.TEN);
+        for (int idx = 0; idx < Tv.TEN; ++idx) {
+            pages.add(
+                service.submit(
+                    new Callable<String>() {
+                        @Override
+                        public String call() throws Exception {
+                            return CacheFilterTest.render(
+                                filter, request, chain
+                            );
+                        }
+                    }
+                )
+            );
+        }
+        for (final Future<String> page : pages) {
+            MatcherAssert.assertThat(page.get(), Matchers.equalTo("page #2"));
+        }
+        service.shutdown();
+        MatcherAssert.assertThat(chain.count(), Matchers.equalTo(2));
+    }
+
+    /**
+     * Make a filter.
+     * @return Filter
+     * @throws Exception If something goes wrong
+     */
+    private static Filter filter() throws Exception {
+        final Filter filter = new CacheFilter(new HeapStore());
+        filter.init(new FilterConfigMocker().mock());
+        return filter;
+    }
+
+    /**
+     * Render a page through the filter.
+     * @param filter The filter
+     * @param request The request
+     * @param chain The chain
+     * @return Content sent to the client
+     * @throws Exception If something goes wrong
+     */
+    private static String render(final Filter filter,
+        final HttpServletRequest request, final FilterChain chain)
+        throws Exception {
+        final HttpServletResponse response = new HttpServletResponseMocker()
+            .mock();
+        filter.doFilter(request, response, chain);
+        return response.toString();
+    }
+
+    /**
+     * Render the page until it differs from the stale one.
+     * @param filter The filter
+     * @param request The request
+     * @param chain The chain
+     * @param stale Stale page
+     * @return Page rendered
+     * @throws Exception If something goes wrong
+     * @checkstyle ParameterNumber (3 lines)
+     */
+    private static String fresh(final Filter filter,
+        final HttpServletRequest request, final FilterChain chain,
+        final String stale) throws Exception {
+        final long start = System.currentTimeMillis();
+        String page = CacheFilterTest.render(filter, request, chain);
+        while (stale.equals(page)
+            && System.currentTimeMillis() - start < Tv.TEN * Tv.THOUSAND) {
+            TimeUnit.MILLISECONDS.sleep(Tv.TEN);
+            page = CacheFilterTest.render(filter, request, chain);
+        }
+        return page;
+    }
+
+    /**
+     * Chain that renders numbered pages.
+     */
+    private static final class Chain implements FilterChain {
+        /**
+         * The policy.
+         */
+        private final transient Policy policy;
+        /**
+         * How long to render a page, in milliseconds.
+         */
+        private final transient long delay;
+        /**
+         * Pages rendered.
+         */
+        private final transient AtomicInteger pages = new AtomicInteger();
+        /**
+         * Ctor.
+         * @param lifetime Lifetime of pages, in milliseconds
+         * @param stale Stale period, in milliseconds
+         */
+        Chain(final long lifetime, final long stale) {
+            this(lifetime, stale, 0L);
+        }
+        /**
+         * Ctor.
+         * @param lifetime Lifetime of pages, in milliseconds
+         * @param stale Stale period, in milliseconds
+         * @param msec How long to render a page, in milliseconds
+         */
+        Chain(final long lifetime, final long stale, final long msec) {
+            this(
+                new Policy(
+                    lifetime, stale, Collections.<String>emptyList(),
+                    true, false
+                ),
+                msec
+            );
+        }
+        /**
+         * Ctor.
+         * @param plc The policy
+         * @param msec How long to render a page, in milliseconds
+         */
+        Chain(final Policy plc, final long msec) {
+            this.policy = plc;
+            this.delay = msec;
+        }
+        /**
+         * How many pages were rendered.
+         * @return Number of pages
+         */
+        public int count() {
+            return this.pages.get();
+        }
+        @Override
+        public void doFilter(final ServletRequest request,
+            final ServletResponse response) throws IOException {
+            final HttpServletResponse http =
+                HttpServletResponse.class.cast(response);
+            try {
+                TimeUnit.MILLISECONDS.sleep(this.delay);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(ex);
+            }
+            http.addHeader(Policy.HEADER, this.policy.header());
+            http.setContentType("text/plain");
+            http.getOutputStream().write(
+                String.format("page #%d", this.pages.incrementAndGet())
+                    .getBytes(CharEncoding.UTF_8)
+            );
+        }
+    }
+
+}
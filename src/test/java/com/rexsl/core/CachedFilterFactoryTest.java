@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import com.rexsl.core.annotations.Cached;
+import com.rexsl.core.cache.Policy;
+import com.sun.jersey.api.model.AbstractMethod;
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.ContainerResponse;
+import com.sun.jersey.spi.container.ResourceFilter;
+import java.util.List;
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.core.MultivaluedMap;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Test case for {@link CachedFilterFactory}.
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ */
+public final class CachedFilterFactoryTest {
+
+    /**
+     * CachedFilterFactory can add policy to responses.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void addsPolicyToResponses() throws Exception {
+        final Cached cached = CachedFilterFactoryTest.class
+            .getDeclaredMethod("front")
+            .getAnnotation(Cached.class);
+        final AbstractMethod method = Mockito.mock(AbstractMethod.class);
+        Mockito.doReturn(cached).when(method).getAnnotation(Cached.class);
+        final HttpServletRequest servlet =
+            Mockito.mock(HttpServletRequest.class);
+        Mockito.doReturn(Boolean.TRUE).when(servlet)
+            .getAttribute(CacheFilter.INSTALLED);
+        final CachedFilterFactory factory = new CachedFilterFactory();
+        factory.setHttpServletRequest(servlet);
+        final List<ResourceFilter> filters = factory.create(method);
+        MatcherAssert.assertThat(filters, Matchers.hasSize(1));
+        final ContainerRequest request = Mockito.mock(ContainerRequest.class);
+        Mockito.doReturn("GET").when(request).getMethod();
+        final ContainerResponse response =
+            Mockito.mock(ContainerResponse.class);
+        Mockito.doReturn(200).when(response).getStatus();
+        final MultivaluedMap<String, Object> headers =
+            Mockito.mock(MultivaluedMap.class);
+        Mockito.doReturn(headers).when(response).getHttpHeaders();
+        filters.get(0).getResponseFilter().filter(request, response);
+        Mockito.verify(headers).putSingle(
+            Policy.HEADER, new Policy(cached).header()
+        );
+    }
+
+    /**
+     * CachedFilterFactory can skip the policy when CacheFilter is not
+     * installed.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void skipsPolicyWithoutCacheFilter() throws Exception {
+        final AbstractMethod method = Mockito.mock(AbstractMethod.class);
+        Mockito.doReturn(
+            CachedFilterFactoryTest.class.getDeclaredMethod("front")
+                .getAnnotation(Cached.class)
+        ).when(method).getAnnotation(Cached.class);
+        final CachedFilterFactory factory = new CachedFilterFactory();
+        factory.setHttpServletRequest(Mockito.mock(HttpServletRequest.class));
+        final ContainerRequest request = Mockito.mock(ContainerRequest.class);
+        Mockito.doReturn("GET").when(request).getMethod();
+        final ContainerResponse response =
+            Mockito.mock(ContainerResponse.class);
+        Mockito.doReturn(200).when(response).getStatus();
+        final MultivaluedMap<String, Object> headers =
+            Mockito.mock(MultivaluedMap.class);
+        Mockito.doReturn(headers).when(response).getHttpHeaders();
+        factory.create(method).get(0).getResponseFilter()
+            .filter(request, response);
+        Mockito.verifyZeroInteractions(headers);
+    }
+
+    /**
+     * CachedFilterFactory can ignore methods without annotation.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void ignoresMethodsWithoutAnnotation() throws Exception {
+        MatcherAssert.assertThat(
+            new CachedFilterFactory().create(
+                Mockito.mock(AbstractMethod.class)
+            ),
+            Matchers.empty()
+        );
+    }
+
+    /**
+     * Method with annotation.
+     */
+    @Cached(lifetime = 1L, stale = 2L, query = "page")
+    private void front() {
+        // nothing to do
+    }
+
+}
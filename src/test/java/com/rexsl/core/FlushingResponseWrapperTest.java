@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import java.io.OutputStream;
+import java.util.Map;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Test case for {@link FlushingResponseWrapper}.
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ */
+public final class FlushingResponseWrapperTest {
+
+    /**
+     * FlushingResponseWrapper can flush first bytes and then chunks.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void flushesFirstBytesAndChunks() throws Exception {
+        final ServletOutputStream stream =
+            Mockito.mock(ServletOutputStream.class);
+        final HttpServletResponse response =
+            Mockito.mock(HttpServletResponse.class);
+        Mockito.doReturn(stream).when(response).getOutputStream();
+        final OutputStream output =
+            new FlushingResponseWrapper(response, 2).getOutputStream();
+        output.write(new byte[] {(byte) 1});
+        output.write(new byte[] {(byte) 2});
+        output.write(new byte[] {(byte) 2});
+        output.write(new byte[] {(byte) 2, (byte) 3});
+        Mockito.verify(stream, Mockito.times(2)).flush();
+    }
+
+    /**
+     * FlushingResponseWrapper can count XML pages and only them.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void countsXmlPagesOnly() throws Exception {
+        final HttpServletResponse response =
+            Mockito.mock(HttpServletResponse.class);
+        final Meter meter = new Meter();
+        new FlushingResponseWrapper(response, 2, meter)
+            .setContentType("text/plain");
+        new FlushingResponseWrapper(response, 2, meter)
+            .addHeader(HttpHeaders.CONTENT_TYPE, "image/png");
+        MatcherAssert.assertThat(
+            meter.counts().entrySet(),
+            Matchers.<Map.Entry<String, Long>>empty()
+        );
+        final HttpServletResponse wrapper =
+            new FlushingResponseWrapper(response, 2, meter);
+        wrapper.addHeader(HttpHeaders.CONTENT_TYPE, "text/xml; charset=UTF-8");
+        wrapper.setContentType(MediaType.APPLICATION_XML);
+        MatcherAssert.assertThat(
+            meter.counts(),
+            Matchers.hasEntry(PageAnalyzer.CLIENT, 1L)
+        );
+    }
+
+}
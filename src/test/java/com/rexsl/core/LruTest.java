@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import com.jcabi.aspects.Tv;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Lru}.
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ */
+public final class LruTest {
+
+    /**
+     * Lru can forget least recently used entries.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void forgetsLeastRecentlyUsed() throws Exception {
+        final Lru<String, Integer> lru = new Lru<String, Integer>(2);
+        lru.put("a", 1);
+        lru.put("b", 2);
+        MatcherAssert.assertThat(lru.get("a"), Matchers.equalTo(1));
+        lru.put("c", 3);
+        MatcherAssert.assertThat(lru.get("b"), Matchers.nullValue());
+        MatcherAssert.assertThat(lru.get("a"), Matchers.equalTo(1));
+        MatcherAssert.assertThat(lru.get("c"), Matchers.equalTo(3));
+        MatcherAssert.assertThat(lru.size(), Matchers.equalTo(2));
+    }
+
+    /**
+     * Lru can stay within its limit, when used by many threads.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void staysWithinLimit() throws Exception {
+        final Lru<Integer, Integer> lru = new Lru<Integer, Integer>(Tv.TEN);
+        final ExecutorService threads = Executors.newFixedThreadPool(Tv.FOUR);
+        try {
+            final Collection<Future<?>> futures = new LinkedList<Future<?>>();
+            for (int thread = 0; thread < Tv.FOUR; ++thread) {
+                final int base = thread * Tv.THOUSAND;
+                futures.add(
+                    threads.submit(
+                        new Runnable() {
+                            @Override
+                            public void run() {
+                                for (int idx = 0; idx < Tv.THOUSAND; ++idx) {
+                                    lru.putIfAbsent(base + idx, idx);
+                                    lru.get(base);
+                                }
+                            }
+                        }
+                    )
+                );
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            threads.shutdown();
+        }
+        MatcherAssert.assertThat(
+            lru.size(), Matchers.lessThanOrEqualTo(Tv.TEN)
+        );
+    }
+
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import com.jcabi.aspects.Tv;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Meter}.
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ */
+public final class MeterTest {
+
+    /**
+     * Meter can count events, sum and bucket their values.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void countsEvents() throws Exception {
+        final Meter meter = new Meter(Tv.TEN, Tv.HUNDRED);
+        meter.record("a", 1L);
+        meter.record("a", Tv.TEN);
+        meter.record("a", Tv.FIFTY);
+        meter.record("a", Tv.THOUSAND);
+        meter.record("b", Tv.FIVE);
+        MatcherAssert.assertThat(
+            meter.counts(),
+            Matchers.allOf(
+                Matchers.hasEntry("a", (long) Tv.FOUR),
+                Matchers.hasEntry("b", 1L)
+            )
+        );
+        MatcherAssert.assertThat(
+            meter.sums(), Matchers.hasEntry("a", 1061L)
+        );
+        MatcherAssert.assertThat(
+            meter.histograms().get("a"),
+            Matchers.equalTo(new long[] {2L, 1L, 1L})
+        );
+    }
+
+    /**
+     * Meter can count events from many threads.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void countsEventsInParallel() throws Exception {
+        final Meter meter = new Meter();
+        final ExecutorService service = Executors.newFixedThreadPool(Tv.TEN);
+        final Collection<Future<?>> done = new ArrayList<Future<?>>(Tv.FIFTY);
+        for (int thread = 0; thread < Tv.FIFTY; ++thread) {
+            done.add(
+                service.submit(
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            for (int idx = 0; idx < Tv.THOUSAND; ++idx) {
+                                meter.record("x", 2L);
+                            }
+                        }
+                    }
+                )
+            );
+        }
+        for (final Future<?> future : done) {
+            future.get();
+        }
+        service.shutdown();
+        MatcherAssert.assertThat(
+            meter.counts(),
+            Matchers.hasEntry("x", (long) Tv.FIFTY * Tv.THOUSAND)
+        );
+        MatcherAssert.assertThat(
+            meter.sums(),
+            Matchers.hasEntry("x", (long) Tv.HUNDRED * Tv.THOUSAND)
+        );
+    }
+
+    /**
+     * Meter can limit the number of keys.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void limitsKeys() throws Exception {
+        final Meter meter = new Meter();
+        for (int idx = 0; idx < Tv.THOUSAND * 2; ++idx) {
+            meter.record(Integer.toString(idx), 1L);
+        }
+        MatcherAssert.assertThat(
+            meter.counts().size(),
+            Matchers.lessThanOrEqualTo(Tv.THOUSAND + Tv.FIFTY)
+        );
+        MatcherAssert.assertThat(
+            meter.counts().get("other"), Matchers.greaterThan(0L)
+        );
+    }
+
+}
@@ -33,6 +33,7 @@ import com.jcabi.log.Logger;
 import com.rexsl.mock.HttpServletRequestMocker;
 import java.util.Arrays;
 import java.util.Collection;
+import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import org.hamcrest.MatcherAssert;
@@ -119,15 +120,8 @@ public final class PageAnalyzerTest {
      */
     @Test
     public void decidesToTransform() throws Exception {
-        final HttpServletRequestMocker mocker = new HttpServletRequestMocker();
-        if (this.agent != null) {
-            mocker.withHeader(HttpHeaders.USER_AGENT, this.agent);
-        }
-        if (this.accept != null) {
-            mocker.withHeader(HttpHeaders.ACCEPT, this.accept);
-        }
         MatcherAssert.assertThat(
-            new PageAnalyzer(this.page, mocker.mock()).needsTransformation(),
+            new PageAnalyzer(this.page, this.request()).needsTransformation(),
             Matchers.describedAs(
                 Logger.format(
                     "'%s' with '%s' by '%s'",
@@ -140,4 +134,34 @@ public final class PageAnalyzerTest {
         );
     }
 
+    /**
+     * PageAnalyzer can decide to send XML by request headers only.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void decidesToSendXmlBeforeRendering() throws Exception {
+        final HttpServletRequest request = this.request();
+        if (new PageAnalyzer("", request).xmlAccepted()) {
+            MatcherAssert.assertThat(
+                new PageAnalyzer(this.page, request).needsTransformation(),
+                Matchers.is(false)
+            );
+        }
+    }
+
+    /**
+     * Make request with headers.
+     * @return Request
+     */
+    private HttpServletRequest request() {
+        final HttpServletRequestMocker mocker = new HttpServletRequestMocker();
+        if (this.agent != null) {
+            mocker.withHeader(HttpHeaders.USER_AGENT, this.agent);
+        }
+        if (this.accept != null) {
+            mocker.withHeader(HttpHeaders.ACCEPT, this.accept);
+        }
+        return mocker.mock();
+    }
+
 }
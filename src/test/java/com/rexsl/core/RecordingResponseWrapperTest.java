@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.HttpHeaders;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Test case for {@link RecordingResponseWrapper}.
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ */
+public final class RecordingResponseWrapperTest {
+
+    /**
+     * RecordingResponseWrapper can record response without sending it.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void recordsResponseWithoutSending() throws Exception {
+        final HttpServletResponse response =
+            Mockito.mock(HttpServletResponse.class);
+        final RecordingResponseWrapper wrapper =
+            new RecordingResponseWrapper(response);
+        wrapper.setCharacterEncoding("UTF-8");
+        wrapper.setContentType("text/html");
+        wrapper.setStatus(HttpServletResponse.SC_NOT_FOUND);
+        wrapper.addHeader("X-Test", "1");
+        wrapper.getWriter().print("hi");
+        MatcherAssert.assertThat(
+            wrapper.headers().get(HttpHeaders.CONTENT_TYPE),
+            Matchers.contains("text/html; charset=UTF-8")
+        );
+        MatcherAssert.assertThat(
+            wrapper.headers().get("x-test"),
+            Matchers.contains("1")
+        );
+        MatcherAssert.assertThat(
+            wrapper.status(),
+            Matchers.equalTo(HttpServletResponse.SC_NOT_FOUND)
+        );
+        MatcherAssert.assertThat(
+            wrapper.content().text(),
+            Matchers.equalTo("hi")
+        );
+        wrapper.release();
+        Mockito.verifyZeroInteractions(response);
+    }
+
+    /**
+     * RecordingResponseWrapper can record an error.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void recordsError() throws Exception {
+        final HttpServletResponse response =
+            Mockito.mock(HttpServletResponse.class);
+        final RecordingResponseWrapper wrapper =
+            new RecordingResponseWrapper(response);
+        wrapper.getWriter().print("lost");
+        wrapper.sendError(HttpServletResponse.SC_FORBIDDEN, "go away");
+        MatcherAssert.assertThat(wrapper.failed(), Matchers.is(true));
+        MatcherAssert.assertThat(
+            wrapper.status(),
+            Matchers.equalTo(HttpServletResponse.SC_FORBIDDEN)
+        );
+        MatcherAssert.assertThat(wrapper.reason(), Matchers.equalTo("go away"));
+        MatcherAssert.assertThat(
+            wrapper.content().text(),
+            Matchers.equalTo("")
+        );
+        wrapper.release();
+        Mockito.verifyZeroInteractions(response);
+    }
+
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link ServerTiming}.
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ */
+public final class ServerTimingTest {
+
+    /**
+     * ServerTiming can render stages as HTTP header.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void rendersStagesAsHeader() throws Exception {
+        final ServerTiming timing = ServerTiming.begin();
+        try {
+            timing.add("first", 1500000L);
+            timing.add("second", 2000000L);
+            timing.add("first", 500000L);
+            MatcherAssert.assertThat(
+                timing.flush(),
+                Matchers.equalTo("first;dur=2.0, second;dur=2.0")
+            );
+            MatcherAssert.assertThat(timing.flush(), Matchers.isEmptyString());
+        } finally {
+            timing.end();
+        }
+    }
+
+    /**
+     * ServerTiming can record stages in nested calls.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void recordsStagesInNestedCalls() throws Exception {
+        final ServerTiming outer = ServerTiming.begin();
+        try {
+            final ServerTiming inner = ServerTiming.begin();
+            try {
+                ServerTiming.record("inner", System.nanoTime());
+            } finally {
+                inner.end();
+            }
+            MatcherAssert.assertThat(inner, Matchers.sameInstance(outer));
+            ServerTiming.record("outer", System.nanoTime());
+            MatcherAssert.assertThat(
+                outer.flush(),
+                Matchers.allOf(
+                    Matchers.startsWith("inner;dur="),
+                    Matchers.containsString(", outer;dur=")
+                )
+            );
+        } finally {
+            outer.end();
+        }
+    }
+
+    /**
+     * ServerTiming can ignore stages when timing is not started.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void ignoresStagesWhenNotStarted() throws Exception {
+        ServerTiming.record("lost", System.nanoTime());
+        final ServerTiming timing = ServerTiming.begin();
+        try {
+            MatcherAssert.assertThat(timing.flush(), Matchers.isEmptyString());
+        } finally {
+            timing.end();
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import com.jcabi.aspects.Tv;
+import java.io.ByteArrayOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.CharEncoding;
+import org.apache.commons.lang3.StringUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Slabs}.
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ */
+public final class SlabsTest {
+
+    /**
+     * Slabs can keep content larger than one slab.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void keepsContentAcrossSlabs() throws Exception {
+        final Arena arena = new Arena(Tv.SEVEN, Tv.TEN);
+        final Slabs slabs = new Slabs(arena);
+        final String text = StringUtils.repeat("\u0443\u0440\u0430!", Tv.TEN);
+        slabs.write(text.getBytes(CharEncoding.UTF_8));
+        slabs.write('.');
+        MatcherAssert.assertThat(slabs.text(), Matchers.equalTo(text + '.'));
+        MatcherAssert.assertThat(
+            IOUtils.toString(slabs.input(), CharEncoding.UTF_8),
+            Matchers.equalTo(text + '.')
+        );
+        MatcherAssert.assertThat(
+            slabs.head().length(),
+            Matchers.lessThan(Tv.SEVEN)
+        );
+        slabs.close();
+        MatcherAssert.assertThat(slabs.size(), Matchers.equalTo(0L));
+        MatcherAssert.assertThat(arena.pooled(), Matchers.equalTo(Tv.TEN));
+    }
+
+    /**
+     * Slabs can write content to an output stream.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void writesToOutputStream() throws Exception {
+        final Slabs slabs = new Slabs(new Arena(Tv.THREE, 1));
+        slabs.write("hello, world".getBytes(CharEncoding.UTF_8));
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        slabs.writeTo(output);
+        slabs.close();
+        MatcherAssert.assertThat(
+            output.toString(CharEncoding.UTF_8),
+            Matchers.equalTo("hello, world")
+        );
+    }
+
+}
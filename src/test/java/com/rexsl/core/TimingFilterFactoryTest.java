@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import com.jcabi.aspects.Tv;
+import com.sun.jersey.api.model.AbstractMethod;
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.ContainerResponse;
+import com.sun.jersey.spi.container.ResourceFilter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.core.MultivaluedMap;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Test case for {@link TimingFilterFactory}.
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ */
+public final class TimingFilterFactoryTest {
+
+    /**
+     * TimingFilterFactory can record execution of resource methods.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void recordsResourceMethods() throws Exception {
+        final ResourceFilter filter = new TimingFilterFactory().create(
+            Mockito.mock(AbstractMethod.class)
+        ).get(0);
+        final ContainerRequest request = Mockito.mock(ContainerRequest.class);
+        final Map<String, Object> props = new HashMap<String, Object>(0);
+        Mockito.doReturn(props).when(request).getProperties();
+        final ContainerResponse response =
+            Mockito.mock(ContainerResponse.class);
+        final MultivaluedMap<String, Object> headers =
+            Mockito.mock(MultivaluedMap.class);
+        Mockito.doReturn(headers).when(response).getHttpHeaders();
+        final ServerTiming timing = ServerTiming.begin();
+        try {
+            filter.getRequestFilter().filter(request);
+            filter.getResponseFilter().filter(request, response);
+            Mockito.verify(headers).add(
+                Mockito.eq(ServerTiming.HEADER),
+                Mockito.argThat(Matchers.startsWith("resource;dur="))
+            );
+            MatcherAssert.assertThat(
+                timing.nanos(TimingFilterFactory.STAGE),
+                Matchers.greaterThan(0L)
+            );
+            MatcherAssert.assertThat(timing.flush(), Matchers.isEmptyString());
+        } finally {
+            timing.end();
+        }
+    }
+
+    /**
+     * TimingFilterFactory can exclude insets from resource methods.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void excludesInsets() throws Exception {
+        final ResourceFilter filter = new TimingFilterFactory().create(
+            Mockito.mock(AbstractMethod.class)
+        ).get(0);
+        final ContainerRequest request = Mockito.mock(ContainerRequest.class);
+        Mockito.doReturn(new HashMap<String, Object>(0))
+            .when(request).getProperties();
+        final ContainerResponse response =
+            Mockito.mock(ContainerResponse.class);
+        Mockito.doReturn(Mockito.mock(MultivaluedMap.class))
+            .when(response).getHttpHeaders();
+        final ServerTiming timing = ServerTiming.begin();
+        try {
+            filter.getRequestFilter().filter(request);
+            final long start = System.nanoTime();
+            TimeUnit.MILLISECONDS.sleep(Tv.HUNDRED);
+            ServerTiming.record(TimingFilterFactory.INSETS, start);
+            filter.getResponseFilter().filter(request, response);
+            MatcherAssert.assertThat(
+                timing.nanos(TimingFilterFactory.STAGE),
+                Matchers.lessThan(
+                    timing.nanos(TimingFilterFactory.INSETS)
+                )
+            );
+        } finally {
+            timing.end();
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link XslBudget}.
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ */
+public final class XslBudgetTest {
+
+    /**
+     * XslBudget can find budgets of stylesheets.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void findsBudgetsOfStylesheets() throws Exception {
+        final XslBudget budget = new XslBudget(
+            "500, /xsl/report.xsl=3000, /xsl/big/report.xsl=0"
+        );
+        MatcherAssert.assertThat(budget.enabled(), Matchers.is(true));
+        MatcherAssert.assertThat(
+            budget.millis("http://localhost/xsl/report.xsl"),
+            Matchers.equalTo(3000L)
+        );
+        MatcherAssert.assertThat(
+            budget.millis("http://localhost/xsl/big/report.xsl"),
+            Matchers.equalTo(0L)
+        );
+        MatcherAssert.assertThat(
+            budget.millis("http://localhost/xsl/front.xsl"),
+            Matchers.equalTo(500L)
+        );
+    }
+
+    /**
+     * XslBudget can tell whether any budget is configured.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void detectsMissingBudgets() throws Exception {
+        MatcherAssert.assertThat(
+            new XslBudget("").enabled(),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            new XslBudget("0, /a.xsl=5").enabled(),
+            Matchers.is(true)
+        );
+    }
+
+}
@@ -126,6 +126,26 @@ public final class XslResolverTest {
         );
     }
 
+    /**
+     * XslResolver can make marshallers that record their latency.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void recordsMarshalling() throws Exception {
+        final Marshaller mrsh = new XslResolver()
+            .getContext(XslResolverTest.Page.class);
+        final ServerTiming timing = ServerTiming.begin();
+        try {
+            mrsh.marshal(new XslResolverTest.Page(), new StringWriter());
+            MatcherAssert.assertThat(
+                timing.nanos("marshal"),
+                Matchers.greaterThan(0L)
+            );
+        } finally {
+            timing.end();
+        }
+    }
+
     /**
      * XslResolver can inject absolute URLs.
      * @throws Exception If something goes wrong
@@ -35,17 +35,22 @@ import com.rexsl.mock.FilterConfigMocker;
 import com.rexsl.mock.HttpServletRequestMocker;
 import com.rexsl.mock.HttpServletResponseMocker;
 import com.rexsl.mock.MkServletContext;
+import java.util.Arrays;
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
 import javax.servlet.FilterConfig;
 import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import org.apache.commons.lang3.CharEncoding;
 import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 /**
@@ -55,6 +60,13 @@ import org.mockito.Mockito;
  */
 public final class XsltFilterTest {
 
+    /**
+     * XML page with a stylesheet, by its path, that never ends.
+     */
+    private static final String LOOP =
+        // @checkstyle LineLength (1 line)
+        "<?xml version='1.0'?><?xml-stylesheet href='%s' type='text/xsl'?><page/>";
+
     /**
      * XsltFilter can transform from XML to HTML.
      * @throws Exception If something goes wrong
@@ -116,7 +128,132 @@ public final class XsltFilterTest {
             chain
         );
         filter.destroy();
-        Mockito.verify(stream).write(binary);
+        final ArgumentCaptor<byte[]> written =
+            ArgumentCaptor.forClass(byte[].class);
+        Mockito.verify(stream).write(
+            written.capture(), Mockito.eq(0), Mockito.eq(binary.length)
+        );
+        MatcherAssert.assertThat(
+            Arrays.copyOf(written.getValue(), binary.length),
+            Matchers.equalTo(binary)
+        );
+    }
+
+    /**
+     * XsltFilter can stream XML to a client that demands it.
+     * @throws Exception If something goes wrong
+     */
+    @Test
+    public void streamsXmlWithoutBuffering() throws Exception {
+        final String xml = "<?xml version='1.0'?><page/>";
+        final Filter filter = new XsltFilter();
+        filter.init(
+            new FilterConfigMocker()
+                .withParam(XsltFilter.STREAMING, "true")
+                .mock()
+        );
+        final ServletOutputStream stream =
+            Mockito.mock(ServletOutputStream.class);
+        final HttpServletResponse response =
+            Mockito.mock(HttpServletResponse.class);
+        Mockito.doReturn(stream).when(response).getOutputStream();
+        filter.doFilter(
+            new HttpServletRequestMocker()
+                .withHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_XML)
+                .mock(),
+            response,
+            new FilterChainMocker().withOutput(xml).mock()
+        );
+        filter.destroy();
+        final byte[] data = xml.getBytes(CharEncoding.UTF_8);
+        Mockito.verify(stream).write(data, 0, data.length);
+        Mockito.verify(stream).flush();
+    }
+
+    /**
+     * XsltFilter can abort a transformation that takes too long.
+     * @throws Exception If something goes wrong
+     */
+    @Test(timeout = 30000L)
+    public void abortsTooLongTransformation() throws Exception {
+        final String xsl = "/abort.xsl";
+        final String page = String.format(XsltFilterTest.LOOP, xsl);
+        final long before = XsltFilterTest.aborts(xsl);
+        final Filter filter = XsltFilterTest.looping(xsl);
+        final HttpServletResponse response = new HttpServletResponseMocker()
+            .mock();
+        filter.doFilter(
+            new HttpServletRequestMocker()
+                // @checkstyle LineLength (1 line)
+                .withHeader(HttpHeaders.USER_AGENT, "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/30.0.1599.101 Safari/537.36")
+                .withHeader(HttpHeaders.ACCEPT, MediaType.TEXT_HTML)
+                .mock(),
+            response,
+            new FilterChainMocker().withOutput(page).mock()
+        );
+        filter.destroy();
+        MatcherAssert.assertThat(response.toString(), Matchers.equalTo(page));
+        MatcherAssert.assertThat(
+            XsltFilterTest.aborts(xsl),
+            Matchers.equalTo(before + 1L)
+        );
+    }
+
+    /**
+     * XsltFilter can fail when a transformation takes too long and the
+     * client can't transform XML itself.
+     * @throws Exception If something goes wrong
+     */
+    @Test(timeout = 30000L, expected = ServletException.class)
+    public void failsOnTooLongTransformation() throws Exception {
+        final String xsl = "/loop.xsl";
+        XsltFilterTest.looping(xsl).doFilter(
+            new HttpServletRequestMocker()
+                .withHeader(HttpHeaders.USER_AGENT, "Firefox")
+                .withHeader(HttpHeaders.ACCEPT, MediaType.TEXT_HTML)
+                .mock(),
+            new HttpServletResponseMocker().mock(),
+            new FilterChainMocker()
+                .withOutput(String.format(XsltFilterTest.LOOP, xsl))
+                .mock()
+        );
+    }
+
+    /**
+     * Number of transformations with the stylesheet aborted so far.
+     * @param xsl Path of the stylesheet
+     * @return Number of transformations
+     */
+    private static long aborts(final String xsl) {
+        final Long count = Metrics.ABORTS.counts().get(xsl);
+        long num = 0L;
+        if (count != null) {
+            num = count;
+        }
+        return num;
+    }
+
+    /**
+     * Make a filter with a stylesheet that never ends.
+     * @param xsl Path of the stylesheet
+     * @return Filter
+     * @throws Exception If something goes wrong
+     */
+    private static Filter looping(final String xsl) throws Exception {
+        final ServletContext context = new MkServletContext()
+            .withResource(
+                xsl,
+                // @checkstyle LineLength (1 line)
+                "<stylesheet xmlns='http://www.w3.org/1999/XSL/Transform' version='2.0'><template match='/'><for-each select='1 to 1000000000'><if test='. = 0'><value-of select='.'/></if></for-each></template></stylesheet>"
+        );
+        final Filter filter = new XsltFilter();
+        filter.init(
+            new FilterConfigMocker()
+                .withServletContext(context)
+                .withParam(XsltFilter.BUDGET, String.format("10000, %s=200", xsl))
+                .mock()
+        );
+        return filter;
     }
 
 }
@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.io.Charsets;
+import org.apache.commons.lang3.StringUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Entry}.
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ */
+public final class EntryTest {
+
+    /**
+     * Entry can read a big body from a stream and send it.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void readsAndSendsBody() throws Exception {
+        final byte[] body = StringUtils.repeat("body ", 10000)
+            .getBytes(Charsets.UTF_8);
+        final Entry entry = new Entry(
+            "/big", new ByteArrayInputStream(body), body.length,
+            Collections.<String, List<String>>emptyMap(), Long.MAX_VALUE,
+            Collections.<String>emptyList()
+        );
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        entry.writeTo(output);
+        MatcherAssert.assertThat(output.toByteArray(), Matchers.equalTo(body));
+        MatcherAssert.assertThat(entry.size(), Matchers.equalTo(body.length));
+        MatcherAssert.assertThat(entry.body(), Matchers.equalTo(body));
+    }
+
+    /**
+     * Entry can reject a stream shorter than the body.
+     * @throws Exception If there is some problem inside
+     */
+    @Test(expected = IOException.class)
+    public void rejectsShortStream() throws Exception {
+        new Entry(
+            "/short", new ByteArrayInputStream(new byte[2]), 3,
+            Collections.<String, List<String>>emptyMap(), Long.MAX_VALUE,
+            Collections.<String>emptyList()
+        );
+    }
+
+}
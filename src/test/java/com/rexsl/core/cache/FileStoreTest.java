@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core.cache;
+
+import com.jcabi.aspects.Tv;
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test case for {@link FileStore}.
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ */
+public final class FileStoreTest {
+
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifier (3 lines)
+     */
+    @Rule
+    public transient TemporaryFolder temp = new TemporaryFolder();
+
+    /**
+     * FileStore can share entries between instances.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void sharesEntriesBetweenInstances() throws Exception {
+        final File dir = this.temp.newFolder();
+        new FileStore(dir).put(HeapStoreTest.entry("/page", 3, "x"));
+        final Entry entry = new FileStore(dir).get("/page");
+        MatcherAssert.assertThat(entry.size(), Matchers.equalTo(3));
+        MatcherAssert.assertThat(
+            entry.headers().get("content-type"),
+            Matchers.hasItem("text/html")
+        );
+        MatcherAssert.assertThat(entry.tags(), Matchers.hasItem("x"));
+    }
+
+    /**
+     * FileStore can replace entries and invalidate them by tag.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void replacesAndInvalidatesEntries() throws Exception {
+        final Store store = new FileStore(this.temp.newFolder());
+        store.put(HeapStoreTest.entry("/a", 1, "users"));
+        store.put(HeapStoreTest.entry("/a", 2, "users"));
+        store.put(HeapStoreTest.entry("/b", 1, "posts"));
+        MatcherAssert.assertThat(store.get("/a").size(), Matchers.equalTo(2));
+        store.invalidate("users");
+        MatcherAssert.assertThat(store.get("/a"), Matchers.nullValue());
+        MatcherAssert.assertThat(store.get("/b"), Matchers.notNullValue());
+        store.remove("/b");
+        MatcherAssert.assertThat(store.get("/b"), Matchers.nullValue());
+    }
+
+    /**
+     * FileStore can delete broken files.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void deletesBrokenFiles() throws Exception {
+        final File dir = this.temp.newFolder();
+        final Store store = new FileStore(dir);
+        store.put(HeapStoreTest.entry("/broken", 1, "x"));
+        for (final File file : FileUtils.listFiles(dir, null, true)) {
+            FileUtils.write(file, "garbage");
+        }
+        MatcherAssert.assertThat(store.get("/broken"), Matchers.nullValue());
+        MatcherAssert.assertThat(
+            FileUtils.listFiles(dir, null, true),
+            Matchers.empty()
+        );
+    }
+
+    /**
+     * FileStore can keep total size of files within the limit.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void keepsFilesWithinLimit() throws Exception {
+        final File dir = this.temp.newFolder();
+        final Store store = new FileStore(dir, (long) Tv.THOUSAND * 2);
+        for (int idx = 0; idx < Tv.FIVE; ++idx) {
+            store.put(
+                HeapStoreTest.entry(
+                    String.format("/%d", idx), Tv.FIVE * Tv.HUNDRED, "x"
+                )
+            );
+        }
+        long total = 0L;
+        for (final File file : FileUtils.listFiles(dir, null, true)) {
+            total += file.length();
+        }
+        MatcherAssert.assertThat(
+            total,
+            Matchers.lessThanOrEqualTo((long) Tv.THOUSAND * 2)
+        );
+    }
+
+    /**
+     * FileStore can sweep expired entries and orphaned temporary files.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void sweepsExpiredEntriesAndOrphans() throws Exception {
+        final File dir = this.temp.newFolder();
+        final FileStore store = new FileStore(dir);
+        store.put(HeapStoreTest.entry("/alive", 1, "x"));
+        store.put(
+            new Entry(
+                "/dead", new byte[1],
+                Collections.<String, List<String>>emptyMap(),
+                System.currentTimeMillis() - 1L,
+                Collections.singleton("x")
+            )
+        );
+        final File orphan = new File(new File(dir, "00"), "entry1.tmp");
+        FileUtils.write(orphan, "half");
+        MatcherAssert.assertThat(
+            orphan.setLastModified(
+                System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1L)
+            ),
+            Matchers.is(true)
+        );
+        store.sweep();
+        MatcherAssert.assertThat(
+            FileUtils.listFiles(dir, null, true),
+            Matchers.hasSize(1)
+        );
+        MatcherAssert.assertThat(store.get("/alive"), Matchers.notNullValue());
+    }
+
+}
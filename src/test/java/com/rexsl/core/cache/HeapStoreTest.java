@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.core.cache;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link HeapStore}.
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ */
+public final class HeapStoreTest {
+
+    /**
+     * HeapStore can save and find entries.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void savesAndFindsEntries() throws Exception {
+        final Store store = new HeapStore();
+        store.put(HeapStoreTest.entry("/a", 2, "x"));
+        MatcherAssert.assertThat(
+            store.get("/a").body().length,
+            Matchers.equalTo(2)
+        );
+        MatcherAssert.assertThat(store.get("/b"), Matchers.nullValue());
+        store.remove("/a");
+        MatcherAssert.assertThat(store.get("/a"), Matchers.nullValue());
+    }
+
+    /**
+     * HeapStore can forget least recently used entries over the limit.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void forgetsEntriesOverLimit() throws Exception {
+        final HeapStore store = new HeapStore(10L);
+        store.put(HeapStoreTest.entry("/first", 4, "x"));
+        store.put(HeapStoreTest.entry("/second", 4, "x"));
+        MatcherAssert.assertThat(store.get("/first"), Matchers.notNullValue());
+        store.put(HeapStoreTest.entry("/third", 4, "x"));
+        MatcherAssert.assertThat(store.get("/second"), Matchers.nullValue());
+        MatcherAssert.assertThat(store.get("/first"), Matchers.notNullValue());
+        MatcherAssert.assertThat(store.size(), Matchers.equalTo(8L));
+    }
+
+    /**
+     * HeapStore can invalidate entries by tag and ignore expired ones.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void invalidatesByTag() throws Exception {
+        final Store store = new HeapStore();
+        store.put(HeapStoreTest.entry("/one", 1, "users"));
+        store.put(HeapStoreTest.entry("/two", 1, "posts"));
+        store.put(
+            new Entry(
+                "/old", new byte[1],
+                Collections.<String, List<String>>emptyMap(),
+                System.currentTimeMillis() - 1L,
+                Collections.<String>emptyList()
+            )
+        );
+        store.invalidate("users");
+        MatcherAssert.assertThat(store.get("/one"), Matchers.nullValue());
+        MatcherAssert.assertThat(store.get("/two"), Matchers.notNullValue());
+        MatcherAssert.assertThat(store.get("/old"), Matchers.nullValue());
+    }
+
+    /**
+     * Make an entry, valid for a minute.
+     * @param key The key
+     * @param size Size of the body
+     * @param tag The tag
+     * @return Entry
+     */
+    static Entry entry(final String key, final int size, final String tag) {
+        final Map<String, List<String>> headers =
+            Collections.singletonMap(
+                "Content-Type", Arrays.asList("text/html")
+            );
+        return new Entry(
+            key, new byte[size], headers,
+            System.currentTimeMillis() + 60000L,
+            Collections.singleton(tag)
+        );
+    }
+
+}
@@ -35,9 +35,15 @@ import com.rexsl.mock.HttpHeadersMocker;
 import com.rexsl.mock.UriInfoMocker;
 import com.rexsl.page.inset.FlashInset;
 import com.rexsl.page.inset.LinksInset;
+import java.util.Date;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
 import javax.xml.bind.annotation.XmlRootElement;
 import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
 import org.junit.Test;
 import org.mockito.Mockito;
 
@@ -101,6 +107,114 @@ public final class BasePageTest {
         );
     }
 
+    /**
+     * BasePage can skip rendering when the client has the current version.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void skipsRenderingWhenNotModified() throws Exception {
+        final BaseResource res = new BasePageTest.EmptyRs();
+        final Request request = Mockito.mock(Request.class);
+        Mockito.doReturn(Response.notModified())
+            .when(request)
+            .evaluatePreconditions(Mockito.any(Date.class));
+        res.setRequest(request);
+        final Response response = new BasePageTest.FooPage()
+            .init(res)
+            .version(new BasePageTest.FixedVersion(new Date(0L), null))
+            .render()
+            .build();
+        MatcherAssert.assertThat(
+            response.getStatus(),
+            Matchers.equalTo(Response.Status.NOT_MODIFIED.getStatusCode())
+        );
+        MatcherAssert.assertThat(response.getEntity(), Matchers.nullValue());
+    }
+
+    /**
+     * BasePage can render the page with its version when the client
+     * doesn't have it.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void rendersWithVersionWhenModified() throws Exception {
+        final BaseResource res = new BasePageTest.EmptyRs();
+        res.setUriInfo(new UriInfoMocker().mock());
+        res.setHttpHeaders(new HttpHeadersMocker().mock());
+        res.setSecurityContext(Mockito.mock(SecurityContext.class));
+        res.setRequest(Mockito.mock(Request.class));
+        final Response response = new BasePageTest.FooPage()
+            .init(res)
+            .version(
+                new BasePageTest.FixedVersion(null, new EntityTag("v1"))
+            )
+            .render()
+            .build();
+        MatcherAssert.assertThat(
+            response.getStatus(),
+            Matchers.equalTo(Response.Status.OK.getStatusCode())
+        );
+        MatcherAssert.assertThat(
+            response.getMetadata().getFirst(HttpHeaders.ETAG),
+            Matchers.<Object>equalTo(new EntityTag("v1"))
+        );
+    }
+
+    /**
+     * BasePage can render the page with its version for a resource, which
+     * doesn't provide JAX-RS request.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void rendersWithVersionForPlainResource() throws Exception {
+        final Response response = new BasePageTest.FooPage()
+            .init(Mockito.mock(Resource.class))
+            .version(
+                new BasePageTest.FixedVersion(null, new EntityTag("v2"))
+            )
+            .render()
+            .build();
+        MatcherAssert.assertThat(
+            response.getStatus(),
+            Matchers.equalTo(Response.Status.OK.getStatusCode())
+        );
+        MatcherAssert.assertThat(
+            response.getMetadata().getFirst(HttpHeaders.ETAG),
+            Matchers.<Object>equalTo(new EntityTag("v2"))
+        );
+    }
+
+    /**
+     * Version which never changes.
+     */
+    private static final class FixedVersion implements EntityVersion {
+        /**
+         * Date.
+         */
+        private final transient Date date;
+        /**
+         * Tag.
+         */
+        private final transient EntityTag etag;
+        /**
+         * Public ctor.
+         * @param when Date of modification
+         * @param tag Entity tag
+         */
+        FixedVersion(final Date when, final EntityTag tag) {
+            this.date = when;
+            this.etag = tag;
+        }
+        @Override
+        public Date lastModified() {
+            return this.date;
+        }
+        @Override
+        public EntityTag entityTag() {
+            return this.etag;
+        }
+    }
+
     /**
      * Base resource for tests.
      */
@@ -117,4 +117,31 @@ public final class ForwardedUriInfoTest {
         ).getRequestUri();
     }
 
+    /**
+     * ForwardedUriInfo can build base URI only once.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void buildsBaseUriOnce() throws Exception {
+        final UriInfo info = new ForwardedUriInfo(
+            new UriInfoMocker()
+                .withBaseUri(new URI("http://localhost/app/"))
+                .mock(),
+            new AtomicReference<HttpHeaders>(
+                new HttpHeadersMocker()
+                    .withHeader("X-Forwarded-Proto", "https")
+                    .mock()
+            )
+        );
+        final URI base = info.getBaseUri();
+        MatcherAssert.assertThat(
+            base.toString(),
+            Matchers.equalTo("https://localhost/app/")
+        );
+        MatcherAssert.assertThat(
+            info.getBaseUri(),
+            Matchers.sameInstance(base)
+        );
+    }
+
 }
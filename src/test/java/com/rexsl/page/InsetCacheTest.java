@@ -0,0 +1,250 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.page;
+
+import com.jcabi.aspects.Tv;
+import com.jcabi.matchers.JaxbConverter;
+import com.jcabi.matchers.XhtmlMatchers;
+import com.rexsl.mock.MultivaluedMapMocker;
+import com.rexsl.mock.UriInfoMocker;
+import com.rexsl.page.mock.BasePageMocker;
+import com.rexsl.page.mock.ResourceMocker;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.ws.rs.core.Response;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link InsetCache}.
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ */
+public final class InsetCacheTest {
+
+    /**
+     * InsetCache can reuse output of a cached inset.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void reusesCachedOutput() throws Exception {
+        final InsetCacheTest.MenuInset inset = new InsetCacheTest.MenuInset();
+        for (int idx = 0; idx < 2; ++idx) {
+            final BasePageMocker page = InsetCacheTest.page("1");
+            final Response.ResponseBuilder builder = Response.ok();
+            InsetCache.render(inset, page, builder);
+            MatcherAssert.assertThat(
+                JaxbConverter.the(page),
+                XhtmlMatchers.hasXPaths(
+                    "/foo/menu[.='1']",
+                    "/foo/links/link[@rel='menu']"
+                )
+            );
+            final Response response = builder.build();
+            MatcherAssert.assertThat(
+                response.getMetadata().getFirst("X-Menu"),
+                Matchers.<Object>equalTo("yes")
+            );
+            MatcherAssert.assertThat(
+                response.getMetadata().containsKey("Set-Cookie"),
+                Matchers.is(idx == 0)
+            );
+        }
+        MatcherAssert.assertThat(inset.total(), Matchers.equalTo(1));
+    }
+
+    /**
+     * InsetCache can render again for different query parameters.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void rendersForDifferentQuery() throws Exception {
+        final InsetCacheTest.MenuInset inset = new InsetCacheTest.MenuInset();
+        InsetCache.render(inset, InsetCacheTest.page("2"), Response.ok());
+        final BasePageMocker page = InsetCacheTest.page("3");
+        InsetCache.render(inset, page, Response.ok());
+        MatcherAssert.assertThat(inset.total(), Matchers.equalTo(2));
+        MatcherAssert.assertThat(
+            JaxbConverter.the(page),
+            XhtmlMatchers.hasXPath("/foo/menu[.='3']")
+        );
+    }
+
+    /**
+     * InsetCache can render a missing entry only once, when many threads
+     * need it at the same time.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void rendersOnceForConcurrentMisses() throws Exception {
+        final InsetCacheTest.SlowInset inset = new InsetCacheTest.SlowInset();
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService service = Executors.newFixedThreadPool(Tv.FIVE);
+        try {
+            final Collection<Future<BasePageMocker>> futures =
+                new ArrayList<Future<BasePageMocker>>(Tv.FIVE);
+            for (int idx = 0; idx < Tv.FIVE; ++idx) {
+                futures.add(
+                    service.submit(
+                        new Callable<BasePageMocker>() {
+                            @Override
+                            public BasePageMocker call() throws Exception {
+                                final BasePageMocker page =
+                                    InsetCacheTest.page("slow");
+                                start.await();
+                                InsetCache.render(inset, page, Response.ok());
+                                return page;
+                            }
+                        }
+                    )
+                );
+            }
+            start.countDown();
+            for (final Future<BasePageMocker> future : futures) {
+                MatcherAssert.assertThat(
+                    JaxbConverter.the(future.get()),
+                    XhtmlMatchers.hasXPath("/foo/slow")
+                );
+            }
+        } finally {
+            service.shutdown();
+        }
+        MatcherAssert.assertThat(inset.total(), Matchers.equalTo(1));
+    }
+
+    /**
+     * InsetCache can give every page its own links.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void doesNotShareLinksBetweenPages() throws Exception {
+        final InsetCacheTest.MenuInset inset = new InsetCacheTest.MenuInset();
+        final BasePageMocker first = InsetCacheTest.page("4");
+        InsetCache.render(inset, first, Response.ok());
+        final BasePageMocker second = InsetCacheTest.page("4");
+        InsetCache.render(inset, second, Response.ok());
+        MatcherAssert.assertThat(inset.total(), Matchers.equalTo(1));
+        MatcherAssert.assertThat(
+            second.getLinks().iterator().next(),
+            Matchers.not(
+                Matchers.sameInstance(first.getLinks().iterator().next())
+            )
+        );
+    }
+
+    /**
+     * Make a page.
+     * @param menu Value of query param
+     * @return Page
+     */
+    private static BasePageMocker page(final String menu) {
+        return new BasePageMocker().init(
+            new ResourceMocker().withUriInfo(
+                new UriInfoMocker().withQueryParameters(
+                    new MultivaluedMapMocker().with("menu", menu)
+                ).mock()
+            ).mock()
+        );
+    }
+
+    /**
+     * Slow cached inset for tests.
+     */
+    @Inset.Cached(lifetime = 1L)
+    public static final class SlowInset implements Inset {
+        /**
+         * How many times it was rendered.
+         */
+        private final transient AtomicInteger counter = new AtomicInteger();
+        @Override
+        public void render(final BasePage<?, ?> page,
+            final Response.ResponseBuilder builder) {
+            this.counter.incrementAndGet();
+            try {
+                TimeUnit.MILLISECONDS.sleep((long) Tv.HUNDRED);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(ex);
+            }
+            page.append(new JaxbBundle("slow", "yes"));
+        }
+        /**
+         * How many times it was rendered.
+         * @return Total
+         */
+        public int total() {
+            return this.counter.get();
+        }
+    }
+
+    /**
+     * Cached inset for tests.
+     */
+    @Inset.Cached(lifetime = 1L, query = "menu")
+    public static final class MenuInset implements Inset {
+        /**
+         * How many times it was rendered.
+         */
+        private final transient AtomicInteger counter = new AtomicInteger();
+        @Override
+        public void render(final BasePage<?, ?> page,
+            final Response.ResponseBuilder builder) {
+            this.counter.incrementAndGet();
+            page.append(
+                new JaxbBundle(
+                    "menu",
+                    page.home().uriInfo().getQueryParameters().getFirst("menu")
+                )
+            );
+            page.link(new Link("menu", "/menu"));
+            builder.header("X-Menu", "yes");
+            builder.cookie(
+                new CookieBuilder(page.home().uriInfo().getBaseUri())
+                    .name("a").value("b").build()
+            );
+        }
+        /**
+         * How many times it was rendered.
+         * @return Total
+         */
+        public int total() {
+            return this.counter.get();
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.page;
+
+import com.jcabi.aspects.Tv;
+import com.rexsl.page.inset.FlashInset;
+import com.rexsl.page.inset.LinksInset;
+import com.rexsl.page.inset.VersionInset;
+import java.util.ArrayList;
+import java.util.List;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link InsetPlan}.
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ */
+public final class InsetPlanTest {
+
+    /**
+     * InsetPlan can be built only once per class.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void buildsPlanOncePerClass() throws Exception {
+        MatcherAssert.assertThat(
+            InsetPlan.of(InsetPlanTest.FooRs.class),
+            Matchers.sameInstance(InsetPlan.of(InsetPlanTest.FooRs.class))
+        );
+    }
+
+    /**
+     * InsetPlan can reuse stateless insets and make all others.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void reusesStatelessInsets() throws Exception {
+        final InsetPlan plan = InsetPlan.of(InsetPlanTest.FooRs.class);
+        final List<Inset> first = new ArrayList<Inset>(
+            plan.insets(new InsetPlanTest.FooRs())
+        );
+        final List<Inset> second = new ArrayList<Inset>(
+            plan.insets(new InsetPlanTest.FooRs())
+        );
+        MatcherAssert.assertThat(first, Matchers.hasSize(Tv.FOUR));
+        MatcherAssert.assertThat(
+            first.get(0), Matchers.instanceOf(FlashInset.class)
+        );
+        MatcherAssert.assertThat(
+            first.get(1), Matchers.sameInstance(second.get(1))
+        );
+        MatcherAssert.assertThat(
+            first.get(0), Matchers.not(Matchers.sameInstance(second.get(0)))
+        );
+        MatcherAssert.assertThat(
+            VersionInset.class.cast(first.get(2)).toString(),
+            Matchers.containsString("alpha")
+        );
+        MatcherAssert.assertThat(
+            VersionInset.class.cast(first.get(Tv.THREE)).toString(),
+            Matchers.containsString("beta")
+        );
+    }
+
+    /**
+     * Resource for tests.
+     */
+    @Inset.Default({ FlashInset.class, LinksInset.class })
+    public static final class FooRs extends BaseResource {
+        /**
+         * Second runtime inset.
+         * @return Inset
+         */
+        @Inset.Runtime
+        public Inset beta() {
+            return new VersionInset("beta", "", "");
+        }
+        /**
+         * First runtime inset.
+         * @return Inset
+         */
+        @Inset.Runtime
+        public Inset alpha() {
+            return new VersionInset("alpha", "", "");
+        }
+    }
+
+}
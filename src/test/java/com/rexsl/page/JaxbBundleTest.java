@@ -34,6 +34,8 @@ import com.jcabi.matchers.XhtmlMatchers;
 import com.rexsl.page.mock.BasePageMocker;
 import com.rexsl.page.mock.ResourceMocker;
 import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
 import javax.xml.parsers.DocumentBuilderFactory;
 import org.hamcrest.MatcherAssert;
 import org.junit.Test;
@@ -180,4 +182,56 @@ public final class JaxbBundleTest {
         );
     }
 
+    /**
+     * JaxbBundle can be streamed through JAXB, consuming groups lazily.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void streamsItselfThroughJaxb() throws Exception {
+        final List<String> names = new LinkedList<String>();
+        final BasePageMocker page = new BasePageMocker()
+            .init(new ResourceMocker().mock());
+        page.append(
+            new JaxbBundle("omega").attr("id", "1").add("items").add(
+                new JaxbBundle.Group<String>(names) {
+                    @Override
+                    public JaxbBundle bundle(final String name) {
+                        return new JaxbBundle("item", name);
+                    }
+                }
+            ).up().link(new Link("see", "#see"))
+        );
+        names.add("first & last");
+        MatcherAssert.assertThat(
+            JaxbConverter.the(page),
+            XhtmlMatchers.hasXPaths(
+                "/foo/omega[@id='1']/items/item[.='first & last']",
+                "/foo/omega/links/link[@rel='see' and @href='#see']"
+            )
+        );
+    }
+
+    /**
+     * JaxbBundle can stream namespaced DOM elements into SAX.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void streamsDomElements() throws Exception {
+        final Document dom = DocumentBuilderFactory.newInstance()
+            .newDocumentBuilder()
+            .newDocument();
+        final Element root = dom.createElementNS("urn:test", "t:bar");
+        root.setAttribute("size", "big");
+        root.appendChild(dom.createTextNode("text"));
+        final BasePageMocker page = new BasePageMocker()
+            .init(new ResourceMocker().mock());
+        page.append(new JaxbBundle("zeta").add(root));
+        MatcherAssert.assertThat(
+            JaxbConverter.the(page),
+            XhtmlMatchers.hasXPath(
+                "/foo/zeta/ns1:bar[@size='big' and .='text']", "urn:test"
+            )
+        );
+    }
+
 }
@@ -0,0 +1,241 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.page;
+
+import com.jcabi.matchers.JaxbConverter;
+import com.jcabi.matchers.XhtmlMatchers;
+import com.rexsl.core.JaxbFragments;
+import com.rexsl.core.XslResolver;
+import com.rexsl.page.mock.BasePageMocker;
+import com.rexsl.page.mock.ResourceMocker;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link JaxbStream}.
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ */
+public final class JaxbStreamTest {
+
+    /**
+     * JaxbStream can fetch items only when marshalled.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void fetchesItemsWhenMarshalled() throws Exception {
+        final AtomicInteger fetched = new AtomicInteger();
+        final Iterator<String> names = Arrays.asList("a", "b").iterator();
+        final BasePageMocker page = new BasePageMocker()
+            .init(new ResourceMocker().mock());
+        page.append(
+            new JaxbStream<String>("names", names) {
+                @Override
+                public Object element(final String name) {
+                    fetched.incrementAndGet();
+                    return new JaxbBundle("name", name);
+                }
+            }
+        );
+        MatcherAssert.assertThat(fetched.get(), Matchers.equalTo(0));
+        MatcherAssert.assertThat(
+            JaxbConverter.the(page),
+            XhtmlMatchers.hasXPaths(
+                "/foo/names[count(name) = 2]",
+                "/foo/names/name[.='b']"
+            )
+        );
+        MatcherAssert.assertThat(fetched.get(), Matchers.equalTo(2));
+    }
+
+    /**
+     * JaxbStream can marshal JAXB annotated objects.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void marshalsJaxbObjects() throws Exception {
+        final BasePageMocker page = new BasePageMocker()
+            .init(new ResourceMocker().mock());
+        page.append(
+            new JaxbStream<Integer>("numbers", Arrays.asList(1, 2)) {
+                @Override
+                public Object element(final Integer num) {
+                    return new JaxbStreamTest.Number(num);
+                }
+            }
+        );
+        MatcherAssert.assertThat(
+            JaxbConverter.the(page),
+            XhtmlMatchers.hasXPaths(
+                "/foo/numbers/number[value='1']",
+                "/foo/numbers/number[value='2']"
+            )
+        );
+    }
+
+    /**
+     * JaxbStream can skip items without elements.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void skipsNullElements() throws Exception {
+        final BasePageMocker page = new BasePageMocker()
+            .init(new ResourceMocker().mock());
+        page.append(
+            new JaxbStream<Integer>("odd", Arrays.asList(1, 2, 3)) {
+                @Override
+                public Object element(final Integer num) {
+                    Object element = null;
+                    if (num % 2 == 1) {
+                        element = new JaxbStreamTest.Number(num);
+                    }
+                    return element;
+                }
+            }
+        );
+        MatcherAssert.assertThat(
+            JaxbConverter.the(page),
+            XhtmlMatchers.hasXPath("/foo/odd[count(number) = 2]")
+        );
+    }
+
+    /**
+     * JaxbStream can marshal objects with JAXB context of XslResolver.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void marshalsWithContextOfResolver() throws Exception {
+        final AtomicInteger resolved = new AtomicInteger();
+        final BasePageMocker page = new BasePageMocker()
+            .init(new ResourceMocker().mock());
+        page.append(
+            new JaxbStream<Integer>("resolved", Arrays.asList(1, 2)) {
+                @Override
+                public Object element(final Integer num) {
+                    try {
+                        if (JaxbFragments.marshaller(JaxbStreamTest.Number.class)
+                            != null) {
+                            resolved.incrementAndGet();
+                        }
+                    } catch (final JAXBException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                    return new JaxbStreamTest.Number(num);
+                }
+            }
+        );
+        final StringWriter writer = new StringWriter();
+        new XslResolver().getContext(page.getClass()).marshal(page, writer);
+        MatcherAssert.assertThat(
+            writer.toString(),
+            XhtmlMatchers.hasXPath("/foo/resolved[count(number) = 2]")
+        );
+        MatcherAssert.assertThat(resolved.get(), Matchers.equalTo(2));
+        MatcherAssert.assertThat(
+            JaxbFragments.marshaller(JaxbStreamTest.Number.class),
+            Matchers.nullValue()
+        );
+    }
+
+    /**
+     * JaxbStream can forget the resolver when marshalling fails.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void forgetsResolverWhenMarshallingFails() throws Exception {
+        final BasePageMocker page = new BasePageMocker()
+            .init(new ResourceMocker().mock());
+        page.append(
+            new JaxbStream<Integer>("broken", Arrays.asList(1)) {
+                @Override
+                public Object element(final Integer num) {
+                    throw new IllegalArgumentException("broken element");
+                }
+            }
+        );
+        try {
+            new XslResolver().getContext(page.getClass())
+                .marshal(page, new StringWriter());
+            MatcherAssert.assertThat("exception expected", false);
+        } catch (final JAXBException ex) {
+            MatcherAssert.assertThat(ex, Matchers.notNullValue());
+        } catch (final IllegalArgumentException ex) {
+            MatcherAssert.assertThat(ex, Matchers.notNullValue());
+        }
+        MatcherAssert.assertThat(
+            JaxbFragments.marshaller(JaxbStreamTest.Number.class),
+            Matchers.nullValue()
+        );
+    }
+
+    /**
+     * JAXB annotated object for tests.
+     */
+    @XmlRootElement(name = "number")
+    @XmlAccessorType(XmlAccessType.NONE)
+    public static final class Number {
+        /**
+         * The value.
+         */
+        private final transient int num;
+        /**
+         * Public ctor, for JAXB.
+         */
+        public Number() {
+            this(0);
+        }
+        /**
+         * Public ctor.
+         * @param value The value
+         */
+        public Number(final int value) {
+            this.num = value;
+        }
+        /**
+         * Get value.
+         * @return The value
+         */
+        @XmlElement
+        public int getValue() {
+            return this.num;
+        }
+    }
+
+}
@@ -136,4 +136,24 @@ public final class LinkTest {
         );
     }
 
+    /**
+     * Link can attach paths with encoded characters.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void attachesEncodedPath() throws Exception {
+        final Link link = new Link("lnk-7", "/a%20b/c?q=1");
+        link.attachTo(
+            new ResourceMocker().withUriInfo(
+                new UriInfoMocker()
+                    .withBaseUri(new URI("http://boom.example.com/app/"))
+                    .mock()
+            ).mock()
+        );
+        MatcherAssert.assertThat(
+            link.getHref().toString(),
+            Matchers.equalTo("http://boom.example.com/app/a%20b/c?q=1")
+        );
+    }
+
 }
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.page;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Memo}.
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ */
+public final class MemoTest {
+
+    /**
+     * Memo can compute a value only once.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void computesValueOnce() throws Exception {
+        final Memo memo = new Memo();
+        final AtomicInteger counter = new AtomicInteger();
+        final Memo.Source<Integer> source = new Memo.Source<Integer>() {
+            @Override
+            public Integer get() {
+                return counter.incrementAndGet();
+            }
+        };
+        MatcherAssert.assertThat(
+            memo.get(new Memo.Key<Integer>("x"), source),
+            Matchers.equalTo(1)
+        );
+        MatcherAssert.assertThat(
+            memo.get(new Memo.Key<Integer>("x"), source),
+            Matchers.equalTo(1)
+        );
+        memo.forget(new Memo.Key<Integer>("x"));
+        MatcherAssert.assertThat(
+            memo.get(new Memo.Key<Integer>("x"), source),
+            Matchers.equalTo(2)
+        );
+    }
+
+    /**
+     * Memo can forget failed computations.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void forgetsFailures() throws Exception {
+        final Memo memo = new Memo();
+        final Memo.Key<String> key = new Memo.Key<String>("y");
+        try {
+            memo.get(
+                key,
+                new Memo.Source<String>() {
+                    @Override
+                    public String get() {
+                        throw new IllegalArgumentException("oops");
+                    }
+                }
+            );
+        } catch (final IllegalArgumentException ex) {
+            assert ex != null;
+        }
+        MatcherAssert.assertThat(
+            memo.get(
+                key,
+                new Memo.Source<String>() {
+                    @Override
+                    public String get() {
+                        return "fine";
+                    }
+                }
+            ),
+            Matchers.equalTo("fine")
+        );
+    }
+
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.page;
+
+import java.util.Arrays;
+import java.util.List;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Sequence}.
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ */
+public final class SequenceTest {
+
+    /**
+     * Sequence can grow and keep the order of items.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void growsAndKeepsOrder() throws Exception {
+        final Sequence<Integer> seq = new Sequence<Integer>();
+        final int total = 1000;
+        for (int idx = 0; idx < total; ++idx) {
+            seq.add(idx);
+        }
+        MatcherAssert.assertThat(seq, Matchers.hasSize(total));
+        MatcherAssert.assertThat(seq.get(0), Matchers.equalTo(0));
+        MatcherAssert.assertThat(seq.get(total - 1), Matchers.equalTo(total - 1));
+        MatcherAssert.assertThat(seq.set(1, -1), Matchers.equalTo(1));
+        MatcherAssert.assertThat(seq.get(1), Matchers.equalTo(-1));
+    }
+
+    /**
+     * Sequence can make an immutable snapshot.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void makesImmutableSnapshot() throws Exception {
+        final Sequence<String> seq = new Sequence<String>();
+        seq.add("first");
+        final List<String> snapshot = seq.snapshot();
+        seq.add("second");
+        MatcherAssert.assertThat(
+            snapshot, Matchers.equalTo(Arrays.asList("first"))
+        );
+        MatcherAssert.assertThat(
+            seq, Matchers.<Object>equalTo(Arrays.asList("first", "second"))
+        );
+    }
+
+    /**
+     * Sequence can reject items out of its bounds.
+     * @throws Exception If there is some problem inside
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsIndexOutOfBounds() throws Exception {
+        final Sequence<String> seq = new Sequence<String>();
+        seq.add("only");
+        seq.get(1);
+    }
+
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.page;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link ServerFacts}.
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ */
+public final class ServerFactsTest {
+
+    /**
+     * ServerFacts can provide facts without fetching them again.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void providesCachedFacts() throws Exception {
+        final ServerFacts facts = ServerFacts.INSTANCE;
+        MatcherAssert.assertThat(facts.ip(), Matchers.notNullValue());
+        MatcherAssert.assertThat(
+            facts.sla(),
+            Matchers.sameInstance(facts.sla())
+        );
+    }
+
+    /**
+     * ServerFacts can refresh load average.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void refreshesLoadAverage() throws Exception {
+        ServerFacts.INSTANCE.refreshSla();
+        MatcherAssert.assertThat(
+            ServerFacts.INSTANCE.sla(),
+            Matchers.not(Matchers.isEmptyString())
+        );
+    }
+
+    /**
+     * ServerFacts can start again after it's stopped.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void startsAgainAfterStop() throws Exception {
+        new PageListener().contextDestroyed(null);
+        MatcherAssert.assertThat(
+            ServerFacts.INSTANCE.sla(),
+            Matchers.not(Matchers.isEmptyString())
+        );
+    }
+
+}
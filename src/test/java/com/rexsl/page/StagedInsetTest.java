@@ -0,0 +1,326 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.page;
+
+import com.jcabi.matchers.JaxbConverter;
+import com.jcabi.matchers.XhtmlMatchers;
+import com.rexsl.mock.HttpHeadersMocker;
+import com.rexsl.mock.UriInfoMocker;
+import com.rexsl.page.mock.ResourceMocker;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.ext.Providers;
+import javax.xml.bind.annotation.XmlRootElement;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Test case for {@link StagedInset}.
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ */
+public final class StagedInsetTest {
+
+    /**
+     * StagedInset can render independent insets in parallel and merge
+     * them in order.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void rendersInsetsInParallel() throws Exception {
+        final long start = System.nanoTime();
+        final Response response = StagedInsetTest.page(
+            new StagedInsetTest.ParallelRs()
+        ).render().build();
+        MatcherAssert.assertThat(
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+            Matchers.lessThan(StagedInsetTest.SlowInset.DELAY * 2)
+        );
+        MatcherAssert.assertThat(
+            JaxbConverter.the(response.getEntity()),
+            XhtmlMatchers.hasXPaths(
+                "/page/slow[1][.='first']",
+                "/page/slow[2][.='second']",
+                "/page/links/link[@rel='first']"
+            )
+        );
+        MatcherAssert.assertThat(
+            response.getMetadata().get("X-Slow"),
+            Matchers.<Object>hasItems("first", "second")
+        );
+    }
+
+    /**
+     * StagedInset can use fallback, when inset is too slow.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void usesFallbackOnTimeout() throws Exception {
+        MatcherAssert.assertThat(
+            JaxbConverter.the(
+                StagedInsetTest.page(new StagedInsetTest.TimeoutRs())
+                    .render().build().getEntity()
+            ),
+            XhtmlMatchers.hasXPaths(
+                "/page/fallback",
+                "/page[not(slow)]"
+            )
+        );
+    }
+
+    /**
+     * StagedInset can render inset, which uses request-scoped objects,
+     * outside of the thread of the request.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void rendersInsetOutsideOfRequestThread() throws Exception {
+        final Response response = new StagedInsetTest.Page()
+            .init(new StagedInsetTest.OwnedRs(new ResourceMocker().mock()))
+            .render()
+            .build();
+        MatcherAssert.assertThat(
+            JaxbConverter.the(response.getEntity()),
+            XhtmlMatchers.hasXPaths(
+                "/page/client[.='localhost']",
+                "/page/links/link[@rel='home' and starts-with(@href,'http')]"
+            )
+        );
+    }
+
+    /**
+     * Make a page for the resource.
+     * @param res The resource
+     * @return The page
+     */
+    private static StagedInsetTest.Page page(final BaseResource res) {
+        res.setUriInfo(new UriInfoMocker().mock());
+        res.setHttpHeaders(new HttpHeadersMocker().mock());
+        res.setSecurityContext(Mockito.mock(SecurityContext.class));
+        return new StagedInsetTest.Page().init(res);
+    }
+
+    /**
+     * Slow independent inset.
+     */
+    @Inset.Independent(timeout = 5000L)
+    public static class SlowInset implements Inset.Fallback {
+        /**
+         * How long it takes to render, in milliseconds.
+         */
+        public static final long DELAY = 500L;
+        /**
+         * Text to render.
+         */
+        private final transient String text;
+        /**
+         * Public ctor.
+         * @param txt Text to render
+         */
+        public SlowInset(final String txt) {
+            this.text = txt;
+        }
+        @Override
+        public final void render(final BasePage<?, ?> page,
+            final Response.ResponseBuilder builder) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(StagedInsetTest.SlowInset.DELAY);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(ex);
+            }
+            page.append(new JaxbBundle("slow", this.text));
+            page.link(new Link(this.text, "/"));
+            builder.header("X-Slow", this.text);
+        }
+        @Override
+        public final void fallback(final BasePage<?, ?> page,
+            final Response.ResponseBuilder builder, final Throwable cause) {
+            page.append(new JaxbBundle("fallback"));
+        }
+    }
+
+    /**
+     * Too slow independent inset.
+     */
+    @Inset.Independent(timeout = 1L)
+    public static final class TooSlowInset
+        extends StagedInsetTest.SlowInset {
+        /**
+         * Public ctor.
+         */
+        public TooSlowInset() {
+            super("never");
+        }
+    }
+
+    /**
+     * Resource with two slow insets.
+     */
+    public static final class ParallelRs extends BaseResource {
+        /**
+         * First inset.
+         * @return Inset
+         */
+        @Inset.Runtime
+        public Inset first() {
+            return new StagedInsetTest.SlowInset("first");
+        }
+        /**
+         * Second inset.
+         * @return Inset
+         */
+        @Inset.Runtime
+        public Inset second() {
+            return new StagedInsetTest.SlowInset("second");
+        }
+    }
+
+    /**
+     * Independent inset, which uses request-scoped objects.
+     */
+    @Inset.Independent(timeout = 5000L)
+    public static final class ClientInset implements Inset {
+        /**
+         * The resource.
+         */
+        private final transient Resource resource;
+        /**
+         * Public ctor.
+         * @param res The resource
+         */
+        public ClientInset(final Resource res) {
+            this.resource = res;
+        }
+        @Override
+        public void render(final BasePage<?, ?> page,
+            final Response.ResponseBuilder builder) {
+            page.append(
+                new JaxbBundle(
+                    "client",
+                    this.resource.httpServletRequest().getRemoteAddr()
+                )
+            );
+            this.resource.httpHeaders().getCookies();
+            page.link(new Link("home", "/"));
+        }
+    }
+
+    /**
+     * Resource, which works only in the thread that created it, like
+     * request-scoped proxies of JAX-RS.
+     */
+    @Inset.Default(StagedInsetTest.ClientInset.class)
+    public static final class OwnedRs implements Resource {
+        /**
+         * The thread.
+         */
+        private final transient Thread owner = Thread.currentThread();
+        /**
+         * Original resource.
+         */
+        private final transient Resource origin;
+        /**
+         * Public ctor.
+         * @param res Original resource
+         */
+        public OwnedRs(final Resource res) {
+            this.origin = res;
+        }
+        @Override
+        public long started() {
+            return this.origin.started();
+        }
+        @Override
+        public UriInfo uriInfo() {
+            return this.owned().uriInfo();
+        }
+        @Override
+        public Providers providers() {
+            return this.origin.providers();
+        }
+        @Override
+        public HttpHeaders httpHeaders() {
+            return this.owned().httpHeaders();
+        }
+        @Override
+        public HttpServletRequest httpServletRequest() {
+            return this.owned().httpServletRequest();
+        }
+        @Override
+        public SecurityContext securityContext() {
+            return this.owned().securityContext();
+        }
+        @Override
+        public ServletContext servletContext() {
+            return this.origin.servletContext();
+        }
+        /**
+         * Get original resource, if called in the owning thread.
+         * @return The resource
+         */
+        private Resource owned() {
+            if (!Thread.currentThread().equals(this.owner)) {
+                throw new IllegalStateException("wrong thread");
+            }
+            return this.origin;
+        }
+    }
+
+    /**
+     * Resource with a too slow inset.
+     */
+    public static final class TimeoutRs extends BaseResource {
+        /**
+         * The inset.
+         * @return Inset
+         */
+        @Inset.Runtime
+        public Inset slow() {
+            return new StagedInsetTest.TooSlowInset();
+        }
+    }
+
+    /**
+     * Page for tests.
+     */
+    @XmlRootElement(name = "page")
+    public static final class Page
+        extends BasePage<StagedInsetTest.Page, Resource> {
+    }
+
+}
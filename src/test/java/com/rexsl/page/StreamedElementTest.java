@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.page;
+
+import com.jcabi.matchers.XhtmlMatchers;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.w3c.dom.Element;
+
+/**
+ * Test case for {@link StreamedElement}.
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ */
+public final class StreamedElementTest {
+
+    /**
+     * StreamedElement can behave like a normal DOM element.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void buildsDomOnDemand() throws Exception {
+        final Element element = StreamedElement.of(
+            new JaxbBundle("test").attr("a", "1").add("kid", "x").up()
+        );
+        MatcherAssert.assertThat(element.getTagName(), Matchers.equalTo("test"));
+        MatcherAssert.assertThat(
+            XhtmlMatchers.xhtml(element),
+            XhtmlMatchers.hasXPath("/test[@a='1' and kid='x']")
+        );
+    }
+
+    /**
+     * StreamedElement can find source of the element.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void findsSourceOfElement() throws Exception {
+        final JaxbBundle bundle = new JaxbBundle("source");
+        MatcherAssert.assertThat(
+            StreamedElement.source(StreamedElement.of(bundle)),
+            Matchers.<Streamable>equalTo(bundle)
+        );
+        MatcherAssert.assertThat(
+            StreamedElement.source(bundle.element()),
+            Matchers.nullValue()
+        );
+    }
+
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.page;
+
+import com.jcabi.matchers.JaxbConverter;
+import com.jcabi.matchers.XhtmlMatchers;
+import com.rexsl.page.mock.BasePageMocker;
+import com.rexsl.page.mock.ResourceMocker;
+import org.apache.commons.lang3.CharEncoding;
+import org.apache.commons.lang3.StringUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link XmlFragment}.
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ */
+public final class XmlFragmentTest {
+
+    /**
+     * XmlFragment can be appended to a page, many times.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void appendsToPages() throws Exception {
+        final XmlFragment fragment = new XmlFragment(
+            "<menu xmlns:x='urn:x'><item href='/'>home &amp; away</item><x:a/></menu>"
+                .getBytes(CharEncoding.UTF_8)
+        );
+        for (int idx = 0; idx < 2; ++idx) {
+            final BasePageMocker page = new BasePageMocker()
+                .init(new ResourceMocker().mock());
+            page.append(fragment);
+            MatcherAssert.assertThat(
+                JaxbConverter.the(page),
+                XhtmlMatchers.hasXPath(
+                    "/foo/menu/item[@href='/' and .='home & away']"
+                )
+            );
+            MatcherAssert.assertThat(
+                JaxbConverter.the(page),
+                XhtmlMatchers.hasXPath("/foo/menu/ns1:a", "urn:x")
+            );
+        }
+    }
+
+    /**
+     * XmlFragment can be made from a bundle.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void makesFromBundle() throws Exception {
+        MatcherAssert.assertThat(
+            XmlFragment.of(
+                new JaxbBundle("a").attr("b", "c").add("d", "e").up()
+            ),
+            Matchers.hasToString("<a b=\"c\"><d>e</d></a>")
+        );
+    }
+
+    /**
+     * XmlFragment can reject broken XML.
+     * @throws Exception If there is some problem inside
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsBrokenXml() throws Exception {
+        new XmlFragment("<broken>");
+    }
+
+    /**
+     * XmlFragment can reject XML with external entities.
+     * @throws Exception If there is some problem inside
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsExternalEntities() throws Exception {
+        new XmlFragment(
+            StringUtils.join(
+                "<!DOCTYPE a [<!ENTITY e SYSTEM 'file:///etc/passwd'>]>",
+                "<a>&e;</a>"
+            )
+        );
+    }
+
+}
@@ -41,6 +41,7 @@ import com.rexsl.page.auth.mock.IdentityMocker;
 import com.rexsl.page.mock.BasePageMocker;
 import com.rexsl.page.mock.ResourceMocker;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 import org.hamcrest.MatcherAssert;
@@ -55,6 +56,11 @@ import org.junit.Test;
  */
 public final class AuthInsetTest {
 
+    /**
+     * Name of HTTP header with cookies.
+     */
+    private static final String SET_COOKIE = "Set-Cookie";
+
     /**
      * AuthInset can be quiet when cookie is absent.
      * @throws Exception If there is some problem inside
@@ -101,6 +107,36 @@ public final class AuthInsetTest {
         );
     }
 
+    /**
+     * AuthInset can skip a fresh cookie and re-issue an old one.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void reissuesOnlyOldCookies() throws Exception {
+        final String key = "74^54\u20ac-fresh";
+        final String cookie = AuthInset.encrypt(
+            new IdentityMocker().mock(), key
+        );
+        final Resource resource = this.resource(cookie);
+        final Response fresh = Response.ok().build();
+        final Response.ResponseBuilder first = Response.ok();
+        new AuthInset(resource, key).render(
+            new BasePageMocker().init(resource), first
+        );
+        MatcherAssert.assertThat(
+            first.build().getMetadata().get(AuthInsetTest.SET_COOKIE),
+            Matchers.equalTo(fresh.getMetadata().get(AuthInsetTest.SET_COOKIE))
+        );
+        final Response.ResponseBuilder second = Response.ok();
+        new AuthInset(resource, key)
+            .refreshAfter(0L, TimeUnit.MILLISECONDS)
+            .render(new BasePageMocker().init(resource), second);
+        MatcherAssert.assertThat(
+            second.build().getMetadata().get(AuthInsetTest.SET_COOKIE),
+            Matchers.<Object>hasSize(1)
+        );
+    }
+
     /**
      * AuthInset can authenticate through provider.
      * @throws Exception If there is some problem inside
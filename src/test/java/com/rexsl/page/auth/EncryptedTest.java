@@ -67,6 +67,59 @@ public final class EncryptedTest {
         );
     }
 
+    /**
+     * Encrypted can encode any characters and reuse cookie values.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void encodesAnyCharactersOnce() throws Exception {
+        final String key = "secret-\u20ac";
+        final String name = "\u0000 \u00e9\u4e2d \ud83d\ude00 Jeff";
+        final Encrypted user = new Encrypted(
+            new Identity.Simple(
+                new URN("urn:test:1"), name, URI.create("http://x/\u00e9")
+            ),
+            key
+        );
+        final String cookie = user.cookie();
+        MatcherAssert.assertThat(user.cookie(), Matchers.equalTo(cookie));
+        MatcherAssert.assertThat(
+            cookie,
+            Matchers.not(Matchers.containsString("--"))
+        );
+        MatcherAssert.assertThat(
+            Encrypted.parse(cookie, key).name(),
+            Matchers.equalTo(name)
+        );
+        MatcherAssert.assertThat(
+            Encrypted.parse(cookie, key).photo(),
+            Matchers.equalTo(URI.create("http://x/\u00e9"))
+        );
+    }
+
+    /**
+     * Encrypted can keep time of issue in the cookie.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void keepsTimeOfIssue() throws Exception {
+        final long start = System.currentTimeMillis();
+        final String key = "time-key";
+        final String cookie = new Encrypted(
+            new Identity.Simple(
+                new URN("urn:test:2"), "Walter", URI.create("#")
+            ),
+            key
+        ).cookie();
+        MatcherAssert.assertThat(
+            Encrypted.parse(cookie, key).issued(),
+            Matchers.allOf(
+                Matchers.greaterThanOrEqualTo(start),
+                Matchers.lessThanOrEqualTo(System.currentTimeMillis())
+            )
+        );
+    }
+
     /**
      * Encrypted can throw on NULL.
      * @throws Exception If there is some problem inside
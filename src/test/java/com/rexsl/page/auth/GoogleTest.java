@@ -29,13 +29,19 @@
  */
 package com.rexsl.page.auth;
 
+import com.jcabi.urn.URN;
 import com.rexsl.mock.UriInfoMocker;
 import com.rexsl.page.Resource;
 import com.rexsl.page.mock.ResourceMocker;
+import java.io.IOException;
 import java.net.URI;
+import java.security.KeyPair;
+import java.util.concurrent.TimeUnit;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * Test case for {@link Google}.
@@ -44,6 +50,13 @@ import org.junit.Test;
  */
 public final class GoogleTest {
 
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifier (3 lines)
+     */
+    @Rule
+    public transient TemporaryFolder temp = new TemporaryFolder();
+
     /**
      * Google can be quiet when cookie is absent.
      * @throws Exception If there is some problem inside
@@ -78,4 +91,74 @@ public final class GoogleTest {
         );
     }
 
+    /**
+     * Google can take identity from a signed ID token.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void takesIdentityFromIdToken() throws Exception {
+        final KeyPair pair = JwksTest.pair();
+        final Google google = new Google(
+            new ResourceMocker().mock(), "app-1", "secret",
+            Transport.DEFAULT,
+            JwksTest.jwks(this.temp.newFile(), pair, "g1")
+        );
+        final Identity identity = google.verified(
+            JwksTest.sign(
+                pair, "g1",
+                String.format(
+                    // @checkstyle LineLength (1 line)
+                    "{\"iss\":\"accounts.google.com\",\"aud\":\"app-1\",\"sub\":\"1077\",\"name\":\"Jeff\",\"picture\":\"http://x/p.png\",\"exp\":%d}",
+                    TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis())
+                        + TimeUnit.HOURS.toSeconds(1L)
+                )
+            )
+        );
+        MatcherAssert.assertThat(
+            identity.urn(),
+            Matchers.equalTo(URN.create("urn:google:1077"))
+        );
+        MatcherAssert.assertThat(identity.name(), Matchers.equalTo("Jeff"));
+    }
+
+    /**
+     * Google can reject ID tokens issued for other applications.
+     * @throws Exception If there is some problem inside
+     */
+    @Test(expected = IOException.class)
+    public void rejectsIdTokenOfOtherApp() throws Exception {
+        final KeyPair pair = JwksTest.pair();
+        new Google(
+            new ResourceMocker().mock(), "app-2", "secret",
+            Transport.DEFAULT,
+            JwksTest.jwks(this.temp.newFile(), pair, "g2")
+        ).verified(
+            JwksTest.sign(
+                pair, "g2",
+                // @checkstyle LineLength (1 line)
+                "{\"iss\":\"accounts.google.com\",\"aud\":\"app-3\",\"sub\":\"1\",\"exp\":99999999999}"
+            )
+        );
+    }
+
+    /**
+     * Google can reject ID tokens without expiration time.
+     * @throws Exception If there is some problem inside
+     */
+    @Test(expected = IOException.class)
+    public void rejectsIdTokenWithoutExpiration() throws Exception {
+        final KeyPair pair = JwksTest.pair();
+        new Google(
+            new ResourceMocker().mock(), "app-4", "secret",
+            Transport.DEFAULT,
+            JwksTest.jwks(this.temp.newFile(), pair, "g4")
+        ).verified(
+            JwksTest.sign(
+                pair, "g4",
+                // @checkstyle LineLength (1 line)
+                "{\"iss\":\"accounts.google.com\",\"aud\":\"app-4\",\"sub\":\"1\"}"
+            )
+        );
+    }
+
 }
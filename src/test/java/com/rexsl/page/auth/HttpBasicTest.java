@@ -29,15 +29,22 @@
  */
 package com.rexsl.page.auth;
 
+import com.jcabi.aspects.Tv;
 import com.jcabi.urn.URN;
 import com.rexsl.mock.HttpHeadersMocker;
 import com.rexsl.page.Resource;
 import com.rexsl.page.mock.ResourceMocker;
+import java.io.IOException;
 import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.HttpHeaders;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.Test;
+import org.mockito.Mockito;
 
 /**
  * Test case for {@link HttpBasic}.
@@ -119,4 +126,125 @@ public final class HttpBasicTest {
         ).identity();
     }
 
+    /**
+     * HttpBasic can cache successful authentications.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void cachesAuthentications() throws Exception {
+        final Resource resource = new ResourceMocker().withHttpHeaders(
+            new HttpHeadersMocker().withHeader(
+                HttpHeaders.AUTHORIZATION,
+                "Basic dXJuJTNBdGVzdCUzQTU1NTpzZWNyZXQ="
+            ).mock()
+        ).mock();
+        final AtomicInteger checks = new AtomicInteger();
+        final HttpBasic.Vault vault = new HttpBasic.Vault() {
+            @Override
+            public Identity authenticate(final String user,
+                final String password) {
+                checks.incrementAndGet();
+                return new Identity.Simple(
+                    URN.create(user), password, URI.create("#")
+                );
+            }
+        };
+        final HttpBasic.Cache cache = new HttpBasic.Cache();
+        for (int idx = 0; idx < Tv.FIVE; ++idx) {
+            MatcherAssert.assertThat(
+                new HttpBasic(resource, vault, cache).identity().urn(),
+                Matchers.equalTo(new URN("urn:test:555"))
+            );
+        }
+        MatcherAssert.assertThat(checks.get(), Matchers.equalTo(1));
+    }
+
+    /**
+     * HttpBasic can limit concurrent password checks.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void limitsConcurrentChecks() throws Exception {
+        final Resource resource = new ResourceMocker().withHttpHeaders(
+            new HttpHeadersMocker().withHeader(
+                HttpHeaders.AUTHORIZATION, "Basic Og=="
+            ).mock()
+        ).mock();
+        try {
+            new HttpBasic(
+                resource,
+                HttpBasic.NEVER,
+                new HttpBasic.Cache(1L, TimeUnit.MINUTES, Tv.TEN, 0)
+            ).identity();
+            MatcherAssert.assertThat("exception expected", false);
+        } catch (final WebApplicationException ex) {
+            MatcherAssert.assertThat(
+                ex.getResponse().getStatus(),
+                // @checkstyle MagicNumber (1 line)
+                Matchers.equalTo(429)
+            );
+        }
+    }
+
+    /**
+     * HttpBasic can keep limits of addresses with checks in progress.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void keepsLimitsOfBusyAddresses() throws Exception {
+        final HttpBasic.Cache cache =
+            new HttpBasic.Cache(1L, TimeUnit.MINUTES, 1, 1);
+        final Resource first = HttpBasicTest.resource(
+            "10.0.0.1", "Basic dXJuJTNBdGVzdCUzQTE6YQ=="
+        );
+        final Resource second = HttpBasicTest.resource(
+            "10.0.0.2", "Basic dXJuJTNBdGVzdCUzQTI6Yg=="
+        );
+        final AtomicInteger status = new AtomicInteger();
+        final HttpBasic.Vault vault = new HttpBasic.Vault() {
+            @Override
+            public Identity authenticate(final String user,
+                final String password) {
+                if ("urn:test:1".equals(user) && status.get() == 0) {
+                    try {
+                        new HttpBasic(second, this, cache).identity();
+                        new HttpBasic(first, this, cache).identity();
+                    } catch (final WebApplicationException ex) {
+                        status.set(ex.getResponse().getStatus());
+                    } catch (final IOException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }
+                return Identity.ANONYMOUS;
+            }
+        };
+        new HttpBasic(first, vault, cache).identity();
+        MatcherAssert.assertThat(
+            status.get(),
+            // @checkstyle MagicNumber (1 line)
+            Matchers.equalTo(429)
+        );
+    }
+
+    /**
+     * Make a resource with a remote address and HTTP Basic header.
+     * @param address Remote address
+     * @param header Authorization header
+     * @return Resource
+     */
+    private static Resource resource(final String address,
+        final String header) {
+        final HttpServletRequest request =
+            Mockito.mock(HttpServletRequest.class);
+        Mockito.doReturn(address).when(request).getRemoteAddr();
+        return new ResourceMocker()
+            .withServletRequest(request)
+            .withHttpHeaders(
+                new HttpHeadersMocker().withHeader(
+                    HttpHeaders.AUTHORIZATION, header
+                ).mock()
+            )
+            .mock();
+    }
+
 }
@@ -0,0 +1,232 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.page.auth;
+
+import com.jcabi.aspects.Tv;
+import java.io.File;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.interfaces.RSAPublicKey;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.io.Charsets;
+import org.apache.commons.io.FileUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test case for {@link Jwks}.
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ */
+public final class JwksTest {
+
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifier (3 lines)
+     */
+    @Rule
+    public transient TemporaryFolder temp = new TemporaryFolder();
+
+    /**
+     * Jwks can verify signed token.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void verifiesSignedToken() throws Exception {
+        final KeyPair pair = JwksTest.pair();
+        final Jwks jwks = JwksTest.jwks(this.temp.newFile(), pair, "k1");
+        MatcherAssert.assertThat(
+            jwks.verify(
+                JwksTest.sign(pair, "k1", "{\"sub\":\"42\"}")
+            ).getString("sub"),
+            Matchers.equalTo("42")
+        );
+    }
+
+    /**
+     * Jwks can reject tokens with wrong signatures.
+     * @throws Exception If there is some problem inside
+     */
+    @Test(expected = IOException.class)
+    public void rejectsForgedToken() throws Exception {
+        final Jwks jwks = JwksTest.jwks(
+            this.temp.newFile(), JwksTest.pair(), "k2"
+        );
+        jwks.verify(JwksTest.sign(JwksTest.pair(), "k2", "{\"sub\":\"7\"}"));
+    }
+
+    /**
+     * Jwks can reject tokens signed by unknown keys.
+     * @throws Exception If there is some problem inside
+     */
+    @Test(expected = IOException.class)
+    public void rejectsUnknownKey() throws Exception {
+        final KeyPair pair = JwksTest.pair();
+        final Jwks jwks = JwksTest.jwks(this.temp.newFile(), pair, "k3");
+        jwks.verify(JwksTest.sign(pair, "k4", "{\"sub\":\"8\"}"));
+    }
+
+    /**
+     * Jwks can keep old keys when it fails to reload them.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void keepsKeysWhenReloadFails() throws Exception {
+        final KeyPair pair = JwksTest.pair();
+        final File file = this.temp.newFile();
+        JwksTest.jwks(file, pair, "k5");
+        final Jwks jwks = new Jwks(file.toURI(), Transport.DEFAULT, 0L);
+        final String jwt = JwksTest.sign(pair, "k5", "{\"sub\":\"9\"}");
+        jwks.verify(jwt);
+        FileUtils.forceDelete(file);
+        jwks.reload();
+        MatcherAssert.assertThat(
+            jwks.verify(jwt).getString("sub"),
+            Matchers.equalTo("9")
+        );
+        jwks.stop();
+    }
+
+    /**
+     * Jwks can reload keys in background, when a token is signed by
+     * an unknown key, without waiting for them.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void reloadsUnknownKeysInBackground() throws Exception {
+        final File file = this.temp.newFile();
+        final KeyPair old = JwksTest.pair();
+        JwksTest.jwks(file, old, "k6");
+        final Jwks jwks = new Jwks(file.toURI(), Transport.DEFAULT, 0L);
+        jwks.verify(JwksTest.sign(old, "k6", "{}"));
+        final KeyPair pair = JwksTest.pair();
+        JwksTest.jwks(file, pair, "k7");
+        final String jwt = JwksTest.sign(pair, "k7", "{\"sub\":\"10\"}");
+        try {
+            jwks.verify(jwt);
+            MatcherAssert.assertThat("exception expected", false);
+        } catch (final IOException ex) {
+            MatcherAssert.assertThat(
+                ex.getMessage(), Matchers.containsString("k7")
+            );
+        }
+        final long start = System.currentTimeMillis();
+        String sub = null;
+        while (sub == null) {
+            try {
+                sub = jwks.verify(jwt).getString("sub");
+            } catch (final IOException ex) {
+                MatcherAssert.assertThat(
+                    System.currentTimeMillis() - start,
+                    Matchers.lessThan(TimeUnit.SECONDS.toMillis(5L))
+                );
+                TimeUnit.MILLISECONDS.sleep(Tv.TEN);
+            }
+        }
+        MatcherAssert.assertThat(sub, Matchers.equalTo("10"));
+        jwks.stop();
+    }
+
+    /**
+     * Generate RSA key pair.
+     * @return The pair
+     * @throws GeneralSecurityException If fails
+     */
+    static KeyPair pair() throws GeneralSecurityException {
+        final KeyPairGenerator gen = KeyPairGenerator.getInstance("RSA");
+        gen.initialize(1024);
+        return gen.generateKeyPair();
+    }
+
+    /**
+     * Save public key of the pair into JWKS file and load it.
+     * @param file The file to save to
+     * @param pair The key pair
+     * @param kid ID of the key
+     * @return Keys
+     * @throws IOException If fails
+     */
+    static Jwks jwks(final File file, final KeyPair pair, final String kid)
+        throws IOException {
+        final RSAPublicKey key = (RSAPublicKey) pair.getPublic();
+        FileUtils.write(
+            file,
+            String.format(
+                // @checkstyle LineLength (1 line)
+                "{\"keys\":[{\"kty\":\"RSA\",\"kid\":\"%s\",\"n\":\"%s\",\"e\":\"%s\"}]}",
+                kid,
+                Base64.encodeBase64URLSafeString(
+                    key.getModulus().toByteArray()
+                ),
+                Base64.encodeBase64URLSafeString(
+                    key.getPublicExponent().toByteArray()
+                )
+            ),
+            Charsets.UTF_8
+        );
+        return new Jwks(
+            file.toURI(), Transport.DEFAULT, TimeUnit.HOURS.toMillis(1L)
+        );
+    }
+
+    /**
+     * Make signed token.
+     * @param pair The key pair to sign with
+     * @param kid ID of the key
+     * @param claims JSON with claims
+     * @return Token
+     * @throws GeneralSecurityException If fails
+     */
+    static String sign(final KeyPair pair, final String kid,
+        final String claims) throws GeneralSecurityException {
+        final String body = String.format(
+            "%s.%s",
+            Base64.encodeBase64URLSafeString(
+                String.format("{\"alg\":\"RS256\",\"kid\":\"%s\"}", kid)
+                    .getBytes(Charsets.UTF_8)
+            ),
+            Base64.encodeBase64URLSafeString(claims.getBytes(Charsets.UTF_8))
+        );
+        final Signature sig = Signature.getInstance("SHA256withRSA");
+        sig.initSign(pair.getPrivate());
+        sig.update(body.getBytes(Charsets.US_ASCII));
+        return String.format(
+            "%s.%s", body, Base64.encodeBase64URLSafeString(sig.sign())
+        );
+    }
+
+}
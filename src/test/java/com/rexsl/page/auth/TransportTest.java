@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2011-2015, ReXSL.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the ReXSL.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rexsl.page.auth;
+
+import com.jcabi.http.Request;
+import com.jcabi.http.response.RestResponse;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.Charsets;
+import org.apache.commons.io.IOUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Transport}.
+ * @author Yegor Bugayenko (yegor@tpc2.com)
+ * @version $Id$
+ */
+public final class TransportTest {
+
+    /**
+     * Transport can fetch pages and collect statistics.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void fetchesAndCollectsStats() throws Exception {
+        final HttpServer server = TransportTest.server(0L);
+        try {
+            final URI home = TransportTest.home(server);
+            final Transport transport = new Transport(
+                TimeUnit.SECONDS.toMillis(1L), TimeUnit.SECONDS.toMillis(1L), 2
+            );
+            MatcherAssert.assertThat(
+                transport.request(home).fetch()
+                    .as(RestResponse.class)
+                    .assertStatus(HttpURLConnection.HTTP_OK)
+                    .body(),
+                Matchers.equalTo("GET:")
+            );
+            MatcherAssert.assertThat(
+                transport.request(home)
+                    .method(Request.POST)
+                    .body().set("hello").back()
+                    .fetch().body(),
+                Matchers.equalTo("POST:hello")
+            );
+            final Transport.Stats stats = transport.stats()
+                .get(home.getHost());
+            MatcherAssert.assertThat(stats.calls(), Matchers.equalTo(2L));
+            MatcherAssert.assertThat(stats.errors(), Matchers.equalTo(0L));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Transport can give up on slow hosts.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void timesOutOnSlowHost() throws Exception {
+        final HttpServer server = TransportTest.server(
+            TimeUnit.SECONDS.toMillis(2L)
+        );
+        try {
+            final URI home = TransportTest.home(server);
+            final Transport transport = new Transport(
+                TimeUnit.SECONDS.toMillis(1L), 100L, 1
+            );
+            final long start = System.currentTimeMillis();
+            try {
+                transport.request(home).fetch();
+                MatcherAssert.assertThat("timeout expected", false);
+            } catch (final IOException ex) {
+                MatcherAssert.assertThat(
+                    System.currentTimeMillis() - start,
+                    Matchers.lessThan(TimeUnit.SECONDS.toMillis(2L))
+                );
+            }
+            MatcherAssert.assertThat(
+                transport.stats().get(home.getHost()).errors(),
+                Matchers.equalTo(1L)
+            );
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Start HTTP server, which echoes method and body.
+     * @param delay How long to wait before answering, in milliseconds
+     * @return The server
+     * @throws IOException If fails
+     */
+    private static HttpServer server(final long delay) throws IOException {
+        final HttpServer server = HttpServer.create(
+            new InetSocketAddress("127.0.0.1", 0), 0
+        );
+        server.createContext(
+            "/",
+            new HttpHandler() {
+                @Override
+                public void handle(final HttpExchange exchange)
+                    throws IOException {
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(delay);
+                    } catch (final InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    final byte[] body = String.format(
+                        "%s:%s",
+                        exchange.getRequestMethod(),
+                        IOUtils.toString(
+                            exchange.getRequestBody(), Charsets.UTF_8
+                        )
+                    ).getBytes(Charsets.UTF_8);
+                    exchange.sendResponseHeaders(
+                        HttpURLConnection.HTTP_OK, body.length
+                    );
+                    final OutputStream output = exchange.getResponseBody();
+                    output.write(body);
+                    output.close();
+                }
+            }
+        );
+        server.start();
+        return server;
+    }
+
+    /**
+     * Home URI of the server.
+     * @param server The server
+     * @return URI
+     */
+    private static URI home(final HttpServer server) {
+        return URI.create(
+            String.format(
+                "http://127.0.0.1:%d/",
+                server.getAddress().getPort()
+            )
+        );
+    }
+
+}
@@ -66,4 +66,24 @@ public final class VersionInsetTest {
         );
     }
 
+    /**
+     * VersionInset can render different versions, one after another.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void rendersDifferentVersions() throws Exception {
+        final String[] versions = {"1.0", "2.0", "1.0"};
+        for (final String ver : versions) {
+            final BasePage<?, ?> page = new BasePageMocker()
+                .init(new ResourceMocker().mock());
+            new VersionInset(ver, "abc", "today").render(page, Response.ok());
+            MatcherAssert.assertThat(
+                JaxbConverter.the(page),
+                XhtmlMatchers.hasXPath(
+                    String.format("/*/version[name='%s']", ver)
+                )
+            );
+        }
+    }
+
 }